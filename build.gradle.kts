@@ -10,6 +10,29 @@ plugins {
 group = "com.generalk1ng.kookie"
 version = "0.1.9"
 
+// JMH基准测试，源码位于 src/jmh/java
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath +
+            sourceSets.main.get().runtimeClasspath
+}
+
+// 第三方接口的模拟服务器，源码位于 src/mock/java，录制的响应位于 src/mock/resources/fixtures
+val mock: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath +
+            sourceSets.main.get().runtimeClasspath
+}
+
+// 端到端压测，源码位于 src/loadtest/java，与基准测试共用聊天语料，第三方接口由模拟服务器提供
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath +
+            mock.output + mock.compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath +
+            sourceSets.main.get().runtimeClasspath + mock.output + mock.runtimeClasspath
+    resources.srcDir("src/jmh/resources")
+}
+
 repositories {
     if (System.getenv("CI")?.toBoolean() != true) {
         maven("https://maven.aliyun.com/repository/public") // 阿里云国内代理仓库
@@ -52,4 +75,88 @@ dependencies {
     implementation("org.jcodec:jcodec-javase:0.2.5")
 
     implementation("com.github.houbb:sensitive-word:0.19.2")
+
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+
+    "mockImplementation"("com.squareup.okhttp3:mockwebserver:4.12.0")
+}
+
+// 运行全部基准测试：./gradlew jmh
+// 只运行部分基准测试：./gradlew jmh -PjmhInclude=CacheManager
+// 结果以JSON格式写入 build/reports/jmh/results.json，便于在版本之间对比
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes the results as JSON."
+    dependsOn(jmh.classesTaskName)
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    // 基准测试按相对路径 ./kookies 读写数据，单独使用一个工作目录，不影响本地的配置和缓存
+    val benchmarkDir = layout.buildDirectory.dir("jmh-work").get().asFile
+
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    workingDir = benchmarkDir
+    args("-rf", "json", "-rff", resultFile.absolutePath)
+    (project.findProperty("jmhInclude") as String?)?.let { args(it) }
+
+    doFirst {
+        benchmarkDir.mkdirs()
+        resultFile.parentFile.mkdirs()
+    }
+}
+
+// 启动第三方接口的模拟服务器：./gradlew mockServer
+// 注入延迟和故障：./gradlew mockServer -PmockServer.latency=200 -PmockServer.errorRate=0.1 -PmockServer.faults=BAIDU_CHAT:TIMEOUT
+// 可用参数见 MockApiServer，启动后在配置文件的 apiOverrideConfig.baseUrl 中填入打印的地址
+tasks.register<JavaExec>("mockServer") {
+    group = "application"
+    description = "Runs a local stand-in for every third-party API the plugin calls."
+    dependsOn(mock.classesTaskName)
+
+    classpath = mock.runtimeClasspath
+    mainClass.set("org.kookies.mirai.mock.MockApiServer")
+    project.properties
+        .filterKeys { it.startsWith("mockServer.") }
+        .forEach { (key, value) -> args("${key.removePrefix("mockServer.")}=$value") }
+}
+
+// 将文本格式的词频文件转换为二进制格式：./gradlew convertWordMaps -PwordMaps=<词频文件>.txt
+// 多个文件用逗号分隔，转换结果写在原文件旁边
+tasks.register<JavaExec>("convertWordMaps") {
+    group = "application"
+    description = "Converts text word-count files to the binary word map format."
+    dependsOn(sourceSets.main.get().classesTaskName)
+
+    classpath = sourceSets.main.get().runtimeClasspath + sourceSets.main.get().compileClasspath
+    mainClass.set("org.kookies.mirai.commen.utils.WordMapConverter")
+    (project.findProperty("wordMaps") as String?)?.let { args(it.split(",")) }
+}
+
+// 运行端到端压测：./gradlew loadTest
+// 调整参数：./gradlew loadTest -PloadTest.rate=100 -PloadTest.duration=120 -PloadTest.mix=chat:90,今日词云:10
+// 可用参数见 LoadTestOptions，报告以JSON格式写入 build/reports/loadtest/result.json
+tasks.register<JavaExec>("loadTest") {
+    group = "benchmark"
+    description = "Replays synthetic group traffic against mocked APIs and reports throughput and latency."
+    dependsOn(loadtest.classesTaskName)
+
+    val reportFile = layout.buildDirectory.file("reports/loadtest/result.json").get().asFile
+    // 压测会覆盖 ./kookies 下的配置，单独使用一个工作目录
+    val loadTestDir = layout.buildDirectory.dir("loadtest-work").get().asFile
+
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("org.kookies.mirai.loadtest.LoadTest")
+    workingDir = loadTestDir
+    project.properties
+        .filterKeys { it.startsWith("loadTest.") }
+        .forEach { (key, value) -> args("${key.removePrefix("loadTest.")}=$value") }
+    args("report=${reportFile.absolutePath}")
+
+    doFirst {
+        loadTestDir.mkdirs()
+        reportFile.parentFile.mkdirs()
+    }
 }
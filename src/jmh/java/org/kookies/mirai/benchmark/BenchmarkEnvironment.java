@@ -0,0 +1,136 @@
+package org.kookies.mirai.benchmark;
+
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.utils.FileManager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试的运行环境。
+ * <p>
+ * 插件按相对路径 ./kookies 读写配置和数据，jmh 任务会把工作目录设置为 build/jmh-work，
+ * 这里按配置模板生成配置文件，并提供聊天语料和数据目录的快照与还原。
+ *
+ * @author General_K1ng
+ */
+public class BenchmarkEnvironment {
+    // 配置模板中已启用的群
+    public static final long GROUP_ID = 666666L;
+
+    // 配置模板中的黑名单用户
+    public static final long BLACKLISTED_USER = 11111111L;
+
+    // 基准测试中发送者QQ号的起始值
+    public static final long SENDER_BASE = 10000L;
+
+    private static final String CORPUS_PATH = "/benchmark/chatCorpus.txt";
+
+    /**
+     * 按配置模板生成配置文件，每次运行都覆盖，保证所有基准测试使用相同的配置。
+     *
+     * @throws IOException 如果读取模板或写入配置文件失败。
+     */
+    public static void prepare() throws IOException {
+        File config = new File(DataPathInfo.CONFIG_PATH);
+        config.getParentFile().mkdirs();
+        FileManager.write(config.getPath(), FileManager.readTemplateFile(DataPathInfo.CONFIG_TEMPLATE_PATH));
+    }
+
+    /**
+     * 读取聊天语料，每行一条消息。
+     *
+     * @return 聊天消息列表。
+     * @throws IOException 如果读取语料失败。
+     */
+    public static List<String> loadCorpus() throws IOException {
+        List<String> corpus = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(BenchmarkEnvironment.class.getResourceAsStream(CORPUS_PATH)),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    corpus.add(line.trim());
+                }
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * 将语料拼接为指定条数的聊天记录，不足时循环使用。
+     *
+     * @param corpus 聊天语料。
+     * @param messages 消息条数。
+     * @return 以换行分隔的聊天记录。
+     */
+    public static String joinCorpus(List<String> corpus, int messages) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < messages; i++) {
+            sb.append(corpus.get(i % corpus.size())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 递归删除目录。
+     *
+     * @param dir 要删除的目录，不存在时直接返回。
+     * @throws IOException 如果删除失败。
+     */
+    public static void deleteRecursively(File dir) throws IOException {
+        if (!dir.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * 将目录下所有文件的内容读入内存。
+     *
+     * @param dir 目录。
+     * @return 文件路径到文件内容的映射。
+     * @throws IOException 如果读取失败。
+     */
+    public static Map<Path, byte[]> snapshot(File dir) throws IOException {
+        Map<Path, byte[]> files = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(path, Files.readAllBytes(path));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 将目录还原为快照时的内容，快照之后新建的文件会被删除。
+     *
+     * @param dir 目录。
+     * @param files snapshot 返回的快照。
+     * @throws IOException 如果写入失败。
+     */
+    public static void restore(File dir, Map<Path, byte[]> files) throws IOException {
+        deleteRecursively(dir);
+        for (Map.Entry<Path, byte[]> entry : files.entrySet()) {
+            Files.createDirectories(entry.getKey().getParent());
+            Files.write(entry.getKey(), entry.getValue());
+        }
+    }
+}
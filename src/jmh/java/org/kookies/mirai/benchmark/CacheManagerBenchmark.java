@@ -0,0 +1,122 @@
+package org.kookies.mirai.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.utils.CacheManager;
+import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.pojo.entity.PersonalMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheManager.setCache 的基准测试。
+ * <p>
+ * 每个发送者预先写入 historyDays 天、每天 messagesPerDay 条的历史消息，
+ * 每轮迭代开始前把缓存目录还原为初始状态，避免历史随着测试不断增长。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheManagerBenchmark {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
+
+    private static final int SENDERS = 10;
+
+    @Param({"1", "7"})
+    private int historyDays;
+
+    @Param({"20", "200"})
+    private int messagesPerDay;
+
+    private final File messageCacheDir = new File(DataPathInfo.MESSAGE_CACHE_DIR_PATH);
+
+    private List<String> corpus;
+
+    private Map<Path, byte[]> seeded;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkEnvironment.prepare();
+        corpus = BenchmarkEnvironment.loadCorpus();
+        BenchmarkEnvironment.deleteRecursively(messageCacheDir);
+
+        // 先发送一条消息，由 CacheManager 创建群目录和当天的词频文件
+        for (int i = 0; i < SENDERS; i++) {
+            CacheManager.setCache(BenchmarkEnvironment.SENDER_BASE + i, BenchmarkEnvironment.GROUP_ID, corpus.get(i));
+        }
+
+        // 再用生成的历史消息覆盖每个发送者的消息文件
+        File groupDir = Objects.requireNonNull(messageCacheDir.listFiles(File::isDirectory))[0];
+        File msgDir = new File(groupDir, DataPathInfo.PERSONAL_MSG_DIR);
+        for (int i = 0; i < SENDERS; i++) {
+            File senderFile = new File(msgDir, (BenchmarkEnvironment.SENDER_BASE + i) + ".json");
+            FileManager.write(senderFile.getPath(), GSON.toJson(generateHistory(i)));
+        }
+
+        seeded = BenchmarkEnvironment.snapshot(messageCacheDir);
+    }
+
+    @Setup(Level.Iteration)
+    public void restore() throws Exception {
+        BenchmarkEnvironment.restore(messageCacheDir, seeded);
+    }
+
+    @Benchmark
+    public void setCache() {
+        int i = index++;
+        CacheManager.setCache(BenchmarkEnvironment.SENDER_BASE + i % SENDERS, BenchmarkEnvironment.GROUP_ID,
+                corpus.get(i % corpus.size()));
+    }
+
+    /**
+     * 生成一个发送者的历史消息，最后一天是今天。
+     *
+     * @param sender 发送者序号，用于错开不同发送者的语料。
+     * @return 按日期排列的历史消息。
+     */
+    private List<PersonalMessage> generateHistory(int sender) {
+        List<PersonalMessage> history = new ArrayList<>(historyDays);
+        LocalDate today = LocalDate.now();
+        for (int day = historyDays - 1; day >= 0; day--) {
+            List<String> messages = new ArrayList<>(messagesPerDay);
+            for (int i = 0; i < messagesPerDay; i++) {
+                messages.add(corpus.get((sender + day + i) % corpus.size()));
+            }
+            history.add(PersonalMessage.builder()
+                    .date(today.minusDays(day))
+                    .messages(messages)
+                    .build());
+        }
+        return history;
+    }
+}
@@ -0,0 +1,151 @@
+package org.kookies.mirai.benchmark;
+
+import org.kookies.mirai.commen.constant.ImagePipelineConstant;
+import org.kookies.mirai.commen.utils.ImagePipeline;
+import org.kookies.mirai.pojo.entity.ImagePipelineConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片转码流水线 ImagePipeline 的基准测试。
+ * <p>
+ * 分别对一张大尺寸的不透明JPEG和一张带透明通道的PNG测量：
+ * <ul>
+ *     <li>passThrough：图片满足限制，只读取文件头中的尺寸后原样返回；</li>
+ *     <li>downscale：超出尺寸上限，子采样解码、缩小并重新编码（JPEG输出为JPEG，带透明通道的输出为PNG）；</li>
+ *     <li>fullDecodeDownscale：作为对照，完整解码后再缩小并重新编码，即引入子采样解码之前的做法。</li>
+ * </ul>
+ * 图片在初始化时生成，由渐变和随机噪点组成，接近照片的压缩率。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImagePipelineBenchmark {
+    // 子采样倍数为最长边除以尺寸上限后取整，默认上限2048下需要最长边不小于4096才会按2倍子采样
+    private static final int WIDTH = 6000;
+
+    private static final int HEIGHT = 4500;
+
+    @Param({ImagePipelineConstant.FORMAT_JPEG, ImagePipelineConstant.FORMAT_PNG})
+    private String format;
+
+    private byte[] data;
+
+    private ImagePipelineConfig passThroughConfig;
+
+    private ImagePipelineConfig downscaleConfig;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        boolean alpha = ImagePipelineConstant.FORMAT_PNG.equals(format);
+        BufferedImage image = generateImage(alpha);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        data = output.toByteArray();
+
+        // 上限不小于原图时原样返回
+        passThroughConfig = new ImagePipelineConfig();
+        passThroughConfig.setMaxDimension(Math.max(WIDTH, HEIGHT));
+        passThroughConfig.setMaxBytes((long) data.length);
+
+        // 使用默认的尺寸上限和JPEG质量
+        downscaleConfig = new ImagePipelineConfig();
+    }
+
+    @Benchmark
+    public byte[] passThrough() throws IOException {
+        return ImagePipeline.transcode(data, passThroughConfig);
+    }
+
+    @Benchmark
+    public byte[] downscale() throws IOException {
+        return ImagePipeline.transcode(data, downscaleConfig);
+    }
+
+    @Benchmark
+    public byte[] fullDecodeDownscale() throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        double scale = (double) ImagePipelineConstant.DEFAULT_MAX_DIMENSION / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = (int) Math.round(image.getWidth() * scale);
+        int targetHeight = (int) Math.round(image.getHeight() * scale);
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(scaled, alpha ? ImagePipelineConstant.FORMAT_PNG : ImagePipelineConstant.FORMAT_JPEG, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 生成由渐变、色块和随机噪点组成的图片，带透明通道时左上到右下的透明度逐渐变化。
+     *
+     * @param alpha 是否带透明通道。
+     * @return 生成的图片。
+     */
+    private static BufferedImage generateImage(boolean alpha) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 120, 200, alpha ? 40 : 255),
+                WIDTH, HEIGHT, new Color(240, 180, 60, 255)));
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                    alpha ? random.nextInt(256) : 255));
+            graphics.fillOval(random.nextInt(WIDTH), random.nextInt(HEIGHT), 50 + random.nextInt(400), 50 + random.nextInt(400));
+        }
+        graphics.dispose();
+
+        // 噪点让压缩率接近照片
+        for (int y = 0; y < HEIGHT; y += 2) {
+            for (int x = 0; x < WIDTH; x += 2) {
+                int argb = image.getRGB(x, y);
+                int noise = random.nextInt(32) - 16;
+                int r = clamp(((argb >> 16) & 0xFF) + noise);
+                int g = clamp(((argb >> 8) & 0xFF) + noise);
+                int b = clamp((argb & 0xFF) + noise);
+                image.setRGB(x, y, (argb & 0xFF000000) | (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,50 @@
+package org.kookies.mirai.benchmark;
+
+import org.kookies.mirai.commen.exceptions.AuthException;
+import org.kookies.mirai.plugin.auth.Permission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission.checkPermission 的基准测试，分别测量通过和被拒绝两种情况。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionBenchmark {
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkEnvironment.prepare();
+    }
+
+    @Benchmark
+    public boolean allowed() {
+        return Permission.checkPermission(BenchmarkEnvironment.SENDER_BASE, BenchmarkEnvironment.GROUP_ID);
+    }
+
+    @Benchmark
+    public boolean blacklisted() {
+        try {
+            return Permission.checkPermission(BenchmarkEnvironment.BLACKLISTED_USER, BenchmarkEnvironment.GROUP_ID);
+        } catch (AuthException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.kookies.mirai.benchmark;
+
+import org.kookies.mirai.commen.utils.TextAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextAnalyzer.countWords 的基准测试。
+ * <p>
+ * messages 为 1 时对应每条群消息入库时的分词，较大的值对应按天或按周汇总聊天记录。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextAnalyzerBenchmark {
+    @Param({"1", "100", "1000"})
+    private int messages;
+
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkEnvironment.prepare();
+        text = BenchmarkEnvironment.joinCorpus(BenchmarkEnvironment.loadCorpus(), messages);
+        // 分词词典在第一次分词时加载，不计入测试时间
+        TextAnalyzer.countWords(text);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countWords() {
+        return TextAnalyzer.countWords(text);
+    }
+}
@@ -0,0 +1,68 @@
+package org.kookies.mirai.benchmark;
+
+import com.kennycason.kumo.WordCloud;
+import com.kennycason.kumo.WordFrequency;
+import org.kookies.mirai.commen.utils.TextAnalyzer;
+import org.kookies.mirai.commen.utils.WordCloudRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 词云渲染的基准测试，尺寸和样式与群聊词云功能相同（WordCloudConstant）。
+ * <p>
+ * 单次渲染耗时在秒级，使用单次调用模式，每次调用都重新布局。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WordCloudBenchmark {
+    @Param({"100", "300"})
+    private int words;
+
+    private List<WordFrequency> wordFrequencies;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        BenchmarkEnvironment.prepare();
+        List<String> corpus = BenchmarkEnvironment.loadCorpus();
+        Map<String, Integer> wordCount = TextAnalyzer.filtrateStopWords(
+                TextAnalyzer.countWords(BenchmarkEnvironment.joinCorpus(corpus, corpus.size() * 5)));
+
+        // 按词频从高到低取前 words 个词，不足时补充低频的编号词；与写入词频文件时一样跳过空白词
+        wordFrequencies = new ArrayList<>(words);
+        wordCount.entrySet().stream()
+                .filter(entry -> !entry.getKey().trim().isEmpty())
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(words)
+                .forEach(entry -> wordFrequencies.add(new WordFrequency(entry.getKey(), entry.getValue())));
+        for (int i = 0; wordFrequencies.size() < words; i++) {
+            wordFrequencies.add(new WordFrequency("词语" + i, 1));
+        }
+    }
+
+    @Benchmark
+    public WordCloud render() {
+        return WordCloudRenderer.render(wordFrequencies);
+    }
+}
@@ -0,0 +1,102 @@
+package org.kookies.mirai.benchmark;
+
+import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.commen.utils.TextAnalyzer;
+import org.kookies.mirai.commen.utils.WordMapFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileManager.readWordMap、FileManager.writeWordMap2Txt 与二进制词频文件 WordMapFile 的基准测试。
+ * <p>
+ * 词频表由语料分词得到，词数不足 words 时补充编号词，接近一个活跃群一天到一周的词频文件大小。
+ *
+ * @author General_K1ng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordMapBenchmark {
+    @Param({"500", "5000"})
+    private int words;
+
+    private final File readFile = new File("./kookies/data/benchmark/wordMapRead.txt");
+
+    private final File writeFile = new File("./kookies/data/benchmark/wordMapWrite.txt");
+
+    private final File binaryReadFile = new File("./kookies/data/benchmark/wordMapRead.kwm");
+
+    private final File binaryWriteFile = new File("./kookies/data/benchmark/wordMapWrite.kwm");
+
+    private Map<String, Integer> wordMap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkEnvironment.prepare();
+        List<String> corpus = BenchmarkEnvironment.loadCorpus();
+        wordMap = new HashMap<>(TextAnalyzer.countWords(BenchmarkEnvironment.joinCorpus(corpus, corpus.size())));
+        for (int i = 0; wordMap.size() < words; i++) {
+            wordMap.put("词语" + i, i % 50 + 1);
+        }
+
+        readFile.getParentFile().mkdirs();
+        FileManager.writeWordMap2Txt(readFile.getPath(), wordMap);
+        WordMapFile.write(binaryReadFile, wordMap);
+    }
+
+    @Benchmark
+    public Map<String, Integer> readWordMap() throws IOException {
+        return FileManager.readWordMap(readFile.getPath());
+    }
+
+    @Benchmark
+    public void writeWordMap() throws IOException {
+        FileManager.writeWordMap2Txt(writeFile.getPath(), wordMap);
+    }
+
+    @Benchmark
+    public void writeBinaryWordMap() throws IOException {
+        WordMapFile.write(binaryWriteFile, wordMap);
+    }
+
+    @Benchmark
+    public long scanBinaryWordMap() throws IOException {
+        WordMapFile.Cursor cursor = WordMapFile.open(binaryReadFile);
+        long total = 0;
+        while (cursor.next()) {
+            total += cursor.getCount();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Map<String, Integer> topKTextWordMap() throws IOException {
+        return WordMapFile.topK(WordMapFile.of(FileManager.readWordMap(readFile.getPath())), 100, Collections.emptySet());
+    }
+
+    @Benchmark
+    public Map<String, Integer> topKBinaryWordMap() throws IOException {
+        return WordMapFile.topK(WordMapFile.open(binaryReadFile), 100, Collections.emptySet());
+    }
+}
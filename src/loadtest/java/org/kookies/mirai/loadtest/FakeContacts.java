@@ -0,0 +1,258 @@
+package org.kookies.mirai.loadtest;
+
+import net.mamoe.mirai.Bot;
+import net.mamoe.mirai.contact.ContactList;
+import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.contact.MemberPermission;
+import net.mamoe.mirai.contact.NormalMember;
+import net.mamoe.mirai.event.events.GroupMessageEvent;
+import net.mamoe.mirai.message.data.At;
+import net.mamoe.mirai.message.data.MessageChain;
+import net.mamoe.mirai.message.data.MessageChainBuilder;
+import net.mamoe.mirai.message.data.OnlineMessageSource;
+import net.mamoe.mirai.message.data.PlainText;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 压测使用的假联系人。
+ * <p>
+ * 用动态代理实现 mirai 的 Bot、Group 和 NormalMember 接口，只回答消息处理中用到的方法，
+ * 发送消息和上传资源只计数不做任何网络操作，其余方法返回默认值。
+ * 由此构造的 GroupMessageEvent 可以不登录QQ、不启动 mirai-console 直接交给群消息处理器。
+ *
+ * @author General_K1ng
+ */
+public class FakeContacts {
+    private static final long BOT_ID = 10000L;
+
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+
+    static {
+        PRIMITIVE_DEFAULTS.put(boolean.class, false);
+        PRIMITIVE_DEFAULTS.put(byte.class, (byte) 0);
+        PRIMITIVE_DEFAULTS.put(short.class, (short) 0);
+        PRIMITIVE_DEFAULTS.put(char.class, '\0');
+        PRIMITIVE_DEFAULTS.put(int.class, 0);
+        PRIMITIVE_DEFAULTS.put(long.class, 0L);
+        PRIMITIVE_DEFAULTS.put(float.class, 0f);
+        PRIMITIVE_DEFAULTS.put(double.class, 0d);
+    }
+
+    private final Bot bot;
+
+    private final Map<Long, List<NormalMember>> members = new HashMap<>();
+
+    private final AtomicInteger messageIds = new AtomicInteger();
+
+    private final LongAdder sentMessages = new LongAdder();
+
+    private final LongAdder uploads = new LongAdder();
+
+    /**
+     * 创建指定数量的群，每个群有相同数量的成员。
+     *
+     * @param groupIds 群号列表。
+     * @param usersPerGroup 每个群的成员数。
+     * @param userIdBase 成员QQ号的起始值。
+     */
+    public FakeContacts(List<Long> groupIds, int usersPerGroup, long userIdBase) {
+        Map<String, Function<Object[], Object>> botAnswers = new HashMap<>();
+        botAnswers.put("getId", args -> BOT_ID);
+        botAnswers.put("getNick", args -> "Kookie");
+        botAnswers.put("isOnline", args -> true);
+        bot = proxy(Bot.class, "Bot(" + BOT_ID + ")", botAnswers);
+
+        long userId = userIdBase;
+        for (long groupId : groupIds) {
+            List<NormalMember> groupMembers = new ArrayList<>(usersPerGroup);
+            Group group = createGroup(groupId, groupMembers);
+            for (int i = 0; i < usersPerGroup; i++) {
+                groupMembers.add(createMember(userId++, group));
+            }
+            members.put(groupId, groupMembers);
+        }
+    }
+
+    /**
+     * 构造一条群消息事件。
+     *
+     * @param groupId 群号。
+     * @param memberIndex 发送者在群成员中的序号。
+     * @param content 消息文本。
+     * @param atTarget 消息末尾at的成员QQ号，为null时不at任何人。
+     * @return 群消息事件。
+     */
+    public GroupMessageEvent newEvent(long groupId, int memberIndex, String content, Long atTarget) {
+        NormalMember sender = members.get(groupId).get(memberIndex);
+        int messageId = messageIds.incrementAndGet();
+        int time = (int) (System.currentTimeMillis() / 1000);
+
+        // 消息链中必须有消息源，事件构造时会从中读取发送者和时间
+        MessageChain[] original = new MessageChain[1];
+        OnlineMessageSource.Incoming.FromGroup source = new OnlineMessageSource.Incoming.FromGroup() {
+            @Override
+            public NormalMember getSender() {
+                return sender;
+            }
+
+            @Override
+            public Bot getBot() {
+                return bot;
+            }
+
+            @Override
+            public int[] getIds() {
+                return new int[]{messageId};
+            }
+
+            @Override
+            public int[] getInternalIds() {
+                return new int[]{messageId};
+            }
+
+            @Override
+            public int getTime() {
+                return time;
+            }
+
+            @Override
+            public MessageChain getOriginalMessage() {
+                return original[0];
+            }
+
+            @Override
+            public boolean isOriginalMessageInitialized() {
+                return true;
+            }
+        };
+
+        MessageChainBuilder builder = new MessageChainBuilder();
+        builder.append(source);
+        builder.append(new PlainText(content));
+        if (atTarget != null) {
+            builder.append(new At(atTarget));
+        }
+        MessageChain chain = builder.build();
+        original[0] = chain;
+        return new GroupMessageEvent(sender.getNameCard(), MemberPermission.MEMBER, sender, chain, time);
+    }
+
+    /**
+     * 获取群成员的QQ号。
+     *
+     * @param groupId 群号。
+     * @param memberIndex 成员序号。
+     * @return 成员QQ号。
+     */
+    public long getMemberId(long groupId, int memberIndex) {
+        return members.get(groupId).get(memberIndex).getId();
+    }
+
+    public long getSentMessages() {
+        return sentMessages.sum();
+    }
+
+    public long getUploads() {
+        return uploads.sum();
+    }
+
+    private Group createGroup(long groupId, List<NormalMember> groupMembers) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getId", args -> groupId);
+        answers.put("getName", args -> "压测群" + groupId);
+        answers.put("getBot", args -> bot);
+        answers.put("getMembers", args -> new ContactList<>(groupMembers));
+        answers.put("get", args -> findMember(groupMembers, (Long) args[0]));
+        answers.put("getOrFail", args -> findMember(groupMembers, (Long) args[0]));
+        answers.put("contains", args -> args[0] instanceof Long && findMember(groupMembers, (Long) args[0]) != null);
+        answers.put("sendMessage", args -> {
+            sentMessages.increment();
+            return null;
+        });
+        return proxy(Group.class, "Group(" + groupId + ")", answers);
+    }
+
+    private NormalMember createMember(long userId, Group group) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getId", args -> userId);
+        answers.put("getNick", args -> "用户" + userId);
+        answers.put("getNameCard", args -> "群名片" + userId);
+        answers.put("getSpecialTitle", args -> "");
+        answers.put("getGroup", args -> group);
+        answers.put("getBot", args -> bot);
+        answers.put("getPermission", args -> MemberPermission.MEMBER);
+        answers.put("sendMessage", args -> {
+            sentMessages.increment();
+            return null;
+        });
+        return proxy(NormalMember.class, "Member(" + userId + ")", answers);
+    }
+
+    private static NormalMember findMember(List<NormalMember> groupMembers, long userId) {
+        for (NormalMember member : groupMembers) {
+            if (member.getId() == userId) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建接口的动态代理。
+     * <p>
+     * 有应答的方法按应答返回；上传资源的方法返回同样由代理实现的资源对象；
+     * 其余方法返回基本类型的默认值，返回接口类型时返回一个什么都不做的代理。
+     *
+     * @param type 接口类型。
+     * @param name toString 返回的名称。
+     * @param answers 方法名到应答的映射。
+     * @return 代理对象。
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, String name, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(FakeContacts.class.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) {
+                        return answer.apply(args);
+                    }
+                    switch (method.getName()) {
+                        case "equals":
+                            return self == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "toString":
+                            return name;
+                        default:
+                            if (method.getName().startsWith("upload")) {
+                                uploads.increment();
+                            }
+                            return defaultValue(method, name);
+                    }
+                });
+    }
+
+    private Object defaultValue(Method method, String name) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isPrimitive()) {
+            return PRIMITIVE_DEFAULTS.get(returnType);
+        }
+        if (returnType == String.class) {
+            return "";
+        }
+        // mirai 的资源和消息类型大多是接口，返回一个同样什么都不做的代理
+        if (returnType.isInterface() && returnType.getName().startsWith("net.mamoe.mirai")) {
+            return proxy(returnType, name + "." + method.getName(), new HashMap<>());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,441 @@
+package org.kookies.mirai.loadtest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.mamoe.mirai.event.events.GroupMessageEvent;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.commen.utils.ImageReservoir;
+import org.kookies.mirai.mock.MockApiDispatcher;
+import org.kookies.mirai.mock.MockApiServer;
+import org.kookies.mirai.mock.MockFault;
+import org.kookies.mirai.plugin.GroupMessageHandler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 端到端压测。
+ * <p>
+ * 用假的群、成员和消息事件按固定速率驱动完整的群消息处理流程，
+ * 所有第三方接口都被改写到本地带延迟的模拟服务，最后输出吞吐量、各指令的p50/p99延迟、
+ * 堆内存和GC情况，并以JSON格式写入报告文件。
+ * <p>
+ * 消息按开环方式发送：调度线程按计划时间提交消息，不等待上一条处理完，
+ * 延迟从计划发送时间开始计算，处理线程不足时排队的时间也会计入延迟。
+ * <p>
+ * 插件按相对路径 ./kookies 读写配置和数据，压测会覆盖其中的配置，需要在单独的工作目录中运行。
+ *
+ * @author General_K1ng
+ */
+public class LoadTest {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // 压测群号的起始值
+    private static final long GROUP_ID_BASE = 100001L;
+
+    // 压测成员QQ号的起始值
+    private static final long USER_ID_BASE = 2000000L;
+
+    // 标记数据目录由压测创建，只有带标记的目录才会在启动时清空
+    private static final String MARKER = ".loadtest";
+
+    private static final String CORPUS_PATH = "/benchmark/chatCorpus.txt";
+
+    // 延迟直方图的上限，一分钟（微秒）
+    private static final long HISTOGRAM_MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestOptions options;
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final AtomicLong maxHeapUsed = new AtomicLong();
+
+    private List<String> corpus;
+
+    private List<Long> groupIds;
+
+    public LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        // 插件中的调度线程和连接池线程不是守护线程，压测结束或失败后直接退出
+        try {
+            new LoadTest(options).run();
+        } catch (Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 执行一次完整的压测并输出报告。
+     *
+     * @throws Exception 如果准备环境或写入报告失败。
+     */
+    public void run() throws Exception {
+        // 1. 准备压测群和语料
+        groupIds = new ArrayList<>(options.getGroups());
+        for (int i = 0; i < options.getGroups(); i++) {
+            groupIds.add(GROUP_ID_BASE + i);
+        }
+        corpus = loadCorpus();
+
+        // 2. 启动模拟服务，配置文件中的 apiOverrideConfig 把所有第三方接口改写到模拟服务
+        MockApiServer server = new MockApiServer();
+        MockApiDispatcher dispatcher = server.getDispatcher();
+        dispatcher.setLatency(options.getLatencyMillis(), options.getJitterMillis());
+        dispatcher.setErrorRate(options.getErrorRate(), MockFault.SERVER_ERROR, MockFault.UNAVAILABLE, MockFault.TIMEOUT);
+        server.start("127.0.0.1", 0);
+        prepareDataDir(server.getBaseUrl());
+
+        try {
+            ConfigurationLoader.init();
+        } catch (RuntimeException e) {
+            // 配置文件已经生成，字体等附加资源安装失败只影响词云的字体，不影响压测
+            System.out.println("Plugin init incomplete: " + e);
+        }
+        ImageReservoir.start();
+
+        FakeContacts contacts = new FakeContacts(groupIds, options.getUsers(), USER_ID_BASE);
+        GroupMessageHandler handler = new GroupMessageHandler();
+        List<Map.Entry<String, Integer>> mix = new ArrayList<>(options.getMix().entrySet());
+        int totalWeight = mix.stream().mapToInt(Map.Entry::getValue).sum();
+
+        // 3. 按固定速率发送消息，预热阶段的消息不计入统计
+        ExecutorService workers = Executors.newFixedThreadPool(options.getWorkers());
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        sampler.scheduleAtFixedRate(() -> maxHeapUsed.accumulateAndGet(
+                memory.getHeapMemoryUsage().getUsed(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+        // 预热结束时重新记录堆内存和GC的起点
+        long[][] gcBefore = {gcTotals()};
+        sampler.schedule(() -> {
+            maxHeapUsed.set(memory.getHeapMemoryUsage().getUsed());
+            gcBefore[0] = gcTotals();
+        }, options.getWarmupSeconds(), TimeUnit.SECONDS);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long startNanos = System.nanoTime();
+        long measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        AtomicLong sequence = new AtomicLong();
+
+        System.out.printf("Load test: %d msg/s, %d groups x %d users, warmup %ds, duration %ds, mock latency %d+%dms%n",
+                options.getRate(), options.getGroups(), options.getUsers(), options.getWarmupSeconds(),
+                options.getDurationSeconds(), options.getLatencyMillis(), options.getJitterMillis());
+
+        scheduler.scheduleAtFixedRate(() -> {
+            // 调度线程被延迟时按计划时间补发，保持开环
+            long now = System.nanoTime();
+            while (true) {
+                long intendedNanos = startNanos + sequence.get() * intervalNanos;
+                if (intendedNanos > now || intendedNanos >= endNanos) {
+                    break;
+                }
+                long seq = sequence.getAndIncrement();
+                boolean measured = intendedNanos >= measureStartNanos;
+                String command = pickCommand(mix, totalWeight);
+                GroupMessageEvent event = newEvent(contacts, command, seq);
+                workers.execute(() -> handle(handler, event, command, intendedNanos, measured));
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        // 4. 等待发送结束，再等待已提交的消息处理完
+        long sleepMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - System.nanoTime());
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        long sentNanos = System.nanoTime();
+        workers.shutdown();
+        if (!workers.awaitTermination(2, TimeUnit.MINUTES)) {
+            System.out.println("Workers did not finish within 2 minutes, the report is incomplete");
+        }
+        long finishNanos = System.nanoTime();
+        sampler.shutdown();
+        long[] gcAfter = gcTotals();
+
+        // 5. 输出报告
+        JsonObject report = buildReport(finishNanos - measureStartNanos, sentNanos - measureStartNanos,
+                new long[]{gcAfter[0] - gcBefore[0][0], gcAfter[1] - gcBefore[0][1]},
+                contacts, dispatcher);
+        printReport(report);
+        File reportFile = new File(options.getReport());
+        if (reportFile.getAbsoluteFile().getParentFile() != null) {
+            reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        FileManager.write(reportFile.getPath(), GSON.toJson(report));
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+
+        server.close();
+    }
+
+    /**
+     * 处理一条消息并记录延迟，异常按类型计数。
+     */
+    private void handle(GroupMessageHandler handler, GroupMessageEvent event, String command,
+                        long intendedNanos, boolean measured) {
+        String outcome = null;
+        try {
+            handler.handle(event);
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+        }
+        if (!measured) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+        latencies.computeIfAbsent(command, k -> new ConcurrentHistogram(HISTOGRAM_MAX_MICROS, 3))
+                .recordValue(Math.min(micros, HISTOGRAM_MAX_MICROS));
+        completed.increment();
+        if (outcome != null) {
+            errors.computeIfAbsent(command + ":" + outcome, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * 按权重随机选择一种消息。
+     */
+    private static String pickCommand(List<Map.Entry<String, Integer>> mix, int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        return mix.get(mix.size() - 1).getKey();
+    }
+
+    /**
+     * 按消息类型构造消息事件，群和发送者按序号轮换。
+     */
+    private GroupMessageEvent newEvent(FakeContacts contacts, String command, long seq) {
+        long groupId = groupIds.get((int) (seq % groupIds.size()));
+        int memberIndex = (int) ((seq / groupIds.size()) % options.getUsers());
+        switch (command) {
+            case "chat":
+                return contacts.newEvent(groupId, memberIndex, corpus.get((int) (seq % corpus.size())), null);
+            case "代码运行":
+                return contacts.newEvent(groupId, memberIndex, "代码运行 py3 print('hello')", null);
+            case "评价一下":
+                // 需要at另一个成员的指令
+                long target = contacts.getMemberId(groupId, (memberIndex + 1) % options.getUsers());
+                return contacts.newEvent(groupId, memberIndex, command + " ", target);
+            case "说一下":
+                return contacts.newEvent(groupId, memberIndex, "说一下 " + corpus.get((int) (seq % corpus.size())), null);
+            default:
+                return contacts.newEvent(groupId, memberIndex, command, null);
+        }
+    }
+
+    /**
+     * @return 所有垃圾收集器的累计次数和累计耗时（毫秒）。
+     */
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+            time += Math.max(gc.getCollectionTime(), 0);
+        }
+        return new long[]{count, time};
+    }
+
+    private JsonObject buildReport(long elapsedNanos, long sendNanos, long[] gc,
+                                   FakeContacts contacts, MockApiDispatcher dispatcher) {
+        JsonObject report = new JsonObject();
+        report.add("options", GSON.toJsonTree(optionsSummary()));
+
+        double elapsedSeconds = elapsedNanos / 1e9;
+        report.addProperty("measuredMessages", completed.sum());
+        report.addProperty("measuredSeconds", round(elapsedSeconds));
+        report.addProperty("sendSeconds", round(sendNanos / 1e9));
+        report.addProperty("throughput", round(completed.sum() / elapsedSeconds));
+        report.addProperty("repliesSent", contacts.getSentMessages());
+        report.addProperty("uploads", contacts.getUploads());
+        report.addProperty("mockRequests", dispatcher.getRequestCount());
+        report.addProperty("mockInjectedFaults", dispatcher.getInjectedFaults());
+
+        // 全部消息和各类消息的延迟分布（毫秒）
+        Histogram total = new Histogram(HISTOGRAM_MAX_MICROS, 3);
+        JsonObject commands = new JsonObject();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            total.add(entry.getValue());
+            commands.add(entry.getKey(), summarize(entry.getValue()));
+        }
+        report.add("latency", summarize(total));
+        report.add("commands", commands);
+
+        JsonObject errorCounts = new JsonObject();
+        errors.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> errorCounts.addProperty(entry.getKey(), entry.getValue().sum()));
+        report.add("errors", errorCounts);
+
+        JsonObject heap = new JsonObject();
+        heap.addProperty("maxUsedMb", round(maxHeapUsed.get() / 1024.0 / 1024.0));
+        heap.addProperty("committedMb", round(ManagementFactory.getMemoryMXBean()
+                .getHeapMemoryUsage().getCommitted() / 1024.0 / 1024.0));
+        heap.addProperty("gcCount", gc[0]);
+        heap.addProperty("gcMillis", gc[1]);
+        report.add("heap", heap);
+        return report;
+    }
+
+    private Map<String, Object> optionsSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("rate", options.getRate());
+        summary.put("groups", options.getGroups());
+        summary.put("users", options.getUsers());
+        summary.put("warmupSeconds", options.getWarmupSeconds());
+        summary.put("durationSeconds", options.getDurationSeconds());
+        summary.put("workers", options.getWorkers());
+        summary.put("latencyMillis", options.getLatencyMillis());
+        summary.put("jitterMillis", options.getJitterMillis());
+        summary.put("errorRate", options.getErrorRate());
+        summary.put("mix", options.getMix());
+        return summary;
+    }
+
+    private static JsonObject summarize(Histogram histogram) {
+        JsonObject summary = new JsonObject();
+        summary.addProperty("count", histogram.getTotalCount());
+        summary.addProperty("p50", round(histogram.getValueAtPercentile(50) / 1000.0));
+        summary.addProperty("p90", round(histogram.getValueAtPercentile(90) / 1000.0));
+        summary.addProperty("p99", round(histogram.getValueAtPercentile(99) / 1000.0));
+        summary.addProperty("max", round(histogram.getMaxValue() / 1000.0));
+        return summary;
+    }
+
+    private static void printReport(JsonObject report) {
+        System.out.println();
+        System.out.printf("Messages: %d in %.1fs, throughput %.1f msg/s%n",
+                report.get("measuredMessages").getAsLong(), report.get("measuredSeconds").getAsDouble(),
+                report.get("throughput").getAsDouble());
+        System.out.printf("Replies: %d, uploads: %d, mock requests: %d%n",
+                report.get("repliesSent").getAsLong(), report.get("uploads").getAsLong(),
+                report.get("mockRequests").getAsLong());
+        System.out.printf("%-12s %8s %10s %10s %10s %10s%n", "command", "count", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        printLatency("all", report.getAsJsonObject("latency"));
+        report.getAsJsonObject("commands").entrySet()
+                .forEach(entry -> printLatency(entry.getKey(), entry.getValue().getAsJsonObject()));
+        JsonObject heap = report.getAsJsonObject("heap");
+        System.out.printf("Heap: max used %.1f MB, committed %.1f MB, GC %d times / %d ms%n",
+                heap.get("maxUsedMb").getAsDouble(), heap.get("committedMb").getAsDouble(),
+                heap.get("gcCount").getAsLong(), heap.get("gcMillis").getAsLong());
+        report.getAsJsonObject("errors").entrySet()
+                .forEach(entry -> System.out.printf("Error %s: %d%n", entry.getKey(), entry.getValue().getAsLong()));
+    }
+
+    private static void printLatency(String name, JsonObject summary) {
+        System.out.printf("%-12s %8d %10.2f %10.2f %10.2f %10.2f%n", name,
+                summary.get("count").getAsLong(), summary.get("p50").getAsDouble(),
+                summary.get("p90").getAsDouble(), summary.get("p99").getAsDouble(),
+                summary.get("max").getAsDouble());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 准备数据目录并按模板生成配置文件，启用的群替换为压测群，第三方接口和语音接口都指向模拟服务。
+     * <p>
+     * 已存在且不是压测创建的数据目录不会被清空，避免误删本地的真实数据。
+     *
+     * @param mockBaseUrl 模拟服务的地址。
+     * @throws IOException 如果读写文件失败。
+     */
+    private void prepareDataDir(String mockBaseUrl) throws IOException {
+        File config = new File(DataPathInfo.CONFIG_PATH);
+        File dataDir = config.getParentFile();
+        if (dataDir.exists()) {
+            if (!new File(dataDir, MARKER).exists()) {
+                throw new IllegalStateException(dataDir.getAbsolutePath()
+                        + " was not created by the load test, run it from an empty working directory");
+            }
+            deleteRecursively(dataDir);
+        }
+        dataDir.mkdirs();
+        Files.createFile(new File(dataDir, MARKER).toPath());
+
+        JsonObject json = JsonParser.parseString(FileManager.readTemplateFile(DataPathInfo.CONFIG_TEMPLATE_PATH))
+                .getAsJsonObject();
+        JsonArray groups = new JsonArray();
+        for (long groupId : groupIds) {
+            JsonObject group = new JsonObject();
+            group.addProperty("id", groupId);
+            JsonArray tags = new JsonArray();
+            tags.add("loadtest");
+            group.add("tag", tags);
+            group.addProperty("longturn", false);
+            groups.add(group);
+        }
+        json.add("enableGroupList", groups);
+        json.getAsJsonObject("botInfo").getAsJsonObject("voiceApiConfig").addProperty("apiUrl", "http://tts.mock/tts");
+        JsonObject apiOverride = new JsonObject();
+        apiOverride.addProperty("baseUrl", mockBaseUrl);
+        json.add("apiOverrideConfig", apiOverride);
+        FileManager.write(config.getPath(), GSON.toJson(json));
+    }
+
+    private static List<String> loadCorpus() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(LoadTest.class.getResourceAsStream(CORPUS_PATH)), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteRecursively(File dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+}
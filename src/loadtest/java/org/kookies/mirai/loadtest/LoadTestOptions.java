@@ -0,0 +1,171 @@
+package org.kookies.mirai.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，以 key=value 的形式通过命令行传入，未指定的参数使用默认值。
+ * <ul>
+ *     <li>rate：每秒发送的消息数，默认50；</li>
+ *     <li>groups：群的数量，默认5；</li>
+ *     <li>users：每个群的成员数，默认20；</li>
+ *     <li>warmup：预热秒数，预热期间的消息不计入统计，默认10；</li>
+ *     <li>duration：统计秒数，默认60；</li>
+ *     <li>workers：处理消息的线程数，默认64；</li>
+ *     <li>latency：模拟接口的固定延迟（毫秒），默认150；</li>
+ *     <li>jitter：模拟接口的随机延迟上限（毫秒），默认100；</li>
+ *     <li>errorRate：模拟接口随机返回错误或超时的概率，默认0；</li>
+ *     <li>mix：消息构成，格式为“指令:权重,...”，chat 表示普通聊天消息；</li>
+ *     <li>report：JSON报告的输出路径，默认 loadtest-report.json。</li>
+ * </ul>
+ *
+ * @author General_K1ng
+ */
+public class LoadTestOptions {
+    // 默认的消息构成，词云等重量级指令需要时通过 mix 参数加入
+    private static final String DEFAULT_MIX = "chat:85,答案之书:3,今日运势:3,地狱笑话:3,今日老婆:2,代码运行:2,评价一下:2";
+
+    private int rate = 50;
+
+    private int groups = 5;
+
+    private int users = 20;
+
+    private int warmupSeconds = 10;
+
+    private int durationSeconds = 60;
+
+    private int workers = 64;
+
+    private long latencyMillis = 150;
+
+    private long jitterMillis = 100;
+
+    private double errorRate;
+
+    private Map<String, Integer> mix = parseMix(DEFAULT_MIX);
+
+    private String report = "loadtest-report.json";
+
+    /**
+     * 解析命令行参数。
+     *
+     * @param args key=value 形式的参数。
+     * @return 压测参数。
+     * @throws IllegalArgumentException 如果参数格式错误或参数名未知。
+     */
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, index).trim();
+            String value = arg.substring(index + 1).trim();
+            switch (key) {
+                case "rate":
+                    options.rate = Integer.parseInt(value);
+                    break;
+                case "groups":
+                    options.groups = Integer.parseInt(value);
+                    break;
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "workers":
+                    options.workers = Integer.parseInt(value);
+                    break;
+                case "latency":
+                    options.latencyMillis = Long.parseLong(value);
+                    break;
+                case "jitter":
+                    options.jitterMillis = Long.parseLong(value);
+                    break;
+                case "errorRate":
+                    options.errorRate = Double.parseDouble(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "report":
+                    options.report = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (options.rate <= 0 || options.groups <= 0 || options.users < 2 || options.workers <= 0) {
+            throw new IllegalArgumentException("rate, groups and workers must be positive and users at least 2");
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            int index = entry.lastIndexOf(':');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Expected command:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(entry.substring(index + 1).trim());
+            if (weight > 0) {
+                mix.put(entry.substring(0, index).trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Message mix is empty");
+        }
+        return mix;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    public String getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,38 @@
+package org.kookies.mirai.commen.annotation;
+
+import org.kookies.mirai.commen.enumeration.CommandMatchType;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记群指令的处理方法。
+ * <p>
+ * 被标记的方法必须是public的，并且只有一个 CommandContext 参数，
+ * 通过 CommandRouter.register 注册所在的对象后即可收到对应的指令。
+ *
+ * @author General_K1ng
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Command {
+    /**
+     * 指令文本，对应 FunctionInfo 中的常量。
+     */
+    String value();
+
+    /**
+     * 指令的匹配方式。
+     */
+    CommandMatchType match() default CommandMatchType.WORD;
+
+    /**
+     * 执行前需要通过的限流规则，不填表示不限流。
+     */
+    RateLimitCommand[] rateLimit() default {};
+}
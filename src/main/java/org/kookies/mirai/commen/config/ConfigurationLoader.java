@@ -14,6 +14,7 @@ import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.info.DataPathInfo;
 import org.kookies.mirai.commen.utils.FileManager;
 import org.kookies.mirai.pojo.dto.PoiDTO;
+import org.kookies.mirai.pojo.entity.Config;
 
 
 import java.awt.*;
@@ -44,6 +45,10 @@ public class ConfigurationLoader {
     private static final DataFormatter DATA_FORMATTER = new DataFormatter();
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // 最近一次解析的配置，配置文件没有变化时直接复用
+    private static volatile CachedConfig cachedConfig;
+
     /**
      * 对外开放的方法
      * 用于加载配置文件
@@ -70,6 +75,33 @@ public class ConfigurationLoader {
         }
     }
 
+    /**
+     * 读取并解析配置文件，返回Config对象。
+     * <p>
+     * 解析结果按配置文件的修改时间和大小缓存，文件没有变化时直接返回上一次的结果，
+     * 修改配置文件后下一次调用即可读到新的配置。返回的对象在多个调用方之间共享，不能修改。
+     *
+     * @return Config 解析后的配置对象。
+     * @throws DataLoadException 如果读取配置文件失败，则抛出此异常。
+     */
+    public static Config getConfig() {
+        long lastModified = CONFIG.lastModified();
+        long length = CONFIG.length();
+        CachedConfig cached = cachedConfig;
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.config;
+        }
+
+        try {
+            JsonObject jsonObject = FileManager.readJsonFile(CONFIG.getPath());
+            Config config = GSON.fromJson(jsonObject, Config.class);
+            cachedConfig = new CachedConfig(lastModified, length, config);
+            return config;
+        } catch (IOException e) {
+            throw new DataLoadException(MsgConstant.CONFIG_LOAD_ERROR);
+        }
+    }
+
     /**
      * 用于更新配置文件
      */
@@ -245,5 +277,17 @@ public class ConfigurationLoader {
         }
     }
 
+    private static class CachedConfig {
+        private final long lastModified;
 
+        private final long length;
+
+        private final Config config;
+
+        private CachedConfig(long lastModified, long length, Config config) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.config = config;
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class AudioConstant {
+    public static final String ENCODER_SILK = "silk";
+
+    public static final String ENCODER_FFMPEG = "ffmpeg";
+
+    public static final String DEFAULT_ENCODER = ENCODER_SILK;
+
+    public static final int DEFAULT_SAMPLE_RATE = 24000;
+
+    public static final boolean DEFAULT_FFMPEG_FALLBACK = false;
+
+    public static final String DEFAULT_FFMPEG_PATH = "ffmpeg";
+
+    public static final int DEFAULT_FFMPEG_TIMEOUT_SECONDS = 30;
+
+    public static final int AMR_SAMPLE_RATE = 8000;
+
+    public static final String AMR_BIT_RATE = "12.2k";
+
+    // AMR文件头
+    public static final String AMR_MAGIC = "#!AMR";
+
+    public static final short WAVE_FORMAT_PCM = 1;
+
+    public static final short WAVE_FORMAT_IEEE_FLOAT = 3;
+
+    public static final short WAVE_FORMAT_EXTENSIBLE = (short) 0xFFFE;
+}
@@ -0,0 +1,24 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class ImagePipelineConstant {
+    public static final int DEFAULT_MAX_DIMENSION = 2048;
+
+    public static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+
+    public static final float DEFAULT_JPEG_QUALITY = 0.85f;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+
+    public static final String WORKER_THREAD_NAME = "kookie-image-pipeline-";
+
+    public static final String FORMAT_JPEG = "jpeg";
+
+    public static final String FORMAT_PNG = "png";
+
+    public static final String FORMAT_GIF = "gif";
+
+    public static final String FORMAT_UNKNOWN = "unknown";
+}
@@ -0,0 +1,18 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class ImageReservoirConstant {
+    public static final int DEFAULT_CAPACITY = 4;
+
+    public static final int DEFAULT_LOW_WATER_MARK = 2;
+
+    public static final int DEFAULT_REFILL_THREADS = 2;
+
+    public static final String REFILL_THREAD_NAME = "kookie-image-refill-";
+
+    public static final String DEFAULT_DAILY_REFRESH_TIME = "08:00";
+
+    public static final int DEFAULT_DAILY_RECHECK_MINUTES = 30;
+}
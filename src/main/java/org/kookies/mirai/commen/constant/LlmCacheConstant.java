@@ -0,0 +1,25 @@
+package org.kookies.mirai.commen.constant;
+
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author General_K1ng
+ */
+public class LlmCacheConstant {
+    public static final boolean DEFAULT_ENABLE = true;
+
+    public static final long DEFAULT_TTL_MINUTES = 60 * 24;
+
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 256;
+
+    // 未配置时默认启用缓存的功能，这些功能的提示词只由共享数据决定
+    public static final List<String> DEFAULT_FEATURES = Arrays.asList(
+            LlmFeatureType.WORD_STATISTICS.getFeature(),
+            LlmFeatureType.CODE_RUN.getFeature()
+    );
+
+    public static final String CACHE_FILE_EXT = ".json";
+}
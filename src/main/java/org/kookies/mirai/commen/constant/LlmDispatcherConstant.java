@@ -0,0 +1,20 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class LlmDispatcherConstant {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    public static final double DEFAULT_QPS = 2.0;
+
+    public static final int DEFAULT_BURST = 4;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    public static final long DEFAULT_INTERACTIVE_DEADLINE_SECONDS = 60;
+
+    public static final long DEFAULT_BACKGROUND_DEADLINE_SECONDS = 180;
+
+    public static final String WORKER_THREAD_NAME = "kookie-llm-dispatcher-";
+}
@@ -0,0 +1,22 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class MessageArchiveConstant {
+    // 已经结束的日期的个人消息归档，与 <QQ号>.json 放在同一目录，如 msg/123456.msgz
+    public static final String ARCHIVE_FILE_EXT = ".msgz";
+
+    // 归档文件的魔数 "KMSG"
+    public static final int MAGIC = 0x4B4D5347;
+
+    public static final short VERSION = 1;
+
+    // 魔数、版本号和保留字段
+    public static final int FILE_HEADER_LENGTH = 8;
+
+    // 日期、消息数和压缩后的长度
+    public static final int RECORD_HEADER_LENGTH = 12;
+
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+}
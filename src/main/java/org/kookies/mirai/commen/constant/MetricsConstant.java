@@ -0,0 +1,75 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class MetricsConstant {
+    // 直方图保留的有效数字位数
+    public static final int HISTOGRAM_DIGITS = 3;
+
+    // 导出的分位数
+    public static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    public static final String DEFAULT_HOST = "127.0.0.1";
+
+    public static final int DEFAULT_PORT = 9464;
+
+    public static final String METRICS_PATH = "/metrics";
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public static final String SERVER_THREAD_NAME = "kookie-metrics";
+
+    // 状态指令最多展示的指令和主机数
+    public static final int STATUS_TOP_N = 8;
+
+    public static final String COMMAND_SECONDS = "kookie_command_seconds";
+
+    public static final String COMMAND_ERRORS = "kookie_command_errors_total";
+
+    public static final String HTTP_REQUEST_SECONDS = "kookie_http_request_seconds";
+
+    public static final String HTTP_REQUEST_ERRORS = "kookie_http_request_errors_total";
+
+    public static final String INGEST_SECONDS = "kookie_ingest_seconds";
+
+    public static final String SEGMENTATION_SECONDS = "kookie_segmentation_seconds";
+
+    public static final String WORD_CLOUD_RENDER_SECONDS = "kookie_word_cloud_render_seconds";
+
+    public static final String CACHE_REQUESTS = "kookie_cache_requests_total";
+
+    public static final String CACHE_HIT = "hit";
+
+    public static final String CACHE_MISS = "miss";
+
+    public static final String ADMISSION_MESSAGES = "kookie_admission_messages_total";
+
+    public static final String RATE_LIMIT_BUCKETS = "kookie_rate_limit_buckets";
+
+    public static final String RATE_LIMIT_REJECTED = "kookie_rate_limit_rejected_total";
+
+    public static final String LLM_QUEUE_DEPTH = "kookie_llm_queue_depth";
+
+    public static final String LLM_IN_FLIGHT = "kookie_llm_in_flight";
+
+    public static final String LLM_REJECTED = "kookie_llm_rejected_total";
+
+    public static final String LLM_SHED = "kookie_llm_shed_total";
+
+    public static final String HTTP_POOL_RUNNING_CALLS = "kookie_http_pool_running_calls";
+
+    public static final String HTTP_POOL_CONNECTIONS = "kookie_http_pool_connections";
+
+    public static final String CIRCUIT_STATE = "kookie_circuit_state";
+
+    public static final String VOICE_CACHE_ENTRIES = "kookie_voice_cache_entries";
+
+    public static final String VOICE_CACHE_BYTES = "kookie_voice_cache_bytes";
+
+    public static final String VOICE_CACHE_HIT_RATIO = "kookie_voice_cache_hit_ratio";
+
+    public static final String TTS_BACKEND_OUTSTANDING = "kookie_tts_backend_outstanding";
+
+    public static final String TTS_BACKEND_FAILURES = "kookie_tts_backend_failures_total";
+}
@@ -8,6 +8,8 @@ public class MsgConstant {
 
     public static final String CONFIG_UPDATE_ERROR = "配置文件更新失败";
 
+    public static final String API_OVERRIDE_URL_ERROR = "第三方接口改写地址格式错误";
+
     public static final String ANSWER_BOOK_LOAD_ERROR = "答案书加载失败";
 
     public static final String USER_IN_BLACK_LIST = "用户在黑名单中";
@@ -52,6 +54,12 @@ public class MsgConstant {
 
     public static final String SCHEDULER_EXCEPTION = "定时任务异常";
 
+    public static final String IMAGE_RESERVOIR_START_ERROR = "图片预取启动失败";
+
+    public static final String METRICS_BIND_ERROR = "指标登记失败";
+
+    public static final String METRICS_SERVER_START_ERROR = "指标导出服务启动失败";
+
     public static final String WORD_MAP_LOAD_ERROR = "词频统计加载失败";
 
     public static final String WORD_MAP_WRITE_ERROR = "词频统计写入失败";
@@ -78,7 +86,21 @@ public class MsgConstant {
 
     public static final String WEEK_WORD_COUNT_WRITE_ERROR = "本周词频统计写入失败";
 
-    public static final String WEEK_WORD_COUNT_ISNT_HAS_SEVEN_DAYS = "本周词频统计没有七天数据";
+    public static final String WORD_COUNT_EMPTY = "这段时间还没有词频统计数据";
+
+    public static final String MONTH_WORD_COUNT_LOAD_ERROR = "本月词频统计加载失败";
+
+    public static final String MONTH_WORD_COUNT_WRITE_ERROR = "本月词频统计写入失败";
+
+    public static final String YEAR_WORD_COUNT_LOAD_ERROR = "年度词频统计加载失败";
+
+    public static final String YEAR_WORD_COUNT_WRITE_ERROR = "年度词频统计写入失败";
+
+    public static final String WORD_COUNT_ROLLUP_ERROR = "词频汇总失败";
+
+    public static final String MESSAGE_ARCHIVE_LOAD_ERROR = "历史消息读取失败";
+
+    public static final String MESSAGE_ARCHIVE_WRITE_ERROR = "历史消息归档失败";
 
     public static final String TEMP_THUMB_DELETE_ERROR = "临时缩略图删除失败";
 
@@ -87,4 +109,20 @@ public class MsgConstant {
     public static final String FUCK_SOMEBODY_REQUEST_ERROR = "攻击某人获取失败";
 
     public static final String RANDOM_EMOJI_REQUEST_ERROR = " 随机表情图获取失败";
+
+    public static final String LLM_QUEUE_FULL = "找我聊天的人太多啦，稍后再试试吧";
+
+    public static final String LLM_DEADLINE_EXCEEDED = "排队太久啦，这次就先算了，稍后再试试吧";
+
+    public static final String CIRCUIT_OPEN = "这个功能依赖的服务暂时不可用，稍后再试试吧";
+
+    public static final String BULKHEAD_FULL = "这个功能现在太忙啦，稍后再试试吧";
+
+    public static final String RESOURCE_UPLOAD_ERROR = "资源上传失败";
+
+    public static final String USER_RATE_LIMITED = "用得太快啦，歇一会儿再来吧";
+
+    public static final String GROUP_RATE_LIMITED = "群里用这个功能的人太多啦，稍后再试试吧";
+
+    public static final String ADMIN_ONLY = "只有管理员可以使用这个功能";
 }
@@ -0,0 +1,19 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class RateLimitConstant {
+    public static final int DEFAULT_IDLE_EVICT_MINUTES = 30;
+
+    // 令牌以千分之一为单位保存，桶状态的低20位是令牌数
+    public static final int TOKEN_SCALE = 1000;
+
+    public static final int TOKEN_BITS = 20;
+
+    // 20位能表示的最大令牌数
+    public static final int MAX_CAPACITY = 1000;
+
+    // 两次回收闲置令牌桶之间的最短间隔
+    public static final long EVICT_INTERVAL_MILLIS = 60 * 1000;
+}
@@ -0,0 +1,26 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class ResilienceConstant {
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 50.0;
+
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80.0;
+
+    public static final long DEFAULT_OPEN_SECONDS = 30;
+
+    public static final int DEFAULT_HALF_OPEN_CALLS = 2;
+
+    public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 8;
+
+    public static final long DEFAULT_BULKHEAD_WAIT_MILLIS = 2000;
+
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    public static final long DEFAULT_RETRY_BASE_DELAY_MILLIS = 200;
+}
@@ -0,0 +1,23 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class RetentionConstant {
+    public static final int DEFAULT_MESSAGE_DAYS = 7;
+
+    public static final int DEFAULT_WORD_MAP_DAYS = 30;
+
+    // 本周词云需要最近7天的词频文件
+    public static final int MIN_WORD_MAP_DAYS = 7;
+
+    public static final int DEFAULT_WORD_CLOUD_DAYS = 3;
+
+    public static final int DEFAULT_THREADS = 2;
+
+    public static final String WORKER_THREAD_NAME = "kookie-retention-";
+
+    public static final String MESSAGE_FILE_EXT = ".json";
+
+    public static final String WORD_MAP_FILE_EXT = ".txt";
+}
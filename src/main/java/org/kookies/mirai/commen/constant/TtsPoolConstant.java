@@ -0,0 +1,9 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class TtsPoolConstant {
+    // 亲和后端比最空闲后端多出的进行中请求不超过该值时，仍然选择亲和后端
+    public static final int DEFAULT_AFFINITY_SLACK = 2;
+}
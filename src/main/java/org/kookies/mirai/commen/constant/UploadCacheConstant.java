@@ -0,0 +1,16 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class UploadCacheConstant {
+    public static final long DEFAULT_TTL_MINUTES = 60 * 12;
+
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    public static final String IMAGE_PREFIX = "image:";
+
+    public static final String AUDIO_PREFIX = "audio:";
+
+    public static final String VIDEO_PREFIX = "video:";
+}
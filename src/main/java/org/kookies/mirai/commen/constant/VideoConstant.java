@@ -0,0 +1,36 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class VideoConstant {
+    public static final long DEFAULT_MAX_DOWNLOAD_BYTES = 50L * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_FILES = 50;
+
+    public static final long DEFAULT_MAX_TOTAL_BYTES = 500L * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_AGE_HOURS = 24;
+
+    public static final int DEFAULT_RETENTION_INTERVAL_MINUTES = 30;
+
+    // 刚下载的视频可能正在上传，清理时跳过
+    public static final long IN_USE_GRACE_MILLIS = 10 * 60 * 1000;
+
+    public static final int DEFAULT_THUMBNAIL_MAX_DIMENSION = 480;
+
+    public static final float DEFAULT_THUMBNAIL_QUALITY = 0.8f;
+
+    public static final int DEFAULT_THUMBNAIL_CACHE_ENTRIES = 64;
+
+    public static final int DEFAULT_THUMBNAIL_THREADS = 2;
+
+    // 取第几帧附近的关键帧作为缩略图
+    public static final int THUMBNAIL_FRAME = 5;
+
+    public static final String THUMBNAIL_THREAD_NAME = "kookie-thumbnail-";
+
+    public static final String VIDEO_FILE_EXT = ".mp4";
+
+    public static final String PART_FILE_EXT = ".part";
+}
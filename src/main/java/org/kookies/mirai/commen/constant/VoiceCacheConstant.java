@@ -0,0 +1,14 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class VoiceCacheConstant {
+    public static final boolean DEFAULT_ENABLE = true;
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    public static final String CACHE_FILE_EXT = ".voice";
+
+    public static final String TEMP_FILE_EXT = ".tmp";
+}
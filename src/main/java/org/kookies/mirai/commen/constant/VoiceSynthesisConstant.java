@@ -0,0 +1,27 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class VoiceSynthesisConstant {
+    public static final int DEFAULT_MAX_TEXT_LENGTH = 300;
+
+    public static final int DEFAULT_MAX_CHUNK_LENGTH = 50;
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    public static final int DEFAULT_CHUNK_TIMEOUT_SECONDS = 60;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    // 等待排队中的分段开始合成时的轮询间隔
+    public static final long QUEUE_POLL_MILLIS = 50;
+
+    public static final String WORKER_THREAD_NAME = "kookie-tts-chunk-";
+
+    // 句子结束的标点，优先在这些位置切分
+    public static final String SENTENCE_DELIMITERS = "。！？!?；;…\n";
+
+    // 句内停顿的标点，句子过长时在这些位置切分
+    public static final String CLAUSE_DELIMITERS = "，、,：:";
+}
@@ -0,0 +1,41 @@
+package org.kookies.mirai.commen.constant;
+
+/**
+ * @author General_K1ng
+ */
+public class WordCountConstant {
+    public static final String DAILY_FILE_EXT = ".txt";
+
+    // 二进制词频文件，格式见 WordMapFile
+    public static final String BINARY_FILE_EXT = ".kwm";
+
+    // 二进制词频文件的魔数 "KWMP"
+    public static final int BINARY_MAGIC = 0x4B574D50;
+
+    public static final short BINARY_VERSION = 1;
+
+    public static final int BINARY_HEADER_LENGTH = 32;
+
+    // 文件头中没有记录汇总到的日期
+    public static final int BINARY_NO_COVERAGE = Integer.MIN_VALUE;
+
+    // 月度汇总文件，如 month-2024-07.kwm，文件名不是日期，不会被当作每日词频文件清理
+    public static final String MONTH_FILE_PREFIX = "month-";
+
+    // 年度汇总文件，如 year-2024.kwm
+    public static final String YEAR_FILE_PREFIX = "year-";
+
+    // 本月词云和年度词云只取出现次数最多的词
+    public static final int WORD_CLOUD_TOP_K = 1000;
+
+    // 记录已经汇总到哪一天
+    public static final String ROLLUP_STATE_FILE = "rollup.state";
+
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    public static final String WEEK_TEMP_FILE = "tempCnt.txt";
+
+    public static final String MONTH_TEMP_FILE = "tempMonthCnt.txt";
+
+    public static final String YEAR_TEMP_FILE = "tempYearCnt.txt";
+}
@@ -0,0 +1,15 @@
+package org.kookies.mirai.commen.enumeration;
+
+/**
+ * 指令的匹配方式。
+ *
+ * @author General_K1ng
+ */
+public enum CommandMatchType {
+    // 消息的第一个词等于指令
+    WORD,
+    // 消息的第一个词以指令结尾，前面的部分作为参数，例如“角色名说一下”
+    SUFFIX,
+    // 消息中任意一段文字等于指令，例如“这是什么”加图片
+    SEGMENT
+}
@@ -0,0 +1,49 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+
+/**
+ * HTTP客户端配置档，不同的第三方接口使用各自独立的连接池和超时时间，
+ * 避免某个慢接口拖垮其他接口。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum HttpProfile {
+    // 百度大模型对话，生成内容较慢
+    LLM("llm", 5000, 60000, 8, true, 30000),
+    // 百度鉴权、图像识别、奥运数据等普通接口
+    BAIDU("baidu", 5000, 15000, 4, true, 5000),
+    // 高德地图接口
+    GAODE("gaode", 3000, 10000, 4, true, 3000),
+    // 菜鸟代码运行接口
+    RUNOOB("runoob", 5000, 30000, 2, false, 10000),
+    // 图片、视频等媒体下载
+    MEDIA("media", 5000, 30000, 8, true, 10000),
+    // 自建的语音合成服务，合成时间较长
+    TTS("tts", 3000, 120000, 4, false, 60000),
+    // 笑话、骂人话等文本接口
+    TEXT("text", 3000, 10000, 2, true, 3000);
+
+    private final String name;
+
+    private final int connectTimeoutMillis;
+
+    private final int readTimeoutMillis;
+
+    private final int maxIdleConnections;
+
+    private final boolean http2;
+
+    // 超过该耗时的请求在熔断器中记为慢请求
+    private final int slowCallMillis;
+
+    HttpProfile(String name, int connectTimeoutMillis, int readTimeoutMillis, int maxIdleConnections, boolean http2, int slowCallMillis) {
+        this.name = name;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.maxIdleConnections = maxIdleConnections;
+        this.http2 = http2;
+        this.slowCallMillis = slowCallMillis;
+    }
+}
@@ -0,0 +1,36 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+
+/**
+ * 随机图片来源，每个来源对应一个预取缓冲池。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum ImageSourceType {
+    // 今日老婆
+    TODAY_GIRL("todayGirl", false),
+    // 随机表情：动漫表情
+    EMOJI_ANIME("emojiAnime", false),
+    // 随机表情：柴郡
+    EMOJI_CHESHIRE("emojiCheshire", false),
+    // 随机表情：小八嘎
+    EMOJI_CHIIKAWA("emojiChiikawa", false),
+    // 随机表情：龙图
+    EMOJI_LONG("emojiLong", false),
+    // 今日老婆的坏人兜底图
+    BAD_GUY("badGuy", false),
+    // 摸鱼日报，每天只有一张
+    MESS_AROUND_DAILY("messAroundDaily", true);
+
+    private final String source;
+
+    // 是否为每日固定的图片，这类图片按日期缓存一张，而不是预取多张
+    private final boolean daily;
+
+    ImageSourceType(String source, boolean daily) {
+        this.source = source;
+        this.daily = daily;
+    }
+}
@@ -0,0 +1,26 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+
+/**
+ * 调用大模型的功能类型，用于区分缓存、调度优先级等策略。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum LlmFeatureType {
+    LUCKY_DAY("luckyDay", LlmPriority.INTERACTIVE),
+    EVALUATE_SOMEBODY("evaluateSomebody", LlmPriority.INTERACTIVE),
+    WORD_STATISTICS("wordStatistics", LlmPriority.BACKGROUND),
+    CODE_RUN("codeRun", LlmPriority.INTERACTIVE),
+    OLYMPIC_DAILY("olympicDaily", LlmPriority.BACKGROUND);
+
+    private final String feature;
+
+    private final LlmPriority priority;
+
+    LlmFeatureType(String feature, LlmPriority priority) {
+        this.feature = feature;
+        this.priority = priority;
+    }
+}
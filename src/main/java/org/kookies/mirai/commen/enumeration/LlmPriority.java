@@ -0,0 +1,22 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+
+/**
+ * 大模型请求的优先级，数值越小越先被调度。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum LlmPriority {
+    // 用户主动触发、需要立即回复的命令
+    INTERACTIVE(0),
+    // 统计报告等可以稍后回复的请求
+    BACKGROUND(1);
+
+    private final int level;
+
+    LlmPriority(int level) {
+        this.level = level;
+    }
+}
@@ -0,0 +1,41 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+
+/**
+ * 有每日次数限制的功能。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum QuotaFeature {
+    LUCKY_DAY("luckyDay", 1),
+    TODAY_GIRL("todayGirl", 3),
+    BEAUTIFUL_GIRL("beautifulGirl", 3);
+
+    // 功能名称，用于配置和日志
+    private final String feature;
+
+    // 未配置时的每日次数上限
+    private final int defaultLimit;
+
+    QuotaFeature(String feature, int defaultLimit) {
+        this.feature = feature;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * 根据功能名称获取对应的枚举。
+     *
+     * @param feature 功能名称。
+     * @return 对应的枚举，找不到时返回null。
+     */
+    public static QuotaFeature getByFeature(String feature) {
+        for (QuotaFeature value : values()) {
+            if (value.feature.equals(feature)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package org.kookies.mirai.commen.enumeration;
+
+import lombok.Getter;
+import org.kookies.mirai.commen.info.FunctionInfo;
+
+/**
+ * 需要限流的指令，这些指令都会调用开销较大的外部服务。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum RateLimitCommand {
+    CODE_RUN("codeRun", FunctionInfo.CODE_RUN, 3, 2, 10, 6),
+    VOICE_SAY("voiceSay", FunctionInfo.VOICE_SAY, 3, 2, 8, 4),
+    EVALUATE_SOMEBODY("evaluateSomebody", FunctionInfo.EVALUATE_SOMEBODY, 2, 1, 6, 3),
+    WHAT_IS_THAT("whatIsThat", FunctionInfo.WHAT_IS_THAT, 3, 1, 8, 3);
+
+    // 指令名称，用于配置
+    private final String command;
+
+    // 指令文本，用于提示
+    private final String function;
+
+    // 未配置时每个用户的令牌桶容量
+    private final int defaultUserCapacity;
+
+    // 未配置时每个用户每分钟补充的令牌数
+    private final double defaultUserRefillPerMinute;
+
+    // 未配置时每个群的令牌桶容量
+    private final int defaultGroupCapacity;
+
+    // 未配置时每个群每分钟补充的令牌数
+    private final double defaultGroupRefillPerMinute;
+
+    RateLimitCommand(String command, String function, int defaultUserCapacity, double defaultUserRefillPerMinute,
+                     int defaultGroupCapacity, double defaultGroupRefillPerMinute) {
+        this.command = command;
+        this.function = function;
+        this.defaultUserCapacity = defaultUserCapacity;
+        this.defaultUserRefillPerMinute = defaultUserRefillPerMinute;
+        this.defaultGroupCapacity = defaultGroupCapacity;
+        this.defaultGroupRefillPerMinute = defaultGroupRefillPerMinute;
+    }
+}
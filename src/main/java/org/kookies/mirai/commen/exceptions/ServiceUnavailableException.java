@@ -0,0 +1,14 @@
+package org.kookies.mirai.commen.exceptions;
+
+import org.kookies.mirai.commen.exceptions.base.BaseException;
+
+/**
+ * 依赖的服务暂时不可用（熔断、限流等），异常信息可以直接回复给用户。
+ */
+public class ServiceUnavailableException extends BaseException {
+    public ServiceUnavailableException() {
+    }
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
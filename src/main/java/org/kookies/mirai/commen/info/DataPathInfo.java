@@ -14,8 +14,6 @@ public class DataPathInfo {
 
     public static final String BOT_INFO_PATH = "/data/BotInfo.txt";
 
-    public static final String LUCKY_DAY_PERMISSION_PATH = "./kookies/data/LuckyDay.json";
-
     public static final String MESSAGE_CACHE_DIR_PATH = "./kookies/data/messageCache";
 
     public static final String PERSONAL_MSG_DIR = "msg";
@@ -24,10 +22,6 @@ public class DataPathInfo {
 
     public static final String EAT_WHAT_POI_PATH = "./kookies/data/EatWhatPOI.json";
 
-    public static final String TODAY_GIRL_FRIEND_PERMISSION_PATH = "./kookies/data/TodayGirl.json";
-
-    public static final String BEAUTIFUL_GIRL_PERMISSION_PATH = "./kookies/data/beautifulGirl.json";
-
     public static final String BEAUTIFUL_GIRL_VIDEO_PATH = "./kookies/data/beautifulGirlVideo";
 
     public static final String WORD_CLOUD_PATH = "./kookies/data/wordCloud";
@@ -37,4 +31,10 @@ public class DataPathInfo {
     public static final String SYSTEM_FONT_PATH = "/usr/share/fonts/kookie";
 
     public static final String STOP_WORD_PATH = "/data/stopwords.txt";
+
+    public static final String LLM_CACHE_DIR_PATH = "./kookies/data/llmCache";
+
+    public static final String VOICE_CACHE_DIR_PATH = "./kookies/data/voiceCache";
+
+    public static final String QUOTA_JOURNAL_PATH = "./kookies/data/quota.journal";
 }
@@ -25,6 +25,10 @@ public class FunctionInfo {
 
     public static final String YESTERDAY_WORD = "昨日词云";
 
+    public static final String MONTH_WORD = "本月词云";
+
+    public static final String YEAR_WORD = "年度词云";
+
     public static final String WORD_STATISTICS = "词频统计";
 
     public static final String DARK_JOKE = "地狱笑话";
@@ -37,4 +41,6 @@ public class FunctionInfo {
 
     public static final String WHAT_IS_THAT = "这是什么";
 
+    public static final String KOOKIE_STATUS = "kookie状态";
+
 }
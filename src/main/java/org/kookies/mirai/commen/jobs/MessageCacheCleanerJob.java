@@ -4,31 +4,88 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.LlmCacheConstant;
+import org.kookies.mirai.commen.constant.MessageArchiveConstant;
 import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.RetentionConstant;
+import org.kookies.mirai.commen.constant.VideoConstant;
 import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.exceptions.DataWriteException;
 import org.kookies.mirai.commen.info.DataPathInfo;
 import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.commen.utils.MessageArchive;
+import org.kookies.mirai.commen.utils.WordCountRollup;
+import org.kookies.mirai.pojo.dto.RetentionReportDTO;
+import org.kookies.mirai.pojo.entity.Config;
+import org.kookies.mirai.pojo.entity.LlmCacheConfig;
 import org.kookies.mirai.pojo.entity.PersonalMessage;
+import org.kookies.mirai.pojo.entity.RetentionConfig;
+import org.kookies.mirai.pojo.entity.VideoConfig;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
+ * 数据目录清理任务。
+ * <p>
+ * 每晚按 retentionConfig 清理 ./kookies/data 下的过期数据：
+ * <ul>
+ *     <li>个人消息：已经结束的日期压缩后追加到归档，删除早于保留天数的消息，只有今天消息的文件不读取不重写；</li>
+ *     <li>每日词频文件：先合并到月度和年度汇总，再删除早于保留天数且已经汇总过的 &lt;日期&gt;.txt；</li>
+ *     <li>词云图片：删除早于保留天数的图片；</li>
+ *     <li>视频：按 videoConfig 的保留策略清理；</li>
+ *     <li>大模型响应缓存：删除已过有效期的缓存文件。</li>
+ * </ul>
+ * 各群的消息目录在有界线程池中并行清理，清理结束后输出释放的磁盘空间。
+ *
  * @author General_K1ng
  */
+@DisallowConcurrentExecution
 public class MessageCacheCleanerJob implements Job {
+    private static final Log log = LogFactory.getLog(MessageCacheCleanerJob.class);
+
     private static final Gson GSON = new GsonBuilder()
             .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
             .create();
+
+    private final LongAdder scannedFiles = new LongAdder();
+
+    private final LongAdder skippedFiles = new LongAdder();
+
+    private final LongAdder rewrittenFiles = new LongAdder();
+
+    private final LongAdder deletedFiles = new LongAdder();
+
+    private final LongAdder reclaimedBytes = new LongAdder();
+
+    private final LongAdder archivedDays = new LongAdder();
+
     /**
      * 执行作业的主体方法。该方法在作业调度时被调用，用于执行作业的具体逻辑。
      * 本作业的执行逻辑是清除旧的缓存。
@@ -38,61 +95,330 @@ public class MessageCacheCleanerJob implements Job {
      */
     @Override
     public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
-        clearOldCache();
+        RetentionReportDTO report = clearOldCache();
+        log.info("数据目录清理完成，群" + report.getGroups() + "个，检查文件" + report.getScannedFiles()
+                + "个，跳过" + report.getSkippedFiles() + "个，重写" + report.getRewrittenFiles()
+                + "个，删除" + report.getDeletedFiles() + "个，归档" + report.getArchivedDays()
+                + "人天消息，释放" + report.getReclaimedBytes()
+                + "字节，耗时" + report.getElapsedMillis() + "毫秒");
     }
 
     /**
-     * 清理超过7天的旧缓存
+     * 按保留配置清理所有数据目录。
      * <p>
-     * 该方法定期检查并清除指定路径下的缓存文件，以保持缓存目录的清洁和效率
-     * 它首先获取缓存目录的文件列表，然后遍历每个子目录，进一步清理其中的个人缓存文件
-     * 清理的依据是文件的修改时间，如果文件的最后修改时间早于7天前，则认为是旧缓存并予以删除
+     * 1. 每个群的消息目录作为一个任务，其余数据目录各作为一个任务；
+     * 2. 所有任务提交到有界线程池并行执行，单个任务失败不影响其他任务；
+     * 3. 汇总各任务删除的文件数和释放的空间。
+     *
+     * @return 清理结果。
      */
-    private void clearOldCache() {
-        // 创建缓存目录的文件对象
-        File cacheDir = new File(DataPathInfo.MESSAGE_CACHE_DIR_PATH);
-        // 计算7天前的日期
-        LocalDate sevenDaysAgo = LocalDate.now().minusDays(7);
-        // 列出缓存目录下的所有子目录
-        File[] groupDirs = cacheDir.listFiles();
+    public RetentionReportDTO clearOldCache() {
+        long start = System.currentTimeMillis();
+        Config config = ConfigurationLoader.getConfig();
+        RetentionConfig retentionConfig = config.getRetentionConfig() == null
+                ? new RetentionConfig() : config.getRetentionConfig();
 
+        LocalDate today = LocalDate.now();
+        LocalDate messageCutoff = today.minusDays(getOrDefault(retentionConfig.getMessageDays(),
+                RetentionConstant.DEFAULT_MESSAGE_DAYS));
+        LocalDate wordMapCutoff = today.minusDays(Math.max(RetentionConstant.MIN_WORD_MAP_DAYS,
+                getOrDefault(retentionConfig.getWordMapDays(), RetentionConstant.DEFAULT_WORD_MAP_DAYS)));
+        long wordCloudMaxAgeMillis = TimeUnit.DAYS.toMillis(getOrDefault(retentionConfig.getWordCloudDays(),
+                RetentionConstant.DEFAULT_WORD_CLOUD_DAYS));
+
+        // 1. 每个群一个任务，其余目录各一个任务
+        List<Callable<Void>> tasks = new ArrayList<>();
+        File[] groupDirs = new File(DataPathInfo.MESSAGE_CACHE_DIR_PATH).listFiles(File::isDirectory);
+        int groups = groupDirs == null ? 0 : groupDirs.length;
         if (groupDirs != null) {
             for (File groupDir : groupDirs) {
-                clearPersonalCaches(groupDir, sevenDaysAgo);
+                tasks.add(() -> {
+                    LocalDate rolledUpTo = rollupWordMaps(groupDir, today);
+                    clearPersonalCaches(groupDir, today, messageCutoff);
+                    clearWordMaps(groupDir, wordMapCutoff, rolledUpTo);
+                    return null;
+                });
             }
         }
-    }
+        tasks.add(() -> {
+            clearExpiredFiles(new File(DataPathInfo.WORD_CLOUD_PATH), wordCloudMaxAgeMillis);
+            return null;
+        });
+        tasks.add(() -> {
+            clearExpiredFiles(new File(DataPathInfo.LLM_CACHE_DIR_PATH), getLlmCacheTtlMillis(config));
+            return null;
+        });
+        tasks.add(() -> {
+            clearVideos(config.getVideoConfig());
+            return null;
+        });
+
+        // 2. 在有界线程池中并行执行
+        int threads = Math.max(1, getOrDefault(retentionConfig.getThreads(), RetentionConstant.DEFAULT_THREADS));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, RetentionConstant.WORKER_THREAD_NAME + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    log.warn("数据目录清理任务失败", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
 
+        // 3. 汇总清理结果
+        return RetentionReportDTO.builder()
+                .groups(groups)
+                .scannedFiles(scannedFiles.sum())
+                .skippedFiles(skippedFiles.sum())
+                .rewrittenFiles(rewrittenFiles.sum())
+                .deletedFiles(deletedFiles.sum())
+                .reclaimedBytes(reclaimedBytes.sum())
+                .archivedDays(archivedDays.sum())
+                .elapsedMillis(System.currentTimeMillis() - start)
+                .build();
+    }
 
     /**
-     * 清理个人缓存文件中过期的消息。
+     * 归档并清理个人消息。
      * <p>
-     * 这个方法会遍历指定目录下的所有个人缓存文件，读取其中的消息列表，过滤掉那些日期早于指定日期的消息，
-     * 然后将过滤后的消息列表写回缓存文件。
+     * 消息按日期从旧到新追加，文件的最后修改日期就是最新消息的日期，第一条消息的日期就是最旧消息的日期：
+     * <ul>
+     *     <li>最后修改日期早于阈值时，所有消息都已过期，直接删除文件；</li>
+     *     <li>第一条消息是今天的时，没有需要归档的日期，跳过文件；</li>
+     *     <li>其余情况读取整个文件，未过期的已结束日期压缩后追加到归档，文件中只保留今天的消息。</li>
+     * </ul>
+     * 最后删除各归档中早于阈值的日期，复制的是压缩数据，不需要解压。
      *
-     * @param groupDir 指定的缓存文件目录。这个目录下包含了所有个人缓存文件。
+     * @param groupDir 群的缓存目录。
+     * @param today 今天的日期，今天的消息仍在写入，不归档。
      * @param cutoffDate 过滤消息的日期阈值。任何早于这个日期的消息都会被过滤掉。
      */
-    private void clearPersonalCaches(File groupDir, LocalDate cutoffDate) {
-        // 列出groupDir下所有的个人缓存文件
+    private void clearPersonalCaches(File groupDir, LocalDate today, LocalDate cutoffDate) {
         File msgDir = new File(groupDir, DataPathInfo.PERSONAL_MSG_DIR);
-        File[] personalCaches = msgDir.listFiles();
-        // 如果personalCaches不为空，则遍历每个个人缓存文件
+        File[] personalCaches = msgDir.listFiles((dir, name) -> name.endsWith(RetentionConstant.MESSAGE_FILE_EXT));
         if (personalCaches != null) {
             for (File personalCache : personalCaches) {
-                // 读取个人缓存文件中的消息列表
-                List<PersonalMessage> personalMsgList = readPersonalMessages(personalCache);
-                // 如果消息列表不为空，则进行消息过滤
-                if (personalMsgList != null) {
-                    // 过滤掉早于cutoffDate的消息，得到过滤后的消息列表
-                    List<PersonalMessage> filteredMsgList = filterMessages(personalMsgList, cutoffDate);
-                    // 将过滤后的消息列表写回个人缓存文件
-                    writeFilteredMessages(personalCache, filteredMsgList);
+                scannedFiles.increment();
+                try {
+                    archivePersonalCache(personalCache, today, cutoffDate);
+                } catch (RuntimeException | IOException e) {
+                    log.warn("个人消息归档失败：" + personalCache.getPath(), e);
+                }
+            }
+        }
+
+        File[] archives = msgDir.listFiles((dir, name) -> name.endsWith(MessageArchiveConstant.ARCHIVE_FILE_EXT));
+        if (archives == null) {
+            return;
+        }
+        for (File archive : archives) {
+            scannedFiles.increment();
+            try {
+                long before = archive.length();
+                int removedRecords = MessageArchive.retain(archive, cutoffDate);
+                if (removedRecords == 0) {
+                    skippedFiles.increment();
+                } else if (archive.exists()) {
+                    rewrittenFiles.increment();
+                    reclaimedBytes.add(Math.max(0, before - archive.length()));
+                } else {
+                    deletedFiles.increment();
+                    reclaimedBytes.add(before);
                 }
+            } catch (RuntimeException | IOException e) {
+                log.warn("个人消息归档清理失败：" + archive.getPath(), e);
             }
         }
     }
 
+    /**
+     * 将个人消息文件中已经结束的日期归档，文件中只保留今天的消息。
+     * <p>
+     * 先追加归档再重写消息文件，重写前中断时下次执行会跳过归档中已有的日期，不会重复归档。
+     *
+     * @param personalCache 个人消息文件。
+     * @param today 今天的日期。
+     * @param cutoffDate 日期阈值，早于这一天的消息直接丢弃，不归档。
+     * @throws IOException 如果写入归档失败。
+     */
+    private void archivePersonalCache(File personalCache, LocalDate today, LocalDate cutoffDate) throws IOException {
+        // 整个文件都已过期
+        if (toLocalDate(personalCache.lastModified()).isBefore(cutoffDate)) {
+            delete(personalCache);
+            return;
+        }
+        // 只有今天的消息
+        LocalDate oldestDate = readOldestDate(personalCache);
+        if (oldestDate != null && !oldestDate.isBefore(today)) {
+            skippedFiles.increment();
+            return;
+        }
+
+        List<PersonalMessage> personalMsgList = readPersonalMessages(personalCache);
+        if (personalMsgList == null) {
+            personalMsgList = new ArrayList<>();
+        }
+        List<PersonalMessage> closedDays = filterMessages(personalMsgList, cutoffDate).stream()
+                .filter(msg -> msg.getDate().isBefore(today))
+                .collect(Collectors.toList());
+        List<PersonalMessage> openDays = personalMsgList.stream()
+                .filter(msg -> !msg.getDate().isBefore(today))
+                .collect(Collectors.toList());
+
+        File archive = MessageArchive.getArchiveFile(personalCache);
+        long before = personalCache.length() + archive.length();
+        archivedDays.add(MessageArchive.append(archive, closedDays));
+
+        // 没有今天的消息时删除文件，缓存时会重新创建，不能留下空列表
+        if (openDays.isEmpty()) {
+            if (personalCache.delete()) {
+                deletedFiles.increment();
+                reclaimedBytes.add(Math.max(0, before - archive.length()));
+            }
+            return;
+        }
+        writeFilteredMessages(personalCache, openDays);
+        rewrittenFiles.increment();
+        reclaimedBytes.add(Math.max(0, before - personalCache.length() - archive.length()));
+    }
+
+    /**
+     * 将已经结束的每日词频文件合并到月度和年度汇总中。
+     * <p>
+     * 汇总失败时不影响消息的清理，只是尚未汇总的每日文件会保留到下次汇总成功。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param today 今天的日期。
+     * @return 已经汇总的最后一天，从未汇总过时返回null。
+     */
+    private LocalDate rollupWordMaps(File groupDir, LocalDate today) {
+        try {
+            return WordCountRollup.rollup(groupDir, today);
+        } catch (RuntimeException e) {
+            log.warn("词频汇总失败：" + groupDir.getPath(), e);
+            return WordCountRollup.getRolledUpTo(groupDir);
+        }
+    }
+
+    /**
+     * 删除早于阈值的每日词频文件，文件名是日期，如 2024-07-01.txt。
+     * <p>
+     * 还没有合并到月度和年度汇总的文件即使过期也保留，避免丢失长期统计。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param cutoffDate 日期阈值。
+     * @param rolledUpTo 已经汇总的最后一天，为null时没有文件可以删除。
+     */
+    private void clearWordMaps(File groupDir, LocalDate cutoffDate, LocalDate rolledUpTo) {
+        File[] wordMaps = groupDir.listFiles((dir, name) -> name.endsWith(RetentionConstant.WORD_MAP_FILE_EXT));
+        if (wordMaps == null) {
+            return;
+        }
+        for (File wordMap : wordMaps) {
+            String name = wordMap.getName();
+            LocalDate date;
+            try {
+                date = LocalDate.parse(name.substring(0, name.length() - RetentionConstant.WORD_MAP_FILE_EXT.length()));
+            } catch (DateTimeParseException e) {
+                // 不是每日词频文件，如汇总文件和本周词云的临时文件
+                continue;
+            }
+            scannedFiles.increment();
+            if (date.isBefore(cutoffDate) && rolledUpTo != null && !date.isAfter(rolledUpTo)) {
+                delete(wordMap);
+            } else {
+                skippedFiles.increment();
+            }
+        }
+    }
+
+    /**
+     * 删除目录下最后修改时间早于保留时间的文件。
+     *
+     * @param dir 目录。
+     * @param maxAgeMillis 保留时间（毫秒）。
+     */
+    private void clearExpiredFiles(File dir, long maxAgeMillis) {
+        File[] files = dir.listFiles(File::isFile);
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            scannedFiles.increment();
+            if (now - file.lastModified() > maxAgeMillis) {
+                delete(file);
+            } else {
+                skippedFiles.increment();
+            }
+        }
+    }
+
+    /**
+     * 按视频保留策略清理视频目录，与定时的视频清理任务使用相同的策略。
+     *
+     * @param videoConfig 视频配置。
+     */
+    private void clearVideos(VideoConfig videoConfig) {
+        if (videoConfig == null) {
+            videoConfig = new VideoConfig();
+        }
+        File videoDir = new File(DataPathInfo.BEAUTIFUL_GIRL_VIDEO_PATH);
+        File[] before = videoDir.listFiles(File::isFile);
+        if (before == null) {
+            return;
+        }
+        long beforeBytes = totalLength(before);
+        scannedFiles.add(before.length);
+
+        int deleted = VideoRetentionJob.clean(videoDir,
+                getOrDefault(videoConfig.getMaxFiles(), VideoConstant.DEFAULT_MAX_FILES),
+                getOrDefault(videoConfig.getMaxTotalBytes(), VideoConstant.DEFAULT_MAX_TOTAL_BYTES),
+                TimeUnit.HOURS.toMillis(getOrDefault(videoConfig.getMaxAgeHours(), VideoConstant.DEFAULT_MAX_AGE_HOURS)),
+                System.currentTimeMillis());
+
+        File[] after = videoDir.listFiles(File::isFile);
+        deletedFiles.add(deleted);
+        skippedFiles.add(before.length - deleted);
+        reclaimedBytes.add(Math.max(0, beforeBytes - (after == null ? 0 : totalLength(after))));
+    }
+
+    /**
+     * 读取个人缓存文件中第一条消息的日期，只解析文件开头，不读取整个文件。
+     *
+     * @param personalCache 个人缓存文件。
+     * @return 最旧消息的日期，文件为空或格式不符时返回null。
+     */
+    private LocalDate readOldestDate(File personalCache) {
+        try (JsonReader reader = new JsonReader(new FileReader(personalCache))) {
+            reader.beginArray();
+            if (!reader.hasNext()) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("date".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                    return GSON.fromJson(reader, LocalDate.class);
+                }
+                reader.skipValue();
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // 无法读取开头时按需要完整处理
+            return null;
+        }
+    }
+
     /**
      * 从个人消息缓存文件中读取个人消息列表。
      * <p>
@@ -147,4 +473,34 @@ public class MessageCacheCleanerJob implements Job {
         }
     }
 
+    private void delete(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            deletedFiles.increment();
+            reclaimedBytes.add(length);
+        }
+    }
+
+    private static long getLlmCacheTtlMillis(Config config) {
+        LlmCacheConfig cacheConfig = config.getLlmCacheConfig();
+        long ttlMinutes = cacheConfig == null || cacheConfig.getTtlMinutes() == null
+                ? LlmCacheConstant.DEFAULT_TTL_MINUTES : cacheConfig.getTtlMinutes();
+        return TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    private static long totalLength(File[] files) {
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    private static LocalDate toLocalDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static <V> V getOrDefault(V value, V defaultValue) {
+        return value == null ? defaultValue : value;
+    }
 }
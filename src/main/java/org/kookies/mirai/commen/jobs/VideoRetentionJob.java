@@ -0,0 +1,99 @@
+package org.kookies.mirai.commen.jobs;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.VideoConstant;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.pojo.entity.VideoConfig;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author General_K1ng
+ */
+@DisallowConcurrentExecution
+public class VideoRetentionJob implements Job {
+    private static final Log log = LogFactory.getLog(VideoRetentionJob.class);
+
+    /**
+     * 执行作业的主体方法。该方法在作业调度时被调用，用于执行作业的具体逻辑。
+     * 本作业的执行逻辑是按保留策略清理视频目录。
+     *
+     * @param jobExecutionContext 作业执行上下文，包含作业执行所需的信息和状态。
+     * @throws JobExecutionException 如果作业执行过程中发生异常。
+     */
+    @Override
+    public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+        VideoConfig videoConfig = ConfigurationLoader.getConfig().getVideoConfig();
+        if (videoConfig == null) {
+            videoConfig = new VideoConfig();
+        }
+        int maxFiles = videoConfig.getMaxFiles() == null
+                ? VideoConstant.DEFAULT_MAX_FILES : videoConfig.getMaxFiles();
+        long maxTotalBytes = videoConfig.getMaxTotalBytes() == null
+                ? VideoConstant.DEFAULT_MAX_TOTAL_BYTES : videoConfig.getMaxTotalBytes();
+        int maxAgeHours = videoConfig.getMaxAgeHours() == null
+                ? VideoConstant.DEFAULT_MAX_AGE_HOURS : videoConfig.getMaxAgeHours();
+
+        int deleted = clean(new File(DataPathInfo.BEAUTIFUL_GIRL_VIDEO_PATH), maxFiles, maxTotalBytes,
+                TimeUnit.HOURS.toMillis(maxAgeHours), System.currentTimeMillis());
+        if (deleted > 0) {
+            log.info("视频目录清理完成，删除" + deleted + "个文件");
+        }
+    }
+
+    /**
+     * 按保留策略清理视频目录。
+     * <p>
+     * 超过保留时间的视频直接删除；其余视频从新到旧保留，超出文件数或总大小上限的旧视频被删除。
+     * 最近修改过的文件可能正在下载或上传，始终跳过。
+     *
+     * @param videoDir 视频目录。
+     * @param maxFiles 最多保留的文件数。
+     * @param maxTotalBytes 最多占用的磁盘大小（字节）。
+     * @param maxAgeMillis 最长保留时间（毫秒）。
+     * @param now 当前时间戳。
+     * @return 删除的文件数。
+     */
+    public static int clean(File videoDir, int maxFiles, long maxTotalBytes, long maxAgeMillis, long now) {
+        File[] files = videoDir.listFiles(File::isFile);
+        if (files == null) {
+            return 0;
+        }
+        // 从新到旧排序
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+
+        int deleted = 0;
+        int keptFiles = 0;
+        long keptBytes = 0;
+        for (File file : files) {
+            long age = now - file.lastModified();
+            if (age < VideoConstant.IN_USE_GRACE_MILLIS) {
+                keptFiles++;
+                keptBytes += file.length();
+                continue;
+            }
+
+            // 中断的下载留下的临时文件、过期的视频、超出数量或大小上限的视频都删除
+            boolean expired = file.getName().endsWith(VideoConstant.PART_FILE_EXT) || age > maxAgeMillis;
+            boolean overQuota = keptFiles + 1 > maxFiles || keptBytes + file.length() > maxTotalBytes;
+            if (expired || overQuota) {
+                if (file.delete()) {
+                    deleted++;
+                }
+            } else {
+                keptFiles++;
+                keptBytes += file.length();
+            }
+        }
+        return deleted;
+    }
+}
@@ -4,14 +4,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
-import okhttp3.Response;
-import org.json.JSONObject;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
 import org.kookies.mirai.commen.constant.*;
 import org.kookies.mirai.commen.enumeration.BadGuyType;
+import org.kookies.mirai.commen.enumeration.HttpProfile;
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
+import org.kookies.mirai.commen.enumeration.LlmPriority;
 import org.kookies.mirai.commen.enumeration.RequestType;
 import org.kookies.mirai.commen.info.DataPathInfo;
 import org.kookies.mirai.pojo.entity.Config;
@@ -22,15 +22,15 @@ import org.kookies.mirai.pojo.entity.api.request.baidu.imageRec.SendImageRec;
 import org.kookies.mirai.pojo.entity.api.request.gaode.AroundSearchRequestBody;
 import org.kookies.mirai.pojo.entity.api.request.runoob.CodeRunRequestBody;
 import org.kookies.mirai.pojo.entity.api.request.voice.VoiceRequest;
+import org.kookies.mirai.pojo.entity.api.response.gaode.POIResponse;
+import org.kookies.mirai.pojo.entity.api.response.runoob.CodeRunResponse;
 
-import javax.imageio.ImageIO;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -41,11 +41,6 @@ public class ApiRequester {
             .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
             .create();
 
-    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient().newBuilder()
-            .connectTimeout(100000, TimeUnit.MILLISECONDS)
-            .readTimeout(100000, TimeUnit.MILLISECONDS)
-            .build();
-
     /**
      * 发送代码运行请求并返回响应。
      * <p>
@@ -54,10 +49,10 @@ public class ApiRequester {
      *
      * @param code 要运行的代码片段。
      * @param lang 代码片段的编程语言。
-     * @return 返回代码运行的响应。
+     * @return 返回代码运行的结果。
      * @throws IOException 如果读取配置文件或发送网络请求时发生错误。
      */
-    public static Response getCodeRunResponse(String code, String lang) throws IOException {
+    public static CodeRunResponse getCodeRunResponse(String code, String lang) throws IOException {
         JsonObject jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
         Config config = GSON.fromJson(jsonObject, Config.class);
 
@@ -83,22 +78,21 @@ public class ApiRequester {
                 .addHeader("Content-Type", String.valueOf(RunoobApiConstant.FORM_MEDIA_TYPE))
                 .build();
 
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.RUNOOB, request, HttpClientManager.json(CodeRunResponse.class));
     }
 
-    public static Response getImageRecResult(String taskId) throws IOException {
+    public static JsonObject getImageRecResult(String taskId) throws IOException {
         String json = String.format("{\"task_id\":%s}", taskId);
-        System.out.println(json);
         RequestBody body = RequestBody.create(BaiduApiConstant.JSON_MEDIA_TYPE, json);
         Request request = new Request.Builder()
                 .url(BaiduApiConstant.IMAGE_RESULT_URL + getBaiduImageToken())
                 .method(RequestType.POST.getMethod(), body)
                 .addHeader("Content-Type", String.valueOf(BaiduApiConstant.JSON_MEDIA_TYPE))
                 .build();
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.BAIDU, request, HttpClientManager.JSON_OBJECT);
     }
 
-    public static Response sendImageRec(SendImageRec query) throws IOException {
+    public static JsonObject sendImageRec(SendImageRec query) throws IOException {
         String json = GSON.toJson(query);
 
         RequestBody body = RequestBody.create(BaiduApiConstant.JSON_MEDIA_TYPE, json);
@@ -107,10 +101,10 @@ public class ApiRequester {
                 .method(RequestType.POST.getMethod(), body)
                 .addHeader("Content-Type", String.valueOf(BaiduApiConstant.JSON_MEDIA_TYPE))
                 .build();
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.BAIDU, request, HttpClientManager.JSON_OBJECT);
     }
 
-    public static Response getOlympicData() throws IOException{
+    public static JsonObject getOlympicData() throws IOException{
         String url = BaiduApiConstant.OLYMPIC_URL +
                 "?page=home&match=2024年巴黎奥运会&tab=奖牌榜&&tab_type=single&request__node__params=1";
 
@@ -118,28 +112,28 @@ public class ApiRequester {
                 .url(url)
                 .method(RequestType.GET.getMethod(), null)
                 .build();
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.BAIDU, request, HttpClientManager.JSON_OBJECT);
     }
 
     /**
      * 获取美丽女孩视频的函数。
      * <p>
-     * 通过发送HTTP GET请求到指定的API endpoint，来获取视频内容。
+     * 通过发送HTTP GET请求到指定的API endpoint，把视频内容流式写入指定文件，不在内存中缓存整个视频。
      *
-     * @return byte[] - 返回从API获取的视频数据。
-     * @throws IOException 如果网络请求失败或读取响应时发生错误。
+     * @param target 保存视频的文件。
+     * @param maxBytes 视频大小上限（字节），超过时中止下载。
+     * @return File - 写入完成的视频文件。
+     * @throws IOException 如果网络请求失败、视频超过大小上限或写入文件时发生错误。
      */
-    public static byte[] getBeautifulGirlVideo() throws IOException {
+    public static File downloadBeautifulGirlVideo(File target, long maxBytes) throws IOException {
         // 构建HTTP GET请求，指定请求的URL和请求类型。
         Request request = new Request.Builder()
                 .url(LolimiApiConstant.BEAUTIFUL_GIRL_API)
                 .method(RequestType.GET.getMethod(), null)
                 .build();
 
-        // 执行HTTP请求并获取响应。
-        Response response = HTTP_CLIENT.newCall(request).execute();
-        // 从响应中提取并返回视频数据。
-        return response.body().bytes();
+        // 执行HTTP请求并把视频数据写入文件。
+        return HttpClientManager.execute(HttpProfile.MEDIA, request, HttpClientManager.toFile(target, maxBytes));
     }
 
     /**
@@ -161,10 +155,8 @@ public class ApiRequester {
                 // 设置请求方法为GET
                 .method(RequestType.GET.getMethod(), null)
                 .build();
-        // 执行网络请求并获取响应
-        Response response = HTTP_CLIENT.newCall(request).execute();
-        // 使用GSON从响应体中解析出JSON对象
-        JsonObject jsonObject = GSON.fromJson(response.body().string(), JsonObject.class);
+        // 执行网络请求并从响应体中解析出JSON对象
+        JsonObject jsonObject = HttpClientManager.execute(HttpProfile.MEDIA, request, HttpClientManager.JSON_OBJECT);
         // 从JSON对象中获取数据数组
         JsonArray jsonArray = jsonObject.getAsJsonArray("data");
         // 随机选择一个图片URL
@@ -188,7 +180,7 @@ public class ApiRequester {
      * 1. 读取配置文件，获取配置信息。
      * 2. 根据配置信息和输入的文本内容，构建语音请求对象。
      * 3. 将语音请求对象转换为JSON格式的请求体。
-     * 4. 构建HTTP请求，并发送请求到语音API。
+     * 4. 由语音合成后端池选择后端，构建HTTP请求并发送到该后端。
      * 5. 获取语音API的响应，并返回语音数据的字节流。
      *
      * @param content 文本内容，用于生成语音。
@@ -197,6 +189,19 @@ public class ApiRequester {
      * @throws IOException 如果读取配置文件或网络通信发生错误，则抛出此异常。
      */
     public static byte[] getVoiceWithText (String content, VoiceRole voiceRole) throws IOException {
+        return TtsBackendPool.synthesize(content, voiceRole, apiUrl -> getVoiceWithText(content, voiceRole, apiUrl));
+    }
+
+    /**
+     * 向指定的语音合成后端发送请求。
+     *
+     * @param content 文本内容，用于生成语音。
+     * @param voiceRole 语音角色，用于生成语音。
+     * @param apiUrl 语音合成后端地址。
+     * @return 语音数据的字节流。
+     * @throws IOException 如果读取配置文件或网络通信发生错误，则抛出此异常。
+     */
+    public static byte[] getVoiceWithText (String content, VoiceRole voiceRole, String apiUrl) throws IOException {
         // 读取配置文件，获取配置信息
         JsonObject jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
         Config config = GSON.fromJson(jsonObject, Config.class);
@@ -219,15 +224,12 @@ public class ApiRequester {
 
         // 构建HTTP请求，指定请求URL和方法，并设置请求体
         Request request = new Request.Builder()
-                .url(config.getBotInfo().getVoiceApiConfig().getApiUrl())
+                .url(apiUrl)
                 .method(RequestType.POST.getMethod(), requestBody)
                 .build();
 
-        // 发送HTTP请求，并获取响应
-        Response response = HTTP_CLIENT.newCall(request).execute();
-
-        // 返回语音数据的字节流
-        return response.body().bytes();
+        // 发送HTTP请求，并返回语音数据的字节流
+        return HttpClientManager.execute(HttpProfile.TTS, request, HttpClientManager.BYTES);
     }
 
     /**
@@ -235,10 +237,10 @@ public class ApiRequester {
      * 该方法用于根据提供的周边搜索请求体，构建请求并发送至高德地图API，然后返回响应。
      * <p>
      * @param aroundSearchRequestBody 周边搜索请求体，包含搜索位置、类型、半径、排序规则等信息。
-     * @return Response 返回从高德地图API获取的响应。
+     * @return POIResponse 返回从高德地图API获取的周边搜索结果。
      * @throws IOException 如果在发送请求或读取响应时发生IO异常。
      */
-    public static Response sendAroundSearchRequest (AroundSearchRequestBody aroundSearchRequestBody) throws IOException {
+    public static POIResponse sendAroundSearchRequest (AroundSearchRequestBody aroundSearchRequestBody) throws IOException {
         // 从配置文件读取配置信息
         JsonObject jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
         Config config = GSON.fromJson(jsonObject, Config.class);
@@ -256,15 +258,16 @@ public class ApiRequester {
                 .method(RequestType.GET.getMethod(), null)
                 .build();
 
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.GAODE, request, HttpClientManager.json(POIResponse.class));
     }
 
     /**
      * 从指定的URL获取照片的字节数据。
      * <p>
+     * 下载后交给图片转码流水线处理，满足限制的图片原样返回，过大的图片会被缩小并重新编码。
      * @param photoUrl 照片的URL地址，不能为空。
      * @return 返回从指定URL获取到的照片的字节数据。
-     * @throws IOException 如果在执行HTTP请求或读取响应时发生IO错误。
+     * @throws IOException 如果在执行HTTP请求、读取响应或处理图片时发生IO错误。
      */
     public static byte[] getPhoto(String photoUrl) throws IOException {
         // 构建一个GET请求到指定的URL
@@ -273,12 +276,9 @@ public class ApiRequester {
                 .method(RequestType.GET.getMethod(), null)
                 .build();
 
-        // 执行请求并获取响应
-        Response response = HTTP_CLIENT.newCall(request).execute();
-        // 从响应中提取并返回照片的字节数据
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        ImageIO.write(ImageIO.read(ImageIO.createImageInputStream(response.body().byteStream())), "png" ,byteArrayOutputStream);
-        return byteArrayOutputStream.toByteArray();
+        // 执行请求获取原始照片数据，再按需转码
+        byte[] data = HttpClientManager.execute(HttpProfile.MEDIA, request, HttpClientManager.BYTES);
+        return ImagePipeline.process(data);
     }
 
 
@@ -287,10 +287,10 @@ public class ApiRequester {
      * <p>
      * @param address 查询的地址。
      * @param city 查询的城市。
-     * @return 返回高德地图API的响应。
+     * @return 返回高德地图API响应的JSON对象。
      * @throws IOException 如果读取配置文件或发送请求时发生IO异常。
      */
-    public static Response sendAddressRequest(String address, String city) throws IOException{
+    public static JsonObject sendAddressRequest(String address, String city) throws IOException{
         // 从配置文件读取配置信息
         JsonObject jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
         Config config = GSON.fromJson(jsonObject, Config.class);
@@ -306,31 +306,75 @@ public class ApiRequester {
                 .build();
 
         // 执行请求并返回响应
-        return HTTP_CLIENT.newCall(request).execute();
+        return HttpClientManager.execute(HttpProfile.GAODE, request, HttpClientManager.JSON_OBJECT);
     }
 
 
     /**
      * 向百度API发送请求。
      * <p>
+     * 如果该功能启用了响应缓存，则先按请求内容查找缓存，命中时直接返回缓存的响应，
+     * 未命中时经由调度器按功能优先级排队请求百度API，并只缓存成功的响应。
      * @param messages 要发送的消息列表。
      * @param sender   发送者的QQ号。
-     * @return 返回百度API的响应。
+     * @param feature  调用大模型的功能类型，用于判断是否启用缓存。
+     * @return 返回百度API响应的JSON字符串。
      * @throws IOException 如果执行HTTP请求时发生错误。
      */
-    public static Response sendBaiduRequest(List<Message> messages, Long sender) throws IOException {
-        // 创建请求体
-        RequestBody body = createBaiduRequestBody(messages, sender);
-        // 构建请求，包括设置URL、请求方法、请求头和请求体
-        Request request = new Request.Builder()
-                .url(BaiduApiConstant.AI_API_URL +
-                        "?access_token=" + getBaiduAccessToken())
-                .method(RequestType.POST.getMethod(), body)
-                .addHeader("Content-Type", String.valueOf(BaiduApiConstant.JSON_MEDIA_TYPE))
-                .build();
-        // 执行请求并返回响应
+    public static String sendBaiduRequest(List<Message> messages, Long sender, LlmFeatureType feature) throws IOException {
+        // 构建请求体对象
+        ChatRequestBody requestBody = createBaiduRequestBody(messages, sender);
+
+        // 如果该功能启用了缓存，先查询缓存
+        boolean cacheEnabled = ChatResponseCache.isEnabled(feature);
+        String cacheKey = null;
+        if (cacheEnabled) {
+            cacheKey = ChatResponseCache.generateKey(requestBody);
+            String cached = ChatResponseCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 交给调度器排队执行，限制并发数和QPS
+        LlmPriority priority = feature == null ? LlmPriority.INTERACTIVE : feature.getPriority();
+        String json = LlmDispatcher.submit(priority, () -> {
+            // 构建请求，包括设置URL、请求方法、请求头和请求体
+            Request request = new Request.Builder()
+                    .url(BaiduApiConstant.AI_API_URL +
+                            "?access_token=" + getBaiduAccessToken())
+                    .method(RequestType.POST.getMethod(),
+                            RequestBody.create(BaiduApiConstant.JSON_MEDIA_TYPE, GSON.toJson(requestBody)))
+                    .addHeader("Content-Type", String.valueOf(BaiduApiConstant.JSON_MEDIA_TYPE))
+                    .build();
+
+            // 执行请求并读取响应内容
+            return HttpClientManager.execute(HttpProfile.LLM, request, HttpClientManager.STRING);
+        });
+
+        // 只缓存成功的响应，避免把错误结果缓存下来
+        if (cacheEnabled && isSuccessfulChatResponse(json)) {
+            ChatResponseCache.put(cacheKey, json);
+        }
+        return json;
+    }
 
-        return HTTP_CLIENT.newCall(request).execute();
+    /**
+     * 判断百度聊天接口的响应是否成功。
+     *
+     * @param json 百度聊天接口返回的JSON字符串。
+     * @return 如果响应包含结果且没有错误码，则返回true。
+     */
+    private static boolean isSuccessfulChatResponse(String json) {
+        try {
+            JsonObject jsonObject = GSON.fromJson(json, JsonObject.class);
+            return jsonObject != null
+                    && !jsonObject.has("error_code")
+                    && jsonObject.has("result")
+                    && !jsonObject.get("result").isJsonNull();
+        } catch (Exception e) {
+            return false;
+        }
     }
 
     /**
@@ -340,9 +384,9 @@ public class ApiRequester {
      * @param sender   发送者的QQ号，用于设置用户ID。
      * @return 返回一个封装好的请求体对象，准备发送给百度AI聊天接口。
      */
-    private static RequestBody createBaiduRequestBody(List<Message> messages, Long sender) {
+    private static ChatRequestBody createBaiduRequestBody(List<Message> messages, Long sender) {
         // 构建百度聊天请求体，设置消息、温度、top_k、top_p、惩罚分数、用户ID、是否流式返回等参数
-        ChatRequestBody requestBody = ChatRequestBody.builder()
+        return ChatRequestBody.builder()
                 .messages(messages)
                 .temperature(0.9f)
                 .top_p(1.0f)
@@ -350,12 +394,6 @@ public class ApiRequester {
                 .stream(false)
                 .user_id(String.valueOf(sender))
                 .build();
-
-        // 将构建好的请求体转换为JSON字符串
-        String json = GSON.toJson(requestBody);
-
-        // 创建并返回一个包含JSON字符串的请求体对象，用于向百度API发送请求
-        return RequestBody.create(BaiduApiConstant.JSON_MEDIA_TYPE, json);
     }
 
     /**
@@ -382,11 +420,9 @@ public class ApiRequester {
                 .addHeader("Content-Type", String.valueOf(BaiduApiConstant.FORM_MEDIA_TYPE))
                 .build();
 
-        // 执行请求并获取响应
-        Response response = HTTP_CLIENT.newCall(request).execute();
-
-        // 从响应体中解析出访问令牌并返回
-        return new JSONObject(response.body().string()).getString("access_token");
+        // 执行请求并从响应体中解析出访问令牌
+        return HttpClientManager.execute(HttpProfile.BAIDU, request, HttpClientManager.JSON_OBJECT)
+                .get("access_token").getAsString();
     }
 
     private static String getBaiduImageToken() throws IOException {
@@ -400,8 +436,8 @@ public class ApiRequester {
                 .method(RequestType.POST.getMethod(), body)
                 .addHeader("Content-Type",  String.valueOf(BaiduApiConstant.FORM_MEDIA_TYPE))
                 .build();
-        Response response = HTTP_CLIENT.newCall(request).execute();
-        return new JSONObject(response.body().string()).getString("access_token");
+        return HttpClientManager.execute(HttpProfile.BAIDU, request, HttpClientManager.JSON_OBJECT)
+                .get("access_token").getAsString();
     }
 
     /**
@@ -410,10 +446,10 @@ public class ApiRequester {
      * 这个方法通过调用HTTP客户端，向指定的API端点发送一个GET请求，以获取一个暗黑笑话。
      * 请求的URL由固定的API端点和一个类别参数组成，类别参数用于指定笑话的类型。
      *
-     * @return Response 对象，包含从服务器接收到的响应。
+     * @return 服务器返回的笑话JSON字符串。
      * @throws IOException 如果网络通信出现错误。
      */
-    public static Response getDarkJoke() throws IOException {
+    public static String getDarkJoke() throws IOException {
         // 构建请求对象，指定请求的URL和方法类型
         Request request = new Request.Builder()
                 .url(JokeApiConstant.DARK_JOKE_URL +
@@ -421,8 +457,8 @@ public class ApiRequester {
                 .method(RequestType.GET.getMethod(), null)
                 .build();
 
-        // 执行请求并返回响应
-        return HTTP_CLIENT.newCall(request).execute();
+        // 执行请求并返回响应内容
+        return HttpClientManager.execute(HttpProfile.TEXT, request, HttpClientManager.STRING);
     }
 
     public static String getFuckSomebody() throws IOException{
@@ -434,6 +470,6 @@ public class ApiRequester {
                 .method(RequestType.GET.getMethod(), null)
                 .build();
 
-        return HTTP_CLIENT.newCall(request).execute().body().string();
+        return HttpClientManager.execute(HttpProfile.TEXT, request, HttpClientManager.STRING);
     }
 }
@@ -6,7 +6,9 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
 import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.WordCountConstant;
 import org.kookies.mirai.commen.exceptions.CacheException;
 import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.exceptions.DataWriteException;
@@ -69,46 +71,48 @@ public class CacheManager {
 
     /**
      * 获取指定发送者、群组和日期的个人消息缓存。
+     * <p>
+     * 已经归档的日期从压缩归档中只解压这一天的消息，其余日期从个人消息文件中读取。
      *
      * @param sender 消息发送者ID
      * @param group 消息所属群组ID
      * @param date 指定的日期
      * @param size 返回消息的数量限制，如果为null或小于等于0，则不进行限制
-     * @return 指定条件下的消息列表，如果无符合条件的消息或发生异常，则返回空列表
+     * @return 指定条件下的消息列表，如果无符合条件的消息，则返回空列表
      * @throws CacheException 如果加载数据时发生异常
      */
     public static List<String> getPersonalMessageCache(Long sender, Long group, LocalDate date, Integer size) {
         try {
-            // 根据发送者和群组获取个人消息文件
+            // 根据发送者和群组获取个人消息文件及其归档
             File personalMsgFile = getPersonalMsgFile(sender, group);
-            // 如果文件不存在，则抛出数据加载异常
-            if (!personalMsgFile.exists()) {
+            File archive = MessageArchive.getArchiveFile(personalMsgFile);
+            // 如果文件和归档都不存在，则抛出数据加载异常
+            if (!personalMsgFile.exists() && !archive.exists()) {
                 throw new DataLoadException(MsgConstant.PERSONAL_MESSAGE_CACHE_LOAD_ERROR);
             }
 
+            // 已经归档的日期直接从归档中读取，读够数量后停止解压
+            if (MessageArchive.contains(archive, date)) {
+                return MessageArchive.readDay(archive, date, size);
+            }
+            if (!personalMsgFile.exists()) {
+                return Collections.emptyList();
+            }
+
             // 加载个人消息列表
             List<PersonalMessage> personalMessages = getPersonalMsgList(personalMsgFile);
 
-            // 筛选指定日期的消息，将消息内容合并为一个列表
-            List<String> personalMessageList = personalMessages.stream()
+            // 筛选指定日期的消息，将消息内容合并为一个列表，如果指定了消息数量限制，则对结果进行截取
+            return personalMessages.stream()
                     .filter(personalMessage -> personalMessage.getDate().equals(date))
                     .map(PersonalMessage::getMessages)
                     .flatMap(List::stream)
+                    .limit(size != null && size > 0 ? size : Long.MAX_VALUE)
                     .collect(Collectors.toList());
-
-            // 如果指定了消息数量限制，则对结果进行截取
-            if (size != null && size > 0) {
-                return personalMessageList.stream()
-                        .limit(size)
-                        .collect(Collectors.toList());
-            }
-
         } catch (Exception e) {
             // 如果发生任何异常，则抛出缓存异常
             throw new CacheException(MsgConstant.CACHE_EXCEPTION);
         }
-        // 如果没有符合条件的消息或发生异常，返回空列表
-        return Collections.emptyList();
     }
 
     /**
@@ -165,19 +169,59 @@ public class CacheManager {
         // 在群组目录下生成一周的单词统计
         Map<String, Integer> weekCount = generateWeekCount(groupDir);
 
-        // 创建临时文件，用于存储一周的单词计数
-        File tempFile = new File(groupDir, "tempCnt.txt");
+        // 将一周的单词计数写入临时文件
+        return writeTempWordCountFile(groupDir, WordCountConstant.WEEK_TEMP_FILE, weekCount,
+                MsgConstant.WEEK_WORD_COUNT_WRITE_ERROR);
+    }
 
-        try {
-            // 将单词计数写入到临时文件中
-            FileManager.writeWordMap2Txt(tempFile.getPath(), weekCount);
-        } catch (IOException e) {
-            // 如果写入文件发生IO异常，抛出自定义的数据写入异常
-            throw new DataWriteException(MsgConstant.WEEK_WORD_COUNT_WRITE_ERROR);
+    /**
+     * 根据群组ID获取本月单词统计文件。
+     * <p>
+     * 本月的统计由月度汇总文件和尚未汇总的每日文件流式合并得到，不需要读取本月所有的每日文件，
+     * 只保留去掉停用词后出现次数最多的词。
+     *
+     * @param groupId 群组的唯一标识符，用于定位特定群组的单词统计文件。
+     * @return 返回一个File对象，指向包含本月单词计数的临时文件。
+     * @throws DataLoadException 如果本月还没有任何统计数据，则抛出此异常。
+     * @throws DataWriteException 如果写入文件过程中发生IO异常，则抛出此异常。
+     */
+    public static File getMonthWordCountFile(Long groupId) {
+        File groupDir = getGroupDir(groupId);
+
+        // 月度汇总加上尚未汇总的每日统计
+        Map<String, Integer> monthCount = WordCountRollup.getMonthTopWords(groupDir, LocalDate.now(),
+                WordCountConstant.WORD_CLOUD_TOP_K, getStopWords());
+        if (monthCount.isEmpty()) {
+            throw new DataLoadException(MsgConstant.WORD_COUNT_EMPTY);
         }
 
-        // 返回临时文件File对象
-        return tempFile;
+        return writeTempWordCountFile(groupDir, WordCountConstant.MONTH_TEMP_FILE, monthCount,
+                MsgConstant.MONTH_WORD_COUNT_WRITE_ERROR);
+    }
+
+    /**
+     * 根据群组ID获取本年单词统计文件。
+     * <p>
+     * 本年的统计由年度汇总文件和尚未汇总的每日文件流式合并得到，不需要读取本年所有的每日文件，
+     * 只保留去掉停用词后出现次数最多的词。
+     *
+     * @param groupId 群组的唯一标识符，用于定位特定群组的单词统计文件。
+     * @return 返回一个File对象，指向包含本年单词计数的临时文件。
+     * @throws DataLoadException 如果本年还没有任何统计数据，则抛出此异常。
+     * @throws DataWriteException 如果写入文件过程中发生IO异常，则抛出此异常。
+     */
+    public static File getYearWordCountFile(Long groupId) {
+        File groupDir = getGroupDir(groupId);
+
+        // 年度汇总加上尚未汇总的每日统计
+        Map<String, Integer> yearCount = WordCountRollup.getYearTopWords(groupDir, LocalDate.now(),
+                WordCountConstant.WORD_CLOUD_TOP_K, getStopWords());
+        if (yearCount.isEmpty()) {
+            throw new DataLoadException(MsgConstant.WORD_COUNT_EMPTY);
+        }
+
+        return writeTempWordCountFile(groupDir, WordCountConstant.YEAR_TEMP_FILE, yearCount,
+                MsgConstant.YEAR_WORD_COUNT_WRITE_ERROR);
     }
 
     /**
@@ -202,48 +246,89 @@ public class CacheManager {
      * 根据指定的目录生成过去七天的单词计数统计。
      * <p>
      * 该方法会检查过去七天每一天的单词统计文件，并将这些统计合并到一个单一的映射中。
-     * 如果任何一天的统计文件不存在，将抛出DataLoadException异常。
+     * 某一天没有统计文件时（例如群里当天没有人说话）跳过这一天，只有七天都没有统计文件时才抛出异常。
      *
      * @param groupDir 字符串统计文件所在的目录。
      * @return 返回一个映射，其中键是单词，值是该单词在过去七天中的总出现次数。
-     * @throws DataLoadException 如果任何一天的统计文件不存在，则抛出此异常。
+     * @throws DataLoadException 如果七天都没有统计文件或读取文件失败，则抛出此异常。
      */
     private static Map<String, Integer> generateWeekCount(File groupDir) {
         // 初始化一个映射，用于存储过去七天的单词计数总和。
         Map<String, Integer> weekMap = new HashMap<>();
+        int days = 0;
         // 遍历过去七天。
         for (int i = 0; i < 7; i++) {
             // 根据当前日期减去天数生成文件名，并构造文件对象。
-            File wordCnt = new File(groupDir, LocalDate.now().minusDays(i) + ".txt");
-            // 检查该日期的统计文件是否存在。
-            if (wordCnt.exists()) {
-                Map<String, Integer> tempMap;
-                try {
-                    // 读取该日期的统计文件内容到临时映射中。
-                    tempMap = FileManager.readWordMap(wordCnt.getPath());
-                } catch (IOException e) {
-                    // 如果读取文件时发生IO异常，抛出自定义的数据加载异常。
-                    throw new DataLoadException(MsgConstant.WEEK_WORD_COUNT_LOAD_ERROR);
-                }
-                // 将临时映射中的单词计数合并到weekMap中。
-                tempMap.forEach((key, value) -> {
-                    if (!key.trim().isEmpty()) {
-                        if (weekMap.containsKey(key)) {
-                            weekMap.put(key, weekMap.get(key) + value);
-                        } else {
-                            weekMap.put(key, value);
-                        }
-                    }
-                });
-            } else {
-                // 如果有任何一天的统计文件不存在，抛出自定义的数据加载异常。
-                throw new DataLoadException(MsgConstant.WEEK_WORD_COUNT_ISNT_HAS_SEVEN_DAYS);
+            File wordCnt = new File(groupDir, LocalDate.now().minusDays(i) + WordCountConstant.DAILY_FILE_EXT);
+            // 没有统计文件的日期直接跳过。
+            if (!wordCnt.exists()) {
+                continue;
+            }
+            Map<String, Integer> tempMap;
+            try {
+                // 读取该日期的统计文件内容到临时映射中。
+                tempMap = FileManager.readWordMap(wordCnt.getPath());
+            } catch (IOException e) {
+                // 如果读取文件时发生IO异常，抛出自定义的数据加载异常。
+                throw new DataLoadException(MsgConstant.WEEK_WORD_COUNT_LOAD_ERROR);
             }
+            // 将临时映射中的单词计数合并到weekMap中。
+            WordCountRollup.merge(weekMap, tempMap);
+            days++;
+        }
+        // 七天都没有统计文件时，没有可以展示的数据。
+        if (days == 0) {
+            throw new DataLoadException(MsgConstant.WORD_COUNT_EMPTY);
         }
         // 返回合并后的单词计数映射。
         return weekMap;
     }
 
+    /**
+     * 将单词计数写入群组目录下的临时文件，供生成词云使用，使用后由调用方删除。
+     *
+     * @param groupDir 群组目录。
+     * @param fileName 临时文件名。
+     * @param wordCount 单词计数映射。
+     * @param errorMsg 写入失败时的提示信息。
+     * @return 临时文件。
+     * @throws DataWriteException 如果写入文件过程中发生IO异常，则抛出此异常。
+     */
+    private static File writeTempWordCountFile(File groupDir, String fileName, Map<String, Integer> wordCount, String errorMsg) {
+        File tempFile = new File(groupDir, fileName);
+        try {
+            FileManager.writeWordMap2Txt(tempFile.getPath(), wordCount);
+        } catch (IOException e) {
+            throw new DataWriteException(errorMsg);
+        }
+        return tempFile;
+    }
+
+    /**
+     * 读取停用词列表。
+     *
+     * @return 停用词集合。
+     * @throws DataLoadException 如果读取停用词文件失败，则抛出此异常。
+     */
+    private static Set<String> getStopWords() {
+        try {
+            return FileManager.readStopWords(DataPathInfo.STOP_WORD_PATH);
+        } catch (IOException e) {
+            throw new DataLoadException(MsgConstant.WORD_MAP_LOAD_ERROR);
+        }
+    }
+
+    /**
+     * 根据群组ID获取群组的缓存目录。
+     *
+     * @param groupId 群组ID。
+     * @return 群组目录。
+     */
+    private static File getGroupDir(Long groupId) {
+        String groupDirName = getGroupDirName(getConfig().getEnableGroupList(), groupId);
+        return new File(DataPathInfo.MESSAGE_CACHE_DIR_PATH, groupDirName);
+    }
+
     /**
      * 更新个人消息缓存。
      * <p>
@@ -548,10 +633,8 @@ public class CacheManager {
     private static Config getConfig() {
         Config config;
         try {
-            // 从指定路径读取JSON配置文件
-            JsonObject jsonObject = FileManager.readJsonFile(CONFIG.getPath());
-            // 使用GSON从JSON对象解析出Config对象
-            config = GSON.fromJson(jsonObject, Config.class);
+            // 配置文件没有变化时复用已解析的Config对象
+            config = ConfigurationLoader.getConfig();
         } catch (Exception e) {
             // 抓住任何异常，并抛出自定义的CacheException异常
             throw new CacheException(MsgConstant.CACHE_EXCEPTION);
@@ -0,0 +1,234 @@
+package org.kookies.mirai.commen.utils;
+
+import com.google.gson.JsonObject;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.LlmCacheConstant;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.pojo.entity.LlmCacheConfig;
+import org.kookies.mirai.pojo.entity.api.request.baidu.ai.ChatRequestBody;
+import org.kookies.mirai.pojo.entity.api.request.baidu.ai.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大模型响应缓存。
+ * <p>
+ * 以规范化后的请求消息和采样参数的哈希作为键，缓存百度大模型返回的原始JSON，
+ * 先查内存再查磁盘，在有效期内的相同请求直接在本地返回，不再请求百度。
+ *
+ * @author General_K1ng
+ */
+public class ChatResponseCache {
+    private static final File CACHE_DIR = new File(DataPathInfo.LLM_CACHE_DIR_PATH);
+
+    private static final Map<String, CacheEntry> MEMORY_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 判断指定功能是否启用了响应缓存。
+     *
+     * @param feature 调用大模型的功能类型，为null时视为不缓存。
+     * @return 如果缓存总开关打开且该功能在启用列表中，则返回true。
+     */
+    public static boolean isEnabled(LlmFeatureType feature) {
+        if (feature == null) {
+            return false;
+        }
+        LlmCacheConfig cacheConfig = ConfigurationLoader.getConfig().getLlmCacheConfig();
+        if (cacheConfig == null) {
+            return LlmCacheConstant.DEFAULT_ENABLE
+                    && LlmCacheConstant.DEFAULT_FEATURES.contains(feature.getFeature());
+        }
+
+        boolean enable = cacheConfig.getEnable() == null ? LlmCacheConstant.DEFAULT_ENABLE : cacheConfig.getEnable();
+        List<String> features = cacheConfig.getFeatures() == null ? LlmCacheConstant.DEFAULT_FEATURES : cacheConfig.getFeatures();
+        return enable && features.contains(feature.getFeature());
+    }
+
+    /**
+     * 根据请求体生成缓存键。
+     * <p>
+     * 只使用消息的角色、规范化后的内容以及采样参数，user_id不参与计算，
+     * 这样同一群内不同用户发起的相同请求可以共享同一份缓存。
+     *
+     * @param requestBody 百度聊天请求体。
+     * @return 请求内容的SHA-256十六进制摘要。
+     */
+    public static String generateKey(ChatRequestBody requestBody) {
+        StringBuilder sb = new StringBuilder();
+        for (Message message : requestBody.getMessages()) {
+            sb.append(message.getRole()).append('\u0000')
+                    .append(normalize(message.getContent())).append('\u0001');
+        }
+        sb.append("temperature=").append(requestBody.getTemperature())
+                .append(";top_p=").append(requestBody.getTop_p())
+                .append(";penalty_score=").append(requestBody.getPenalty_score())
+                .append(";stop=").append(requestBody.getStop());
+        return sha256(sb.toString());
+    }
+
+    /**
+     * 获取缓存的响应。
+     * <p>
+     * 先查询内存缓存，未命中时再查询磁盘缓存，磁盘命中后回填到内存中。
+     * 已过期的条目会被顺便清除。
+     *
+     * @param key 缓存键。
+     * @return 缓存的响应JSON，未命中或已过期时返回null。
+     */
+    public static String get(String key) {
+        long now = System.currentTimeMillis();
+
+        CacheEntry entry = MEMORY_CACHE.get(key);
+        if (entry != null) {
+            if (entry.expireAt > now) {
+                recordLookup(true);
+                return entry.body;
+            }
+            MEMORY_CACHE.remove(key);
+        }
+
+        File cacheFile = getCacheFile(key);
+        if (!cacheFile.exists()) {
+            recordLookup(false);
+            return null;
+        }
+        try {
+            JsonObject jsonObject = FileManager.readJsonFile(cacheFile.getPath());
+            long expireAt = jsonObject.get("expireAt").getAsLong();
+            if (expireAt <= now) {
+                cacheFile.delete();
+                recordLookup(false);
+                return null;
+            }
+            String body = jsonObject.get("body").getAsString();
+            putMemory(key, new CacheEntry(body, expireAt));
+            recordLookup(true);
+            return body;
+        } catch (Exception e) {
+            // 磁盘缓存损坏时直接丢弃，按未命中处理
+            cacheFile.delete();
+            recordLookup(false);
+            return null;
+        }
+    }
+
+    private static void recordLookup(boolean hit) {
+        MetricsRegistry.increment(MetricsConstant.CACHE_REQUESTS, "cache", "llm",
+                "result", hit ? MetricsConstant.CACHE_HIT : MetricsConstant.CACHE_MISS);
+    }
+
+    /**
+     * 写入缓存。
+     * <p>
+     * 同时写入内存和磁盘，磁盘写入失败不影响本次请求，只是无法跨重启复用。
+     *
+     * @param key 缓存键。
+     * @param body 百度返回的响应JSON。
+     */
+    public static void put(String key, String body) {
+        long expireAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(getTtlMinutes());
+        putMemory(key, new CacheEntry(body, expireAt));
+
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("expireAt", expireAt);
+        jsonObject.addProperty("body", body);
+        try {
+            if (!CACHE_DIR.exists()) {
+                CACHE_DIR.mkdirs();
+            }
+            FileManager.writeJsonFile(getCacheFile(key).getPath(), jsonObject);
+        } catch (IOException ignored) {
+            // 磁盘缓存只是加速手段，写入失败时保留内存缓存即可
+        }
+    }
+
+    /**
+     * 写入内存缓存，超过容量时优先淘汰已过期的条目，其次淘汰最早过期的条目。
+     *
+     * @param key 缓存键。
+     * @param entry 缓存条目。
+     */
+    private static void putMemory(String key, CacheEntry entry) {
+        int maxEntries = getMaxMemoryEntries();
+        if (MEMORY_CACHE.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            MEMORY_CACHE.entrySet().removeIf(e -> e.getValue().expireAt <= now);
+        }
+        while (MEMORY_CACHE.size() >= maxEntries) {
+            MEMORY_CACHE.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().expireAt))
+                    .ifPresent(e -> MEMORY_CACHE.remove(e.getKey()));
+        }
+        MEMORY_CACHE.put(key, entry);
+    }
+
+    /**
+     * 规范化消息内容，去掉首尾空白并合并连续空白，避免格式差异导致缓存未命中。
+     *
+     * @param content 原始消息内容。
+     * @return 规范化后的内容。
+     */
+    private static String normalize(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.trim().replaceAll("\\s+", " ");
+    }
+
+    private static File getCacheFile(String key) {
+        return new File(CACHE_DIR, key + LlmCacheConstant.CACHE_FILE_EXT);
+    }
+
+    private static long getTtlMinutes() {
+        LlmCacheConfig cacheConfig = ConfigurationLoader.getConfig().getLlmCacheConfig();
+        if (cacheConfig == null || cacheConfig.getTtlMinutes() == null) {
+            return LlmCacheConstant.DEFAULT_TTL_MINUTES;
+        }
+        return cacheConfig.getTtlMinutes();
+    }
+
+    private static int getMaxMemoryEntries() {
+        LlmCacheConfig cacheConfig = ConfigurationLoader.getConfig().getLlmCacheConfig();
+        if (cacheConfig == null || cacheConfig.getMaxMemoryEntries() == null) {
+            return LlmCacheConstant.DEFAULT_MAX_MEMORY_ENTRIES;
+        }
+        return Math.max(1, cacheConfig.getMaxMemoryEntries());
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // 所有JVM都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CacheEntry {
+        private final String body;
+
+        private final long expireAt;
+
+        private CacheEntry(String body, long expireAt) {
+            this.body = body;
+            this.expireAt = expireAt;
+        }
+    }
+}
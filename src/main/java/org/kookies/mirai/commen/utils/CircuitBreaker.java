@@ -0,0 +1,159 @@
+package org.kookies.mirai.commen.utils;
+
+/**
+ * 单个主机的熔断器。
+ * <p>
+ * 使用固定大小的滑动窗口记录最近若干次请求的结果，当失败率或慢请求比例超过阈值时进入熔断状态，
+ * 熔断期间的请求直接失败；熔断时间结束后进入半开状态，放行少量试探请求，
+ * 试探全部成功则恢复，任意一次失败或过慢则重新熔断。
+ *
+ * @author General_K1ng
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallMillis;
+
+    private final long openMillis;
+
+    private final int halfOpenCalls;
+
+    // 滑动窗口，记录每次请求是否失败、是否过慢
+    private final boolean[] failures;
+
+    private final boolean[] slows;
+
+    private int position = 0;
+
+    private int recorded = 0;
+
+    private int failureCount = 0;
+
+    private int slowCount = 0;
+
+    private State state = State.CLOSED;
+
+    private long openUntil = 0;
+
+    private int halfOpenPermitted = 0;
+
+    private int halfOpenSucceeded = 0;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallMillis, long openMillis, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.halfOpenCalls = halfOpenCalls;
+        this.failures = new boolean[windowSize];
+        this.slows = new boolean[windowSize];
+    }
+
+    /**
+     * 判断当前是否允许发出请求。
+     *
+     * @return 熔断关闭时返回true；熔断中返回false；半开状态下只放行有限的试探请求。
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            // 熔断时间结束，进入半开状态
+            state = State.HALF_OPEN;
+            halfOpenPermitted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitted++;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次请求的结果。
+     *
+     * @param failed 请求是否失败。
+     * @param durationMillis 请求耗时（毫秒）。
+     */
+    public synchronized void onResult(boolean failed, long durationMillis) {
+        boolean slow = durationMillis >= slowCallMillis;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionToOpen();
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                // 试探请求全部成功，恢复正常并清空窗口
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        // 覆盖窗口中最旧的记录
+        if (recorded == windowSize) {
+            if (failures[position]) failureCount--;
+            if (slows[position]) slowCount--;
+        } else {
+            recorded++;
+        }
+        failures[position] = failed;
+        slows[position] = slow;
+        if (failed) failureCount++;
+        if (slow) slowCount++;
+        position = (position + 1) % windowSize;
+
+        // 请求数足够时按比例判断是否需要熔断
+        if (recorded >= minimumCalls) {
+            double failureRate = failureCount * 100.0 / recorded;
+            double slowRate = slowCount * 100.0 / recorded;
+            if (failureRate >= failureRateThreshold || slowRate >= slowCallRateThreshold) {
+                transitionToOpen();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        // 熔断时间已过但还没有新请求时，对外显示为半开
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void transitionToOpen() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + openMillis;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCount = 0;
+        for (int i = 0; i < windowSize; i++) {
+            failures[i] = false;
+            slows[i] = false;
+        }
+    }
+}
@@ -12,9 +12,11 @@ import org.kookies.mirai.pojo.entity.api.request.baidu.ai.Message;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -215,7 +217,8 @@ public class FileManager {
 
     /**
      * 从指定的文件路径读取单词映射。
-     * 每行映射文件内容格式为 "单词:计数"，本方法将解析这些内容并构建一个单词到计数的映射。
+     * 每行映射文件内容格式为 "计数:单词"，本方法将解析这些内容并构建一个单词到计数的映射。
+     * 只按第一个冒号拆分，单词中包含冒号时不会被丢弃；格式错误的行直接跳过。
      *
      * @param wordMapFilePath 映射文件的路径，相对于类路径。
      * @return 包含单词及其出现次数的映射。
@@ -224,21 +227,44 @@ public class FileManager {
     public static Map<String, Integer> readWordMap(String wordMapFilePath) throws IOException {
         Map<String, Integer> wordMap = new HashMap<>();
 
-        try (BufferedReader bf = new BufferedReader(new FileReader(wordMapFilePath))) {
+        // 与 writeWordMap2Txt 一样使用 UTF-8 编码，不依赖系统默认编码
+        try (BufferedReader bf = Files.newBufferedReader(Paths.get(wordMapFilePath), StandardCharsets.UTF_8)) {
             String line;
             while ((line = bf.readLine()) != null) {
-                String[] parts = line.split(":");
-                if (parts.length == 2) {
-                    int count = Integer.parseInt(parts[0].trim());
-                    String word = parts[1].trim();
-                    wordMap.put(word, count);
+                int index = line.indexOf(':');
+                if (index <= 0) {
+                    continue;
+                }
+                String word = line.substring(index + 1).trim();
+                if (word.isEmpty()) {
+                    continue;
+                }
+                try {
+                    wordMap.put(word, Integer.parseInt(line.substring(0, index).trim()));
+                } catch (NumberFormatException e) {
+                    // 计数不是数字的行视为格式错误
                 }
             }
         }
-        System.out.println("Word map loaded successfully.");
         return wordMap;
     }
 
+    /**
+     * 用临时文件替换目标文件，目标文件所在的文件系统支持时使用原子移动。
+     *
+     * @param source 临时文件。
+     * @param target 目标文件。
+     * @throws IOException 如果移动文件失败。
+     */
+    public static void replace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private static Config getConfig() {
         Config config;
         try {
@@ -1,68 +1,432 @@
 package org.kookies.mirai.commen.utils;
 
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+import net.mamoe.mirai.spi.AudioToSilkService;
+import net.mamoe.mirai.utils.ExternalResource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.AudioConstant;
 import org.kookies.mirai.commen.constant.MsgConstant;
 import org.kookies.mirai.commen.exceptions.FormatConvertException;
+import org.kookies.mirai.pojo.entity.AudioConfig;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 音频格式转换工具。
+ * <p>
+ * 默认在进程内完成转换：解析WAV数据，混音为单声道并重采样为16位PCM，
+ * 再交给 mirai-silk-converter 注册的 AudioToSilkService 编码为SILK，全程只操作字节数组。
+ * ffmpeg只作为可选的后备方案，路径由配置指定，通过管道传入和读出数据，不使用临时文件。
+ *
+ * @author General_K1ng
+ */
 public class FormatConverter {
+    private static final Log log = LogFactory.getLog(FormatConverter.class);
+
     /**
-     * 将WAV格式的音频数据转换为AMR格式。
+     * 将WAV格式的音频数据转换为可以上传的语音数据。
+     * <p>
+     * 根据配置选择进程内SILK编码或ffmpeg转换为AMR，进程内编码失败且开启了后备方案时改用ffmpeg。
      *
      * @param wavData WAV格式的音频数据。
-     * @return AMR格式的音频数据。
+     * @return SILK或AMR格式的语音数据。
      * @throws FormatConvertException 如果转换过程中发生错误。
      */
-    public static byte[] convertWavToAmr(byte[] wavData) {
+    public static byte[] convertWavToVoice(byte[] wavData) {
+        AudioConfig audioConfig = getConfig();
+        String encoder = audioConfig.getEncoder() == null ? AudioConstant.DEFAULT_ENCODER : audioConfig.getEncoder();
+        if (AudioConstant.ENCODER_FFMPEG.equalsIgnoreCase(encoder)) {
+            return convertWavToAmr(wavData, audioConfig);
+        }
+
         try {
-            // 将WAV数据写入临时文件
-            Path tempWavFile = Files.createTempFile("temp", ".wav");
-            try (OutputStream os = Files.newOutputStream(tempWavFile)) {
-                os.write(wavData);
+            int sampleRate = audioConfig.getSampleRate() == null
+                    ? AudioConstant.DEFAULT_SAMPLE_RATE : audioConfig.getSampleRate();
+            return convertWavToSilk(wavData, sampleRate);
+        } catch (IOException | RuntimeException e) {
+            boolean fallback = audioConfig.getFfmpegFallback() == null
+                    ? AudioConstant.DEFAULT_FFMPEG_FALLBACK : audioConfig.getFfmpegFallback();
+            if (!fallback) {
+                log.warn("语音SILK编码失败：" + e.getMessage());
+                throw new FormatConvertException(MsgConstant.FORMAT_CONVERT_ERROR);
             }
+            log.warn("语音SILK编码失败，改用ffmpeg转换：" + e.getMessage());
+            return convertWavToAmr(wavData, audioConfig);
+        }
+    }
 
-            // 使用FFmpeg将WAV文件转换为AMR格式
-            Path tempAmrFile = Files.createTempFile("temp", ".amr");
-            ProcessBuilder processBuilder = new ProcessBuilder("/home/ffmpeg/target/bin/ffmpeg",
-                    "-y",
-                    "-i",
-                    tempWavFile.toString(),
-                    "-ar", "8000",
-                    "-ab", "12.2k",
-                    "-ac", "1",
-                    tempAmrFile.toString());
-            processBuilder.redirectErrorStream(true);
-            Process process = processBuilder.start();
-            System.out.println("Converting WAV to AMR...");
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                // 进程执行失败，记录错误信息
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        System.err.println(line);
-                    }
+    /**
+     * 获取配置的编码采样率，分段合成时各段的PCM统一重采样到该采样率后再拼接。
+     *
+     * @return 编码采样率。
+     */
+    public static int getSampleRate() {
+        AudioConfig audioConfig = getConfig();
+        return audioConfig.getSampleRate() == null ? AudioConstant.DEFAULT_SAMPLE_RATE : audioConfig.getSampleRate();
+    }
+
+    /**
+     * 获取当前编码配置的签名，编码方式或采样率变化后产生的语音不同，缓存时需要区分。
+     *
+     * @return 形如 silk@24000 的编码签名。
+     */
+    public static String getEncoderSignature() {
+        AudioConfig audioConfig = getConfig();
+        String encoder = audioConfig.getEncoder() == null ? AudioConstant.DEFAULT_ENCODER : audioConfig.getEncoder();
+        if (AudioConstant.ENCODER_FFMPEG.equalsIgnoreCase(encoder)) {
+            return AudioConstant.ENCODER_FFMPEG + "@" + AudioConstant.AMR_SAMPLE_RATE;
+        }
+        return AudioConstant.ENCODER_SILK + "@" + getSampleRate();
+    }
+
+    /**
+     * 获取实际产生这段语音的编码签名。
+     * <p>
+     * SILK编码失败并回退到ffmpeg时，产生的是AMR而不是配置的SILK，缓存时需要按实际的编码区分，
+     * 否则SILK恢复后仍会命中回退时的AMR。
+     *
+     * @param voiceData 编码完成的语音数据。
+     * @return AMR数据返回ffmpeg的编码签名，否则返回当前配置的编码签名。
+     */
+    public static String getEncoderSignature(byte[] voiceData) {
+        if (isAmr(voiceData)) {
+            return AudioConstant.ENCODER_FFMPEG + "@" + AudioConstant.AMR_SAMPLE_RATE;
+        }
+        return getEncoderSignature();
+    }
+
+    /**
+     * 在进程内将WAV格式的音频数据编码为SILK格式。
+     *
+     * @param wavData WAV格式的音频数据。
+     * @param sampleRate 编码前重采样的目标采样率。
+     * @return SILK格式的语音数据。
+     * @throws IOException 如果WAV数据无法解析或编码失败。
+     */
+    public static byte[] convertWavToSilk(byte[] wavData, int sampleRate) throws IOException {
+        // 统一为单声道16位PCM，避免编码器因为输入格式不同而失败
+        short[] pcm = decodeWav(wavData, sampleRate);
+        byte[] normalized = encodeWav(pcm, sampleRate);
+
+        AudioToSilkService service = AudioToSilkService.getInstance();
+        try (ExternalResource source = ExternalResource.create(normalized)) {
+            ExternalResource silk = BuildersKt.runBlocking(EmptyCoroutineContext.INSTANCE,
+                    (scope, continuation) -> service.convert(source, continuation));
+            try {
+                byte[] data;
+                try (InputStream input = silk.inputStream()) {
+                    data = readFully(input);
                 }
-                throw new FormatConvertException(MsgConstant.FORMAT_CONVERT_ERROR);
+                // 没有注册编码器时服务会原样返回输入
+                if (isWav(data)) {
+                    throw new IOException("AudioToSilkService not available");
+                }
+                return data;
+            } finally {
+                if (silk != source) {
+                    silk.close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 解析WAV数据，混音为单声道并线性重采样到目标采样率。
+     * <p>
+     * 支持8、16、24、32位整数PCM和32位浮点PCM。
+     *
+     * @param wavData WAV格式的音频数据。
+     * @param targetRate 目标采样率。
+     * @return 单声道16位PCM采样。
+     * @throws IOException 如果WAV数据格式不受支持。
+     */
+    public static short[] decodeWav(byte[] wavData, int targetRate) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(wavData).order(ByteOrder.LITTLE_ENDIAN);
+        if (!isWav(wavData)) {
+            throw new IOException("Not a RIFF/WAVE stream");
+        }
+        buffer.position(12);
+
+        int formatTag = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int bitsPerSample = 0;
+        int dataOffset = -1;
+        int dataLength = 0;
+
+        // 逐个读取RIFF块，找到fmt和data块
+        while (buffer.remaining() >= 8) {
+            String chunkId = new String(wavData, buffer.position(), 4, StandardCharsets.US_ASCII);
+            buffer.position(buffer.position() + 4);
+            long chunkSize = buffer.getInt() & 0xFFFFFFFFL;
+            int chunkStart = buffer.position();
+
+            if ("fmt ".equals(chunkId)) {
+                formatTag = buffer.getShort(chunkStart) & 0xFFFF;
+                channels = buffer.getShort(chunkStart + 2);
+                sampleRate = buffer.getInt(chunkStart + 4);
+                bitsPerSample = buffer.getShort(chunkStart + 14);
+                // 扩展格式的实际编码在子格式GUID的前两个字节
+                if ((short) formatTag == AudioConstant.WAVE_FORMAT_EXTENSIBLE && chunkSize >= 26) {
+                    formatTag = buffer.getShort(chunkStart + 24) & 0xFFFF;
+                }
+            } else if ("data".equals(chunkId)) {
+                dataOffset = chunkStart;
+                // 流式生成的WAV可能没有填写真实长度，以实际剩余长度为准
+                dataLength = (int) Math.min(chunkSize, wavData.length - chunkStart);
+                break;
             }
 
-            // 读取转换后的AMR文件数据
-            byte[] amrData = Files.readAllBytes(tempAmrFile);
+            // 块按偶数字节对齐
+            long next = chunkStart + chunkSize + (chunkSize & 1);
+            if (next > wavData.length) {
+                break;
+            }
+            buffer.position((int) next);
+        }
 
-            // 删除临时文件
-            Files.deleteIfExists(tempWavFile);
-            Files.deleteIfExists(tempAmrFile);
+        if (dataOffset < 0 || channels <= 0 || sampleRate <= 0) {
+            throw new IOException("Missing fmt or data chunk");
+        }
+        boolean floatFormat = formatTag == AudioConstant.WAVE_FORMAT_IEEE_FLOAT && bitsPerSample == 32;
+        boolean pcmFormat = formatTag == AudioConstant.WAVE_FORMAT_PCM
+                && (bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32);
+        if (!floatFormat && !pcmFormat) {
+            throw new IOException("Unsupported WAV format " + formatTag + "/" + bitsPerSample);
+        }
+
+        // 混音为单声道
+        int bytesPerSample = bitsPerSample / 8;
+        int frameSize = bytesPerSample * channels;
+        int frames = dataLength / frameSize;
+        float[] mono = new float[frames];
+        for (int i = 0; i < frames; i++) {
+            int frameOffset = dataOffset + i * frameSize;
+            float sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += readSample(buffer, frameOffset + c * bytesPerSample, bitsPerSample, floatFormat);
+            }
+            mono[i] = sum / channels;
+        }
 
+        return toPcm16(resample(mono, sampleRate, targetRate));
+    }
+
+    /**
+     * 将单声道16位PCM采样封装为WAV格式。
+     *
+     * @param pcm 单声道16位PCM采样。
+     * @param sampleRate 采样率。
+     * @return WAV格式的音频数据。
+     */
+    public static byte[] encodeWav(short[] pcm, int sampleRate) {
+        int dataLength = pcm.length * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(36 + dataLength).put(new byte[]{'W', 'A', 'V', 'E'});
+        buffer.put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort(AudioConstant.WAVE_FORMAT_PCM)
+                .putShort((short) 1)
+                .putInt(sampleRate)
+                .putInt(sampleRate * 2)
+                .putShort((short) 2)
+                .putShort((short) 16);
+        buffer.put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataLength);
+        for (short sample : pcm) {
+            buffer.putShort(sample);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 调用外部ffmpeg将WAV格式的音频数据转换为AMR格式。
+     * <p>
+     * 数据通过标准输入输出传递，不落盘。
+     *
+     * @param wavData WAV格式的音频数据。
+     * @param audioConfig 语音编码配置。
+     * @return AMR格式的音频数据。
+     * @throws FormatConvertException 如果ffmpeg不可用或转换失败。
+     */
+    private static byte[] convertWavToAmr(byte[] wavData, AudioConfig audioConfig) {
+        String ffmpegPath = audioConfig.getFfmpegPath() == null || audioConfig.getFfmpegPath().isEmpty()
+                ? AudioConstant.DEFAULT_FFMPEG_PATH : audioConfig.getFfmpegPath();
+        int timeoutSeconds = audioConfig.getFfmpegTimeoutSeconds() == null
+                ? AudioConstant.DEFAULT_FFMPEG_TIMEOUT_SECONDS : audioConfig.getFfmpegTimeoutSeconds();
+
+        ProcessBuilder processBuilder = new ProcessBuilder(ffmpegPath,
+                "-hide_banner",
+                "-loglevel", "error",
+                "-f", "wav",
+                "-i", "pipe:0",
+                "-ar", String.valueOf(AudioConstant.AMR_SAMPLE_RATE),
+                "-ab", AudioConstant.AMR_BIT_RATE,
+                "-ac", "1",
+                "-f", "amr",
+                "pipe:1");
+        Process process = null;
+        try {
+            process = processBuilder.start();
+            Process running = process;
+
+            // 写入和读取必须并行，否则管道缓冲区写满后两边会互相等待
+            Thread writer = new Thread(() -> {
+                try (OutputStream stdin = running.getOutputStream()) {
+                    stdin.write(wavData);
+                } catch (IOException ignored) {
+                    // ffmpeg提前退出时写入会失败，以退出码为准
+                }
+            }, "kookie-ffmpeg-writer");
+            writer.setDaemon(true);
+            writer.start();
+
+            ByteArrayOutputStream errors = new ByteArrayOutputStream();
+            Thread errorReader = new Thread(() -> {
+                try (InputStream stderr = running.getErrorStream()) {
+                    errors.write(readFully(stderr));
+                } catch (IOException ignored) {
+                    // 错误输出只用于日志
+                }
+            }, "kookie-ffmpeg-stderr");
+            errorReader.setDaemon(true);
+            errorReader.start();
+
+            // 标准输出也在单独的线程中读取，ffmpeg卡住不关闭输出时超时仍然生效
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Thread outputReader = new Thread(() -> {
+                try (InputStream stdout = running.getInputStream()) {
+                    output.write(readFully(stdout));
+                } catch (IOException ignored) {
+                    // 读取失败时输出为空，按转换失败处理
+                }
+            }, "kookie-ffmpeg-stdout");
+            outputReader.setDaemon(true);
+            outputReader.start();
+
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("ffmpeg timed out after " + timeoutSeconds + "s");
+            }
+            // 进程退出后管道关闭，读取线程很快结束
+            outputReader.join(TimeUnit.SECONDS.toMillis(1));
+            errorReader.join(TimeUnit.SECONDS.toMillis(1));
+            byte[] amrData = output.toByteArray();
+            if (process.exitValue() != 0 || amrData.length == 0) {
+                log.warn("ffmpeg转换失败：" + errors.toString("UTF-8").trim());
+                throw new FormatConvertException(MsgConstant.FORMAT_CONVERT_ERROR);
+            }
             return amrData;
-        } catch (IOException | InterruptedException e) {
-            // 记录异常信息
+        } catch (IOException e) {
+            log.warn("ffmpeg转换失败：" + e.getMessage());
+            throw new FormatConvertException(MsgConstant.FORMAT_CONVERT_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new FormatConvertException(MsgConstant.FORMAT_CONVERT_ERROR);
+        } finally {
+            if (process != null) {
+                process.destroy();
+            }
         }
     }
+
+    private static float readSample(ByteBuffer buffer, int offset, int bitsPerSample, boolean floatFormat) {
+        if (floatFormat) {
+            return buffer.getFloat(offset);
+        }
+        switch (bitsPerSample) {
+            case 8:
+                // 8位PCM是无符号的
+                return ((buffer.get(offset) & 0xFF) - 128) / 128f;
+            case 16:
+                return buffer.getShort(offset) / 32768f;
+            case 24:
+                int value = (buffer.get(offset) & 0xFF)
+                        | (buffer.get(offset + 1) & 0xFF) << 8
+                        | buffer.get(offset + 2) << 16;
+                return value / 8388608f;
+            default:
+                return buffer.getInt(offset) / 2147483648f;
+        }
+    }
+
+    /**
+     * 线性插值重采样。
+     *
+     * @param samples 原始采样。
+     * @param sourceRate 原始采样率。
+     * @param targetRate 目标采样率。
+     * @return 重采样后的采样。
+     */
+    private static float[] resample(float[] samples, int sourceRate, int targetRate) {
+        if (sourceRate == targetRate || samples.length == 0) {
+            return samples;
+        }
+        int length = (int) ((long) samples.length * targetRate / sourceRate);
+        float[] result = new float[length];
+        double step = (double) sourceRate / targetRate;
+        for (int i = 0; i < length; i++) {
+            double position = i * step;
+            int index = (int) position;
+            double fraction = position - index;
+            float current = samples[Math.min(index, samples.length - 1)];
+            float next = samples[Math.min(index + 1, samples.length - 1)];
+            result[i] = (float) (current + (next - current) * fraction);
+        }
+        return result;
+    }
+
+    private static short[] toPcm16(float[] samples) {
+        short[] pcm = new short[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            float clamped = Math.max(-1f, Math.min(1f, samples[i]));
+            pcm[i] = (short) Math.round(clamped * 32767);
+        }
+        return pcm;
+    }
+
+    private static boolean isWav(byte[] data) {
+        return data.length >= 12
+                && data[0] == 'R' && data[1] == 'I' && data[2] == 'F' && data[3] == 'F'
+                && data[8] == 'W' && data[9] == 'A' && data[10] == 'V' && data[11] == 'E';
+    }
+
+    private static boolean isAmr(byte[] data) {
+        byte[] magic = AudioConstant.AMR_MAGIC.getBytes(StandardCharsets.US_ASCII);
+        if (data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = input.read(chunk)) != -1) {
+            output.write(chunk, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    private static AudioConfig getConfig() {
+        AudioConfig audioConfig = ConfigurationLoader.getConfig().getAudioConfig();
+        return audioConfig == null ? new AudioConfig() : audioConfig;
+    }
 }
@@ -0,0 +1,443 @@
+package org.kookies.mirai.commen.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.ResilienceConstant;
+import org.kookies.mirai.commen.enumeration.HttpProfile;
+import org.kookies.mirai.commen.enumeration.RequestType;
+import org.kookies.mirai.commen.exceptions.DataLoadException;
+import org.kookies.mirai.commen.exceptions.ServiceUnavailableException;
+import org.kookies.mirai.pojo.dto.HttpPoolStatsDTO;
+import org.kookies.mirai.pojo.entity.ApiOverrideConfig;
+import org.kookies.mirai.pojo.entity.ResilienceConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP客户端管理器。
+ * <p>
+ * 按配置档为每类第三方接口创建独立的OkHttpClient，各自拥有连接池、调度器和超时时间。
+ * 所有请求都通过 execute 在 try-with-resources 中执行，响应体在解码后立即关闭，避免连接泄漏。
+ * <p>
+ * 每个主机还有独立的熔断器和并发隔离：主机持续失败或变慢时熔断器打开，请求直接快速失败；
+ * 同一主机同时进行中的请求数受信号量限制，慢主机最多只能占用有限的线程。
+ * 幂等的GET请求在连接失败或服务端错误时会带随机抖动退避重试。
+ *
+ * @author General_K1ng
+ */
+public class HttpClientManager {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
+
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static final Map<HttpProfile, OkHttpClient> CLIENTS = new EnumMap<>(HttpProfile.class);
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private static final Map<String, Semaphore> BULKHEADS = new ConcurrentHashMap<>();
+
+    private static volatile ResilienceConfig resilienceConfig;
+
+    public static final ResponseDecoder<String> STRING = ResponseBody::string;
+
+    public static final ResponseDecoder<byte[]> BYTES = ResponseBody::bytes;
+
+    public static final ResponseDecoder<JsonObject> JSON_OBJECT = json(JsonObject.class);
+
+    static {
+        for (HttpProfile profile : HttpProfile.values()) {
+            CLIENTS.put(profile, createClient(profile));
+        }
+    }
+
+    /**
+     * 创建把响应体解析为指定类型的解码器。
+     *
+     * @param clazz 目标类型。
+     * @return 对应的解码器。
+     */
+    public static <T> ResponseDecoder<T> json(Class<T> clazz) {
+        return body -> GSON.fromJson(body.charStream(), clazz);
+    }
+
+    /**
+     * 创建把响应体流式写入文件的解码器，内存占用与文件大小无关。
+     * <p>
+     * 响应声明的长度或实际写入的字节数超过上限时中止下载并删除已写入的部分。
+     * 重试时会从头覆盖写入同一个文件。
+     *
+     * @param target 目标文件。
+     * @param maxBytes 文件大小上限（字节）。
+     * @return 写入完成后返回目标文件的解码器。
+     */
+    public static ResponseDecoder<File> toFile(File target, long maxBytes) {
+        return body -> {
+            if (body.contentLength() > maxBytes) {
+                throw new PayloadTooLargeException(body.contentLength(), maxBytes);
+            }
+            long written = 0;
+            try (InputStream input = body.byteStream();
+                 OutputStream output = new FileOutputStream(target)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    written += read;
+                    // 没有声明长度的响应只能边写边检查
+                    if (written > maxBytes) {
+                        throw new PayloadTooLargeException(written, maxBytes);
+                    }
+                    output.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                target.delete();
+                throw e;
+            }
+            return target;
+        };
+    }
+
+    /**
+     * 使用指定配置档的客户端执行请求，并在响应关闭前完成解码。
+     * <p>
+     * 请求先占用目标主机的并发名额，再经过熔断器判断；熔断中或名额耗尽时直接抛出可回复给用户的异常。
+     * GET请求在连接失败、服务端错误或被限流时按指数退避加随机抖动重试。
+     *
+     * @param profile 请求所属的配置档。
+     * @param request 要执行的请求。
+     * @param decoder 响应体解码器。
+     * @return 解码后的结果。
+     * @throws IOException 如果请求失败、响应状态码不是2xx或响应体为空。
+     * @throws ServiceUnavailableException 如果目标主机已熔断或并发名额耗尽。
+     */
+    public static <T> T execute(HttpProfile profile, Request request, ResponseDecoder<T> decoder) throws IOException {
+        // 按主机记录包含重试在内的总耗时，地址被改写时仍按原主机统计
+        String host = request.url().host();
+        long start = System.nanoTime();
+        try {
+            return executeWithResilience(profile, rewrite(request), decoder);
+        } catch (IOException | RuntimeException e) {
+            MetricsRegistry.increment(MetricsConstant.HTTP_REQUEST_ERRORS, "host", host, "profile", profile.getName());
+            throw e;
+        } finally {
+            MetricsRegistry.recordSince(MetricsConstant.HTTP_REQUEST_SECONDS, start, "host", host, "profile", profile.getName());
+        }
+    }
+
+    /**
+     * 按 apiOverrideConfig 改写请求地址，未配置时原样返回。
+     * <p>
+     * hosts 中配置了原主机名时改写到对应的地址；否则配置了 baseUrl 时改写到 baseUrl，
+     * 并在路径前加上原主机名，一个模拟服务器就可以按主机名区分所有第三方接口。
+     * 例如 baseUrl 为 http://127.0.0.1:18080 时，https://v2.jokeapi.dev/joke/Dark
+     * 被改写为 http://127.0.0.1:18080/v2.jokeapi.dev/joke/Dark。
+     *
+     * @param request 原始请求。
+     * @return 实际发送的请求。
+     * @throws DataLoadException 如果配置的改写地址格式错误。
+     */
+    private static Request rewrite(Request request) {
+        ApiOverrideConfig config = ConfigurationLoader.getConfig().getApiOverrideConfig();
+        if (config == null) {
+            return request;
+        }
+
+        // 1. 先按主机名查找单独配置的地址，没有时使用统一的地址并以原主机名作为路径前缀
+        HttpUrl url = request.url();
+        String target = config.getHosts() == null ? null : config.getHosts().get(url.host());
+        String prefix = "";
+        if (target == null || target.isEmpty()) {
+            target = config.getBaseUrl();
+            prefix = "/" + url.host();
+        }
+        if (target == null || target.isEmpty()) {
+            return request;
+        }
+
+        // 2. 替换协议、主机和端口，路径拼接在改写地址的路径之后，查询参数保持不变
+        HttpUrl base = HttpUrl.parse(target);
+        if (base == null) {
+            throw new DataLoadException(MsgConstant.API_OVERRIDE_URL_ERROR);
+        }
+        String basePath = base.encodedPath().endsWith("/")
+                ? base.encodedPath().substring(0, base.encodedPath().length() - 1)
+                : base.encodedPath();
+        HttpUrl rewritten = url.newBuilder()
+                .scheme(base.scheme())
+                .host(base.host())
+                .port(base.port())
+                .encodedPath(basePath + prefix + url.encodedPath())
+                .build();
+        return request.newBuilder().url(rewritten).build();
+    }
+
+    /**
+     * 在熔断器和并发隔离的保护下执行请求，按需重试。
+     *
+     * @param profile 请求所属的配置档。
+     * @param request 要执行的请求。
+     * @param decoder 响应体解码器。
+     * @return 解码后的结果。
+     * @throws IOException 如果请求失败、响应状态码不是2xx或响应体为空。
+     */
+    private static <T> T executeWithResilience(HttpProfile profile, Request request, ResponseDecoder<T> decoder) throws IOException {
+        ResilienceConfig config = getResilienceConfig();
+        // 同一主机可能被不同配置档使用（如百度的鉴权和大模型接口），慢请求阈值不同，按配置档分别统计；
+        // 同一主机的不同端口可能是不同的服务（如多个语音合成后端），也分别统计
+        String key = profile.getName() + "@" + request.url().host() + ":" + request.url().port();
+        CircuitBreaker breaker = BREAKERS.computeIfAbsent(key, k -> createBreaker(profile, config));
+        Semaphore bulkhead = BULKHEADS.computeIfAbsent(key, k -> new Semaphore(
+                getOrDefault(config.getMaxConcurrentPerHost(), ResilienceConstant.DEFAULT_MAX_CONCURRENT_PER_HOST)));
+
+        // 获取主机的并发名额，等待超时则直接失败
+        try {
+            long waitMillis = getOrDefault(config.getBulkheadWaitMillis(), ResilienceConstant.DEFAULT_BULKHEAD_WAIT_MILLIS);
+            if (!bulkhead.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException(MsgConstant.BULKHEAD_FULL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+
+        try {
+            int maxRetries = getOrDefault(config.getMaxRetries(), ResilienceConstant.DEFAULT_MAX_RETRIES);
+            long baseDelay = getOrDefault(config.getRetryBaseDelayMillis(), ResilienceConstant.DEFAULT_RETRY_BASE_DELAY_MILLIS);
+            boolean idempotent = RequestType.GET.getMethod().equals(request.method());
+
+            for (int attempt = 0; ; attempt++) {
+                // 熔断中的主机直接快速失败
+                if (!breaker.tryAcquirePermission()) {
+                    throw new ServiceUnavailableException(MsgConstant.CIRCUIT_OPEN);
+                }
+
+                long start = System.currentTimeMillis();
+                try {
+                    T result = doExecute(profile, request, decoder);
+                    breaker.onResult(false, System.currentTimeMillis() - start);
+                    return result;
+                } catch (IOException e) {
+                    boolean failed = isFailure(e);
+                    breaker.onResult(failed, System.currentTimeMillis() - start);
+
+                    // 只有幂等请求的可重试错误才重试，读超时已经耗费了完整的等待时间，不再重试
+                    if (!idempotent || !failed || e instanceof SocketTimeoutException || attempt >= maxRetries) {
+                        throw e;
+                    }
+                    sleepWithJitter(baseDelay, attempt);
+                } catch (RuntimeException e) {
+                    // 解码器抛出的运行时异常（如恢复中的主机返回HTML页面导致JSON解析失败）同样计为失败，
+                    // 否则半开状态下的探测名额不会归还，熔断器将一直保持打开
+                    breaker.onResult(true, System.currentTimeMillis() - start);
+                    throw e;
+                }
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * 执行一次请求并解码响应体。
+     *
+     * @param profile 请求所属的配置档。
+     * @param request 要执行的请求。
+     * @param decoder 响应体解码器。
+     * @return 解码后的结果。
+     * @throws IOException 如果请求失败、响应状态码不是2xx或响应体为空。
+     */
+    private static <T> T doExecute(HttpProfile profile, Request request, ResponseDecoder<T> decoder) throws IOException {
+        try (Response response = CLIENTS.get(profile).newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code(), request.url().host());
+            }
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new IOException("Empty response body from " + request.url().host());
+            }
+            return decoder.decode(body);
+        }
+    }
+
+    /**
+     * 获取指定配置档的客户端，用于需要自行处理响应的场景。
+     *
+     * @param profile 配置档。
+     * @return 对应的OkHttpClient。
+     */
+    public static OkHttpClient getClient(HttpProfile profile) {
+        return CLIENTS.get(profile);
+    }
+
+    /**
+     * 获取所有配置档的连接池统计信息。
+     *
+     * @return 每个配置档的连接数、空闲连接数、进行中和排队中的请求数。
+     */
+    public static List<HttpPoolStatsDTO> getPoolStats() {
+        List<HttpPoolStatsDTO> stats = new ArrayList<>();
+        for (Map.Entry<HttpProfile, OkHttpClient> entry : CLIENTS.entrySet()) {
+            OkHttpClient client = entry.getValue();
+            stats.add(HttpPoolStatsDTO.builder()
+                    .profile(entry.getKey().getName())
+                    .connectionCount(client.connectionPool().connectionCount())
+                    .idleConnectionCount(client.connectionPool().idleConnectionCount())
+                    .runningCalls(client.dispatcher().runningCallsCount())
+                    .queuedCalls(client.dispatcher().queuedCallsCount())
+                    .build());
+        }
+        return stats;
+    }
+
+    /**
+     * 获取所有主机的熔断器状态。
+     *
+     * @return 配置档@主机名到熔断器状态的映射。
+     */
+    public static Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        BREAKERS.forEach((key, breaker) -> states.put(key, breaker.getState()));
+        return states;
+    }
+
+    /**
+     * 判断一次请求异常是否应计为主机故障。
+     * <p>
+     * 网络错误、5xx和429计为故障；其他4xx和响应超过大小上限是请求本身的问题，不影响熔断器。
+     *
+     * @param e 请求抛出的异常。
+     * @return 如果应计为故障则返回true。
+     */
+    private static boolean isFailure(IOException e) {
+        // 超过大小上限是响应内容的问题，主机本身是正常的
+        if (e instanceof PayloadTooLargeException) {
+            return false;
+        }
+        if (e instanceof HttpStatusException) {
+            int code = ((HttpStatusException) e).code;
+            return code >= 500 || code == 429;
+        }
+        return true;
+    }
+
+    /**
+     * 按指数退避加全随机抖动等待，避免多个请求同时重试。
+     *
+     * @param baseDelay 基础退避时间（毫秒）。
+     * @param attempt 已经失败的次数，从0开始。
+     * @throws IOException 如果等待过程中线程被中断。
+     */
+    private static void sleepWithJitter(long baseDelay, int attempt) throws IOException {
+        long maxDelay = baseDelay << Math.min(attempt, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static CircuitBreaker createBreaker(HttpProfile profile, ResilienceConfig config) {
+        return new CircuitBreaker(
+                Math.max(1, getOrDefault(config.getWindowSize(), ResilienceConstant.DEFAULT_WINDOW_SIZE)),
+                Math.max(1, getOrDefault(config.getMinimumCalls(), ResilienceConstant.DEFAULT_MINIMUM_CALLS)),
+                getOrDefault(config.getFailureRateThreshold(), ResilienceConstant.DEFAULT_FAILURE_RATE_THRESHOLD),
+                getOrDefault(config.getSlowCallRateThreshold(), ResilienceConstant.DEFAULT_SLOW_CALL_RATE_THRESHOLD),
+                profile.getSlowCallMillis(),
+                TimeUnit.SECONDS.toMillis(getOrDefault(config.getOpenSeconds(), ResilienceConstant.DEFAULT_OPEN_SECONDS)),
+                Math.max(1, getOrDefault(config.getHalfOpenCalls(), ResilienceConstant.DEFAULT_HALF_OPEN_CALLS)));
+    }
+
+    /**
+     * 读取熔断与隔离配置，只在第一次使用时读取配置文件。
+     *
+     * @return 熔断与隔离配置，未配置时返回空配置，使用默认值。
+     */
+    private static ResilienceConfig getResilienceConfig() {
+        if (resilienceConfig == null) {
+            synchronized (HttpClientManager.class) {
+                if (resilienceConfig == null) {
+                    ResilienceConfig config = ConfigurationLoader.getConfig().getResilienceConfig();
+                    resilienceConfig = config == null ? new ResilienceConfig() : config;
+                }
+            }
+        }
+        return resilienceConfig;
+    }
+
+    private static <V> V getOrDefault(V value, V defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 根据配置档创建客户端，每个客户端使用独立的连接池和调度器。
+     *
+     * @param profile 配置档。
+     * @return 创建好的OkHttpClient。
+     */
+    private static OkHttpClient createClient(HttpProfile profile) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(profile.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(profile.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(profile.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(profile.getMaxIdleConnections(), KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(new Dispatcher());
+
+        // HTTP/2 通过TLS的ALPN协商，不支持的服务强制使用HTTP/1.1
+        if (!profile.isHttp2()) {
+            builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 响应状态码不是2xx时抛出的异常，保留状态码用于判断是否计为故障。
+     */
+    private static class HttpStatusException extends IOException {
+        private final int code;
+
+        private HttpStatusException(int code, String host) {
+            super("HTTP " + code + " " + host);
+            this.code = code;
+        }
+    }
+
+    /**
+     * 响应体超过大小上限时抛出的异常，不计为主机故障，也不重试。
+     */
+    private static class PayloadTooLargeException extends IOException {
+        private PayloadTooLargeException(long size, long maxBytes) {
+            super("Response body too large: " + size + " > " + maxBytes);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.ImagePipelineConstant;
+import org.kookies.mirai.pojo.entity.ImagePipelineConfig;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片转码流水线。
+ * <p>
+ * 先根据文件头识别图片格式并只读取尺寸，已经满足大小和尺寸限制的JPEG、PNG直接原样返回；
+ * 超出限制时使用子采样解码缩小图片，不透明的图片输出为JPEG，带透明通道的图片输出为PNG。
+ * GIF可能是动图，重新编码会丢失动画，因此始终原样返回。
+ * 转码在有界的线程池中进行，队列满时由调用线程自己执行，避免无限堆积。
+ *
+ * @author General_K1ng
+ */
+public class ImagePipeline {
+    private static volatile ThreadPoolExecutor executor;
+
+    /**
+     * 处理下载得到的图片，返回可以直接上传的图片字节数据。
+     *
+     * @param data 原始图片字节数据。
+     * @return 原样返回或缩小、重新编码后的图片字节数据。
+     * @throws IOException 如果图片无法解码或编码。
+     */
+    public static byte[] process(byte[] data) throws IOException {
+        Future<byte[]> future = getExecutor().submit(() -> transcode(data, getConfig()));
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 在当前线程中执行转码。
+     *
+     * @param data 原始图片字节数据。
+     * @param pipelineConfig 转码配置。
+     * @return 原样返回或缩小、重新编码后的图片字节数据。
+     * @throws IOException 如果图片无法解码或编码。
+     */
+    public static byte[] transcode(byte[] data, ImagePipelineConfig pipelineConfig) throws IOException {
+        int maxDimension = pipelineConfig.getMaxDimension() == null
+                ? ImagePipelineConstant.DEFAULT_MAX_DIMENSION : pipelineConfig.getMaxDimension();
+        long maxBytes = pipelineConfig.getMaxBytes() == null
+                ? ImagePipelineConstant.DEFAULT_MAX_BYTES : pipelineConfig.getMaxBytes();
+        float quality = pipelineConfig.getJpegQuality() == null
+                ? ImagePipelineConstant.DEFAULT_JPEG_QUALITY : pipelineConfig.getJpegQuality();
+
+        String format = sniffFormat(data);
+        // 动图不做处理
+        if (ImagePipelineConstant.FORMAT_GIF.equals(format)) {
+            return data;
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                // 没有可用的解码器时原样返回，交给QQ自行处理
+                return data;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // 只读取文件头中的尺寸，不解码像素
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                boolean acceptableFormat = ImagePipelineConstant.FORMAT_JPEG.equals(format)
+                        || ImagePipelineConstant.FORMAT_PNG.equals(format);
+                if (acceptableFormat && data.length <= maxBytes && Math.max(width, height) <= maxDimension) {
+                    return data;
+                }
+
+                // 按整数倍子采样解码，直接得到接近目标尺寸的图片，省去解码完整大图的内存和时间
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / maxDimension);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                image = scaleToFit(image, maxDimension);
+                return image.getColorModel().hasAlpha() ? encodePng(image) : encodeJpeg(image, quality);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 根据文件头识别图片格式。
+     *
+     * @param data 图片字节数据。
+     * @return 图片格式，无法识别时返回unknown。
+     */
+    public static String sniffFormat(byte[] data) {
+        if (data.length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return ImagePipelineConstant.FORMAT_JPEG;
+        }
+        if (data.length >= 8 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            return ImagePipelineConstant.FORMAT_PNG;
+        }
+        if (data.length >= 4 && data[0] == 'G' && data[1] == 'I' && data[2] == 'F' && data[3] == '8') {
+            return ImagePipelineConstant.FORMAT_GIF;
+        }
+        return ImagePipelineConstant.FORMAT_UNKNOWN;
+    }
+
+    /**
+     * 子采样后仍超过尺寸上限时，按比例平滑缩小到上限以内。
+     *
+     * @param image 子采样后的图片。
+     * @param maxDimension 最长边像素上限。
+     * @return 缩小后的图片，未超限时返回原图片。
+     */
+    static BufferedImage scaleToFit(BufferedImage image, int maxDimension) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) <= maxDimension) {
+            return image;
+        }
+
+        double scale = (double) maxDimension / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, type);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        // JPEG不支持部分颜色模型，统一转换为RGB
+        if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = rgb.createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+            image = rgb;
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(ImagePipelineConstant.FORMAT_JPEG).next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, ImagePipelineConstant.FORMAT_PNG, output);
+        return output.toByteArray();
+    }
+
+    private static ImagePipelineConfig getConfig() {
+        ImagePipelineConfig pipelineConfig = ConfigurationLoader.getConfig().getImagePipelineConfig();
+        return pipelineConfig == null ? new ImagePipelineConfig() : pipelineConfig;
+    }
+
+    /**
+     * 获取图片处理线程池，第一次使用时按配置创建。
+     *
+     * @return 有界的图片处理线程池。
+     */
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (ImagePipeline.class) {
+                if (executor == null) {
+                    ImagePipelineConfig pipelineConfig = getConfig();
+                    int threads = pipelineConfig.getThreads() == null
+                            ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2)
+                            : Math.max(1, pipelineConfig.getThreads());
+                    int queueCapacity = pipelineConfig.getQueueCapacity() == null
+                            ? ImagePipelineConstant.DEFAULT_QUEUE_CAPACITY : Math.max(1, pipelineConfig.getQueueCapacity());
+
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueCapacity),
+                            r -> {
+                                Thread thread = new Thread(r, ImagePipelineConstant.WORKER_THREAD_NAME + threadIndex.getAndIncrement());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            // 队列满时由调用线程执行，形成背压
+                            new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+}
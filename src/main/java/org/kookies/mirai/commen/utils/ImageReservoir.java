@@ -0,0 +1,254 @@
+package org.kookies.mirai.commen.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.ImageReservoirConstant;
+import org.kookies.mirai.commen.constant.LiuLiApiConstant;
+import org.kookies.mirai.commen.constant.LolimiApiConstant;
+import org.kookies.mirai.commen.constant.WeiMengApiConstant;
+import org.kookies.mirai.commen.enumeration.ImageSourceType;
+import org.kookies.mirai.pojo.entity.ImageReservoirConfig;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 随机图片预取缓冲池。
+ * <p>
+ * 每个图片来源维护一个有界队列，后台线程提前下载并转码好图片；
+ * 命令触发时直接从队列中取出图片上传，队列低于低水位时再异步补充。
+ * 队列为空时退化为同步下载，保证功能可用。
+ * 摸鱼日报这类每日固定的图片只缓存一张：上游发布时间之前下载的、或与前一天相同的图片可能还不是当天的，
+ * 只缓存一段时间，过期后重新下载；发布时间之后下载到与前一天不同的图片才确认为当天的图片，当天不再下载。
+ *
+ * @author General_K1ng
+ */
+public class ImageReservoir {
+    private static final Log log = LogFactory.getLog(ImageReservoir.class);
+
+    private static final Map<ImageSourceType, BlockingQueue<byte[]>> RESERVOIRS = new EnumMap<>(ImageSourceType.class);
+
+    private static final Map<ImageSourceType, AtomicBoolean> REFILLING = new EnumMap<>(ImageSourceType.class);
+
+    private static final AtomicReference<DailyImage> DAILY_IMAGE = new AtomicReference<>();
+
+    private static volatile ExecutorService refillExecutor;
+
+    private static int lowWaterMark;
+
+    private static volatile LocalTime dailyRefreshTime = LocalTime.parse(ImageReservoirConstant.DEFAULT_DAILY_REFRESH_TIME);
+
+    private static volatile long dailyRecheckMillis =
+            TimeUnit.MINUTES.toMillis(ImageReservoirConstant.DEFAULT_DAILY_RECHECK_MINUTES);
+
+    /**
+     * 按配置创建缓冲池并开始预取所有来源的图片。
+     */
+    public static synchronized void start() {
+        if (refillExecutor != null) {
+            return;
+        }
+
+        ImageReservoirConfig reservoirConfig = ConfigurationLoader.getConfig().getImageReservoirConfig();
+        if (reservoirConfig == null) {
+            reservoirConfig = new ImageReservoirConfig();
+        }
+        int capacity = reservoirConfig.getCapacity() == null
+                ? ImageReservoirConstant.DEFAULT_CAPACITY : Math.max(1, reservoirConfig.getCapacity());
+        lowWaterMark = reservoirConfig.getLowWaterMark() == null
+                ? ImageReservoirConstant.DEFAULT_LOW_WATER_MARK : Math.min(capacity, reservoirConfig.getLowWaterMark());
+        int threads = reservoirConfig.getRefillThreads() == null
+                ? ImageReservoirConstant.DEFAULT_REFILL_THREADS : Math.max(1, reservoirConfig.getRefillThreads());
+        if (reservoirConfig.getDailyRefreshTime() != null) {
+            try {
+                dailyRefreshTime = LocalTime.parse(reservoirConfig.getDailyRefreshTime());
+            } catch (DateTimeParseException e) {
+                log.warn("每日图片发布时间格式错误，使用默认值：" + reservoirConfig.getDailyRefreshTime());
+            }
+        }
+        if (reservoirConfig.getDailyRecheckMinutes() != null) {
+            dailyRecheckMillis = TimeUnit.MINUTES.toMillis(Math.max(1, reservoirConfig.getDailyRecheckMinutes()));
+        }
+
+        for (ImageSourceType type : ImageSourceType.values()) {
+            RESERVOIRS.put(type, new ArrayBlockingQueue<>(capacity));
+            REFILLING.put(type, new AtomicBoolean(false));
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        refillExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, ImageReservoirConstant.REFILL_THREAD_NAME + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 启动时把所有缓冲池填满
+        for (ImageSourceType type : ImageSourceType.values()) {
+            triggerRefill(type);
+        }
+    }
+
+    /**
+     * 获取一张指定来源的图片。
+     * <p>
+     * 优先从缓冲池中取出预取好的图片，缓冲池为空时同步下载；取出后如果低于低水位则异步补充。
+     *
+     * @param type 图片来源。
+     * @return 可以直接上传的图片字节数据。
+     * @throws IOException 如果缓冲池为空且同步下载失败。
+     */
+    public static byte[] take(ImageSourceType type) throws IOException {
+        if (type.isDaily()) {
+            return takeDaily(type);
+        }
+
+        BlockingQueue<byte[]> reservoir = RESERVOIRS.get(type);
+        // 未启动时直接下载
+        if (reservoir == null) {
+            return fetch(type);
+        }
+
+        byte[] image = reservoir.poll();
+        if (reservoir.size() < lowWaterMark) {
+            triggerRefill(type);
+        }
+        return image != null ? image : fetch(type);
+    }
+
+    /**
+     * 获取每日固定的图片。
+     * <p>
+     * 1. 当天的图片已经确认，或者还在重新检查的间隔内，直接返回缓存；
+     * 2. 否则重新下载，下载失败时如果有当天的缓存则继续使用；
+     * 3. 发布时间之后下载、并且与前一天的图片不同时，确认为当天的图片。
+     *
+     * @param type 图片来源。
+     * @return 当天的图片字节数据。
+     * @throws IOException 如果当天的图片还未缓存且下载失败。
+     */
+    private static byte[] takeDaily(ImageSourceType type) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        long nowMillis = System.currentTimeMillis();
+
+        // 1. 命中缓存
+        DailyImage cached = DAILY_IMAGE.get();
+        boolean cachedToday = cached != null && cached.date.equals(today);
+        if (cachedToday && (cached.confirmed || nowMillis - cached.fetchedAt < dailyRecheckMillis)) {
+            return cached.data;
+        }
+
+        // 2. 重新下载
+        byte[] data;
+        try {
+            data = fetch(type);
+        } catch (IOException | RuntimeException e) {
+            if (cachedToday) {
+                return cached.data;
+            }
+            throw e;
+        }
+
+        // 3. 与前一天最后缓存的图片比较，上游还没有更新时得到的仍是前一天的图片
+        byte[] previous = cachedToday ? cached.previous : cached == null ? null : cached.data;
+        boolean confirmed = !now.toLocalTime().isBefore(dailyRefreshTime) && !Arrays.equals(data, previous);
+        DAILY_IMAGE.set(new DailyImage(today, data, nowMillis, confirmed, previous));
+        return data;
+    }
+
+    /**
+     * 异步补充指定来源的缓冲池，同一来源同时只有一个补充任务。
+     *
+     * @param type 图片来源。
+     */
+    private static void triggerRefill(ImageSourceType type) {
+        AtomicBoolean refilling = REFILLING.get(type);
+        if (refillExecutor == null || refilling == null || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        refillExecutor.execute(() -> {
+            try {
+                if (type.isDaily()) {
+                    takeDaily(type);
+                    return;
+                }
+                BlockingQueue<byte[]> reservoir = RESERVOIRS.get(type);
+                // 补满为止，任意一次下载失败就停止，等下次取图时再触发
+                while (reservoir.remainingCapacity() > 0) {
+                    reservoir.offer(fetch(type));
+                }
+            } catch (Exception e) {
+                log.warn("图片预取失败：" + type.getSource() + "，" + e.getMessage());
+            } finally {
+                refilling.set(false);
+            }
+        });
+    }
+
+    /**
+     * 从对应的接口下载一张图片。
+     *
+     * @param type 图片来源。
+     * @return 转码为PNG后的图片字节数据。
+     * @throws IOException 如果下载或转码失败。
+     */
+    private static byte[] fetch(ImageSourceType type) throws IOException {
+        switch (type) {
+            case TODAY_GIRL:
+                return ApiRequester.getPhoto(LiuLiApiConstant.ANIME_URL);
+            case EMOJI_ANIME:
+                return ApiRequester.getPhoto(LolimiApiConstant.RANDOM_EMOJI_API + "?type=动漫表情");
+            case EMOJI_CHESHIRE:
+                return ApiRequester.getPhoto(LolimiApiConstant.CHESHIRE_API);
+            case EMOJI_CHIIKAWA:
+                return ApiRequester.getPhoto(LolimiApiConstant.RANDOM_EMOJI_API + "?type=小八嘎");
+            case EMOJI_LONG:
+                return ApiRequester.getPhoto(LolimiApiConstant.LONG_API);
+            case BAD_GUY:
+                return ApiRequester.getBadGuyImg();
+            case MESS_AROUND_DAILY:
+                return ApiRequester.getPhoto(WeiMengApiConstant.MESS_AROUND_DAILY);
+            default:
+                throw new IllegalArgumentException(type.getSource());
+        }
+    }
+
+    private static class DailyImage {
+        private final LocalDate date;
+
+        private final byte[] data;
+
+        // 下载的时间
+        private final long fetchedAt;
+
+        // 是否已经确认是当天的新图片
+        private final boolean confirmed;
+
+        // 前一天最后缓存的图片，用于判断上游是否已经更新
+        private final byte[] previous;
+
+        private DailyImage(LocalDate date, byte[] data, long fetchedAt, boolean confirmed, byte[] previous) {
+            this.date = date;
+            this.data = data;
+            this.fetchedAt = fetchedAt;
+            this.confirmed = confirmed;
+            this.previous = previous;
+        }
+    }
+}
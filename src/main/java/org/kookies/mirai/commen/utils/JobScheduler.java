@@ -1,8 +1,12 @@
 package org.kookies.mirai.commen.utils;
 
+import org.kookies.mirai.commen.config.ConfigurationLoader;
 import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.VideoConstant;
 import org.kookies.mirai.commen.exceptions.SchedulerJobException;
 import org.kookies.mirai.commen.jobs.MessageCacheCleanerJob;
+import org.kookies.mirai.commen.jobs.VideoRetentionJob;
+import org.kookies.mirai.pojo.entity.VideoConfig;
 import org.quartz.*;
 import org.quartz.impl.StdSchedulerFactory;
 
@@ -16,6 +20,7 @@ public class JobScheduler {
      * 该方法通过Quartz Scheduler框架实现任务的定时执行。
      * 它创建了一个清理消息缓存的任务（Job）和一个触发器（Trigger），
      * 并将它们安排在默认的调度器中执行。任务每天凌晨2点执行一次，用于清理过期的消息缓存。
+     * 同时按配置的间隔执行视频目录清理任务。
      *
      * @throws SchedulerJobException 如果调度过程中发生错误
      */
@@ -32,15 +37,33 @@ public class JobScheduler {
                     .withSchedule(CronScheduleBuilder.dailyAtHourAndMinute(2, 0))
                     .build();
 
+            // 创建视频目录清理任务，启动后立即执行一次，之后按配置的间隔重复执行
+            JobDetail videoRetentionJob = JobBuilder.newJob(VideoRetentionJob.class)
+                    .withIdentity("videoRetentionJob", "videoRetentionJobGroup")
+                    .build();
+            Trigger videoRetentionTrigger = TriggerBuilder.newTrigger()
+                    .withIdentity("videoRetentionTrigger", "videoRetentionJobGroup")
+                    .startNow()
+                    .withSchedule(SimpleScheduleBuilder.repeatMinutelyForever(getRetentionIntervalMinutes()))
+                    .build();
+
             // 获取默认调度器并启动
             Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
             scheduler.start();
             // 将任务和触发器注册到调度器中
             scheduler.scheduleJob(job, trigger);
+            scheduler.scheduleJob(videoRetentionJob, videoRetentionTrigger);
         } catch (Exception e) {
             // 如果调度过程中发生错误，抛出自定义异常
             throw new SchedulerJobException(MsgConstant.SCHEDULER_EXCEPTION);
         }
     }
 
+    private static int getRetentionIntervalMinutes() {
+        VideoConfig videoConfig = ConfigurationLoader.getConfig().getVideoConfig();
+        if (videoConfig == null || videoConfig.getRetentionIntervalMinutes() == null) {
+            return VideoConstant.DEFAULT_RETENTION_INTERVAL_MINUTES;
+        }
+        return Math.max(1, videoConfig.getRetentionIntervalMinutes());
+    }
 }
@@ -0,0 +1,327 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.LlmDispatcherConstant;
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.enumeration.LlmPriority;
+import org.kookies.mirai.commen.exceptions.RequestException;
+import org.kookies.mirai.commen.exceptions.ServiceUnavailableException;
+import org.kookies.mirai.pojo.dto.LlmDispatcherStatsDTO;
+import org.kookies.mirai.pojo.entity.LlmDispatcherConfig;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 大模型请求调度器。
+ * <p>
+ * 所有发往大模型的请求都先进入一个有界的优先级队列，由固定数量的工作线程取出执行，
+ * 从而限制同时进行中的请求数；发出请求前还需要从令牌桶中获取令牌，保证不超过服务商的QPS限制。
+ * 交互类请求优先于后台类请求被调度，超过截止时间仍未开始执行的请求会被直接丢弃。
+ *
+ * @author General_K1ng
+ */
+public class LlmDispatcher {
+    private static final int STATE_QUEUED = 0;
+
+    private static final int STATE_RUNNING = 1;
+
+    private static final int STATE_CANCELLED = 2;
+
+    private static final PriorityBlockingQueue<DispatchTask> QUEUE = new PriorityBlockingQueue<>();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final AtomicInteger PENDING = new AtomicInteger();
+
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    private static final AtomicLong COMPLETED = new AtomicLong();
+
+    private static final AtomicLong REJECTED = new AtomicLong();
+
+    private static final AtomicLong SHED = new AtomicLong();
+
+    private static final AtomicLong QUEUE_WAIT_TOTAL = new AtomicLong();
+
+    private static final AtomicLong QUEUE_WAIT_MAX = new AtomicLong();
+
+    private static final AtomicLong QUEUE_WAIT_COUNT = new AtomicLong();
+
+    private static final AtomicLong SERVICE_TOTAL = new AtomicLong();
+
+    private static final AtomicLong SERVICE_MAX = new AtomicLong();
+
+    private static volatile boolean started = false;
+
+    private static int queueCapacity;
+
+    private static long interactiveDeadlineMillis;
+
+    private static long backgroundDeadlineMillis;
+
+    // 令牌桶状态，由 reserveToken 在同步块中维护
+    private static double permitsPerNano;
+
+    private static double maxPermits;
+
+    private static double storedPermits;
+
+    private static long lastRefillNanos;
+
+    /**
+     * 提交一个大模型请求并等待其结果。
+     * <p>
+     * 队列已满时立即拒绝；超过截止时间仍未开始执行时放弃等待。
+     * 请求一旦开始执行，就会等待其完成，由HTTP客户端自身的超时兜底。
+     *
+     * @param priority 请求的优先级。
+     * @param call 实际发送请求的逻辑。
+     * @return 请求返回的结果。
+     * @throws IOException 如果请求过程中发生IO异常。
+     * @throws ServiceUnavailableException 如果队列已满或排队超时。
+     */
+    public static String submit(LlmPriority priority, Callable<String> call) throws IOException {
+        ensureStarted();
+
+        // 队列已满时直接拒绝，避免请求无限堆积
+        if (PENDING.incrementAndGet() > queueCapacity) {
+            PENDING.decrementAndGet();
+            REJECTED.incrementAndGet();
+            throw new ServiceUnavailableException(MsgConstant.LLM_QUEUE_FULL);
+        }
+
+        long now = System.currentTimeMillis();
+        long deadline = now + (priority == LlmPriority.INTERACTIVE ? interactiveDeadlineMillis : backgroundDeadlineMillis);
+        DispatchTask task = new DispatchTask(priority, SEQUENCE.getAndIncrement(), now, deadline, call);
+        QUEUE.offer(task);
+
+        try {
+            try {
+                // 在截止时间内等待请求完成
+                return task.future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 到截止时间仍在排队则放弃，已经开始执行的请求继续等待其完成
+                if (task.state.compareAndSet(STATE_QUEUED, STATE_CANCELLED)) {
+                    SHED.incrementAndGet();
+                    throw new ServiceUnavailableException(MsgConstant.LLM_DEADLINE_EXCEEDED);
+                }
+                return task.future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.state.compareAndSet(STATE_QUEUED, STATE_CANCELLED);
+            throw new RequestException(MsgConstant.REQUEST_ERROR);
+        }
+    }
+
+    /**
+     * 获取调度器当前的运行统计。
+     *
+     * @return 包含队列长度、进行中请求数、排队等待时间和服务时间的统计信息。
+     */
+    public static LlmDispatcherStatsDTO getStats() {
+        long waitCount = QUEUE_WAIT_COUNT.get();
+        long completed = COMPLETED.get();
+        return LlmDispatcherStatsDTO.builder()
+                .queued(PENDING.get())
+                .inFlight(IN_FLIGHT.get())
+                .completed(completed)
+                .rejected(REJECTED.get())
+                .shed(SHED.get())
+                .avgQueueWaitMillis(waitCount == 0 ? 0 : QUEUE_WAIT_TOTAL.get() / waitCount)
+                .maxQueueWaitMillis(QUEUE_WAIT_MAX.get())
+                .avgServiceMillis(completed == 0 ? 0 : SERVICE_TOTAL.get() / completed)
+                .maxServiceMillis(SERVICE_MAX.get())
+                .build();
+    }
+
+    /**
+     * 按配置文件初始化调度器并启动工作线程，只在第一次提交请求时执行。
+     */
+    private static synchronized void ensureStarted() {
+        if (started) {
+            return;
+        }
+
+        LlmDispatcherConfig dispatcherConfig = ConfigurationLoader.getConfig().getLlmDispatcherConfig();
+        if (dispatcherConfig == null) {
+            dispatcherConfig = new LlmDispatcherConfig();
+        }
+
+        int maxInFlight = dispatcherConfig.getMaxInFlight() == null
+                ? LlmDispatcherConstant.DEFAULT_MAX_IN_FLIGHT : Math.max(1, dispatcherConfig.getMaxInFlight());
+        double qps = dispatcherConfig.getQps() == null
+                ? LlmDispatcherConstant.DEFAULT_QPS : dispatcherConfig.getQps();
+        int burst = dispatcherConfig.getBurst() == null
+                ? LlmDispatcherConstant.DEFAULT_BURST : Math.max(1, dispatcherConfig.getBurst());
+        queueCapacity = dispatcherConfig.getQueueCapacity() == null
+                ? LlmDispatcherConstant.DEFAULT_QUEUE_CAPACITY : Math.max(1, dispatcherConfig.getQueueCapacity());
+        interactiveDeadlineMillis = TimeUnit.SECONDS.toMillis(dispatcherConfig.getInteractiveDeadlineSeconds() == null
+                ? LlmDispatcherConstant.DEFAULT_INTERACTIVE_DEADLINE_SECONDS : dispatcherConfig.getInteractiveDeadlineSeconds());
+        backgroundDeadlineMillis = TimeUnit.SECONDS.toMillis(dispatcherConfig.getBackgroundDeadlineSeconds() == null
+                ? LlmDispatcherConstant.DEFAULT_BACKGROUND_DEADLINE_SECONDS : dispatcherConfig.getBackgroundDeadlineSeconds());
+
+        // qps不大于0时视为不限速
+        permitsPerNano = qps > 0 ? qps / TimeUnit.SECONDS.toNanos(1) : 0;
+        maxPermits = burst;
+        storedPermits = burst;
+        lastRefillNanos = System.nanoTime();
+
+        for (int i = 0; i < maxInFlight; i++) {
+            Thread worker = new Thread(LlmDispatcher::workLoop, LlmDispatcherConstant.WORKER_THREAD_NAME + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        started = true;
+    }
+
+    /**
+     * 工作线程的主循环，不断从队列中取出优先级最高的请求执行。
+     */
+    private static void workLoop() {
+        while (true) {
+            DispatchTask task;
+            try {
+                task = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            PENDING.decrementAndGet();
+
+            // 调用方已经放弃等待
+            if (task.state.get() != STATE_QUEUED) {
+                continue;
+            }
+
+            // 预约令牌，如果等到令牌时已经超过截止时间，则直接丢弃该请求
+            long waitNanos = reserveToken(task.deadline);
+            if (waitNanos < 0) {
+                shed(task);
+                continue;
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    task.state.compareAndSet(STATE_QUEUED, STATE_CANCELLED);
+                    task.future.completeExceptionally(new RequestException(MsgConstant.REQUEST_ERROR));
+                    return;
+                }
+            }
+
+            // 与调用方竞争任务状态，调用方已超时放弃时不再执行
+            if (!task.state.compareAndSet(STATE_QUEUED, STATE_RUNNING)) {
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            recordMax(QUEUE_WAIT_MAX, QUEUE_WAIT_TOTAL, start - task.enqueueAt);
+            QUEUE_WAIT_COUNT.incrementAndGet();
+
+            IN_FLIGHT.incrementAndGet();
+            try {
+                task.future.complete(task.call.call());
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+                COMPLETED.incrementAndGet();
+                recordMax(SERVICE_MAX, SERVICE_TOTAL, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * 丢弃超过截止时间的请求，并通知调用方。
+     *
+     * @param task 需要丢弃的请求。
+     */
+    private static void shed(DispatchTask task) {
+        if (task.state.compareAndSet(STATE_QUEUED, STATE_CANCELLED)) {
+            SHED.incrementAndGet();
+            task.future.completeExceptionally(new ServiceUnavailableException(MsgConstant.LLM_DEADLINE_EXCEEDED));
+        }
+    }
+
+    /**
+     * 从令牌桶中预约一个令牌。
+     * <p>
+     * 令牌不足时允许透支，返回需要等待的时间，调用方睡眠后即可发出请求；
+     * 如果等待后会超过截止时间，则不预约令牌。
+     *
+     * @param deadline 请求的截止时间（毫秒时间戳）。
+     * @return 需要等待的纳秒数，超过截止时间时返回-1。
+     */
+    private static synchronized long reserveToken(long deadline) {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+
+        // 按经过的时间补充令牌，不超过桶容量
+        long now = System.nanoTime();
+        storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+
+        long waitNanos = storedPermits >= 1 ? 0 : (long) Math.ceil((1 - storedPermits) / permitsPerNano);
+        if (System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(waitNanos) > deadline) {
+            return -1;
+        }
+        storedPermits -= 1;
+        return waitNanos;
+    }
+
+    private static void recordMax(AtomicLong max, AtomicLong total, long value) {
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    private static class DispatchTask implements Comparable<DispatchTask> {
+        private final LlmPriority priority;
+
+        private final long sequence;
+
+        private final long enqueueAt;
+
+        private final long deadline;
+
+        private final Callable<String> call;
+
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private final AtomicInteger state = new AtomicInteger(STATE_QUEUED);
+
+        private DispatchTask(LlmPriority priority, long sequence, long enqueueAt, long deadline, Callable<String> call) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueueAt = enqueueAt;
+            this.deadline = deadline;
+            this.call = call;
+        }
+
+        @Override
+        public int compareTo(DispatchTask other) {
+            // 先按优先级，同优先级按提交顺序
+            if (priority.getLevel() != other.priority.getLevel()) {
+                return Integer.compare(priority.getLevel(), other.priority.getLevel());
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
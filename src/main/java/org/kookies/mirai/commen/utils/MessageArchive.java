@@ -0,0 +1,421 @@
+package org.kookies.mirai.commen.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import org.kookies.mirai.commen.constant.MessageArchiveConstant;
+import org.kookies.mirai.pojo.entity.PersonalMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 个人消息的按日归档。
+ * <p>
+ * msg/&lt;QQ号&gt;.json 只保存还没有归档的日期（通常只有今天）的消息，每晚的清理任务把已经结束的日期
+ * 逐日用GZIP压缩后追加到 msg/&lt;QQ号&gt;.msgz：
+ * <pre>
+ * 文件头（8字节，大端序）
+ *   int    魔数 "KMSG"
+ *   short  版本号
+ *   short  保留，目前为0
+ * 每天一条记录，按日期递增
+ *   int    日期（epochDay）
+ *   int    消息数
+ *   int    压缩后的长度
+ *   byte[] GZIP压缩的JSON字符串数组
+ * </pre>
+ * 打开归档时只跳读12字节的记录头，在内存中建立日期到偏移量的索引，索引按文件的修改时间和大小缓存。
+ * 读取某一天的消息只解压这一天的记录，并且边解压边解析；清理过期日期时直接复制未过期记录的压缩数据，不需要解压。
+ *
+ * @author General_K1ng
+ */
+public class MessageArchive {
+    private static final Gson GSON = new Gson();
+
+    private static final Map<String, Index> INDEX_CACHE = new ConcurrentHashMap<>();
+
+    // 每个归档文件一把读写锁，不同用户的归档可以同时读写
+    private static final Map<String, ReadWriteLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * 根据个人消息文件获取对应的归档文件，如 msg/123456.json 对应 msg/123456.msgz。
+     *
+     * @param personalCache 个人消息文件。
+     * @return 归档文件。
+     */
+    public static File getArchiveFile(File personalCache) {
+        String name = personalCache.getName();
+        int index = name.lastIndexOf('.');
+        String baseName = index < 0 ? name : name.substring(0, index);
+        return new File(personalCache.getParentFile(), baseName + MessageArchiveConstant.ARCHIVE_FILE_EXT);
+    }
+
+    /**
+     * 获取归档中的全部日期。
+     *
+     * @param archive 归档文件。
+     * @return 按日期递增排列的日期，归档不存在时返回空列表。
+     * @throws IOException 如果读取归档失败或文件不是消息归档。
+     */
+    public static List<LocalDate> getDates(File archive) throws IOException {
+        ReadWriteLock lock = getLock(archive);
+        lock.readLock().lock();
+        try {
+            if (!archive.exists()) {
+                return Collections.emptyList();
+            }
+            return loadIndex(archive).records.stream()
+                    .map(record -> LocalDate.ofEpochDay(record.epochDay))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 判断归档中是否有指定日期的消息。
+     *
+     * @param archive 归档文件。
+     * @param date 日期。
+     * @return 如果有这一天的记录，则返回true。
+     * @throws IOException 如果读取归档失败或文件不是消息归档。
+     */
+    public static boolean contains(File archive, LocalDate date) throws IOException {
+        ReadWriteLock lock = getLock(archive);
+        lock.readLock().lock();
+        try {
+            return archive.exists() && findRecord(loadIndex(archive), date) != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 读取归档中指定日期的消息。
+     * <p>
+     * 1. 通过索引找到这一天的记录，只读取这条记录的压缩数据；
+     * 2. 边解压边解析JSON数组，读够需要的条数后立即停止。
+     *
+     * @param archive 归档文件。
+     * @param date 日期。
+     * @param limit 最多读取的消息数，为null或小于等于0时读取全部。
+     * @return 这一天的消息，没有这一天的记录时返回空列表。
+     * @throws IOException 如果读取或解压失败。
+     */
+    public static List<String> readDay(File archive, LocalDate date, Integer limit) throws IOException {
+        // 1. 读取这一天的压缩数据
+        byte[] block;
+        int count;
+        ReadWriteLock lock = getLock(archive);
+        lock.readLock().lock();
+        try {
+            if (!archive.exists()) {
+                return Collections.emptyList();
+            }
+            Record record = findRecord(loadIndex(archive), date);
+            if (record == null) {
+                return Collections.emptyList();
+            }
+            block = new byte[record.length];
+            count = record.count;
+            try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+                readFully(channel, ByteBuffer.wrap(block), record.offset);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 2. 流式解压和解析
+        boolean limited = limit != null && limit > 0;
+        List<String> messages = new ArrayList<>(limited ? Math.min(limit, count) : count);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(block)), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext() && (!limited || messages.size() < limit)) {
+                messages.add(reader.nextString());
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * 将已经结束的日期追加到归档中。
+     * <p>
+     * 归档中已有的日期和早于最后一条记录的日期会被跳过，追加中断后重新执行不会重复归档；
+     * 追加前先截掉上次中断留下的不完整记录。
+     *
+     * @param archive 归档文件，不存在时创建。
+     * @param days 需要归档的日期及其消息。
+     * @return 追加的天数。
+     * @throws IOException 如果读取或写入归档失败。
+     */
+    public static int append(File archive, List<PersonalMessage> days) throws IOException {
+        ReadWriteLock lock = getLock(archive);
+        lock.writeLock().lock();
+        try {
+            boolean exists = archive.exists() && archive.length() >= MessageArchiveConstant.FILE_HEADER_LENGTH;
+            Index index = exists ? loadIndex(archive) : null;
+            Integer lastDay = index == null || index.records.isEmpty()
+                    ? null : index.records.get(index.records.size() - 1).epochDay;
+
+            List<PersonalMessage> toAppend = days.stream()
+                    .filter(day -> day.getMessages() != null && !day.getMessages().isEmpty())
+                    .filter(day -> lastDay == null || day.getDate().toEpochDay() > lastDay)
+                    .sorted(Comparator.comparing(PersonalMessage::getDate))
+                    .collect(Collectors.toList());
+            if (toAppend.isEmpty()) {
+                return 0;
+            }
+
+            try (FileChannel channel = FileChannel.open(archive.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long position;
+                if (index == null) {
+                    channel.truncate(0);
+                    writeFully(channel, fileHeader(), 0);
+                    position = MessageArchiveConstant.FILE_HEADER_LENGTH;
+                } else {
+                    channel.truncate(index.validEnd);
+                    position = index.validEnd;
+                }
+                for (PersonalMessage day : toAppend) {
+                    byte[] compressed = compress(day.getMessages());
+                    ByteBuffer header = ByteBuffer.allocate(MessageArchiveConstant.RECORD_HEADER_LENGTH);
+                    header.putInt((int) day.getDate().toEpochDay())
+                            .putInt(day.getMessages().size())
+                            .putInt(compressed.length)
+                            .flip();
+                    position += writeFully(channel, header, position);
+                    position += writeFully(channel, ByteBuffer.wrap(compressed), position);
+                }
+                channel.force(false);
+            }
+            INDEX_CACHE.remove(archive.getAbsolutePath());
+            return toAppend.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除归档中早于阈值的日期。
+     * <p>
+     * 未过期的记录原样复制到临时文件后替换归档，所有日期都过期时删除归档。
+     * 末尾追加中断留下的不完整记录在重写时一并丢弃，计为一条删除的记录。
+     *
+     * @param archive 归档文件。
+     * @param cutoffDate 日期阈值，早于这一天的记录会被删除。
+     * @return 删除的记录数，归档没有变化时返回0。
+     * @throws IOException 如果读取或写入归档失败。
+     */
+    public static int retain(File archive, LocalDate cutoffDate) throws IOException {
+        ReadWriteLock lock = getLock(archive);
+        lock.writeLock().lock();
+        try {
+            if (!archive.exists()) {
+                return 0;
+            }
+            Index index = loadIndex(archive);
+            long cutoff = cutoffDate.toEpochDay();
+            int first = 0;
+            while (first < index.records.size() && index.records.get(first).epochDay < cutoff) {
+                first++;
+            }
+            boolean tornTail = index.validEnd < index.length;
+            if (first == 0 && !tornTail) {
+                return 0;
+            }
+
+            if (first == index.records.size()) {
+                Files.delete(archive.toPath());
+            } else {
+                // 从第一条未过期记录的记录头开始复制
+                long from = index.records.get(first).offset - MessageArchiveConstant.RECORD_HEADER_LENGTH;
+                File temp = new File(archive.getPath() + MessageArchiveConstant.TEMP_FILE_SUFFIX);
+                try (FileChannel source = FileChannel.open(archive.toPath(), StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                             StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    writeFully(target, fileHeader(), 0);
+                    long position = MessageArchiveConstant.FILE_HEADER_LENGTH;
+                    while (from < index.validEnd) {
+                        long transferred = target.transferFrom(source.position(from), position, index.validEnd - from);
+                        from += transferred;
+                        position += transferred;
+                    }
+                    target.force(false);
+                }
+                FileManager.replace(temp, archive);
+            }
+            INDEX_CACHE.remove(archive.getAbsolutePath());
+            return tornTail ? first + 1 : first;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取归档文件的读写锁，按绝对路径区分。
+     *
+     * @param archive 归档文件。
+     * @return 读写锁。
+     */
+    private static ReadWriteLock getLock(File archive) {
+        return LOCKS.computeIfAbsent(archive.getAbsolutePath(), k -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * 获取归档的索引，文件的修改时间和大小没有变化时复用缓存的索引。
+     *
+     * @param archive 归档文件。
+     * @return 索引。
+     * @throws IOException 如果读取归档失败或文件不是消息归档。
+     */
+    private static Index loadIndex(File archive) throws IOException {
+        String key = archive.getAbsolutePath();
+        long lastModified = archive.lastModified();
+        long length = archive.length();
+        Index cached = INDEX_CACHE.get(key);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached;
+        }
+        Index index = scan(archive, lastModified, length);
+        INDEX_CACHE.put(key, index);
+        return index;
+    }
+
+    /**
+     * 跳读记录头建立索引，末尾不完整的记录（追加中断时留下）不计入索引。
+     */
+    private static Index scan(File archive, long lastModified, long length) throws IOException {
+        Index index = new Index(lastModified, length);
+        try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer fileHeader = ByteBuffer.allocate(MessageArchiveConstant.FILE_HEADER_LENGTH);
+            if (length < MessageArchiveConstant.FILE_HEADER_LENGTH || !readFully(channel, fileHeader, 0)
+                    || fileHeader.getInt(0) != MessageArchiveConstant.MAGIC) {
+                throw new IOException("Not a message archive: " + archive);
+            }
+            if (fileHeader.getShort(4) != MessageArchiveConstant.VERSION) {
+                throw new IOException("Unsupported message archive version " + fileHeader.getShort(4) + ": " + archive);
+            }
+
+            long position = MessageArchiveConstant.FILE_HEADER_LENGTH;
+            ByteBuffer header = ByteBuffer.allocate(MessageArchiveConstant.RECORD_HEADER_LENGTH);
+            while (position + MessageArchiveConstant.RECORD_HEADER_LENGTH <= length) {
+                header.clear();
+                readFully(channel, header, position);
+                int epochDay = header.getInt(0);
+                int count = header.getInt(4);
+                int recordLength = header.getInt(8);
+                long offset = position + MessageArchiveConstant.RECORD_HEADER_LENGTH;
+                if (recordLength < 0 || offset + recordLength > length) {
+                    break;
+                }
+                index.records.add(new Record(epochDay, count, offset, recordLength));
+                position = offset + recordLength;
+            }
+            index.validEnd = position;
+        }
+        return index;
+    }
+
+    private static Record findRecord(Index index, LocalDate date) {
+        long epochDay = date.toEpochDay();
+        for (Record record : index.records) {
+            if (record.epochDay == epochDay) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] compress(List<String> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            GSON.toJson(messages, writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(MessageArchiveConstant.FILE_HEADER_LENGTH);
+        header.putInt(MessageArchiveConstant.MAGIC)
+                .putShort(MessageArchiveConstant.VERSION)
+                .putShort((short) 0)
+                .flip();
+        return header;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static class Index {
+        private final long lastModified;
+
+        private final long length;
+
+        private final List<Record> records = new ArrayList<>();
+
+        // 最后一条完整记录的结束位置
+        private long validEnd;
+
+        Index(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
+    private static class Record {
+        private final int epochDay;
+
+        private final int count;
+
+        private final long offset;
+
+        private final int length;
+
+        Record(int epochDay, int count, long offset, int length) {
+            this.epochDay = epochDay;
+            this.count = count;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
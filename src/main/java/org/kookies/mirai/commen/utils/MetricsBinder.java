@@ -0,0 +1,77 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.plugin.auth.AdmissionFilter;
+import org.kookies.mirai.plugin.auth.RateLimiter;
+import org.kookies.mirai.pojo.dto.HttpPoolStatsDTO;
+import org.kookies.mirai.pojo.dto.TtsBackendStatsDTO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 把各模块已有的统计信息登记为指标，只增不减的统计值登记为计数器，其余登记为仪表。
+ *
+ * @author General_K1ng
+ */
+public class MetricsBinder {
+    /**
+     * 登记所有指标，插件启动时调用一次。
+     */
+    public static void bind() {
+        // 消息准入和限流
+        MetricsRegistry.counter(MetricsConstant.ADMISSION_MESSAGES, AdmissionFilter::getAdmitted, "result", "admitted");
+        MetricsRegistry.counter(MetricsConstant.ADMISSION_MESSAGES, AdmissionFilter::getRejectedGroup, "result", "group_not_enabled");
+        MetricsRegistry.counter(MetricsConstant.ADMISSION_MESSAGES, AdmissionFilter::getRejectedBlacklist, "result", "blacklisted");
+        MetricsRegistry.gauge(MetricsConstant.RATE_LIMIT_BUCKETS, RateLimiter::getBucketCount);
+        MetricsRegistry.counter(MetricsConstant.RATE_LIMIT_REJECTED, RateLimiter::getUserRejected, "scope", "user");
+        MetricsRegistry.counter(MetricsConstant.RATE_LIMIT_REJECTED, RateLimiter::getGroupRejected, "scope", "group");
+
+        // 大模型调度队列
+        MetricsRegistry.gauge(MetricsConstant.LLM_QUEUE_DEPTH, () -> LlmDispatcher.getStats().getQueued());
+        MetricsRegistry.gauge(MetricsConstant.LLM_IN_FLIGHT, () -> LlmDispatcher.getStats().getInFlight());
+        MetricsRegistry.counter(MetricsConstant.LLM_REJECTED, () -> LlmDispatcher.getStats().getRejected());
+        MetricsRegistry.counter(MetricsConstant.LLM_SHED, () -> LlmDispatcher.getStats().getShed());
+
+        // HTTP连接池和熔断器，熔断状态按 0关闭 1半开 2打开 导出
+        MetricsRegistry.gaugeFamily(MetricsConstant.HTTP_POOL_RUNNING_CALLS, "profile", () -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            for (HttpPoolStatsDTO stats : HttpClientManager.getPoolStats()) {
+                values.put(stats.getProfile(), stats.getRunningCalls());
+            }
+            return values;
+        });
+        MetricsRegistry.gaugeFamily(MetricsConstant.HTTP_POOL_CONNECTIONS, "profile", () -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            for (HttpPoolStatsDTO stats : HttpClientManager.getPoolStats()) {
+                values.put(stats.getProfile(), stats.getConnectionCount());
+            }
+            return values;
+        });
+        MetricsRegistry.gaugeFamily(MetricsConstant.CIRCUIT_STATE, "target", () -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            HttpClientManager.getCircuitStates().forEach((key, state) ->
+                    values.put(key, state == CircuitBreaker.State.CLOSED ? 0 : state == CircuitBreaker.State.HALF_OPEN ? 1 : 2));
+            return values;
+        });
+
+        // 语音缓存和语音合成后端
+        MetricsRegistry.gauge(MetricsConstant.VOICE_CACHE_ENTRIES, () -> VoiceCache.getStats().getEntries());
+        MetricsRegistry.gauge(MetricsConstant.VOICE_CACHE_BYTES, () -> VoiceCache.getStats().getBytes());
+        MetricsRegistry.gauge(MetricsConstant.VOICE_CACHE_HIT_RATIO, () -> VoiceCache.getStats().getHitRate());
+        MetricsRegistry.gaugeFamily(MetricsConstant.TTS_BACKEND_OUTSTANDING, "backend", () -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            for (TtsBackendStatsDTO stats : TtsBackendPool.getStats()) {
+                values.put(stats.getApiUrl(), stats.getOutstanding());
+            }
+            return values;
+        });
+        MetricsRegistry.counterFamily(MetricsConstant.TTS_BACKEND_FAILURES, "backend", () -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (TtsBackendStatsDTO stats : TtsBackendPool.getStats()) {
+                values.put(stats.getApiUrl(), stats.getFailures());
+            }
+            return values;
+        });
+    }
+}
@@ -0,0 +1,394 @@
+package org.kookies.mirai.commen.utils;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.pojo.dto.TimerStatsDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 进程内指标注册表。
+ * <p>
+ * 提供三类指标：
+ * <ul>
+ *     <li>计时器：耗时记录在 HdrHistogram 的 Recorder 中，记录操作无锁，读取时把区间直方图累加到总直方图；</li>
+ *     <li>计数器：基于 LongAdder，适合高频递增；</li>
+ *     <li>仪表：读取时调用登记的函数，用于导出各模块已有的统计信息，如队列长度和缓存大小。</li>
+ * </ul>
+ * 各模块自己维护的只增不减的统计值（如拒绝次数）也通过登记函数导出，但类型为计数器。
+ * 同一个名称可以带不同的标签，标签以键值对的形式依次传入。所有指标可以导出为Prometheus文本格式。
+ *
+ * @author General_K1ng
+ */
+public class MetricsRegistry {
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    private static final Map<String, GaugeFamily> GAUGE_FAMILIES = new ConcurrentHashMap<>();
+
+    private static final String GAUGE_TYPE = "gauge";
+
+    private static final String COUNTER_TYPE = "counter";
+
+    /**
+     * 记录一次耗时。
+     *
+     * @param name 指标名称。
+     * @param nanos 耗时（纳秒）。
+     * @param labels 标签，按 键, 值, 键, 值 的顺序传入。
+     */
+    public static void recordNanos(String name, long nanos, String... labels) {
+        Series series = new Series(name, formatLabels(labels));
+        Timer timer = TIMERS.computeIfAbsent(series.key(), k -> new Timer(series, joinValues(labels)));
+        // 直方图以微秒为单位，足够区分本地计算和网络请求
+        timer.recorder.recordValue(Math.max(0, nanos / 1000));
+        timer.sumNanos.add(Math.max(0, nanos));
+    }
+
+    /**
+     * 记录从 startNanos 到现在的耗时。
+     *
+     * @param name 指标名称。
+     * @param startNanos 开始时的 System.nanoTime()。
+     * @param labels 标签。
+     */
+    public static void recordSince(String name, long startNanos, String... labels) {
+        recordNanos(name, System.nanoTime() - startNanos, labels);
+    }
+
+    /**
+     * 计数器加一。
+     *
+     * @param name 指标名称。
+     * @param labels 标签。
+     */
+    public static void increment(String name, String... labels) {
+        Series series = new Series(name, formatLabels(labels));
+        COUNTERS.computeIfAbsent(series.key(), k -> new Counter(series)).value.increment();
+    }
+
+    /**
+     * 读取计数器的当前值。
+     *
+     * @param name 指标名称。
+     * @param labels 标签。
+     * @return 计数器的值，不存在时返回0。
+     */
+    public static long getCount(String name, String... labels) {
+        return getCountByLabels(name, formatLabels(labels));
+    }
+
+    /**
+     * 按已格式化的标签文本读取计数器，用于查找和计时器标签相同的计数器。
+     *
+     * @param name 指标名称。
+     * @param labels 格式为 key="value",... 的标签文本。
+     * @return 计数器的值，不存在时返回0。
+     */
+    public static long getCountByLabels(String name, String labels) {
+        Counter counter = COUNTERS.get(new Series(name, labels).key());
+        return counter == null ? 0 : counter.value.sum();
+    }
+
+    /**
+     * 登记一个仪表，相同名称和标签的仪表会被替换。
+     *
+     * @param name 指标名称。
+     * @param supplier 读取当前值的函数。
+     * @param labels 标签。
+     */
+    public static void gauge(String name, DoubleSupplier supplier, String... labels) {
+        Series series = new Series(name, formatLabels(labels));
+        GAUGES.put(series.key(), new Gauge(series, supplier, GAUGE_TYPE));
+    }
+
+    /**
+     * 登记一个由函数读取当前值的计数器，用于导出各模块自己维护的只增不减的统计值，相同名称和标签的会被替换。
+     *
+     * @param name 指标名称。
+     * @param supplier 读取当前值的函数。
+     * @param labels 标签。
+     */
+    public static void counter(String name, LongSupplier supplier, String... labels) {
+        Series series = new Series(name, formatLabels(labels));
+        GAUGES.put(series.key(), new Gauge(series, supplier::getAsLong, COUNTER_TYPE));
+    }
+
+    /**
+     * 登记一组标签值在运行时才能确定的仪表，例如每个主机的熔断状态。
+     *
+     * @param name 指标名称。
+     * @param labelName 标签名。
+     * @param supplier 返回 标签值 到 当前值 映射的函数。
+     */
+    public static void gaugeFamily(String name, String labelName, Supplier<Map<String, ? extends Number>> supplier) {
+        GAUGE_FAMILIES.put(name, new GaugeFamily(name, labelName, supplier, GAUGE_TYPE));
+    }
+
+    /**
+     * 登记一组标签值在运行时才能确定的计数器，例如每个语音合成后端的失败次数。
+     *
+     * @param name 指标名称。
+     * @param labelName 标签名。
+     * @param supplier 返回 标签值 到 当前值 映射的函数。
+     */
+    public static void counterFamily(String name, String labelName, Supplier<Map<String, ? extends Number>> supplier) {
+        GAUGE_FAMILIES.put(name, new GaugeFamily(name, labelName, supplier, COUNTER_TYPE));
+    }
+
+    /**
+     * 获取指定名称的所有计时器的统计信息，按记录次数从多到少排列。
+     *
+     * @param name 指标名称。
+     * @return 每组标签的记录次数和耗时分位数。
+     */
+    public static List<TimerStatsDTO> getTimerStats(String name) {
+        List<TimerStatsDTO> stats = new ArrayList<>();
+        for (Timer timer : TIMERS.values()) {
+            if (!timer.series.name.equals(name)) {
+                continue;
+            }
+            Histogram histogram = timer.snapshot();
+            stats.add(TimerStatsDTO.builder()
+                    .name(name)
+                    .labels(timer.series.labels)
+                    .labelValues(timer.labelValues)
+                    .count(histogram.getTotalCount())
+                    .p50Millis(histogram.getValueAtPercentile(50) / 1000.0)
+                    .p99Millis(histogram.getValueAtPercentile(99) / 1000.0)
+                    .maxMillis(histogram.getMaxValue() / 1000.0)
+                    .build());
+        }
+        stats.sort(Comparator.comparingLong(TimerStatsDTO::getCount).reversed());
+        return stats;
+    }
+
+    /**
+     * 以Prometheus文本格式导出所有指标。
+     * <p>
+     * 计时器导出为summary，包含分位数、总耗时和次数，单位为秒。
+     *
+     * @return Prometheus文本格式的指标。
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        String lastName = null;
+        for (Timer timer : sorted(TIMERS.values(), t -> t.series)) {
+            Series series = timer.series;
+            if (!series.name.equals(lastName)) {
+                out.append("# TYPE ").append(series.name).append(" summary\n");
+                lastName = series.name;
+            }
+            Histogram histogram = timer.snapshot();
+            for (double quantile : MetricsConstant.QUANTILES) {
+                String labels = series.labels.isEmpty() ? "" : series.labels + ",";
+                out.append(series.name).append('{').append(labels).append("quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getValueAtPercentile(quantile * 100) / 1e6).append('\n');
+            }
+            out.append(series.name).append("_sum").append(braces(series.labels)).append(' ')
+                    .append(timer.sumNanos.sum() / 1e9).append('\n');
+            out.append(series.name).append("_count").append(braces(series.labels)).append(' ')
+                    .append(histogram.getTotalCount()).append('\n');
+        }
+
+        lastName = null;
+        for (Counter counter : sorted(COUNTERS.values(), c -> c.series)) {
+            Series series = counter.series;
+            if (!series.name.equals(lastName)) {
+                out.append("# TYPE ").append(series.name).append(" counter\n");
+                lastName = series.name;
+            }
+            out.append(series.key()).append(' ').append(counter.value.sum()).append('\n');
+        }
+
+        // 由函数读取的仪表、计数器及其族合并后按名称输出，保证同名指标连续
+        List<Gauge> gauges = new ArrayList<>(GAUGES.values());
+        for (GaugeFamily family : GAUGE_FAMILIES.values()) {
+            Map<String, ? extends Number> values;
+            try {
+                values = family.supplier.get();
+            } catch (RuntimeException e) {
+                // 单个指标读取失败不影响其他指标
+                continue;
+            }
+            for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+                double value = entry.getValue().doubleValue();
+                gauges.add(new Gauge(new Series(family.name, formatLabels(family.labelName, entry.getKey())), () -> value, family.type));
+            }
+        }
+        lastName = null;
+        for (Gauge gauge : sorted(gauges, g -> g.series)) {
+            double value;
+            try {
+                value = gauge.supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            Series series = gauge.series;
+            if (!series.name.equals(lastName)) {
+                out.append("# TYPE ").append(series.name).append(' ').append(gauge.type).append('\n');
+                lastName = series.name;
+            }
+            out.append(series.key()).append(' ').append(value).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static <T> List<T> sorted(Collection<T> values, Function<T, Series> series) {
+        List<T> list = new ArrayList<>(values);
+        list.sort(Comparator.comparing((T t) -> series.apply(t).name).thenComparing(t -> series.apply(t).labels));
+        return list;
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    /**
+     * 把 键, 值, 键, 值 形式的标签格式化为Prometheus的标签文本。
+     *
+     * @param labels 标签。
+     * @return 格式为 key="value",... 的标签文本。
+     */
+    private static String formatLabels(String... labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    text.append('\\').append(c);
+                } else if (c == '\n') {
+                    text.append("\\n");
+                } else {
+                    text.append(c);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+
+    private static String joinValues(String... labels) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i < labels.length; i += 2) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(labels[i]);
+        }
+        return text.toString();
+    }
+
+    private static class Series {
+        private final String name;
+
+        private final String labels;
+
+        private Series(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        private String key() {
+            return name + braces(labels);
+        }
+    }
+
+    private static class Timer {
+        private final Series series;
+
+        // 标签值，用于展示
+        private final String labelValues;
+
+        private final Recorder recorder = new Recorder(MetricsConstant.HISTOGRAM_DIGITS);
+
+        private final LongAdder sumNanos = new LongAdder();
+
+        // 启动以来的全部记录
+        private final Histogram cumulative = new Histogram(MetricsConstant.HISTOGRAM_DIGITS);
+
+        // 上一次取出的区间直方图，下次取出时复用
+        private Histogram interval;
+
+        private Timer(Series series, String labelValues) {
+            this.series = series;
+            this.labelValues = labelValues;
+        }
+
+        /**
+         * 把上次读取之后的记录合并到总直方图，返回总直方图的副本。
+         *
+         * @return 启动以来全部记录的直方图。
+         */
+        private synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            cumulative.add(interval);
+            return cumulative.copy();
+        }
+    }
+
+    private static class Counter {
+        private final Series series;
+
+        private final LongAdder value = new LongAdder();
+
+        private Counter(Series series) {
+            this.series = series;
+        }
+    }
+
+    private static class Gauge {
+        private final Series series;
+
+        private final DoubleSupplier supplier;
+
+        // 导出的指标类型，gauge 或 counter
+        private final String type;
+
+        private Gauge(Series series, DoubleSupplier supplier, String type) {
+            this.series = series;
+            this.supplier = supplier;
+            this.type = type;
+        }
+    }
+
+    private static class GaugeFamily {
+        private final String name;
+
+        private final String labelName;
+
+        private final Supplier<Map<String, ? extends Number>> supplier;
+
+        private final String type;
+
+        private GaugeFamily(String name, String labelName, Supplier<Map<String, ? extends Number>> supplier, String type) {
+            this.name = name;
+            this.labelName = labelName;
+            this.supplier = supplier;
+            this.type = type;
+        }
+    }
+}
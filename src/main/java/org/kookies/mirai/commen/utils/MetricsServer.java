@@ -0,0 +1,71 @@
+package org.kookies.mirai.commen.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.pojo.entity.MetricsConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Prometheus指标接口。
+ * <p>
+ * 使用JDK自带的HTTP服务器在本地端口提供 /metrics，只有一个处理线程，
+ * 默认只监听127.0.0.1，需要被其他机器抓取时在 metricsConfig 中修改监听地址。
+ *
+ * @author General_K1ng
+ */
+public class MetricsServer {
+    private static final Log log = LogFactory.getLog(MetricsServer.class);
+
+    private static HttpServer server;
+
+    /**
+     * 按配置启动指标接口，重复调用不会重复启动。
+     */
+    public static synchronized void start() {
+        MetricsConfig metricsConfig = ConfigurationLoader.getConfig().getMetricsConfig();
+        if (server != null || metricsConfig == null || metricsConfig.getEnable() == null || !metricsConfig.getEnable()) {
+            return;
+        }
+        String host = metricsConfig.getHost() == null ? MetricsConstant.DEFAULT_HOST : metricsConfig.getHost();
+        int port = metricsConfig.getPort() == null ? MetricsConstant.DEFAULT_PORT : metricsConfig.getPort();
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            // 端口被占用等问题不影响机器人本身
+            log.warn("指标接口启动失败：" + host + ":" + port + "，" + e.getMessage());
+            return;
+        }
+        server.createContext(MetricsConstant.METRICS_PATH, exchange -> {
+            byte[] body = MetricsRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", MetricsConstant.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, MetricsConstant.SERVER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        }));
+        // HTTP服务器的分发线程继承启动线程的守护属性，在守护线程中启动，避免阻止JVM退出
+        Thread starter = new Thread(server::start, MetricsConstant.SERVER_THREAD_NAME + "-starter");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("指标接口已启动：http://" + host + ":" + port + MetricsConstant.METRICS_PATH);
+    }
+}
@@ -0,0 +1,225 @@
+package org.kookies.mirai.commen.utils;
+
+import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.message.data.Image;
+import net.mamoe.mirai.message.data.OfflineAudio;
+import net.mamoe.mirai.message.data.ShortVideo;
+import net.mamoe.mirai.utils.ExternalResource;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.UploadCacheConstant;
+import org.kookies.mirai.commen.exceptions.DataWriteException;
+import org.kookies.mirai.pojo.entity.UploadCacheConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 已上传资源缓存。
+ * <p>
+ * 以内容的MD5作为键缓存上传后得到的 Image、OfflineAudio、ShortVideo，
+ * 在有效期内再次发送相同内容时直接复用，不再重复上传。
+ * 图片可以跨群发送，只按机器人和内容区分；语音和短视频与上传的群绑定，键中还包含群号。
+ * 上传使用的 ExternalResource 在上传完成后立即关闭。
+ *
+ * @author General_K1ng
+ */
+public class ResourceUploadCache {
+    private static final Map<String, CachedResource> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 上传图片，相同内容的图片在有效期内只上传一次。
+     *
+     * @param group 目标群组。
+     * @param data 图片字节数据。
+     * @return 可以直接发送的图片。
+     */
+    public static Image uploadImage(Group group, byte[] data) {
+        String key = UploadCacheConstant.IMAGE_PREFIX + group.getBot().getId() + ":" + md5(data);
+        return getOrUpload(key, () -> {
+            try (ExternalResource resource = ExternalResource.create(data)) {
+                return group.uploadImage(resource);
+            } catch (IOException e) {
+                throw new DataWriteException(MsgConstant.RESOURCE_UPLOAD_ERROR);
+            }
+        });
+    }
+
+    /**
+     * 上传语音，相同内容的语音在同一个群内只上传一次。
+     *
+     * @param group 目标群组。
+     * @param data 语音字节数据。
+     * @return 可以直接发送的语音。
+     */
+    public static OfflineAudio uploadAudio(Group group, byte[] data) {
+        String key = UploadCacheConstant.AUDIO_PREFIX + group.getBot().getId() + ":" + group.getId() + ":" + md5(data);
+        return getOrUpload(key, () -> {
+            try (ExternalResource resource = ExternalResource.create(data)) {
+                return group.uploadAudio(resource);
+            } catch (IOException e) {
+                throw new DataWriteException(MsgConstant.RESOURCE_UPLOAD_ERROR);
+            }
+        });
+    }
+
+    /**
+     * 上传短视频，相同内容的视频在同一个群内只上传一次。
+     * <p>
+     * 视频直接从文件上传，不会把整个视频读入内存；哈希由调用方通过 md5(File) 计算一次，与缩略图缓存共用。
+     * 缩略图只在缓存未命中、真正需要上传时才获取，调用方可以在后台提取缩略图。
+     *
+     * @param group 目标群组。
+     * @param thumbnail 获取视频缩略图字节数据的逻辑。
+     * @param video 视频文件。
+     * @param fileName 视频文件名。
+     * @param hash 视频内容的MD5，由 md5(File) 计算。
+     * @return 可以直接发送的短视频。
+     */
+    public static ShortVideo uploadShortVideo(Group group, Supplier<byte[]> thumbnail, File video, String fileName, String hash) {
+        return getOrUpload(videoKey(group, hash), () -> {
+            try (ExternalResource thumbnailResource = ExternalResource.create(thumbnail.get());
+                 ExternalResource videoResource = ExternalResource.create(video)) {
+                return group.uploadShortVideo(thumbnailResource, videoResource, fileName);
+            } catch (IOException e) {
+                throw new DataWriteException(MsgConstant.RESOURCE_UPLOAD_ERROR);
+            }
+        });
+    }
+
+    /**
+     * 判断相同内容的短视频是否已经上传到这个群且仍在有效期内，调用方可以据此跳过缩略图提取。
+     *
+     * @param group 目标群组。
+     * @param hash 视频内容的MD5。
+     * @return 缓存中有未过期的短视频时返回true。
+     */
+    public static boolean isShortVideoCached(Group group, String hash) {
+        CachedResource cached = CACHE.get(videoKey(group, hash));
+        return cached != null && cached.expireAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 流式计算文件内容的MD5，不会把整个文件读入内存。
+     *
+     * @param file 文件。
+     * @return 十六进制的MD5。
+     * @throws IOException 如果读取文件失败。
+     */
+    public static String md5(File file) throws IOException {
+        MessageDigest digest = newMd5();
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String videoKey(Group group, String hash) {
+        return UploadCacheConstant.VIDEO_PREFIX + group.getBot().getId() + ":" + group.getId() + ":" + hash;
+    }
+
+    /**
+     * 从缓存中获取资源，不存在或已过期时调用上传逻辑并写入缓存。
+     *
+     * @param key 缓存键。
+     * @param uploader 上传逻辑。
+     * @return 缓存或新上传的资源。
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T getOrUpload(String key, Supplier<T> uploader) {
+        long now = System.currentTimeMillis();
+        CachedResource cached = CACHE.get(key);
+        if (cached != null && cached.expireAt > now) {
+            MetricsRegistry.increment(MetricsConstant.CACHE_REQUESTS, "cache", "upload", "result", MetricsConstant.CACHE_HIT);
+            return (T) cached.handle;
+        }
+
+        MetricsRegistry.increment(MetricsConstant.CACHE_REQUESTS, "cache", "upload", "result", MetricsConstant.CACHE_MISS);
+        T handle = uploader.get();
+        put(key, new CachedResource(handle, now + TimeUnit.MINUTES.toMillis(getTtlMinutes())));
+        return handle;
+    }
+
+    /**
+     * 写入缓存，超过容量时优先淘汰已过期的条目，其次淘汰最早过期的条目。
+     *
+     * @param key 缓存键。
+     * @param resource 缓存条目。
+     */
+    private static void put(String key, CachedResource resource) {
+        int maxEntries = getMaxEntries();
+        if (CACHE.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            CACHE.entrySet().removeIf(e -> e.getValue().expireAt <= now);
+        }
+        while (CACHE.size() >= maxEntries) {
+            CACHE.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().expireAt))
+                    .ifPresent(e -> CACHE.remove(e.getKey()));
+        }
+        CACHE.put(key, resource);
+    }
+
+    private static long getTtlMinutes() {
+        UploadCacheConfig cacheConfig = ConfigurationLoader.getConfig().getUploadCacheConfig();
+        if (cacheConfig == null || cacheConfig.getTtlMinutes() == null) {
+            return UploadCacheConstant.DEFAULT_TTL_MINUTES;
+        }
+        return cacheConfig.getTtlMinutes();
+    }
+
+    private static int getMaxEntries() {
+        UploadCacheConfig cacheConfig = ConfigurationLoader.getConfig().getUploadCacheConfig();
+        if (cacheConfig == null || cacheConfig.getMaxEntries() == null) {
+            return UploadCacheConstant.DEFAULT_MAX_ENTRIES;
+        }
+        return Math.max(1, cacheConfig.getMaxEntries());
+    }
+
+    private static String md5(byte[] data) {
+        MessageDigest digest = newMd5();
+        return toHex(digest.digest(data));
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有JVM都必须支持MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static class CachedResource {
+        private final Object handle;
+
+        private final long expireAt;
+
+        private CachedResource(Object handle, long expireAt) {
+            this.handle = handle;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.kookies.mirai.commen.utils;
+
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+
+/**
+ * 响应体解码器，在响应关闭之前把响应体转换为需要的类型。
+ *
+ * @param <T> 解码后的类型
+ * @author General_K1ng
+ */
+@FunctionalInterface
+public interface ResponseDecoder<T> {
+    T decode(ResponseBody body) throws IOException;
+}
@@ -4,6 +4,7 @@ import org.ansj.domain.Result;
 import org.ansj.domain.Term;
 import org.ansj.splitWord.analysis.ToAnalysis;
 import org.apache.commons.lang3.ArrayUtils;
+import org.kookies.mirai.commen.constant.MetricsConstant;
 import org.kookies.mirai.commen.info.DataPathInfo;
 
 import java.io.File;
@@ -181,7 +182,9 @@ public class TextAnalyzer {
      * @return 返回一个Map，包含分词结果的词汇及其词性标注。
      */
     private static Map<String, String> segmentSentence(String sentence) {
+        long start = System.nanoTime();
         Result parsed = ToAnalysis.parse(sentence);
+        MetricsRegistry.recordSince(MetricsConstant.SEGMENTATION_SECONDS, start);
         Map<String, String> words = new HashMap<>();
         for (Term term : parsed) {
             words.put(term.getName(), term.getNatureStr());
@@ -0,0 +1,111 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.constant.VoiceSynthesisConstant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 语音合成文本分段工具。
+ * <p>
+ * 先在句末标点处切分出句子，再把相邻的短句合并到不超过长度上限的分段中；
+ * 单个句子超过上限时在逗号、顿号等句内停顿处继续切分，仍然过长时按上限硬切。
+ * 标点保留在所属分段的末尾，合成出的停顿与原文一致。
+ *
+ * @author General_K1ng
+ */
+public class TextChunker {
+    /**
+     * 将文本切分为不超过指定长度的分段。
+     *
+     * @param text 待合成的文本。
+     * @param maxChunkLength 每个分段的长度上限。
+     * @return 按原文顺序排列的非空分段。
+     */
+    public static List<String> split(String text, int maxChunkLength) {
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return chunks;
+        }
+        int limit = Math.max(1, maxChunkLength);
+
+        StringBuilder current = new StringBuilder();
+        for (String sentence : splitAfter(text, VoiceSynthesisConstant.SENTENCE_DELIMITERS)) {
+            for (String piece : splitLongSentence(sentence, limit)) {
+                // 当前分段放不下时先输出，再开始新的分段
+                if (current.length() > 0 && current.length() + piece.length() > limit) {
+                    addChunk(chunks, current.toString());
+                    current.setLength(0);
+                }
+                current.append(piece);
+            }
+        }
+        addChunk(chunks, current.toString());
+        return chunks;
+    }
+
+    /**
+     * 把超过上限的句子按句内停顿切开，仍然过长的部分按上限硬切。
+     *
+     * @param sentence 一个完整的句子。
+     * @param limit 分段长度上限。
+     * @return 每段都不超过上限的片段。
+     */
+    private static List<String> splitLongSentence(String sentence, int limit) {
+        List<String> pieces = new ArrayList<>();
+        if (sentence.length() <= limit) {
+            pieces.add(sentence);
+            return pieces;
+        }
+        for (String clause : splitAfter(sentence, VoiceSynthesisConstant.CLAUSE_DELIMITERS)) {
+            for (int start = 0; start < clause.length(); start += limit) {
+                pieces.add(clause.substring(start, Math.min(clause.length(), start + limit)));
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * 在每个分隔符之后切开文本，连续的分隔符归入同一段。
+     *
+     * @param text 待切分的文本。
+     * @param delimiters 分隔符集合。
+     * @return 切分后的片段，保留分隔符。
+     */
+    private static List<String> splitAfter(String text, String delimiters) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            boolean isDelimiter = delimiters.indexOf(text.charAt(i)) >= 0;
+            boolean nextIsDelimiter = i + 1 < text.length() && delimiters.indexOf(text.charAt(i + 1)) >= 0;
+            if (isDelimiter && !nextIsDelimiter) {
+                parts.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            parts.add(text.substring(start));
+        }
+        return parts;
+    }
+
+    private static void addChunk(List<String> chunks, String chunk) {
+        // 只有标点或空白的分段没有可合成的内容
+        String trimmed = chunk.trim();
+        if (!trimmed.isEmpty() && !isAllDelimiters(trimmed)) {
+            chunks.add(trimmed);
+        }
+    }
+
+    private static boolean isAllDelimiters(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (VoiceSynthesisConstant.SENTENCE_DELIMITERS.indexOf(c) < 0
+                    && VoiceSynthesisConstant.CLAUSE_DELIMITERS.indexOf(c) < 0
+                    && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,271 @@
+package org.kookies.mirai.commen.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.TtsPoolConstant;
+import org.kookies.mirai.commen.exceptions.ServiceUnavailableException;
+import org.kookies.mirai.pojo.dto.TtsBackendStatsDTO;
+import org.kookies.mirai.pojo.entity.VoiceRole;
+import org.kookies.mirai.pojo.entity.api.VoiceApiConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 语音合成后端池。
+ * <p>
+ * 从 voiceApiConfig.apiUrls 读取多个推理服务地址（未配置时退化为单个 apiUrl），按以下规则选择后端：
+ * <ul>
+ *     <li>优先选择上一次服务过同一角色的后端，它已经加载了该角色的模型，不需要切换权重；</li>
+ *     <li>该后端比最空闲的后端多出的进行中请求超过 affinitySlack 时放弃亲和，改选进行中请求最少的后端；</li>
+ *     <li>请求失败时换一个后端重试，每个后端最多尝试一次。</li>
+ * </ul>
+ * 相同角色和文本的请求在进行中时会被合并，后到的请求直接等待第一个请求的结果。
+ *
+ * @author General_K1ng
+ */
+public class TtsBackendPool {
+    private static final Log log = LogFactory.getLog(TtsBackendPool.class);
+
+    private static final Map<String, Backend> BACKENDS = new ConcurrentHashMap<>();
+
+    private static final Map<String, CompletableFuture<byte[]>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static final AtomicLong COALESCED = new AtomicLong();
+
+    /**
+     * 对一个后端发起合成请求。
+     */
+    @FunctionalInterface
+    public interface BackendCall {
+        /**
+         * 向指定地址发送合成请求。
+         *
+         * @param apiUrl 后端地址。
+         * @return 后端返回的音频数据。
+         * @throws IOException 如果请求失败。
+         */
+        byte[] call(String apiUrl) throws IOException;
+    }
+
+    /**
+     * 合成语音，相同角色和文本的进行中请求会被合并为一次。
+     *
+     * @param content 合成的文本。
+     * @param voiceRole 语音角色。
+     * @param backendCall 对单个后端发起请求的逻辑。
+     * @return 后端返回的音频数据。
+     * @throws IOException 如果所有后端都请求失败。
+     */
+    public static byte[] synthesize(String content, VoiceRole voiceRole, BackendCall backendCall) throws IOException {
+        String key = voiceRole.getRole() + '\u0000' + content;
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = IN_FLIGHT.putIfAbsent(key, future);
+        if (existing != null) {
+            COALESCED.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            byte[] data = dispatch(voiceRole.getRole(), backendCall);
+            future.complete(data);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, future);
+        }
+    }
+
+    /**
+     * 获取各后端的统计信息。
+     *
+     * @return 每个后端的地址、进行中请求数、当前加载的角色、成功和失败次数。
+     */
+    public static List<TtsBackendStatsDTO> getStats() {
+        List<TtsBackendStatsDTO> stats = new ArrayList<>();
+        for (Backend backend : refreshBackends()) {
+            stats.add(TtsBackendStatsDTO.builder()
+                    .apiUrl(backend.apiUrl)
+                    .outstanding(backend.outstanding.get())
+                    .loadedRole(backend.loadedRole)
+                    .served(backend.served.get())
+                    .failures(backend.failures.get())
+                    .coalesced(COALESCED.get())
+                    .build());
+        }
+        return stats;
+    }
+
+    /**
+     * 依次选择后端发送请求，失败时换下一个后端，直到成功或所有后端都尝试过。
+     *
+     * @param role 语音角色名。
+     * @param backendCall 对单个后端发起请求的逻辑。
+     * @return 后端返回的音频数据。
+     * @throws IOException 如果所有后端都请求失败。
+     */
+    private static byte[] dispatch(String role, BackendCall backendCall) throws IOException {
+        List<Backend> backends = refreshBackends();
+        if (backends.isEmpty()) {
+            throw new IOException("No TTS backend configured");
+        }
+
+        Set<Backend> tried = new HashSet<>();
+        IOException lastIoException = null;
+        RuntimeException lastRuntimeException = null;
+        while (tried.size() < backends.size()) {
+            Backend backend = choose(backends, role, tried);
+            tried.add(backend);
+
+            backend.outstanding.incrementAndGet();
+            try {
+                byte[] data = backendCall.call(backend.apiUrl);
+                // 成功后记录该后端已加载这个角色的模型
+                backend.loadedRole = role;
+                backend.served.incrementAndGet();
+                return data;
+            } catch (IOException e) {
+                backend.failures.incrementAndGet();
+                lastIoException = e;
+                log.warn("语音合成后端请求失败：" + backend.apiUrl + "，" + e.getMessage());
+            } catch (ServiceUnavailableException e) {
+                // 熔断或并发名额耗尽，换一个后端
+                lastRuntimeException = e;
+            } finally {
+                backend.outstanding.decrementAndGet();
+            }
+        }
+
+        if (lastIoException != null) {
+            throw lastIoException;
+        }
+        throw lastRuntimeException;
+    }
+
+    /**
+     * 选择一个未尝试过的后端。
+     *
+     * @param backends 所有后端。
+     * @param role 语音角色名。
+     * @param tried 已经尝试过的后端。
+     * @return 选中的后端。
+     */
+    private static Backend choose(List<Backend> backends, String role, Set<Backend> tried) {
+        Backend leastLoaded = null;
+        Backend affine = null;
+        for (Backend backend : backends) {
+            if (tried.contains(backend)) {
+                continue;
+            }
+            // 负载相同时优先选择还没有加载模型的后端，避免把其他角色的模型换掉
+            if (leastLoaded == null
+                    || backend.outstanding.get() < leastLoaded.outstanding.get()
+                    || backend.outstanding.get() == leastLoaded.outstanding.get()
+                    && backend.loadedRole == null && leastLoaded.loadedRole != null) {
+                leastLoaded = backend;
+            }
+            if (role.equals(backend.loadedRole)
+                    && (affine == null || backend.outstanding.get() < affine.outstanding.get())) {
+                affine = backend;
+            }
+        }
+
+        if (affine != null && affine.outstanding.get() - leastLoaded.outstanding.get() <= getAffinitySlack()) {
+            return affine;
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * 按当前配置同步后端列表，已有后端的统计信息保留。
+     *
+     * @return 配置中的后端列表。
+     */
+    private static List<Backend> refreshBackends() {
+        List<String> apiUrls = getApiUrls();
+        List<Backend> backends = new ArrayList<>(apiUrls.size());
+        for (String apiUrl : apiUrls) {
+            backends.add(BACKENDS.computeIfAbsent(apiUrl, Backend::new));
+        }
+        // 移除已经从配置中删除的后端
+        BACKENDS.keySet().retainAll(apiUrls);
+        return backends;
+    }
+
+    private static List<String> getApiUrls() {
+        VoiceApiConfig voiceApiConfig = ConfigurationLoader.getConfig().getBotInfo().getVoiceApiConfig();
+        if (voiceApiConfig == null) {
+            return Collections.emptyList();
+        }
+        if (voiceApiConfig.getApiUrls() != null && !voiceApiConfig.getApiUrls().isEmpty()) {
+            return voiceApiConfig.getApiUrls();
+        }
+        if (voiceApiConfig.getApiUrl() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(voiceApiConfig.getApiUrl());
+    }
+
+    private static int getAffinitySlack() {
+        VoiceApiConfig voiceApiConfig = ConfigurationLoader.getConfig().getBotInfo().getVoiceApiConfig();
+        if (voiceApiConfig == null || voiceApiConfig.getAffinitySlack() == null) {
+            return TtsPoolConstant.DEFAULT_AFFINITY_SLACK;
+        }
+        return Math.max(0, voiceApiConfig.getAffinitySlack());
+    }
+
+    /**
+     * 等待被合并的请求完成，并还原其抛出的异常。
+     *
+     * @param future 第一个请求的结果。
+     * @return 后端返回的音频数据。
+     * @throws IOException 如果第一个请求失败。
+     */
+    private static byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static class Backend {
+        private final String apiUrl;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicLong served = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        // 最近一次成功服务的角色，即后端当前加载的模型
+        private volatile String loadedRole;
+
+        private Backend(String apiUrl) {
+            this.apiUrl = apiUrl;
+        }
+    }
+}
@@ -2,63 +2,171 @@ package org.kookies.mirai.commen.utils;
 
 import org.jcodec.api.FrameGrab;
 import org.jcodec.api.JCodecException;
+import org.jcodec.common.io.FileChannelWrapper;
+import org.jcodec.common.io.NIOUtils;
 import org.jcodec.common.model.Picture;
 import org.jcodec.scale.AWTUtil;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.MetricsConstant;
 import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.VideoConstant;
 import org.kookies.mirai.commen.exceptions.ThumbnailTakeException;
+import org.kookies.mirai.pojo.entity.VideoConfig;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * 视频缩略图提取工具。
+ * <p>
+ * 定位到指定帧附近的关键帧直接解码，关键帧不依赖参考帧，不需要从头解码；
+ * 解码结果缩小到尺寸上限后在内存中编码为JPEG，不写任何临时文件，多个请求可以同时提取。
+ * 缩略图按视频内容的MD5缓存，相同的视频不会重复解码；MD5由调用方计算一次，与上传缓存共用。
+ *
  * @author General_K1ng
  */
 public class VideoThumbTaker {
-    private static final String FILE_EXT = "jpg";
+    private static final Map<String, byte[]> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    return size() > getCacheEntries();
+                }
+            });
 
-    private static final int THUMB_FRAME = 5;
+    private static volatile ExecutorService executor;
 
     /**
-     * 从视频文件中提取帧图像。
-     * <p>
-     * 此方法通过指定的视频文件路径和帧文件路径，提取视频中的某一帧作为图像保存。
-     * 主要用于视频预览或视频关键帧的提取与保存。
+     * 在后台线程中提取视频缩略图，调用方可以同时进行其他工作。
      *
-     * @param videoFilePath 视频文件的路径，用于指定要提取帧的视频文件。
-     * @param frameFilePath 帧图像的保存路径，指定提取的帧将保存到的位置。
-     * @throws IOException 如果在读取视频文件或保存帧图像时发生I/O错误，将抛出此异常。
+     * @param videoFile 视频文件。
+     * @param hash 视频内容的MD5。
+     * @return 缩略图JPEG字节数据的Future。
      */
-    public static void fetchFrame(String videoFilePath, String frameFilePath) throws IOException {
-        File videoFile = new File(videoFilePath);
-        File frameFile = new File(frameFilePath);
-        generateThumbnail(videoFile, frameFile);
+    public static Future<byte[]> takeThumbnailAsync(File videoFile, String hash) {
+        return getExecutor().submit(() -> takeThumbnail(videoFile, hash));
     }
 
     /**
-     * 根据视频文件生成缩略图。
-     * <p>
-     * 该方法通过解析视频文件中的指定帧，生成缩略图图像并保存到指定的文件中。
+     * 等待后台提取的缩略图。
      *
-     * @param videoFile 视频文件，用于生成缩略图的源文件。
-     * @param frameFile 缩略图文件，保存生成的缩略图的目标文件。
-     * @throws ThumbnailTakeException 如果生成缩略图过程中发生错误，将抛出此异常。
+     * @param future takeThumbnailAsync 返回的Future。
+     * @return 缩略图JPEG字节数据。
+     * @throws ThumbnailTakeException 如果提取失败。
+     */
+    public static byte[] await(Future<byte[]> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ThumbnailTakeException) {
+                throw (ThumbnailTakeException) e.getCause();
+            }
+            throw new ThumbnailTakeException(MsgConstant.VIDEO_THUMB_TAKE_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThumbnailTakeException(MsgConstant.VIDEO_THUMB_TAKE_ERROR);
+        }
+    }
+
+    /**
+     * 提取视频缩略图，相同内容的视频直接返回缓存。
+     *
+     * @param videoFile 视频文件。
+     * @param hash 视频内容的MD5，作为缓存键。
+     * @return 缩略图JPEG字节数据。
+     * @throws ThumbnailTakeException 如果读取视频或解码失败。
      */
-    private static void generateThumbnail(File videoFile, File frameFile) {
+    public static byte[] takeThumbnail(File videoFile, String hash) {
         try {
-            // 从视频文件中提取指定帧
-            Picture picture = FrameGrab.getFrameFromFile(videoFile, THUMB_FRAME);
-            // 将提取的帧转换为BufferedImage对象
-            BufferedImage bufferedImage = AWTUtil.toBufferedImage(picture);
-            // 将转换后的图像写入到指定的文件中
-            ImageIO.write(bufferedImage, FILE_EXT, frameFile);
+            byte[] cached = CACHE.get(hash);
+            if (cached != null) {
+                MetricsRegistry.increment(MetricsConstant.CACHE_REQUESTS, "cache", "thumbnail", "result", MetricsConstant.CACHE_HIT);
+                return cached;
+            }
+
+            MetricsRegistry.increment(MetricsConstant.CACHE_REQUESTS, "cache", "thumbnail", "result", MetricsConstant.CACHE_MISS);
+            byte[] thumbnail = generateThumbnail(videoFile);
+            CACHE.put(hash, thumbnail);
+            return thumbnail;
         } catch (IOException | JCodecException e) {
             // 如果在生成缩略图过程中发生IO异常或JCodec异常，则抛出自定义的ThumbnailTakeException异常
             throw new ThumbnailTakeException(MsgConstant.VIDEO_THUMB_TAKE_ERROR);
         }
     }
 
+    /**
+     * 根据视频文件生成缩略图。
+     * <p>
+     * 定位到指定帧之前最近的关键帧并解码，缩小后编码为JPEG。
+     *
+     * @param videoFile 视频文件，用于生成缩略图的源文件。
+     * @return 缩略图JPEG字节数据。
+     * @throws IOException 如果读取视频文件或编码图片时发生错误。
+     * @throws JCodecException 如果视频格式不受支持。
+     */
+    private static byte[] generateThumbnail(File videoFile) throws IOException, JCodecException {
+        VideoConfig videoConfig = getConfig();
+        int maxDimension = videoConfig.getThumbnailMaxDimension() == null
+                ? VideoConstant.DEFAULT_THUMBNAIL_MAX_DIMENSION : videoConfig.getThumbnailMaxDimension();
+        float quality = videoConfig.getThumbnailQuality() == null
+                ? VideoConstant.DEFAULT_THUMBNAIL_QUALITY : videoConfig.getThumbnailQuality();
+
+        try (FileChannelWrapper channel = NIOUtils.readableChannel(videoFile)) {
+            FrameGrab grab = FrameGrab.createFrameGrab(channel);
+            // 只定位到关键帧，不解码关键帧之后的帧
+            grab.seekToFrameSloppy(VideoConstant.THUMBNAIL_FRAME);
+            Picture picture = grab.getNativeFrame();
+            if (picture == null) {
+                throw new IOException("No video frame in " + videoFile.getName());
+            }
+
+            // 将提取的帧转换为BufferedImage对象，缩小后编码为JPEG
+            BufferedImage image = AWTUtil.toBufferedImage(picture);
+            return ImagePipeline.encodeJpeg(ImagePipeline.scaleToFit(image, maxDimension), quality);
+        }
+    }
+
+    private static VideoConfig getConfig() {
+        VideoConfig videoConfig = ConfigurationLoader.getConfig().getVideoConfig();
+        return videoConfig == null ? new VideoConfig() : videoConfig;
+    }
 
+    private static int getCacheEntries() {
+        VideoConfig videoConfig = getConfig();
+        return videoConfig.getThumbnailCacheEntries() == null
+                ? VideoConstant.DEFAULT_THUMBNAIL_CACHE_ENTRIES : Math.max(1, videoConfig.getThumbnailCacheEntries());
+    }
 
+    /**
+     * 获取缩略图提取线程池，第一次使用时按配置创建。
+     *
+     * @return 缩略图提取线程池。
+     */
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (VideoThumbTaker.class) {
+                if (executor == null) {
+                    VideoConfig videoConfig = getConfig();
+                    int threads = videoConfig.getThumbnailThreads() == null
+                            ? VideoConstant.DEFAULT_THUMBNAIL_THREADS : Math.max(1, videoConfig.getThumbnailThreads());
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    executor = Executors.newFixedThreadPool(threads, r -> {
+                        Thread thread = new Thread(r, VideoConstant.THUMBNAIL_THREAD_NAME + threadIndex.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
 }
@@ -0,0 +1,248 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.VoiceCacheConstant;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.pojo.dto.VoiceCacheStatsDTO;
+import org.kookies.mirai.pojo.entity.VoiceCacheConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合成语音缓存。
+ * <p>
+ * 以语音角色、规范化后的文本和编码配置的哈希作为键，把编码完成的最终语音保存到磁盘，
+ * 命中时同时跳过语音合成和格式转换。
+ * 内存中只保存按访问顺序排列的索引，磁盘总大小超过上限时淘汰最久未使用的语音；
+ * 文件的修改时间记录最近一次访问，重启后据此恢复访问顺序。
+ *
+ * @author General_K1ng
+ */
+public class VoiceCache {
+    private static final File CACHE_DIR = new File(DataPathInfo.VOICE_CACHE_DIR_PATH);
+
+    // 按访问顺序排列的索引，值为文件大小
+    private static final LinkedHashMap<String, Long> INDEX = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final AtomicLong HITS = new AtomicLong();
+
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private static long totalBytes;
+
+    private static boolean loaded;
+
+    /**
+     * 判断是否启用了合成语音缓存。
+     *
+     * @return 如果启用则返回true。
+     */
+    public static boolean isEnabled() {
+        VoiceCacheConfig cacheConfig = ConfigurationLoader.getConfig().getVoiceCacheConfig();
+        if (cacheConfig == null || cacheConfig.getEnable() == null) {
+            return VoiceCacheConstant.DEFAULT_ENABLE;
+        }
+        return cacheConfig.getEnable();
+    }
+
+    /**
+     * 生成缓存键。
+     *
+     * @param role 语音角色。
+     * @param text 合成的文本。
+     * @return 角色、规范化文本和当前配置的编码签名的SHA-256十六进制摘要。
+     */
+    public static String generateKey(String role, String text) {
+        return generateKey(role, text, FormatConverter.getEncoderSignature());
+    }
+
+    /**
+     * 按指定的编码签名生成缓存键，写入缓存时使用实际产生语音的编码签名。
+     *
+     * @param role 语音角色。
+     * @param text 合成的文本。
+     * @param encoderSignature 编码签名。
+     * @return 角色、规范化文本和编码签名的SHA-256十六进制摘要。
+     */
+    public static String generateKey(String role, String text, String encoderSignature) {
+        String normalized = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+        return sha256(role + '\u0000' + normalized + '\u0000' + encoderSignature);
+    }
+
+    /**
+     * 获取缓存的语音。
+     *
+     * @param key 缓存键。
+     * @return 编码完成的语音数据，未命中时返回null。
+     */
+    public static byte[] get(String key) {
+        synchronized (INDEX) {
+            ensureLoaded();
+            // 访问顺序的LinkedHashMap在get时把条目移到末尾
+            if (INDEX.get(key) == null) {
+                MISSES.incrementAndGet();
+                return null;
+            }
+        }
+
+        File cacheFile = getCacheFile(key);
+        try {
+            byte[] data = Files.readAllBytes(cacheFile.toPath());
+            cacheFile.setLastModified(System.currentTimeMillis());
+            HITS.incrementAndGet();
+            return data;
+        } catch (IOException e) {
+            // 文件被删除或损坏时移出索引，按未命中处理
+            synchronized (INDEX) {
+                Long size = INDEX.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            cacheFile.delete();
+            MISSES.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，超过大小上限时淘汰最久未使用的语音。
+     * <p>
+     * 先写入临时文件再重命名，避免读取到写了一半的文件；写入失败不影响本次发送。
+     *
+     * @param key 缓存键。
+     * @param data 编码完成的语音数据。
+     */
+    public static void put(String key, byte[] data) {
+        long maxBytes = getMaxBytes();
+        // 单条就超过上限的语音不缓存
+        if (data.length > maxBytes) {
+            return;
+        }
+
+        File cacheFile = getCacheFile(key);
+        File tempFile = new File(CACHE_DIR, key + VoiceCacheConstant.TEMP_FILE_EXT);
+        try {
+            if (!CACHE_DIR.exists()) {
+                CACHE_DIR.mkdirs();
+            }
+            Files.write(tempFile.toPath(), data);
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            tempFile.delete();
+            return;
+        }
+
+        synchronized (INDEX) {
+            ensureLoaded();
+            Long previous = INDEX.put(key, (long) data.length);
+            totalBytes += data.length - (previous == null ? 0 : previous);
+            evict(maxBytes);
+        }
+    }
+
+    /**
+     * 获取缓存的统计信息。
+     *
+     * @return 缓存条数、大小、命中率和淘汰次数。
+     */
+    public static VoiceCacheStatsDTO getStats() {
+        long hits = HITS.get();
+        long misses = MISSES.get();
+        synchronized (INDEX) {
+            return VoiceCacheStatsDTO.builder()
+                    .entries(INDEX.size())
+                    .bytes(totalBytes)
+                    .hits(hits)
+                    .misses(misses)
+                    .hitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                    .evictions(EVICTIONS.get())
+                    .build();
+        }
+    }
+
+    /**
+     * 淘汰最久未使用的语音，直到总大小不超过上限。调用方需持有索引锁。
+     *
+     * @param maxBytes 磁盘缓存总大小上限。
+     */
+    private static void evict(long maxBytes) {
+        Iterator<Map.Entry<String, Long>> iterator = INDEX.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            getCacheFile(eldest.getKey()).delete();
+            EVICTIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * 第一次使用时扫描缓存目录，按文件修改时间从旧到新重建索引。调用方需持有索引锁。
+     */
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        File[] files = CACHE_DIR.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(VoiceCacheConstant.TEMP_FILE_EXT)) {
+                // 上次写入中断留下的临时文件
+                file.delete();
+            } else if (name.endsWith(VoiceCacheConstant.CACHE_FILE_EXT)) {
+                String key = name.substring(0, name.length() - VoiceCacheConstant.CACHE_FILE_EXT.length());
+                INDEX.put(key, file.length());
+                totalBytes += file.length();
+            }
+        }
+        evict(getMaxBytes());
+    }
+
+    private static File getCacheFile(String key) {
+        return new File(CACHE_DIR, key + VoiceCacheConstant.CACHE_FILE_EXT);
+    }
+
+    private static long getMaxBytes() {
+        VoiceCacheConfig cacheConfig = ConfigurationLoader.getConfig().getVoiceCacheConfig();
+        if (cacheConfig == null || cacheConfig.getMaxBytes() == null) {
+            return VoiceCacheConstant.DEFAULT_MAX_BYTES;
+        }
+        return Math.max(0, cacheConfig.getMaxBytes());
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // 所有JVM都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
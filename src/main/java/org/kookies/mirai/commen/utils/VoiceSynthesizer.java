@@ -0,0 +1,206 @@
+package org.kookies.mirai.commen.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.VoiceSynthesisConstant;
+import org.kookies.mirai.pojo.entity.VoiceRole;
+import org.kookies.mirai.pojo.entity.VoiceSynthesisConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段并行语音合成。
+ * <p>
+ * 长文本按标点切分为多个分段，分段同时提交给语音合成后端池合成，
+ * 各段的音频解码为统一采样率的PCM后按原文顺序拼接，最后只编码一次。
+ * 总耗时接近最慢的一个分段，而不是随文本长度线性增长。
+ * 分段在有界的线程池中合成，队列满时由调用线程自己合成，避免无限堆积。
+ * 每个分段从开始合成时计时，在队列中等待的时间不计入超时；任一分段失败或超时时取消其余分段。
+ *
+ * @author General_K1ng
+ */
+public class VoiceSynthesizer {
+    private static final Log log = LogFactory.getLog(VoiceSynthesizer.class);
+
+    private static volatile ThreadPoolExecutor executor;
+
+    /**
+     * 合成文本对应的语音，返回可以直接上传的语音数据。
+     *
+     * @param content 待合成的文本。
+     * @param voiceRole 语音角色。
+     * @return 编码后的语音数据。
+     * @throws IOException 如果任一分段合成失败或超时。
+     */
+    public static byte[] synthesize(String content, VoiceRole voiceRole) throws IOException {
+        VoiceSynthesisConfig synthesisConfig = getConfig();
+        int maxTextLength = synthesisConfig.getMaxTextLength() == null
+                ? VoiceSynthesisConstant.DEFAULT_MAX_TEXT_LENGTH : synthesisConfig.getMaxTextLength();
+        int maxChunkLength = synthesisConfig.getMaxChunkLength() == null
+                ? VoiceSynthesisConstant.DEFAULT_MAX_CHUNK_LENGTH : synthesisConfig.getMaxChunkLength();
+        int timeoutSeconds = synthesisConfig.getChunkTimeoutSeconds() == null
+                ? VoiceSynthesisConstant.DEFAULT_CHUNK_TIMEOUT_SECONDS : synthesisConfig.getChunkTimeoutSeconds();
+
+        // 超出长度上限的部分直接截断
+        String text = content.trim();
+        if (text.length() > maxTextLength) {
+            log.warn("语音文本过长，截断为" + maxTextLength + "字");
+            text = text.substring(0, maxTextLength);
+        }
+
+        List<String> chunks = TextChunker.split(text, maxChunkLength);
+        // 短文本只有一个分段时，不需要拼接，直接合成
+        if (chunks.size() <= 1) {
+            byte[] wav = ApiRequester.getVoiceWithText(chunks.isEmpty() ? text : chunks.get(0), voiceRole);
+            return FormatConverter.convertWavToVoice(wav);
+        }
+
+        int sampleRate = FormatConverter.getSampleRate();
+        List<ChunkTask> tasks = new ArrayList<>(chunks.size());
+        List<Future<short[]>> futures = new ArrayList<>(chunks.size());
+        for (String chunk : chunks) {
+            ChunkTask task = new ChunkTask(chunk, voiceRole, sampleRate);
+            tasks.add(task);
+            futures.add(getExecutor().submit(task));
+        }
+
+        // 每个分段从开始合成时计时
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        List<short[]> parts = new ArrayList<>(chunks.size());
+        int totalSamples = 0;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                short[] part = await(futures.get(i), tasks.get(i), timeoutNanos);
+                parts.add(part);
+                totalSamples += part.length;
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Voice synthesis chunk timed out after " + timeoutSeconds + "s", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            // 失败或超时时取消其余分段，成功时这里不会产生任何影响
+            for (Future<short[]> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        // 按原文顺序拼接PCM
+        short[] pcm = new short[totalSamples];
+        int offset = 0;
+        for (short[] part : parts) {
+            System.arraycopy(part, 0, pcm, offset, part.length);
+            offset += part.length;
+        }
+        return FormatConverter.convertWavToVoice(FormatConverter.encodeWav(pcm, sampleRate));
+    }
+
+    /**
+     * 等待分段合成完成。
+     * <p>
+     * 分段还在队列中时按固定间隔轮询，开始合成后等待到它的开始时间加上超时时间为止。
+     *
+     * @param future 分段的Future。
+     * @param task 分段任务，用于获取开始合成的时间。
+     * @param timeoutNanos 分段的超时时间（纳秒）。
+     * @return 分段的PCM数据。
+     * @throws TimeoutException 如果分段开始合成后超时。
+     */
+    private static short[] await(Future<short[]> future, ChunkTask task, long timeoutNanos)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        while (!task.started) {
+            try {
+                return future.get(VoiceSynthesisConstant.QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 仍在排队或刚开始合成，排队的时间不计入超时
+            }
+        }
+        return future.get(Math.max(0, task.startNanos + timeoutNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 合成一个分段并解码为PCM，记录开始合成的时间。
+     */
+    private static class ChunkTask implements Callable<short[]> {
+        private final String chunk;
+
+        private final VoiceRole voiceRole;
+
+        private final int sampleRate;
+
+        private volatile long startNanos;
+
+        private volatile boolean started;
+
+        ChunkTask(String chunk, VoiceRole voiceRole, int sampleRate) {
+            this.chunk = chunk;
+            this.voiceRole = voiceRole;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public short[] call() throws IOException {
+            // 先写入开始时间再标记开始，等待方看到 started 时一定能读到开始时间
+            startNanos = System.nanoTime();
+            started = true;
+            return FormatConverter.decodeWav(ApiRequester.getVoiceWithText(chunk, voiceRole), sampleRate);
+        }
+    }
+
+    private static VoiceSynthesisConfig getConfig() {
+        VoiceSynthesisConfig synthesisConfig = ConfigurationLoader.getConfig().getVoiceSynthesisConfig();
+        return synthesisConfig == null ? new VoiceSynthesisConfig() : synthesisConfig;
+    }
+
+    /**
+     * 获取分段合成线程池，第一次使用时按配置创建。
+     *
+     * @return 有界的分段合成线程池。
+     */
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (VoiceSynthesizer.class) {
+                if (executor == null) {
+                    VoiceSynthesisConfig synthesisConfig = getConfig();
+                    int threads = synthesisConfig.getParallelism() == null
+                            ? VoiceSynthesisConstant.DEFAULT_PARALLELISM : Math.max(1, synthesisConfig.getParallelism());
+                    int queueCapacity = synthesisConfig.getQueueCapacity() == null
+                            ? VoiceSynthesisConstant.DEFAULT_QUEUE_CAPACITY : Math.max(1, synthesisConfig.getQueueCapacity());
+
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueCapacity),
+                            r -> {
+                                Thread thread = new Thread(r, VoiceSynthesisConstant.WORKER_THREAD_NAME + threadIndex.getAndIncrement());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            // 队列满时由调用线程合成，形成背压
+                            new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,63 @@
+package org.kookies.mirai.commen.utils;
+
+import com.kennycason.kumo.CollisionMode;
+import com.kennycason.kumo.WordCloud;
+import com.kennycason.kumo.WordFrequency;
+import com.kennycason.kumo.bg.CircleBackground;
+import com.kennycason.kumo.font.FontWeight;
+import com.kennycason.kumo.font.KumoFont;
+import com.kennycason.kumo.font.scale.SqrtFontScalar;
+import com.kennycason.kumo.palette.ColorPalette;
+import org.kookies.mirai.commen.constant.WordCloudConstant;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * 词云渲染工具。
+ * <p>
+ * 按 WordCloudConstant 中的尺寸、内边距、背景和字体缩放规则生成词云，
+ * 群聊词云功能和基准测试使用同一套配置。
+ *
+ * @author General_K1ng
+ */
+public class WordCloudRenderer {
+
+    /**
+     * 根据词频数据渲染词云。
+     *
+     * @param wordFrequencies 词频数据。
+     * @return 已完成布局的词云对象，可以直接写入文件。
+     */
+    public static WordCloud render(List<WordFrequency> wordFrequencies) {
+        // 创建词云对象，配置词云的样式、布局等。
+        WordCloud wordCloud = createWordCloud();
+        // 基于词频数据完成布局。
+        wordCloud.build(wordFrequencies);
+        return wordCloud;
+    }
+
+    /**
+     * 生成词云实例。
+     * <p>
+     * 此方法根据预定义的常量初始化并配置词云实例，包括词云的大小、内边距、颜色调色板、背景形状及字体大小缩放规则。
+     *
+     * @return WordCloud 返回已配置的词云实例。
+     */
+    private static WordCloud createWordCloud() {
+        Dimension dimension = new Dimension(WordCloudConstant.IMAGE_WIDTH, WordCloudConstant.IMAGE_HEIGHT);
+        WordCloud wordCloud = new WordCloud(dimension, CollisionMode.PIXEL_PERFECT);
+
+        ColorManager colorManager = new ColorManager();
+        Color bkgColor = colorManager.generateBkgColor();
+        Color[] colorPalette = colorManager.generateTextColor(bkgColor);
+
+        wordCloud.setPadding(WordCloudConstant.PADDING);
+        wordCloud.setColorPalette(new ColorPalette(colorPalette));
+        wordCloud.setBackground(new CircleBackground(WordCloudConstant.BACKGROUND_RADIUS));
+        wordCloud.setKumoFont(new KumoFont(WordCloudConstant.randomFont(), FontWeight.PLAIN));
+        wordCloud.setFontScalar(new SqrtFontScalar(WordCloudConstant.FONT_SCALAR_MIN, WordCloudConstant.FONT_SCALAR_MAX));
+        wordCloud.setBackgroundColor(bkgColor);
+        return wordCloud;
+    }
+}
@@ -0,0 +1,283 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.constant.WordCountConstant;
+import org.kookies.mirai.commen.exceptions.DataLoadException;
+import org.kookies.mirai.commen.exceptions.DataWriteException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 词频分级汇总。
+ * <p>
+ * 每日词频文件 &lt;日期&gt;.txt 在当天结束后由每晚的清理任务合并到当月的 month-yyyy-MM.kwm
+ * 和当年的 year-yyyy.kwm 中，并在群目录的 rollup.state 中记录已经汇总到哪一天：
+ * <ul>
+ *     <li>本月词云、年度词云只需要读取一个汇总文件和尚未汇总的几个每日文件；</li>
+ *     <li>已经汇总过的每日文件可以按保留天数清理，不会丢失长期的统计。</li>
+ * </ul>
+ * 汇总文件使用 {@link WordMapFile} 的二进制格式，合并和取前K个词都是对排好序的词条流式进行，
+ * 不需要把整年的词频读成HashMap。
+ * 每个汇总文件的文件头记录了它已经包含到哪一天，汇总时只合并这一天之后的每日文件：
+ * 某个汇总文件写入失败时进度不前进，下次汇总会重试，但已经写入成功的汇总文件不会再次合并同一天。
+ * 同一个群的汇总和读取使用同一把锁，读取时不会看到汇总文件写到一半的中间状态；不同的群互不影响，可以并行汇总。
+ *
+ * @author General_K1ng
+ */
+public class WordCountRollup {
+    // 每个群目录一把锁，按目录的绝对路径区分
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * 将群目录下已经结束的每日词频文件合并到月度和年度汇总文件中。
+     * <p>
+     * 1. 读取汇总进度，找出进度之后、今天之前的每日文件；
+     * 2. 读取这些文件的词频；
+     * 3. 按月份和年份与已有的汇总文件合并后写回，跳过汇总文件已经包含的日期，最后更新汇总进度。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param today 今天的日期，今天的文件仍在写入，不参与汇总。
+     * @return 汇总后的进度，即已经汇总的最后一天，从未汇总过时返回null。
+     * @throws DataWriteException 如果读取或写入汇总文件失败，则抛出此异常。
+     */
+    public static LocalDate rollup(File groupDir, LocalDate today) {
+        synchronized (getLock(groupDir)) {
+            try {
+                // 1. 找出尚未汇总且已经结束的每日文件
+                LocalDate rolledUpTo = getRolledUpTo(groupDir);
+                TreeMap<LocalDate, File> dailies = listDailyFiles(groupDir, rolledUpTo, today.minusDays(1));
+                if (dailies.isEmpty()) {
+                    return rolledUpTo;
+                }
+
+                // 2. 每个每日文件只读取一次，月度和年度汇总共用
+                TreeMap<LocalDate, Map<String, Integer>> dayCounts = new TreeMap<>();
+                Set<YearMonth> months = new TreeSet<>();
+                Set<Year> years = new TreeSet<>();
+                for (Map.Entry<LocalDate, File> daily : dailies.entrySet()) {
+                    dayCounts.put(daily.getKey(), FileManager.readWordMap(daily.getValue().getPath()));
+                    months.add(YearMonth.from(daily.getKey()));
+                    years.add(Year.from(daily.getKey()));
+                }
+
+                // 3. 合并到已有的汇总文件，汇总文件全部写完后才更新进度
+                for (YearMonth month : months) {
+                    mergeInto(getMonthFile(groupDir, month),
+                            dayCounts.subMap(month.atDay(1), true, month.atEndOfMonth(), true));
+                }
+                for (Year year : years) {
+                    mergeInto(getYearFile(groupDir, year),
+                            dayCounts.subMap(year.atDay(1), true, year.atMonth(12).atEndOfMonth(), true));
+                }
+                LocalDate lastDay = dailies.lastKey();
+                writeAtomically(new File(groupDir, WordCountConstant.ROLLUP_STATE_FILE), lastDay.toString());
+                return lastDay;
+            } catch (IOException e) {
+                throw new DataWriteException(MsgConstant.WORD_COUNT_ROLLUP_ERROR);
+            }
+        }
+    }
+
+    /**
+     * 获取群目录的汇总进度。
+     *
+     * @param groupDir 群的缓存目录。
+     * @return 已经汇总的最后一天，从未汇总过或进度文件损坏时返回null。
+     */
+    public static LocalDate getRolledUpTo(File groupDir) {
+        File state = new File(groupDir, WordCountConstant.ROLLUP_STATE_FILE);
+        if (!state.exists()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(new String(Files.readAllBytes(state.toPath()), StandardCharsets.UTF_8).trim());
+        } catch (IOException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取指定日期所在月份出现次数最多的词，即月度汇总文件加上本月尚未汇总的每日文件。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param today 今天的日期。
+     * @param k 需要的词数。
+     * @param excluded 需要排除的词，如停用词。
+     * @return 本月一日到今天出现次数最多的词，按次数从多到少排列。
+     * @throws DataLoadException 如果读取词频文件失败，则抛出此异常。
+     */
+    public static Map<String, Integer> getMonthTopWords(File groupDir, LocalDate today, int k, Set<String> excluded) {
+        YearMonth month = YearMonth.from(today);
+        try {
+            return topWords(getMonthFile(groupDir, month), groupDir, month.atDay(1), today, k, excluded);
+        } catch (IOException e) {
+            throw new DataLoadException(MsgConstant.MONTH_WORD_COUNT_LOAD_ERROR);
+        }
+    }
+
+    /**
+     * 获取指定日期所在年份出现次数最多的词，即年度汇总文件加上本年尚未汇总的每日文件。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param today 今天的日期。
+     * @param k 需要的词数。
+     * @param excluded 需要排除的词，如停用词。
+     * @return 本年一月一日到今天出现次数最多的词，按次数从多到少排列。
+     * @throws DataLoadException 如果读取词频文件失败，则抛出此异常。
+     */
+    public static Map<String, Integer> getYearTopWords(File groupDir, LocalDate today, int k, Set<String> excluded) {
+        Year year = Year.from(today);
+        try {
+            return topWords(getYearFile(groupDir, year), groupDir, year.atDay(1), today, k, excluded);
+        } catch (IOException e) {
+            throw new DataLoadException(MsgConstant.YEAR_WORD_COUNT_LOAD_ERROR);
+        }
+    }
+
+    /**
+     * 流式合并汇总文件和区间内汇总进度之后的每日文件，取出现次数最多的词。
+     *
+     * @param rollupFile 汇总文件，不存在时视为空。
+     * @param groupDir 群的缓存目录。
+     * @param from 区间的第一天。
+     * @param to 区间的最后一天。
+     * @param k 需要的词数。
+     * @param excluded 需要排除的词。
+     * @return 区间内出现次数最多的词。
+     * @throws IOException 如果读取文件失败。
+     */
+    private static Map<String, Integer> topWords(File rollupFile, File groupDir, LocalDate from, LocalDate to,
+                                                 int k, Set<String> excluded) throws IOException {
+        synchronized (getLock(groupDir)) {
+            List<WordMapFile.Cursor> cursors = new ArrayList<>();
+            LocalDate rolledUpTo = null;
+            if (rollupFile.exists()) {
+                cursors.add(WordMapFile.open(rollupFile));
+                rolledUpTo = WordMapFile.getCoveredThrough(rollupFile);
+            }
+            // 汇总文件不存在或没有记录包含到哪一天时使用群目录的汇总进度
+            if (rolledUpTo == null) {
+                rolledUpTo = getRolledUpTo(groupDir);
+            }
+
+            // 汇总进度在区间之前时，区间内的每日文件都没有汇总过
+            LocalDate after = rolledUpTo == null || rolledUpTo.isBefore(from) ? from.minusDays(1) : rolledUpTo;
+            Map<String, Integer> unrolled = new HashMap<>();
+            for (File daily : listDailyFiles(groupDir, after, to).values()) {
+                merge(unrolled, FileManager.readWordMap(daily.getPath()));
+            }
+            cursors.add(WordMapFile.of(unrolled));
+
+            return WordMapFile.topK(WordMapFile.merge(cursors), k, excluded);
+        }
+    }
+
+    /**
+     * 列出日期在 (after, to] 区间内的每日词频文件。
+     *
+     * @param groupDir 群的缓存目录。
+     * @param after 区间的起点（不包含），为null时不限制。
+     * @param to 区间的终点（包含）。
+     * @return 按日期排序的每日文件。
+     */
+    private static TreeMap<LocalDate, File> listDailyFiles(File groupDir, LocalDate after, LocalDate to) {
+        TreeMap<LocalDate, File> dailies = new TreeMap<>();
+        File[] files = groupDir.listFiles((dir, name) -> name.endsWith(WordCountConstant.DAILY_FILE_EXT));
+        if (files == null) {
+            return dailies;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            LocalDate date;
+            try {
+                date = LocalDate.parse(name.substring(0, name.length() - WordCountConstant.DAILY_FILE_EXT.length()));
+            } catch (DateTimeParseException e) {
+                // 汇总文件和临时文件
+                continue;
+            }
+            if ((after == null || date.isAfter(after)) && !date.isAfter(to)) {
+                dailies.put(date, file);
+            }
+        }
+        return dailies;
+    }
+
+    private static Object getLock(File groupDir) {
+        return LOCKS.computeIfAbsent(groupDir.getAbsolutePath(), k -> new Object());
+    }
+
+    private static File getMonthFile(File groupDir, YearMonth month) {
+        return new File(groupDir, WordCountConstant.MONTH_FILE_PREFIX + month + WordCountConstant.BINARY_FILE_EXT);
+    }
+
+    private static File getYearFile(File groupDir, Year year) {
+        return new File(groupDir, WordCountConstant.YEAR_FILE_PREFIX + year + WordCountConstant.BINARY_FILE_EXT);
+    }
+
+    /**
+     * 将每日词频流式合并到汇总文件中，新的汇总先写入临时文件再替换。
+     * <p>
+     * 1. 读取汇总文件已经包含到哪一天，只合并这一天之后的日期；
+     * 2. 与已有的汇总合并，并把最后合并的日期写入新汇总的文件头。
+     *
+     * @param rollupFile 汇总文件。
+     * @param dayCounts 需要合并的每日词频，按日期排列。
+     * @throws IOException 如果读取或写入文件失败。
+     */
+    private static void mergeInto(File rollupFile, NavigableMap<LocalDate, Map<String, Integer>> dayCounts)
+            throws IOException {
+        // 1. 跳过汇总文件已经包含的日期
+        LocalDate coveredThrough = rollupFile.exists() ? WordMapFile.getCoveredThrough(rollupFile) : null;
+        NavigableMap<LocalDate, Map<String, Integer>> pending = coveredThrough == null
+                ? dayCounts : dayCounts.tailMap(coveredThrough, false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> count = new HashMap<>();
+        pending.values().forEach(dayCount -> merge(count, dayCount));
+
+        // 2. 合并后写回
+        List<WordMapFile.Cursor> cursors = new ArrayList<>();
+        if (rollupFile.exists()) {
+            cursors.add(WordMapFile.open(rollupFile));
+        }
+        cursors.add(WordMapFile.of(count));
+        WordMapFile.write(rollupFile, WordMapFile.merge(cursors), pending.lastKey());
+    }
+
+    private static void writeAtomically(File file, String content) throws IOException {
+        File temp = new File(file.getPath() + WordCountConstant.TEMP_FILE_SUFFIX);
+        Files.write(temp.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        FileManager.replace(temp, file);
+    }
+
+    /**
+     * 将词频累加到目标映射中，忽略空白的词。
+     *
+     * @param target 目标映射。
+     * @param count 需要累加的词频。
+     */
+    static void merge(Map<String, Integer> target, Map<String, Integer> count) {
+        count.forEach((word, cnt) -> {
+            if (!word.trim().isEmpty()) {
+                target.merge(word, cnt, Integer::sum);
+            }
+        });
+    }
+}
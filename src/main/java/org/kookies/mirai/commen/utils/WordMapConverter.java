@@ -0,0 +1,45 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.constant.WordCountConstant;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 将已有的文本格式词频文件转换为二进制格式的命令行工具。
+ * <p>
+ * 每个参数是一个文本词频文件，xxx.txt 转换为同目录下的 xxx.kwm，原文件保留。
+ * 插件运行时的每日词频仍使用文本格式，月度和年度汇总直接写成二进制，不需要转换。
+ *
+ * @author General_K1ng
+ */
+public class WordMapConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: WordMapConverter <word map .txt file>...");
+            return;
+        }
+        for (String path : args) {
+            convert(new File(path));
+        }
+        System.out.println("Converted " + args.length + " word map file(s).");
+    }
+
+    /**
+     * 将文本词频文件转换为同目录下同名的二进制词频文件。
+     *
+     * @param textFile 文本词频文件。
+     * @return 转换得到的二进制词频文件。
+     * @throws IOException 如果文件不存在或不是 .txt 文件，或读取、写入文件失败。
+     */
+    public static File convert(File textFile) throws IOException {
+        String name = textFile.getName();
+        if (!textFile.isFile() || !name.endsWith(WordCountConstant.DAILY_FILE_EXT)) {
+            throw new IOException("Not a text word map: " + textFile);
+        }
+        File binary = new File(textFile.getParentFile(), name.substring(0, name.length()
+                - WordCountConstant.DAILY_FILE_EXT.length()) + WordCountConstant.BINARY_FILE_EXT);
+        WordMapFile.convert(textFile, binary);
+        return binary;
+    }
+}
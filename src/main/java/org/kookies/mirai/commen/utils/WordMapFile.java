@@ -0,0 +1,492 @@
+package org.kookies.mirai.commen.utils;
+
+import org.kookies.mirai.commen.constant.WordCountConstant;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 二进制词频文件。
+ * <p>
+ * 文本格式的词频文件每行一个“次数:词”，读取时只能整体解析成HashMap。二进制格式按词的UTF-8字节序排列，
+ * 读取时整个文件读入堆内的缓冲区后顺序解码，多个文件的合并和取前K个词都只需要流式遍历，不需要构建HashMap：
+ * <pre>
+ * 文件头（32字节，大端序）
+ *   int    魔数 "KWMP"
+ *   short  版本号
+ *   short  保留，目前为0
+ *   int    词条数
+ *   long   所有词的次数之和
+ *   int    数据区长度
+ *   int    数据区的CRC32
+ *   int    汇总到的日期（epochDay），没有记录时为 Integer.MIN_VALUE
+ * 数据区，按词的UTF-8字节序排列的词条，每个词条依次为
+ *   varint 与上一个词相同的前缀字节数
+ *   varint 剩余的字节数
+ *   byte[] 剩余的UTF-8字节
+ *   varint 次数
+ * </pre>
+ * 写入时先写临时文件再替换，打开时校验文件头和CRC32，残缺或损坏的文件不会被当作空的词频。
+ * 读取不使用内存映射，打开后不再持有文件，合并时可以直接替换正在读取的文件（Windows 下被映射的文件不能替换）。
+ *
+ * @author General_K1ng
+ */
+public class WordMapFile {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 按词的字节序遍历词频的游标，调用 next 移动到下一个词条后才能读取当前的词和次数。
+     */
+    public abstract static class Cursor {
+        protected byte[] term = new byte[32];
+
+        protected int termLength;
+
+        protected long count;
+
+        /**
+         * 移动到下一个词条。
+         *
+         * @return 如果还有词条，则返回true。
+         */
+        public abstract boolean next();
+
+        public String getTerm() {
+            return new String(term, 0, termLength, StandardCharsets.UTF_8);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 按UTF-8字节序比较当前的词。
+         *
+         * @param other 另一个游标。
+         * @return 小于、等于或大于另一个游标当前的词时分别返回负数、0或正数。
+         */
+        public int compareTerm(Cursor other) {
+            return compare(term, termLength, other.term, other.termLength);
+        }
+
+        protected void setTerm(byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, term, 0, length);
+            termLength = length;
+        }
+
+        protected void ensureCapacity(int length) {
+            if (term.length < length) {
+                byte[] larger = new byte[Math.max(length, term.length * 2)];
+                System.arraycopy(term, 0, larger, 0, termLength);
+                term = larger;
+            }
+        }
+    }
+
+    /**
+     * 打开二进制词频文件。
+     * <p>
+     * 1. 通过 FileChannel 将整个文件读入堆内的缓冲区，读完即关闭文件；
+     * 2. 校验魔数、版本号、数据区长度和CRC32；
+     * 3. 返回在缓冲区上顺序解码的游标。
+     *
+     * @param file 二进制词频文件。
+     * @return 词频游标。
+     * @throws IOException 如果读取文件失败，或文件不是二进制词频文件、已经残缺或损坏。
+     */
+    public static Cursor open(File file) throws IOException {
+        // 1. 读入整个文件，不映射，返回后文件可以被替换或删除
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < WordCountConstant.BINARY_HEADER_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid word map file length " + size + ": " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    throw new IOException("Truncated word map: " + file);
+                }
+            }
+        }
+
+        // 2. 校验文件头和数据区
+        checkHeader(buffer, file);
+        int entries = buffer.getInt(8);
+        int payloadLength = buffer.getInt(20);
+        if (entries < 0 || payloadLength != buffer.capacity() - WordCountConstant.BINARY_HEADER_LENGTH) {
+            throw new IOException("Truncated word map: " + file);
+        }
+        buffer.position(WordCountConstant.BINARY_HEADER_LENGTH);
+        ByteBuffer payload = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(24)) {
+            throw new IOException("Word map checksum mismatch: " + file);
+        }
+
+        // 3. 顺序解码
+        return new BufferCursor(payload, entries);
+    }
+
+    /**
+     * 读取文件头中记录的汇总到的日期。
+     * <p>
+     * 只读取文件头，不读取和校验数据区。汇总文件用这个日期判断哪些每日文件已经合并过，
+     * 即使汇总中途失败，重新汇总时也不会把同一天合并两次。
+     *
+     * @param file 二进制词频文件。
+     * @return 汇总到的日期，写入时没有指定日期时返回null。
+     * @throws IOException 如果读取文件失败，或文件不是二进制词频文件。
+     */
+    public static LocalDate getCoveredThrough(File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(WordCountConstant.BINARY_HEADER_LENGTH);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // 读满文件头或读到文件末尾
+            }
+        }
+        if (header.hasRemaining()) {
+            throw new IOException("Invalid word map file length " + header.position() + ": " + file);
+        }
+        checkHeader(header, file);
+        int coveredThrough = header.getInt(28);
+        return coveredThrough == WordCountConstant.BINARY_NO_COVERAGE ? null : LocalDate.ofEpochDay(coveredThrough);
+    }
+
+    /**
+     * 将内存中的词频转换为游标，空白的词和没有次数的词条会被忽略。
+     *
+     * @param wordMap 词频映射。
+     * @return 按字节序遍历的游标。
+     */
+    public static Cursor of(Map<String, Integer> wordMap) {
+        return new MapCursor(wordMap);
+    }
+
+    /**
+     * 合并多个游标，同一个词的次数相加。
+     * <p>
+     * 所有输入都按字节序排列，合并时只需要一个以各游标当前词为键的小顶堆。
+     *
+     * @param cursors 需要合并的游标。
+     * @return 合并后的游标。
+     */
+    public static Cursor merge(List<Cursor> cursors) {
+        return new MergingCursor(cursors);
+    }
+
+    /**
+     * 将游标中的全部词条写入二进制词频文件。
+     * <p>
+     * 1. 跳过文件头，边遍历边写数据区并计算CRC32；
+     * 2. 数据区写完后回到文件开头写入文件头；
+     * 3. 用临时文件替换目标文件。
+     *
+     * @param file 目标文件。
+     * @param cursor 按字节序排列的游标。
+     * @throws IOException 如果写入文件失败。
+     * @throws IllegalArgumentException 如果游标中的词没有按字节序严格递增。
+     */
+    public static void write(File file, Cursor cursor) throws IOException {
+        write(file, cursor, null);
+    }
+
+    /**
+     * 将游标中的全部词条写入二进制词频文件，并在文件头中记录汇总到的日期。
+     * <p>
+     * 1. 跳过文件头，边遍历边写数据区并计算CRC32；
+     * 2. 数据区写完后回到文件开头写入文件头；
+     * 3. 用临时文件替换目标文件，词频和汇总到的日期一起生效。
+     *
+     * @param file 目标文件。
+     * @param cursor 按字节序排列的游标。
+     * @param coveredThrough 汇总到的日期，为null时不记录。
+     * @throws IOException 如果写入文件失败。
+     * @throws IllegalArgumentException 如果游标中的词没有按字节序严格递增。
+     */
+    public static void write(File file, Cursor cursor, LocalDate coveredThrough) throws IOException {
+        File temp = new File(file.getPath() + WordCountConstant.TEMP_FILE_SUFFIX);
+        CRC32 crc = new CRC32();
+        int entries = 0;
+        long total = 0;
+        byte[] previous = new byte[cursor.term.length];
+        int previousLength = -1;
+
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // 1. 流式写入数据区，输出流不关闭，通道由 try-with-resources 关闭
+            channel.position(WordCountConstant.BINARY_HEADER_LENGTH);
+            OutputStream out = new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), WRITE_BUFFER_SIZE);
+            while (cursor.next()) {
+                if (cursor.termLength == 0 || cursor.count <= 0) {
+                    continue;
+                }
+                if (previousLength >= 0 && compare(previous, previousLength, cursor.term, cursor.termLength) >= 0) {
+                    throw new IllegalArgumentException("Word map terms are not in strictly ascending order");
+                }
+                int shared = previousLength < 0 ? 0 : sharedPrefix(previous, previousLength, cursor.term, cursor.termLength);
+                writeVarLong(out, shared);
+                writeVarLong(out, cursor.termLength - shared);
+                out.write(cursor.term, shared, cursor.termLength - shared);
+                writeVarLong(out, cursor.count);
+
+                if (previous.length < cursor.termLength) {
+                    previous = new byte[cursor.term.length];
+                }
+                System.arraycopy(cursor.term, 0, previous, 0, cursor.termLength);
+                previousLength = cursor.termLength;
+                entries++;
+                total += cursor.count;
+            }
+            out.flush();
+
+            // 2. 写入文件头
+            long payloadLength = channel.position() - WordCountConstant.BINARY_HEADER_LENGTH;
+            if (payloadLength > Integer.MAX_VALUE - WordCountConstant.BINARY_HEADER_LENGTH) {
+                throw new IOException("Word map is too large: " + file);
+            }
+            ByteBuffer header = ByteBuffer.allocate(WordCountConstant.BINARY_HEADER_LENGTH);
+            header.putInt(WordCountConstant.BINARY_MAGIC)
+                    .putShort(WordCountConstant.BINARY_VERSION)
+                    .putShort((short) 0)
+                    .putInt(entries)
+                    .putLong(total)
+                    .putInt((int) payloadLength)
+                    .putInt((int) crc.getValue())
+                    .putInt(coveredThrough == null
+                            ? WordCountConstant.BINARY_NO_COVERAGE : (int) coveredThrough.toEpochDay())
+                    .flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        }
+
+        // 3. 替换目标文件
+        FileManager.replace(temp, file);
+    }
+
+    /**
+     * 将内存中的词频写入二进制词频文件。
+     *
+     * @param file 目标文件。
+     * @param wordMap 词频映射。
+     * @throws IOException 如果写入文件失败。
+     */
+    public static void write(File file, Map<String, Integer> wordMap) throws IOException {
+        write(file, of(wordMap));
+    }
+
+    /**
+     * 将文本格式的词频文件转换为二进制格式。
+     *
+     * @param textFile 文本格式的词频文件，每行一个“次数:词”。
+     * @param binaryFile 二进制词频文件。
+     * @throws IOException 如果读取或写入文件失败。
+     */
+    public static void convert(File textFile, File binaryFile) throws IOException {
+        write(binaryFile, FileManager.readWordMap(textFile.getPath()));
+    }
+
+    /**
+     * 遍历游标，取出现次数最多的K个词。
+     * <p>
+     * 用大小为K的小顶堆保存候选，次数不超过堆顶的词条不解码，只有可能进入前K的词才会被解码成字符串。
+     *
+     * @param cursor 词频游标。
+     * @param k 需要的词数。
+     * @param excluded 需要排除的词，如停用词。
+     * @return 按次数从多到少排列的词频，次数超过int范围时按int最大值计。
+     */
+    public static Map<String, Integer> topK(Cursor cursor, int k, Set<String> excluded) {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(Math.max(1, k),
+                Comparator.comparingLong(Map.Entry::getValue));
+        while (k > 0 && cursor.next()) {
+            if (heap.size() == k && cursor.count <= heap.peek().getValue()) {
+                continue;
+            }
+            String term = cursor.getTerm();
+            if (term.trim().isEmpty() || excluded.contains(term)) {
+                continue;
+            }
+            heap.offer(new AbstractMap.SimpleImmutableEntry<>(term, cursor.count));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<String, Long>> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparing(Map.Entry<String, Long>::getValue).reversed());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : top) {
+            result.put(entry.getKey(), (int) Math.min(Integer.MAX_VALUE, entry.getValue()));
+        }
+        return result;
+    }
+
+    private static class BufferCursor extends Cursor {
+        private final ByteBuffer payload;
+
+        private int remaining;
+
+        BufferCursor(ByteBuffer payload, int entries) {
+            this.payload = payload;
+            this.remaining = entries;
+        }
+
+        @Override
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            int shared = (int) readVarLong(payload);
+            int suffix = (int) readVarLong(payload);
+            if (shared > termLength || suffix < 0) {
+                throw new IllegalStateException("Corrupted word map entry");
+            }
+            ensureCapacity(shared + suffix);
+            payload.get(term, shared, suffix);
+            termLength = shared + suffix;
+            count = readVarLong(payload);
+            remaining--;
+            return true;
+        }
+    }
+
+    private static class MapCursor extends Cursor {
+        private final List<Map.Entry<byte[], Integer>> entries = new ArrayList<>();
+
+        private int index = -1;
+
+        MapCursor(Map<String, Integer> wordMap) {
+            wordMap.forEach((word, cnt) -> {
+                if (cnt != null && cnt > 0 && !word.trim().isEmpty()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(word.getBytes(StandardCharsets.UTF_8), cnt));
+                }
+            });
+            entries.sort((a, b) -> compare(a.getKey(), a.getKey().length, b.getKey(), b.getKey().length));
+        }
+
+        @Override
+        public boolean next() {
+            if (++index >= entries.size()) {
+                return false;
+            }
+            byte[] bytes = entries.get(index).getKey();
+            setTerm(bytes, bytes.length);
+            count = entries.get(index).getValue();
+            return true;
+        }
+    }
+
+    private static class MergingCursor extends Cursor {
+        private final PriorityQueue<Cursor> heap = new PriorityQueue<>(Cursor::compareTerm);
+
+        MergingCursor(List<Cursor> cursors) {
+            for (Cursor cursor : cursors) {
+                advance(cursor);
+            }
+        }
+
+        @Override
+        public boolean next() {
+            Cursor first = heap.poll();
+            if (first == null) {
+                return false;
+            }
+            setTerm(first.term, first.termLength);
+            count = first.count;
+            advance(first);
+            // 其他游标当前是同一个词时累加次数
+            while (!heap.isEmpty() && heap.peek().compareTerm(this) == 0) {
+                Cursor same = heap.poll();
+                count += same.count;
+                advance(same);
+            }
+            return true;
+        }
+
+        private void advance(Cursor cursor) {
+            if (cursor.next()) {
+                heap.offer(cursor);
+            }
+        }
+    }
+
+    /**
+     * 校验魔数和版本号。
+     *
+     * @param header 文件头。
+     * @param file 文件，用于异常信息。
+     * @throws IOException 如果不是二进制词频文件或版本不支持。
+     */
+    private static void checkHeader(ByteBuffer header, File file) throws IOException {
+        if (header.getInt(0) != WordCountConstant.BINARY_MAGIC) {
+            throw new IOException("Not a binary word map: " + file);
+        }
+        if (header.getShort(4) != WordCountConstant.BINARY_VERSION) {
+            throw new IOException("Unsupported word map version " + header.getShort(4) + ": " + file);
+        }
+    }
+
+    private static int compare(byte[] a, int aLength, byte[] b, int bLength) {
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static int sharedPrefix(byte[] a, int aLength, byte[] b, int bLength) {
+        int length = Math.min(aLength, bLength);
+        int i = 0;
+        while (i < length && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in word map");
+    }
+}
@@ -0,0 +1,94 @@
+package org.kookies.mirai.plugin;
+
+import net.mamoe.mirai.event.events.GroupMessageEvent;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.exceptions.ServiceUnavailableException;
+import org.kookies.mirai.commen.utils.CacheManager;
+import org.kookies.mirai.commen.utils.MetricsRegistry;
+import org.kookies.mirai.commen.utils.ProbabilityTrigger;
+import org.kookies.mirai.plugin.auth.AdmissionFilter;
+import org.kookies.mirai.plugin.command.CommandContext;
+import org.kookies.mirai.plugin.command.CommandRouter;
+import org.kookies.mirai.plugin.service.*;
+import org.kookies.mirai.plugin.service.Impl.*;
+
+/**
+ * 群消息处理器。
+ * <p>
+ * 持有各功能服务和指令路由，负责群消息的准入检查、消息缓存、随机表情和指令分发。
+ * 处理逻辑不依赖插件实例，压测工具可以不启动 mirai-console 直接驱动。
+ *
+ * @author General_K1ng
+ */
+public class GroupMessageHandler {
+    private static final Log log = LogFactory.getLog(GroupMessageHandler.class);
+
+    // 娱乐功能
+    private final EntertainmentService entertainmentService = new EntertainmentServiceImpl();
+
+    // 签到接口
+    private final SignInService signInService = new SignInServiceImpl();
+
+    // 便利功能接口
+    private final ConvenienceService convenienceService = new ConvenienceServiceImpl();
+
+    // 语音模块
+    private final VoiceService voiceService = new VoiceServiceImpl();
+
+    // 管理功能
+    private final AdminService adminService = new AdminServiceImpl();
+
+    // 群指令路由
+    private final CommandRouter commandRouter = new CommandRouter();
+
+    public GroupMessageHandler() {
+        // 注册各服务中带有 @Command 注解的指令处理方法
+        commandRouter.register(entertainmentService);
+        commandRouter.register(signInService);
+        commandRouter.register(convenienceService);
+        commandRouter.register(voiceService);
+        commandRouter.register(adminService);
+    }
+
+    /**
+     * 处理一条群消息。
+     *
+     * @param g 群消息事件。
+     */
+    public void handle(GroupMessageEvent g) {
+        // 未启用的群和黑名单用户的消息在解析前直接丢弃
+        if (!AdmissionFilter.admit(g.getGroup().getId(), g.getSender().getId())) {
+            return;
+        }
+        try {
+            onGroupMessage(g);
+        } catch (ServiceUnavailableException e) {
+            // 依赖的服务熔断或繁忙时，直接告诉用户稍后再试
+            log.warn(e.getMessage());
+            g.getGroup().sendMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * 处理群消息，根据消息内容分发到对应的功能。
+     *
+     * @param g 群消息事件。
+     */
+    private void onGroupMessage(GroupMessageEvent g) {
+        // 消息链只解析一次，缓存、随机表情和指令匹配都使用解析结果
+        CommandContext context = CommandContext.parse(g);
+
+        long start = System.nanoTime();
+        CacheManager.setCache(context.getSenderId(), context.getGroup().getId(), context.getContent());
+        MetricsRegistry.recordSince(MetricsConstant.INGEST_SECONDS, start);
+
+        if (ProbabilityTrigger.shouldTrigger(0.05)) {
+            log.info("随机表情, 触发者：" + context.getSenderName());
+            entertainmentService.randomEmoji(context.getSenderId(), context.getGroup());
+        }
+
+        commandRouter.dispatch(context);
+    }
+}
@@ -0,0 +1,121 @@
+package org.kookies.mirai.plugin.auth;
+
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.pojo.entity.Config;
+import org.kookies.mirai.pojo.entity.Group;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 群消息准入过滤。
+ * <p>
+ * 在解析消息之前判断消息所在的群是否启用、发送者是否在黑名单中，不满足条件的消息直接丢弃，
+ * 不会进入缓存，也不会走抛出 AuthException 的权限检查。
+ * 启用的群和黑名单在配置变化时预先整理为有序的长整数数组，每条消息只需要两次二分查找。
+ *
+ * @author General_K1ng
+ */
+public class AdmissionFilter {
+    private static final LongAdder ADMITTED = new LongAdder();
+
+    private static final LongAdder REJECTED_GROUP = new LongAdder();
+
+    private static final LongAdder REJECTED_BLACKLIST = new LongAdder();
+
+    private static volatile Snapshot snapshot;
+
+    /**
+     * 判断消息是否需要处理。
+     *
+     * @param groupId 消息所在的群号。
+     * @param userId 发送者QQ号。
+     * @return 如果群已启用且发送者不在黑名单中则返回true，否则返回false。
+     */
+    public static boolean admit(long groupId, long userId) {
+        Snapshot current = getSnapshot();
+        if (Arrays.binarySearch(current.enabledGroups, groupId) < 0) {
+            REJECTED_GROUP.increment();
+            return false;
+        }
+        if (Arrays.binarySearch(current.blacklist, userId) >= 0) {
+            REJECTED_BLACKLIST.increment();
+            return false;
+        }
+        ADMITTED.increment();
+        return true;
+    }
+
+    /**
+     * 通过过滤的消息数。
+     *
+     * @return 消息数。
+     */
+    public static long getAdmitted() {
+        return ADMITTED.sum();
+    }
+
+    /**
+     * 因群未启用被丢弃的消息数。
+     *
+     * @return 消息数。
+     */
+    public static long getRejectedGroup() {
+        return REJECTED_GROUP.sum();
+    }
+
+    /**
+     * 因发送者在黑名单中被丢弃的消息数。
+     *
+     * @return 消息数。
+     */
+    public static long getRejectedBlacklist() {
+        return REJECTED_BLACKLIST.sum();
+    }
+
+    /**
+     * 获取当前配置对应的id集合，配置对象变化时重新整理。
+     *
+     * @return id集合。
+     */
+    private static Snapshot getSnapshot() {
+        Config config = ConfigurationLoader.getConfig();
+        Snapshot current = snapshot;
+        if (current != null && current.config == config) {
+            return current;
+        }
+
+        List<Long> groupIds = config.getEnableGroupList() == null ? null
+                : config.getEnableGroupList().stream().map(Group::getId).collect(Collectors.toList());
+        current = new Snapshot(config, toSortedArray(groupIds), toSortedArray(config.getUserBlackList()));
+        snapshot = current;
+        return current;
+    }
+
+    private static long[] toSortedArray(List<Long> ids) {
+        if (ids == null) {
+            return new long[0];
+        }
+        long[] array = ids.stream().filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static class Snapshot {
+        // 生成该集合的配置对象
+        private final Config config;
+
+        private final long[] enabledGroups;
+
+        private final long[] blacklist;
+
+        private Snapshot(Config config, long[] enabledGroups, long[] blacklist) {
+            this.config = config;
+            this.enabledGroups = enabledGroups;
+            this.blacklist = blacklist;
+        }
+    }
+}
@@ -1,27 +1,15 @@
 package org.kookies.mirai.plugin.auth;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
 import org.kookies.mirai.commen.constant.MsgConstant;
 import org.kookies.mirai.commen.exceptions.AuthException;
-import org.kookies.mirai.commen.exceptions.DataLoadException;
-import org.kookies.mirai.commen.info.DataPathInfo;
-import org.kookies.mirai.commen.utils.FileManager;
 import org.kookies.mirai.pojo.entity.Config;
 import org.kookies.mirai.pojo.entity.Group;
 
-import java.io.IOException;
-import java.time.LocalDate;
-
 /**
  * @author General_K1ng
  */
 public class Permission {
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .create();
     // TODO 后续需要对每个功能进行权限细分
 
     /**
@@ -33,13 +21,7 @@ public class Permission {
      * @throws AuthException 如果用户在黑名单中或者群组未启用，抛出此异常
      */
     public static boolean checkPermission(Long sender, Long group) {
-        JsonObject jsonObject;
-        try {
-            jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
-        } catch (IOException e) {
-            throw new DataLoadException(MsgConstant.CONFIG_LOAD_ERROR);
-        }
-        Config config = GSON.fromJson(jsonObject, Config.class);
+        Config config = ConfigurationLoader.getConfig();
 
         // 检查用户是否在黑名单中
         if (config.getUserBlackList().contains(sender)) {
@@ -72,14 +54,19 @@ public class Permission {
         return false;
     }
 
+    /**
+     * 检查用户是否是管理员。
+     *
+     * @param sender 用户QQ号。
+     * @return 如果用户在配置的管理员列表中则返回true，否则返回false。
+     */
+    public static boolean isAdmin(long sender) {
+        Config config = ConfigurationLoader.getConfig();
+        return config.getAdminList() != null && config.getAdminList().contains(sender);
+    }
+
     public static boolean checkLongturn(Long group) {
-        JsonObject jsonObject;
-        try {
-            jsonObject = FileManager.readJsonFile(DataPathInfo.CONFIG_PATH);
-        } catch (IOException e) {
-            throw new DataLoadException(MsgConstant.CONFIG_LOAD_ERROR);
-        }
-        Config config = GSON.fromJson(jsonObject, Config.class);
+        Config config = ConfigurationLoader.getConfig();
 
         for (Group g : config.getEnableGroupList()) {
             if (g.getId().equals(group)){
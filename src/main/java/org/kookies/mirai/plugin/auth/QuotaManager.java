@@ -0,0 +1,216 @@
+package org.kookies.mirai.plugin.auth;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.enumeration.QuotaFeature;
+import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.pojo.entity.Config;
+import org.kookies.mirai.pojo.entity.Group;
+import org.kookies.mirai.pojo.entity.QuotaConfig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每日次数限制。
+ * <p>
+ * 每个（功能，用户）对应一个原子计数器，高32位保存日期（epoch day），低32位保存当天已用次数，
+ * 日期变化时下一次使用直接从0开始计数，不需要清理任务。
+ * 每次成功使用都会在追加日志中记录一行，启动时重放当天的记录恢复计数；
+ * 日期变化后第一次写入时清空日志，日志只保存当天的记录。
+ *
+ * @author General_K1ng
+ */
+public class QuotaManager {
+    private static final Log log = LogFactory.getLog(QuotaManager.class);
+
+    private static final File JOURNAL = new File(DataPathInfo.QUOTA_JOURNAL_PATH);
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+
+    private static final Object JOURNAL_LOCK = new Object();
+
+    private static Writer journalWriter;
+
+    private static long journalDay = -1;
+
+    private static volatile boolean loaded;
+
+    /**
+     * 尝试使用一次指定功能，未达到当天上限时计数加一。
+     *
+     * @param feature 功能。
+     * @param userId 用户QQ号。
+     * @param groupId 群号，用于查找本群的上限设置。
+     * @return 如果未达到上限并已计数则返回true，否则返回false。
+     */
+    public static boolean tryAcquire(QuotaFeature feature, long userId, long groupId) {
+        ensureLoaded();
+        long today = LocalDate.now().toEpochDay();
+        int limit = getLimit(feature, groupId);
+        AtomicLong counter = COUNTERS.computeIfAbsent(key(feature, userId), k -> new AtomicLong());
+
+        while (true) {
+            long state = counter.get();
+            // 记录的日期不是今天时视为0次
+            int used = (state >>> 32) == today ? (int) state : 0;
+            if (used >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(state, today << 32 | (used + 1))) {
+                append(today, feature, userId);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 查询用户当天已经使用的次数。
+     *
+     * @param feature 功能。
+     * @param userId 用户QQ号。
+     * @return 当天已用次数。
+     */
+    public static int getUsed(QuotaFeature feature, long userId) {
+        ensureLoaded();
+        AtomicLong counter = COUNTERS.get(key(feature, userId));
+        if (counter == null) {
+            return 0;
+        }
+        long state = counter.get();
+        return (state >>> 32) == LocalDate.now().toEpochDay() ? (int) state : 0;
+    }
+
+    /**
+     * 获取功能在指定群的每日上限。
+     * <p>
+     * 优先使用群配置中的 quotaLimits，其次是 quotaConfig.limits；
+     * 今日老婆兼容旧的 maxTodayGirlTimes 配置，都没有配置时使用默认值。
+     *
+     * @param feature 功能。
+     * @param groupId 群号。
+     * @return 每日次数上限。
+     */
+    public static int getLimit(QuotaFeature feature, long groupId) {
+        Config config = ConfigurationLoader.getConfig();
+        if (config.getEnableGroupList() != null) {
+            for (Group group : config.getEnableGroupList()) {
+                if (group.getId() != null && group.getId() == groupId && group.getQuotaLimits() != null
+                        && group.getQuotaLimits().get(feature.getFeature()) != null) {
+                    return group.getQuotaLimits().get(feature.getFeature());
+                }
+            }
+        }
+
+        QuotaConfig quotaConfig = config.getQuotaConfig();
+        if (quotaConfig != null && quotaConfig.getLimits() != null
+                && quotaConfig.getLimits().get(feature.getFeature()) != null) {
+            return quotaConfig.getLimits().get(feature.getFeature());
+        }
+        if (feature == QuotaFeature.TODAY_GIRL && config.getMaxTodayGirlTimes() != null) {
+            return config.getMaxTodayGirlTimes();
+        }
+        return feature.getDefaultLimit();
+    }
+
+    /**
+     * 第一次使用时重放日志中当天的记录。
+     */
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (JOURNAL_LOCK) {
+            if (loaded) {
+                return;
+            }
+            long today = LocalDate.now().toEpochDay();
+            if (JOURNAL.exists()) {
+                try (BufferedReader reader = Files.newBufferedReader(JOURNAL.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        replay(line, today);
+                    }
+                } catch (IOException e) {
+                    log.warn("次数限制日志读取失败：" + e.getMessage());
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * 重放一行日志，格式为“日期 功能 用户”，只恢复当天的记录，损坏的行直接跳过。
+     *
+     * @param line 日志行。
+     * @param today 当天的 epoch day。
+     */
+    private static void replay(String line, long today) {
+        String[] parts = line.split("\t");
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            long day = Long.parseLong(parts[0]);
+            QuotaFeature feature = QuotaFeature.getByFeature(parts[1]);
+            long userId = Long.parseLong(parts[2]);
+            if (day != today || feature == null) {
+                return;
+            }
+            AtomicLong counter = COUNTERS.computeIfAbsent(key(feature, userId), k -> new AtomicLong());
+            long state = counter.get();
+            int used = (state >>> 32) == today ? (int) state : 0;
+            counter.set(today << 32 | (used + 1));
+            journalDay = today;
+        } catch (NumberFormatException ignored) {
+            // 写入中断留下的半行
+        }
+    }
+
+    /**
+     * 追加一条使用记录，日期变化后第一次写入时清空旧日志。
+     * <p>
+     * 写入失败只影响重启后的恢复，不影响本次计数。
+     *
+     * @param today 当天的 epoch day。
+     * @param feature 功能。
+     * @param userId 用户QQ号。
+     */
+    private static void append(long today, QuotaFeature feature, long userId) {
+        synchronized (JOURNAL_LOCK) {
+            try {
+                if (journalWriter == null || journalDay != today) {
+                    if (journalWriter != null) {
+                        journalWriter.close();
+                    }
+                    JOURNAL.getParentFile().mkdirs();
+                    // 日志中已经是当天的记录时继续追加，否则从空文件开始
+                    StandardOpenOption mode = journalDay == today
+                            ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+                    journalWriter = Files.newBufferedWriter(JOURNAL.toPath(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+                    journalDay = today;
+                }
+                journalWriter.write(today + "\t" + feature.getFeature() + "\t" + userId + "\n");
+                journalWriter.flush();
+            } catch (IOException e) {
+                log.warn("次数限制日志写入失败：" + e.getMessage());
+                journalWriter = null;
+            }
+        }
+    }
+
+    private static String key(QuotaFeature feature, long userId) {
+        return feature.getFeature() + ":" + userId;
+    }
+}
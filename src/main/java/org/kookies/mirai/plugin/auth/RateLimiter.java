@@ -0,0 +1,217 @@
+package org.kookies.mirai.plugin.auth;
+
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.RateLimitConstant;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
+import org.kookies.mirai.pojo.entity.RateLimitConfig;
+import org.kookies.mirai.pojo.entity.RateLimitRule;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 指令限流。
+ * <p>
+ * 每个（用户，指令）和（群，指令）各对应一个令牌桶，两个桶都有令牌时才允许执行。
+ * 桶的全部状态打包在一个原子长整数里：高44位是上次补充令牌的时间（毫秒），
+ * 低20位是剩余令牌数（千分之一个令牌为单位），通过CAS更新，不需要加锁。
+ * 桶的键同样打包为长整数，长时间没有使用的桶会被回收，回收的桶等同于满桶。
+ *
+ * @author General_K1ng
+ */
+public class RateLimiter {
+    private static final long TOKEN_MASK = (1L << RateLimitConstant.TOKEN_BITS) - 1;
+
+    private static final Map<Long, AtomicLong> BUCKETS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong LAST_EVICT = new AtomicLong(System.currentTimeMillis());
+
+    private static final AtomicLong USER_REJECTED = new AtomicLong();
+
+    private static final AtomicLong GROUP_REJECTED = new AtomicLong();
+
+    /**
+     * 限流判断结果。
+     */
+    public enum Decision {
+        // 允许执行
+        ALLOWED,
+        // 用户使用过于频繁
+        USER_LIMITED,
+        // 群内使用过于频繁
+        GROUP_LIMITED
+    }
+
+    /**
+     * 尝试执行一次指令，允许时从用户和群的令牌桶中各取走一个令牌。
+     *
+     * @param command 指令。
+     * @param userId 用户QQ号。
+     * @param groupId 群号。
+     * @return 限流判断结果。
+     */
+    public static Decision tryAcquire(RateLimitCommand command, long userId, long groupId) {
+        RateLimitConfig rateLimitConfig = getConfig();
+        if (rateLimitConfig.getEnable() != null && !rateLimitConfig.getEnable()) {
+            return Decision.ALLOWED;
+        }
+        long now = System.currentTimeMillis();
+        evictIdle(rateLimitConfig, now);
+
+        RateLimitRule rule = rateLimitConfig.getRules() == null ? null : rateLimitConfig.getRules().get(command.getCommand());
+        int userCapacity = rule == null || rule.getUserCapacity() == null
+                ? command.getDefaultUserCapacity() : rule.getUserCapacity();
+        double userRefill = rule == null || rule.getUserRefillPerMinute() == null
+                ? command.getDefaultUserRefillPerMinute() : rule.getUserRefillPerMinute();
+        int groupCapacity = rule == null || rule.getGroupCapacity() == null
+                ? command.getDefaultGroupCapacity() : rule.getGroupCapacity();
+        double groupRefill = rule == null || rule.getGroupRefillPerMinute() == null
+                ? command.getDefaultGroupRefillPerMinute() : rule.getGroupRefillPerMinute();
+
+        AtomicLong userBucket = BUCKETS.computeIfAbsent(key(command, userId, false), k -> new AtomicLong());
+        if (!take(userBucket, userCapacity, userRefill, now)) {
+            USER_REJECTED.incrementAndGet();
+            return Decision.USER_LIMITED;
+        }
+        AtomicLong groupBucket = BUCKETS.computeIfAbsent(key(command, groupId, true), k -> new AtomicLong());
+        if (!take(groupBucket, groupCapacity, groupRefill, now)) {
+            // 群的令牌不足时把用户的令牌还回去，这次请求没有执行
+            refund(userBucket, userCapacity);
+            GROUP_REJECTED.incrementAndGet();
+            return Decision.GROUP_LIMITED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * 当前保存的令牌桶数量。
+     *
+     * @return 令牌桶数量。
+     */
+    public static int getBucketCount() {
+        return BUCKETS.size();
+    }
+
+    /**
+     * 因用户过于频繁被拒绝的次数。
+     *
+     * @return 拒绝次数。
+     */
+    public static long getUserRejected() {
+        return USER_REJECTED.get();
+    }
+
+    /**
+     * 因群内过于频繁被拒绝的次数。
+     *
+     * @return 拒绝次数。
+     */
+    public static long getGroupRejected() {
+        return GROUP_REJECTED.get();
+    }
+
+    /**
+     * 按经过的时间补充令牌后尝试取走一个令牌。
+     *
+     * @param bucket 令牌桶状态。
+     * @param capacity 桶容量。
+     * @param refillPerMinute 每分钟补充的令牌数。
+     * @param now 当前时间（毫秒）。
+     * @return 如果取到了令牌则返回true，否则返回false。
+     */
+    private static boolean take(AtomicLong bucket, int capacity, double refillPerMinute, long now) {
+        long max = (long) Math.max(1, Math.min(capacity, RateLimitConstant.MAX_CAPACITY)) * RateLimitConstant.TOKEN_SCALE;
+        while (true) {
+            long state = bucket.get();
+            long tokens = refill(state, max, refillPerMinute, now);
+            if (tokens < RateLimitConstant.TOKEN_SCALE) {
+                return false;
+            }
+            if (bucket.compareAndSet(state, pack(now, tokens - RateLimitConstant.TOKEN_SCALE))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 还回一个令牌，不超过桶容量。
+     *
+     * @param bucket 令牌桶状态。
+     * @param capacity 桶容量。
+     */
+    private static void refund(AtomicLong bucket, int capacity) {
+        long max = (long) Math.max(1, Math.min(capacity, RateLimitConstant.MAX_CAPACITY)) * RateLimitConstant.TOKEN_SCALE;
+        while (true) {
+            long state = bucket.get();
+            long tokens = Math.min(max, (state & TOKEN_MASK) + RateLimitConstant.TOKEN_SCALE);
+            if (bucket.compareAndSet(state, pack(state >>> RateLimitConstant.TOKEN_BITS, tokens))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 计算补充令牌后的令牌数，状态为0表示新建的桶，视为满桶。
+     *
+     * @param state 令牌桶状态。
+     * @param max 桶容量（千分之一个令牌为单位）。
+     * @param refillPerMinute 每分钟补充的令牌数。
+     * @param now 当前时间（毫秒）。
+     * @return 补充后的令牌数（千分之一个令牌为单位）。
+     */
+    private static long refill(long state, long max, double refillPerMinute, long now) {
+        if (state == 0) {
+            return max;
+        }
+        long elapsed = Math.max(0, now - (state >>> RateLimitConstant.TOKEN_BITS));
+        long added = (long) (elapsed * Math.max(0, refillPerMinute) * RateLimitConstant.TOKEN_SCALE / 60000);
+        return Math.min(max, (state & TOKEN_MASK) + added);
+    }
+
+    /**
+     * 回收闲置的令牌桶，每个间隔内只有一个线程执行。
+     *
+     * @param rateLimitConfig 限流配置。
+     * @param now 当前时间（毫秒）。
+     */
+    private static void evictIdle(RateLimitConfig rateLimitConfig, long now) {
+        long last = LAST_EVICT.get();
+        if (now - last < RateLimitConstant.EVICT_INTERVAL_MILLIS || !LAST_EVICT.compareAndSet(last, now)) {
+            return;
+        }
+        int idleMinutes = rateLimitConfig.getIdleEvictMinutes() == null
+                ? RateLimitConstant.DEFAULT_IDLE_EVICT_MINUTES : Math.max(1, rateLimitConfig.getIdleEvictMinutes());
+        long idleMillis = idleMinutes * 60L * 1000;
+
+        Iterator<Map.Entry<Long, AtomicLong>> iterator = BUCKETS.entrySet().iterator();
+        while (iterator.hasNext()) {
+            long state = iterator.next().getValue().get();
+            if (now - (state >>> RateLimitConstant.TOKEN_BITS) >= idleMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long pack(long time, long tokens) {
+        return time << RateLimitConstant.TOKEN_BITS | tokens;
+    }
+
+    /**
+     * 把（QQ号或群号，指令，范围）打包为一个长整数键。
+     *
+     * @param command 指令。
+     * @param id 用户QQ号或群号。
+     * @param group 是否是群的令牌桶。
+     * @return 令牌桶的键。
+     */
+    private static long key(RateLimitCommand command, long id, boolean group) {
+        return id << 8 | (long) command.ordinal() << 1 | (group ? 1 : 0);
+    }
+
+    private static RateLimitConfig getConfig() {
+        RateLimitConfig rateLimitConfig = ConfigurationLoader.getConfig().getRateLimitConfig();
+        return rateLimitConfig == null ? new RateLimitConfig() : rateLimitConfig;
+    }
+}
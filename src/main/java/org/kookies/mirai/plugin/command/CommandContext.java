@@ -0,0 +1,154 @@
+package org.kookies.mirai.plugin.command;
+
+import lombok.Getter;
+import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.contact.Member;
+import net.mamoe.mirai.event.events.GroupMessageEvent;
+import net.mamoe.mirai.message.code.CodableMessage;
+import net.mamoe.mirai.message.data.At;
+import net.mamoe.mirai.message.data.Image;
+import net.mamoe.mirai.message.data.MessageChain;
+import net.mamoe.mirai.message.data.PlainText;
+import net.mamoe.mirai.message.data.SingleMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一条群消息解析后的指令上下文。
+ * <p>
+ * 消息链只遍历一次，同时提取文字、at的对象和图片，后续的指令匹配和处理都直接使用解析结果，
+ * 不再重复序列化消息链。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public class CommandContext {
+    // 发送者
+    private final Member sender;
+
+    // 所在群
+    private final Group group;
+
+    // 发送者在群里显示的名字
+    private final String senderName;
+
+    // 消息的文字内容，消息不是以文字开头时为空字符串
+    private final String content;
+
+    // 文字内容按空格切分后的词
+    private final String[] words;
+
+    // 消息中的每一段文字
+    private final List<String> plainTexts;
+
+    // 消息中at的QQ号，按出现顺序排列
+    private final List<Long> atTargets;
+
+    // 消息中的图片，按出现顺序排列
+    private final List<Image> images;
+
+    private CommandContext(Member sender, Group group, String senderName, String content,
+                           List<String> plainTexts, List<Long> atTargets, List<Image> images) {
+        this.sender = sender;
+        this.group = group;
+        this.senderName = senderName;
+        this.content = content;
+        this.words = content.split(" ");
+        this.plainTexts = plainTexts;
+        this.atTargets = atTargets;
+        this.images = images;
+    }
+
+    /**
+     * 解析群消息事件。
+     *
+     * @param event 群消息事件。
+     * @return 指令上下文。
+     */
+    public static CommandContext parse(GroupMessageEvent event) {
+        MessageChain chain = event.getMessage();
+        List<String> plainTexts = new ArrayList<>(2);
+        List<Long> atTargets = new ArrayList<>(1);
+        List<Image> images = new ArrayList<>(1);
+        // 只有第一个可见元素是文字时才作为指令文本，和以往判断 “[mirai:” 开头的规则一致
+        Boolean startsWithText = null;
+
+        for (SingleMessage message : chain) {
+            if (!(message instanceof CodableMessage)) {
+                // 消息源、引用等元数据不参与解析
+                continue;
+            }
+            if (startsWithText == null) {
+                startsWithText = message instanceof PlainText;
+            }
+            if (message instanceof PlainText) {
+                plainTexts.add(((PlainText) message).getContent());
+            } else if (message instanceof At) {
+                atTargets.add(((At) message).getTarget());
+            } else if (message instanceof Image) {
+                images.add((Image) message);
+            }
+        }
+
+        String content = startsWithText == null || startsWithText ? chain.contentToString() : "";
+        return new CommandContext(event.getSender(), event.getGroup(), event.getSenderName(), content,
+                Collections.unmodifiableList(plainTexts), Collections.unmodifiableList(atTargets),
+                Collections.unmodifiableList(images));
+    }
+
+    /**
+     * 发送者的QQ号。
+     *
+     * @return QQ号。
+     */
+    public long getSenderId() {
+        return sender.getId();
+    }
+
+    /**
+     * 获取指令后的第 index 个参数，从1开始计数。
+     *
+     * @param index 参数序号。
+     * @return 参数，不存在时返回null。
+     */
+    public String getArg(int index) {
+        return index < words.length ? words[index] : null;
+    }
+
+    /**
+     * 参数个数，不包括指令本身。
+     *
+     * @return 参数个数。
+     */
+    public int getArgCount() {
+        return words.length - 1;
+    }
+
+    /**
+     * 获取第 count 个空格之后的全部文字，用于参数中本身带有空格的指令。
+     *
+     * @param count 跳过的空格数。
+     * @return 剩余的文字，空格数不足时返回null。
+     */
+    public String getTextAfterSpaces(int count) {
+        int index = -1;
+        for (int i = 0; i < count; i++) {
+            index = content.indexOf(' ', index + 1);
+            if (index < 0) {
+                return null;
+            }
+        }
+        return content.substring(index + 1);
+    }
+
+    /**
+     * 第一张图片。
+     *
+     * @return 图片，没有图片时返回null。
+     */
+    public Image getFirstImage() {
+        return images.isEmpty() ? null : images.get(0);
+    }
+}
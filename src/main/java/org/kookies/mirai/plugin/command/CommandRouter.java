@@ -0,0 +1,211 @@
+package org.kookies.mirai.plugin.command;
+
+import net.mamoe.mirai.message.data.At;
+import net.mamoe.mirai.message.data.MessageChainBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kookies.mirai.commen.annotation.Command;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
+import org.kookies.mirai.commen.utils.MetricsRegistry;
+import org.kookies.mirai.plugin.auth.RateLimiter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 群指令路由。
+ * <p>
+ * 注册时扫描对象上带有 @Command 注解的方法，按匹配方式放入不同的索引：
+ * 首词指令放入前缀树，后缀指令按倒序放入另一棵前缀树，文字段指令放入哈希表。
+ * 匹配时沿前缀树逐字查找，第一个字不是任何指令的开头时立即结束，普通聊天消息只需要一次查表。
+ *
+ * @author General_K1ng
+ */
+public class CommandRouter {
+    private static final Log log = LogFactory.getLog(CommandRouter.class);
+
+    private final Node wordRoot = new Node();
+
+    private final Node suffixRoot = new Node();
+
+    private final Map<String, Handler> segmentHandlers = new HashMap<>();
+
+    /**
+     * 注册对象上所有带有 @Command 注解的方法。
+     *
+     * @param target 提供指令处理方法的对象。
+     * @throws IllegalStateException 如果处理方法的签名不正确或指令重复注册。
+     */
+    public void register(Object target) {
+        for (Method method : target.getClass().getMethods()) {
+            Command command = method.getAnnotation(Command.class);
+            if (command == null) {
+                continue;
+            }
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+                    || method.getParameterTypes()[0] != CommandContext.class) {
+                throw new IllegalStateException("Command handler must take a single CommandContext: " + method);
+            }
+
+            Handler handler = new Handler(command, target, method);
+            switch (command.match()) {
+                case WORD:
+                    insert(wordRoot, command.value(), handler);
+                    break;
+                case SUFFIX:
+                    insert(suffixRoot, new StringBuilder(command.value()).reverse().toString(), handler);
+                    break;
+                case SEGMENT:
+                    if (segmentHandlers.putIfAbsent(command.value(), handler) != null) {
+                        throw new IllegalStateException("Duplicate command: " + command.value());
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 匹配并执行指令。
+     *
+     * @param context 指令上下文。
+     * @return 如果消息是指令则返回true，否则返回false。
+     */
+    public boolean dispatch(CommandContext context) {
+        Handler handler = match(context);
+        if (handler == null) {
+            return false;
+        }
+        if (isRateLimited(handler, context)) {
+            return true;
+        }
+
+        log.info(handler.command.value() + ", 调用者：" + context.getSenderName());
+        long start = System.nanoTime();
+        try {
+            handler.method.invoke(handler.target, context);
+        } catch (InvocationTargetException e) {
+            MetricsRegistry.increment(MetricsConstant.COMMAND_ERRORS, "command", handler.command.value());
+            // 还原处理方法抛出的异常，交给上层统一处理
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            MetricsRegistry.recordSince(MetricsConstant.COMMAND_SECONDS, start, "command", handler.command.value());
+        }
+        return true;
+    }
+
+    /**
+     * 查找消息对应的处理方法，依次尝试文字段、首词和后缀指令。
+     *
+     * @param context 指令上下文。
+     * @return 处理方法，消息不是指令时返回null。
+     */
+    private Handler match(CommandContext context) {
+        if (!segmentHandlers.isEmpty()) {
+            for (String text : context.getPlainTexts()) {
+                Handler handler = segmentHandlers.get(text);
+                if (handler != null) {
+                    return handler;
+                }
+            }
+        }
+
+        String first = context.getWords()[0];
+        if (first.isEmpty()) {
+            return null;
+        }
+
+        // 首词必须完整匹配一个指令
+        Node node = wordRoot;
+        for (int i = 0; i < first.length() && node != null; i++) {
+            node = node.children.get(first.charAt(i));
+        }
+        if (node != null && node.handler != null) {
+            return node.handler;
+        }
+
+        // 从首词末尾倒着匹配，取最长的后缀，且指令前面至少还有一个字
+        node = suffixRoot;
+        Handler longest = null;
+        for (int i = first.length() - 1; i > 0; i--) {
+            node = node.children.get(first.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.handler != null) {
+                longest = node.handler;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * 检查指令是否被限流，被限流时直接回复用户，不再调用处理方法。
+     *
+     * @param handler 处理方法。
+     * @param context 指令上下文。
+     * @return 如果被限流则返回true，否则返回false。
+     */
+    private boolean isRateLimited(Handler handler, CommandContext context) {
+        for (RateLimitCommand rateLimit : handler.command.rateLimit()) {
+            RateLimiter.Decision decision = RateLimiter.tryAcquire(rateLimit, context.getSenderId(), context.getGroup().getId());
+            if (decision == RateLimiter.Decision.ALLOWED) {
+                continue;
+            }
+            log.info(handler.command.value() + " 被限流, 调用者：" + context.getSenderName() + " " + decision);
+            String reply = decision == RateLimiter.Decision.USER_LIMITED
+                    ? MsgConstant.USER_RATE_LIMITED : MsgConstant.GROUP_RATE_LIMITED;
+            context.getGroup().sendMessage(new MessageChainBuilder()
+                    .append(new At(context.getSenderId()))
+                    .append(" ")
+                    .append(reply)
+                    .build());
+            return true;
+        }
+        return false;
+    }
+
+    private static void insert(Node root, String key, Handler handler) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        if (node.handler != null) {
+            throw new IllegalStateException("Duplicate command: " + handler.command.value());
+        }
+        node.handler = handler;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+
+        private Handler handler;
+    }
+
+    private static class Handler {
+        private final Command command;
+
+        private final Object target;
+
+        private final Method method;
+
+        private Handler(Command command, Object target, Method method) {
+            this.command = command;
+            this.target = target;
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.kookies.mirai.plugin.service;
+
+import net.mamoe.mirai.contact.Group;
+
+/**
+ * @author General_K1ng
+ */
+public interface AdminService {
+    /**
+     * 查看机器人运行状态，只有管理员可以使用
+     *
+     * @param sender 发送者
+     * @param group  群
+     */
+    void status(long sender, Group group);
+}
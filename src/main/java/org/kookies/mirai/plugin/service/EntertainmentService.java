@@ -63,6 +63,22 @@ public interface EntertainmentService {
      */
     void weekWord(long id, Group group);
 
+    /**
+     * 本月词云
+     *
+     * @param id 发送者
+     * @param group 群
+     */
+    void monthWord(long id, Group group);
+
+    /**
+     * 年度词云
+     *
+     * @param id 发送者
+     * @param group 群
+     */
+    void yearWord(long id, Group group);
+
     /**
      * 词频统计
      *
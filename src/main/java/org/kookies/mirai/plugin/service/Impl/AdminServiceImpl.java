@@ -0,0 +1,118 @@
+package org.kookies.mirai.plugin.service.Impl;
+
+import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.message.data.PlainText;
+import org.kookies.mirai.commen.annotation.Command;
+import org.kookies.mirai.commen.constant.MetricsConstant;
+import org.kookies.mirai.commen.constant.MsgConstant;
+import org.kookies.mirai.commen.info.FunctionInfo;
+import org.kookies.mirai.commen.utils.CircuitBreaker;
+import org.kookies.mirai.commen.utils.HttpClientManager;
+import org.kookies.mirai.commen.utils.LlmDispatcher;
+import org.kookies.mirai.commen.utils.MetricsRegistry;
+import org.kookies.mirai.commen.utils.VoiceCache;
+import org.kookies.mirai.plugin.auth.AdmissionFilter;
+import org.kookies.mirai.plugin.auth.Permission;
+import org.kookies.mirai.plugin.auth.RateLimiter;
+import org.kookies.mirai.plugin.command.CommandContext;
+import org.kookies.mirai.plugin.service.AdminService;
+import org.kookies.mirai.pojo.dto.LlmDispatcherStatsDTO;
+import org.kookies.mirai.pojo.dto.TimerStatsDTO;
+import org.kookies.mirai.pojo.dto.VoiceCacheStatsDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author General_K1ng
+ */
+public class AdminServiceImpl implements AdminService {
+    /**
+     * 在群中发送机器人的运行状态摘要。
+     * <p>
+     * 包括消息准入和限流计数、各指令和外部接口的耗时分位数与错误数、大模型队列、缓存命中率和非关闭状态的熔断器。
+     *
+     * @param sender 发送者ID，必须是管理员。
+     * @param group 目标群组。
+     */
+    @Override
+    public void status(long sender, Group group) {
+        if (!Permission.isAdmin(sender)) {
+            group.sendMessage(MsgConstant.ADMIN_ONLY);
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Kookie 状态\n");
+        sb.append("消息：通过 ").append(AdmissionFilter.getAdmitted())
+                .append("，未启用群 ").append(AdmissionFilter.getRejectedGroup())
+                .append("，黑名单 ").append(AdmissionFilter.getRejectedBlacklist()).append('\n');
+        sb.append("限流：用户 ").append(RateLimiter.getUserRejected())
+                .append("，群 ").append(RateLimiter.getGroupRejected()).append('\n');
+
+        sb.append("指令（次数 p50/p99 毫秒 错误）：\n");
+        appendTimers(sb, MetricsConstant.COMMAND_SECONDS, MetricsConstant.COMMAND_ERRORS);
+        sb.append("外部接口（次数 p50/p99 毫秒 错误）：\n");
+        appendTimers(sb, MetricsConstant.HTTP_REQUEST_SECONDS, MetricsConstant.HTTP_REQUEST_ERRORS);
+
+        LlmDispatcherStatsDTO llmStats = LlmDispatcher.getStats();
+        sb.append("大模型队列：排队 ").append(llmStats.getQueued())
+                .append("，进行中 ").append(llmStats.getInFlight())
+                .append("，拒绝 ").append(llmStats.getRejected()).append('\n');
+
+        sb.append("缓存命中率：");
+        appendHitRatio(sb, "llm");
+        appendHitRatio(sb, "upload");
+        appendHitRatio(sb, "thumbnail");
+        VoiceCacheStatsDTO voiceStats = VoiceCache.getStats();
+        sb.append(" voice ").append(formatRatio(voiceStats.getHits(), voiceStats.getMisses())).append('\n');
+
+        for (Map.Entry<String, CircuitBreaker.State> entry : HttpClientManager.getCircuitStates().entrySet()) {
+            if (entry.getValue() != CircuitBreaker.State.CLOSED) {
+                sb.append("熔断：").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+            }
+        }
+
+        group.sendMessage(new PlainText(sb.toString().trim()));
+    }
+
+    /**
+     * 查看状态指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.KOOKIE_STATUS)
+    public void status(CommandContext context) {
+        status(context.getSenderId(), context.getGroup());
+    }
+
+    /**
+     * 追加耗时最多的几组计时器，每组一行。
+     *
+     * @param sb 状态文本。
+     * @param timerName 计时器名称。
+     * @param errorName 对应的错误计数器名称。
+     */
+    private static void appendTimers(StringBuilder sb, String timerName, String errorName) {
+        List<TimerStatsDTO> stats = MetricsRegistry.getTimerStats(timerName);
+        for (int i = 0; i < stats.size() && i < MetricsConstant.STATUS_TOP_N; i++) {
+            TimerStatsDTO timer = stats.get(i);
+            // 错误计数器和计时器使用相同的标签
+            long errors = MetricsRegistry.getCountByLabels(errorName, timer.getLabels());
+            sb.append("  ").append(timer.getLabelValues())
+                    .append(' ').append(timer.getCount()).append("次 ")
+                    .append(String.format("%.1f/%.1f", timer.getP50Millis(), timer.getP99Millis()))
+                    .append(" 错误").append(errors).append('\n');
+        }
+    }
+
+    private static void appendHitRatio(StringBuilder sb, String cache) {
+        long hits = MetricsRegistry.getCount(MetricsConstant.CACHE_REQUESTS, "cache", cache, "result", MetricsConstant.CACHE_HIT);
+        long misses = MetricsRegistry.getCount(MetricsConstant.CACHE_REQUESTS, "cache", cache, "result", MetricsConstant.CACHE_MISS);
+        sb.append(' ').append(cache).append(' ').append(formatRatio(hits, misses));
+    }
+
+    private static String formatRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? "-" : String.format("%.0f%%(%d/%d)", hits * 100.0 / total, hits, total);
+    }
+}
@@ -8,18 +8,24 @@ import net.mamoe.mirai.message.data.Image;
 import net.mamoe.mirai.message.data.MessageChain;
 import net.mamoe.mirai.message.data.MessageChainBuilder;
 import net.mamoe.mirai.message.data.PlainText;
-import net.mamoe.mirai.utils.ExternalResource;
-import okhttp3.Response;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
+import org.kookies.mirai.commen.annotation.Command;
 import org.kookies.mirai.commen.constant.GaodeAPIConstant;
 import org.kookies.mirai.commen.constant.MsgConstant;
 import org.kookies.mirai.commen.enumeration.AIRoleType;
+import org.kookies.mirai.commen.enumeration.CodeLanguageType;
+import org.kookies.mirai.commen.enumeration.CommandMatchType;
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
 import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.exceptions.RequestException;
 import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.info.FunctionInfo;
 import org.kookies.mirai.commen.utils.ApiRequester;
 import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.commen.utils.ResourceUploadCache;
 import org.kookies.mirai.plugin.auth.Permission;
+import org.kookies.mirai.plugin.command.CommandContext;
 import org.kookies.mirai.plugin.service.ConvenienceService;
 import org.kookies.mirai.pojo.dto.PoiDTO;
 import org.kookies.mirai.pojo.entity.api.request.baidu.ai.Message;
@@ -90,6 +96,18 @@ public class ConvenienceServiceImpl implements ConvenienceService {
         }
     }
 
+    /**
+     * 吃什么指令，参数为地址和可选的城市。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.EAT_WHAT)
+    public void eatWhat(CommandContext context) {
+        if (context.getArgCount() == 1 || context.getArgCount() == 2) {
+            eatWhat(context.getSenderId(), context.getGroup(), context.getArg(1), context.getArg(2));
+        }
+    }
+
     /**
      * 执行代码运行操作。
      * <p>
@@ -112,13 +130,28 @@ public class ConvenienceServiceImpl implements ConvenienceService {
             CodeRunResponse codeRunResponse = getCodeRunResponse(code, lang);
 
             List<Message> botMsg = createBotMsg(codeRunResponse, code);
-            ChatResponse chatResponse = getResponse(botMsg, sender);
+            ChatResponse chatResponse = getResponse(botMsg, sender, LlmFeatureType.CODE_RUN);
 
             sendMsg(at, group, chain, chatResponse.getResult(), codeRunResponse);
         }
 
     }
 
+    /**
+     * 代码运行指令，第一个参数是语言，其后的全部文字是代码。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(value = FunctionInfo.CODE_RUN, rateLimit = RateLimitCommand.CODE_RUN)
+    public void codeRun(CommandContext context) {
+        String code = context.getTextAfterSpaces(2);
+        if (code == null) {
+            return;
+        }
+        String lang = CodeLanguageType.getLanguageByName(context.getArg(1));
+        codeRun(context.getSenderId(), context.getGroup(), code, lang);
+    }
+
     /**
      * 发送奥运日报
      * 本函数用于向指定群组发送奥运日报信息，包括奖牌榜和比赛结果等
@@ -142,7 +175,7 @@ public class ConvenienceServiceImpl implements ConvenienceService {
         List<Message> botMsg = createBotMsg(data);
 
         // 根据机器人发送的消息内容，获取发送者可能的回应
-        ChatResponse chatResponse = getResponse(botMsg, sender);
+        ChatResponse chatResponse = getResponse(botMsg, sender, LlmFeatureType.OLYMPIC_DAILY);
 
         // 向目标群组发送消息，包括回应结果和奥运数据
         sendMsg(group, chatResponse.getResult(), data);
@@ -183,13 +216,25 @@ public class ConvenienceServiceImpl implements ConvenienceService {
 
     }
 
+    /**
+     * 这是什么指令，识别消息中的第一张图片。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(value = FunctionInfo.WHAT_IS_THAT, match = CommandMatchType.SEGMENT, rateLimit = RateLimitCommand.WHAT_IS_THAT)
+    public void whatIsThat(CommandContext context) {
+        Image image = context.getFirstImage();
+        if (image == null) {
+            return;
+        }
+        whatIsThat(context.getSenderId(), context.getGroup(), image);
+    }
+
     private static String sendImageRecAndGetTaskId(SendImageRec sendImageRec) {
-        Response response;
         JsonObject jsonObject;
 
         try {
-            response = ApiRequester.sendImageRec(sendImageRec);
-            jsonObject = GSON.fromJson(response.body().string(), JsonObject.class);
+            jsonObject = ApiRequester.sendImageRec(sendImageRec);
         } catch (IOException e) {
             throw new RequestException("whatIsThat请求失败");
         }
@@ -199,12 +244,10 @@ public class ConvenienceServiceImpl implements ConvenienceService {
 
 
     private static String getImageRecResult(String taskId) {
-        Response response;
         JsonObject jsonObject;
 
         try {
-            response = ApiRequester.getImageRecResult(taskId);
-            jsonObject = GSON.fromJson(response.body().string(), JsonObject.class);
+            jsonObject = ApiRequester.getImageRecResult(taskId);
             return jsonObject.get("result").getAsJsonObject().get("description").toString();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -224,10 +267,8 @@ public class ConvenienceServiceImpl implements ConvenienceService {
     public static List<OlympicDataResponse> getOlympicData() {
         List<OlympicDataResponse> data;
         try {
-            // 从API获取奥运数据
-            Response olympicResponse = ApiRequester.getOlympicData();
-            // 将响应体解析为JsonObject，以便提取所需数据
-            JsonObject jsonObject = GSON.fromJson(olympicResponse.body().string(), JsonObject.class);
+            // 从API获取奥运数据，响应体已解析为JsonObject，以便提取所需数据
+            JsonObject jsonObject = ApiRequester.getOlympicData();
 
             // 逐步访问JSON对象，提取出奖牌列表的前10项
             JsonArray jsonArray = jsonObject.getAsJsonObject("tplData")
@@ -433,7 +474,7 @@ public class ConvenienceServiceImpl implements ConvenienceService {
         byte[] img = getImage(poi);
 
         if (img != null) {
-            chain.append(group.uploadImage(ExternalResource.create(Objects.requireNonNull(img))));
+            chain.append(ResourceUploadCache.uploadImage(group, Objects.requireNonNull(img)));
         } else {
             chain.append(new PlainText(MsgConstant.DONT_HAVE_IMAGE));
         }
@@ -454,18 +495,11 @@ public class ConvenienceServiceImpl implements ConvenienceService {
      * @throws RuntimeException 如果在处理响应或解析JSON过程中发生IO异常，则抛出运行时异常。
      */
     private CodeRunResponse getCodeRunResponse(String code, String lang) {
-        Response codeRunResponse;
-        String json;
         try {
-            codeRunResponse = ApiRequester.getCodeRunResponse(code, lang);
-            json = codeRunResponse.body().string();
+            return ApiRequester.getCodeRunResponse(code, lang);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-
-        JsonObject jsonObject = GSON.fromJson(json, JsonObject.class);
-
-        return GSON.fromJson(jsonObject, CodeRunResponse.class);
     }
 
 
@@ -517,22 +551,13 @@ public class ConvenienceServiceImpl implements ConvenienceService {
      * @throws RequestException 如果在发送请求或解析响应时发生IO异常，则抛出请求异常。
      */
     private POIResponse getPOIResponse(AroundSearchRequestBody aroundSearchRequestBody) {
-        Response response; // 声明一个用于存储API响应的变量
-        String json;
         try {
-            // 发送围绕搜索的请求并获取响应
-            response = ApiRequester.sendAroundSearchRequest(aroundSearchRequestBody);
-            // 从响应对象中提取JSON字符串
-            json = response.body().string();
+            // 发送围绕搜索的请求，响应已解析为POIResponse对象
+            return ApiRequester.sendAroundSearchRequest(aroundSearchRequestBody);
         } catch (IOException e) {
             // 在出现IO异常时抛出请求异常
             throw new RequestException(MsgConstant.REQUEST_ERROR);
         }
-        // 将JSON字符串解析为JsonObject对象
-        JsonObject jsonObject = GSON.fromJson(json, JsonObject.class);
-
-        // 将解析后的JsonObject对象转换为POIResponse对象
-        return GSON.fromJson(jsonObject, POIResponse.class);
     }
 
 
@@ -613,17 +638,14 @@ public class ConvenienceServiceImpl implements ConvenienceService {
      * @throws RequestException 如果请求失败或地址无效，则抛出此异常。
      */
     private AddressResponse getAddressResponse(String address, String city) {
-        Response response;
-        String responseString;
+        JsonObject jsonObject;
         try {
             // 向API发送地址请求
-            response = ApiRequester.sendAddressRequest(address, city);
-            responseString = response.body().string();
+            jsonObject = ApiRequester.sendAddressRequest(address, city);
         } catch (IOException e) {
             // 处理请求过程中的IO异常
             throw new RequestException(MsgConstant.REQUEST_ERROR);
         }
-        JsonObject jsonObject = GSON.fromJson(responseString, JsonObject.class);
         JsonArray geocodesArray = jsonObject.getAsJsonArray("geocodes");
 
         // 检查返回的地理编码数组是否为空
@@ -637,14 +659,11 @@ public class ConvenienceServiceImpl implements ConvenienceService {
         return GSON.fromJson(firstGeocode, AddressResponse.class);
     }
 
-    private ChatResponse getResponse(List<Message> messages, Long sender) {
-        Response originalResponse;
+    private ChatResponse getResponse(List<Message> messages, Long sender, LlmFeatureType feature) {
         String json;
         try {
-            // 向百度API发送请求并获取原始响应
-            originalResponse = ApiRequester.sendBaiduRequest(messages, sender);
-            // 将原始响应的主体内容转换为字符串
-            json = originalResponse.body().string();
+            // 向百度API发送请求并获取响应内容，启用了缓存的功能会优先使用缓存
+            json = ApiRequester.sendBaiduRequest(messages, sender, feature);
         } catch (IOException e) {
             // 若发生IO异常，抛出自定义的请求异常
             throw new RequestException(MsgConstant.REQUEST_ERROR);
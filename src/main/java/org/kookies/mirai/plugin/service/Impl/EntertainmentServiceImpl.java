@@ -3,54 +3,54 @@ package org.kookies.mirai.plugin.service.Impl;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
-import com.kennycason.kumo.CollisionMode;
 import com.kennycason.kumo.WordCloud;
 import com.kennycason.kumo.WordFrequency;
-import com.kennycason.kumo.bg.CircleBackground;
-import com.kennycason.kumo.font.FontWeight;
-import com.kennycason.kumo.font.KumoFont;
-import com.kennycason.kumo.font.scale.SqrtFontScalar;
 import com.kennycason.kumo.nlp.FrequencyFileLoader;
-import com.kennycason.kumo.palette.ColorPalette;
 import net.mamoe.mirai.contact.Group;
 import net.mamoe.mirai.contact.Member;
 import net.mamoe.mirai.contact.NormalMember;
 import net.mamoe.mirai.message.code.MiraiCode;
 import net.mamoe.mirai.message.data.*;
 import net.mamoe.mirai.message.data.Image;
-import net.mamoe.mirai.utils.ExternalResource;
-import okhttp3.Response;
 import org.json.JSONException;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
-import org.kookies.mirai.commen.constant.LolimiApiConstant;
+import org.kookies.mirai.commen.annotation.Command;
+import org.kookies.mirai.commen.config.ConfigurationLoader;
+import org.kookies.mirai.commen.constant.MetricsConstant;
 import org.kookies.mirai.commen.constant.MsgConstant;
-import org.kookies.mirai.commen.constant.WordCloudConstant;
+import org.kookies.mirai.commen.constant.VideoConstant;
 import org.kookies.mirai.commen.enumeration.AIRoleType;
 import org.kookies.mirai.commen.enumeration.EmojiType;
+import org.kookies.mirai.commen.enumeration.ImageSourceType;
 import org.kookies.mirai.commen.enumeration.JokeType;
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
 import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.exceptions.DataWriteException;
 import org.kookies.mirai.commen.exceptions.RequestException;
 import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.info.FunctionInfo;
 import org.kookies.mirai.commen.utils.*;
 import org.kookies.mirai.plugin.auth.DuplicatePermission;
 import org.kookies.mirai.plugin.auth.Permission;
+import org.kookies.mirai.plugin.command.CommandContext;
 import org.kookies.mirai.plugin.service.EntertainmentService;
 import org.kookies.mirai.pojo.dto.EvaluateSomebodyDTO;
 import org.kookies.mirai.pojo.dto.WordStatisticsDTO;
 import org.kookies.mirai.pojo.entity.PersonalMessage;
+import org.kookies.mirai.pojo.entity.VideoConfig;
 import org.kookies.mirai.pojo.entity.api.request.baidu.ai.Message;
 import org.kookies.mirai.pojo.entity.api.response.baidu.ai.ChatResponse;
 import org.kookies.mirai.pojo.entity.api.response.joke.JokeResponse;
 import org.kookies.mirai.pojo.entity.api.response.joke.SingleResponse;
 import org.kookies.mirai.pojo.entity.api.response.joke.TwoPartResponse;
 
-import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -93,6 +93,16 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         }
     }
 
+    /**
+     * 答案之书指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.ANSWER_BOOK)
+    public void answer(CommandContext context) {
+        answer(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 评估某人在群组中的信息并发送相关评价消息。
      * @param sender 发送请求的成员
@@ -115,11 +125,25 @@ public class EntertainmentServiceImpl implements EntertainmentService {
 
             List<Message> botMsg = createEvaluateBotMsg(dto);
 
-            ChatResponse response = getResponse(botMsg, sender.getId());
+            ChatResponse response = getResponse(botMsg, sender.getId(), LlmFeatureType.EVALUATE_SOMEBODY);
             sendMsg(at, group, chain, response.getResult());
         }
     }
 
+    /**
+     * 评价一下指令，被评价者是消息中at的第一个人。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(value = FunctionInfo.EVALUATE_SOMEBODY, rateLimit = RateLimitCommand.EVALUATE_SOMEBODY)
+    public void evaluateSomebody(CommandContext context) {
+        if (context.getAtTargets().isEmpty()) {
+            return;
+        }
+        String somebody = "[mirai:at:" + context.getAtTargets().get(0) + "]";
+        evaluateSomebody(context.getSender(), context.getGroup(), somebody);
+    }
+
     /**
      * 在指定的群组中发送今日词云图。
      * <p>
@@ -144,13 +168,23 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         // 读取词云图像文件的数据，准备上传。
         byte[] imgData = getWordCloudImg(wordCloudImg);
         // 将图像数据转换为群组可发送的消息对象。
-        Image image = group.uploadImage(ExternalResource.create(Objects.requireNonNull(imgData)));
+        Image image = ResourceUploadCache.uploadImage(group, Objects.requireNonNull(imgData));
 
         // 使用消息构建器发送图像消息。
         sendMsg(chain, group, image);
 
     }
 
+    /**
+     * 今日词云指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.TODAY_WORD)
+    public void todayWord(CommandContext context) {
+        todayWord(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 给定群组中发送昨天的词云图。
      * 此方法首先验证用户是否有权限查看该群组的数据，然后生成昨天的词云图像并将其发送到指定的群组中。
@@ -176,12 +210,22 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         byte[] imgData = getWordCloudImg(wordCloudImg);
 
         // 将图像数据转换为群组可上传的Image对象
-        Image image = group.uploadImage(ExternalResource.create(Objects.requireNonNull(imgData)));
+        Image image = ResourceUploadCache.uploadImage(group, Objects.requireNonNull(imgData));
 
         // 使用消息构建器发送包含词云图像的消息到群组
         sendMsg(chain, group, image);
     }
 
+    /**
+     * 昨日词云指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.YESTERDAY_WORD)
+    public void yesterdayWord(CommandContext context) {
+        yesterdayWord(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 根据群组ID生成并发送一周热词图。
      * <p>
@@ -197,24 +241,106 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         // 断言用户是否有权限操作指定的群组。
         assert Permission.checkPermission(id, group.getId());
 
-        // 初始化消息构建器。
-        MessageChainBuilder chain = new MessageChainBuilder();
-
         // 获取一周热词计数文件。
         File weekWordCount = CacheManager.getWeekWordCountFile(group.getId());
 
+        // 生成词云并发送到群组，随后删除临时的热词计数文件。
+        sendTempWordCloud(group, weekWordCount);
+    }
+
+    /**
+     * 本周词云指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.WEEK_WORD)
+    public void weekWord(CommandContext context) {
+        weekWord(context.getSenderId(), context.getGroup());
+    }
+
+    /**
+     * 根据群组ID生成并发送本月热词图。
+     * <p>
+     * 本月的词频来自每晚汇总的月度文件和尚未汇总的每日文件，不需要读取本月所有的每日文件。
+     *
+     * @param id 用户ID，用于权限验证。
+     * @param group 目标群组对象，用于获取群组ID并发送消息。
+     */
+    @Override
+    public void monthWord(long id, Group group) {
+        // 断言用户是否有权限操作指定的群组。
+        assert Permission.checkPermission(id, group.getId());
+
+        // 获取本月热词计数文件。
+        File monthWordCount = CacheManager.getMonthWordCountFile(group.getId());
+
+        // 生成词云并发送到群组，随后删除临时的热词计数文件。
+        sendTempWordCloud(group, monthWordCount);
+    }
+
+    /**
+     * 本月词云指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.MONTH_WORD)
+    public void monthWord(CommandContext context) {
+        monthWord(context.getSenderId(), context.getGroup());
+    }
+
+    /**
+     * 根据群组ID生成并发送年度热词图。
+     * <p>
+     * 本年的词频来自每晚汇总的年度文件和尚未汇总的每日文件，不需要读取本年所有的每日文件。
+     *
+     * @param id 用户ID，用于权限验证。
+     * @param group 目标群组对象，用于获取群组ID并发送消息。
+     */
+    @Override
+    public void yearWord(long id, Group group) {
+        // 断言用户是否有权限操作指定的群组。
+        assert Permission.checkPermission(id, group.getId());
+
+        // 获取年度热词计数文件。
+        File yearWordCount = CacheManager.getYearWordCountFile(group.getId());
+
+        // 生成词云并发送到群组，随后删除临时的热词计数文件。
+        sendTempWordCloud(group, yearWordCount);
+    }
+
+    /**
+     * 年度词云指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.YEAR_WORD)
+    public void yearWord(CommandContext context) {
+        yearWord(context.getSenderId(), context.getGroup());
+    }
+
+    /**
+     * 根据临时的热词计数文件生成词云图片并发送到群组，发送前删除临时文件。
+     *
+     * @param group 目标群组对象。
+     * @param wordCount 临时的热词计数文件。
+     * @throws DataLoadException 如果删除临时文件失败，则抛出此异常。
+     */
+    private void sendTempWordCloud(Group group, File wordCount) {
+        // 初始化消息构建器。
+        MessageChainBuilder chain = new MessageChainBuilder();
+
         // 根据热词计数文件生成词云图片文件。
-        File weekWordCloudImg = generateWordCloudImgFile(weekWordCount);
+        File wordCloudImg = generateWordCloudImgFile(wordCount);
 
         // 读取词云图片数据。
-        byte[] imgData = getWordCloudImg(weekWordCloudImg);
+        byte[] imgData = getWordCloudImg(wordCloudImg);
 
         // 将图片数据转换为群组可发送的消息对象。
-        Image image = group.uploadImage(ExternalResource.create(Objects.requireNonNull(imgData)));
+        Image image = ResourceUploadCache.uploadImage(group, Objects.requireNonNull(imgData));
 
         // 如果热词计数文件存在，则尝试删除该文件。
-        if (weekWordCount.exists()) {
-            boolean isSuccess = weekWordCount.delete();
+        if (wordCount.exists()) {
+            boolean isSuccess = wordCount.delete();
             // 如果删除失败，抛出数据加载异常。
             if (!isSuccess) {
                 throw new DataLoadException(MsgConstant.CACHE_EXCEPTION);
@@ -258,12 +384,22 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         List<Message> botMsg = createWordStatBotMsg(dto);
 
         // 根据消息列表生成聊天响应，用于实际的消息发送
-        ChatResponse response = getResponse(botMsg, id);
+        ChatResponse response = getResponse(botMsg, id, LlmFeatureType.WORD_STATISTICS);
 
         // 发送统计结果到指定群组
         sendMsg(dto, group, chain, response.getResult());
     }
 
+    /**
+     * 词频统计指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.WORD_STATISTICS)
+    public void wordStatistics(CommandContext context) {
+        wordStatistics(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 允许成员在群组内执行 "fuckSomebody" 操作。
      * <p>
@@ -296,18 +432,19 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         byte[] data = null;
         try {
             switch (EmojiType.randomEmoji()) {
+                // 从预取缓冲池中取图，缓冲池为空时才会同步下载
                 case "anime":
-                    data = ApiRequester.getPhoto(LolimiApiConstant.RANDOM_EMOJI_API + "?type=动漫表情");
+                    data = ImageReservoir.take(ImageSourceType.EMOJI_ANIME);
                     break;
                 case "cheshire":
-                    data = ApiRequester.getPhoto(LolimiApiConstant.CHESHIRE_API);
+                    data = ImageReservoir.take(ImageSourceType.EMOJI_CHESHIRE);
                     break;
                 case "chiikawa":
-                    data = ApiRequester.getPhoto(LolimiApiConstant.RANDOM_EMOJI_API + "?type=小八嘎");
+                    data = ImageReservoir.take(ImageSourceType.EMOJI_CHIIKAWA);
                     break;
                 case "long":
                     if (Permission.checkLongturn(group.getId())) {
-                        data = ApiRequester.getPhoto(LolimiApiConstant.LONG_API);
+                        data = ImageReservoir.take(ImageSourceType.EMOJI_LONG);
                     }
             }
 
@@ -316,7 +453,7 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         }
 
         if (data != null) {
-            Image image = group.uploadImage(ExternalResource.create(data));
+            Image image = ResourceUploadCache.uploadImage(group, data);
             group.sendMessage(image);
         }
     }
@@ -337,22 +474,29 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         // 验证发送者是否有权限向该群组发送视频
         assert Permission.checkPermission(id, group.getId());
         // 验证是否已经发送过同样的美丽女孩视频
-        if (DuplicatePermission.checkBeautifulGirlPermission(id)) {
-            // 保存美丽的女孩视频到本地文件
+        if (DuplicatePermission.checkBeautifulGirlPermission(id, group.getId())) {
+            // 将美丽的女孩视频流式下载到本地文件
             File videoFile = saveBGVideo();
-            // 从文件中提取视频内容
-            byte[] video = getBGVideo(videoFile);
-            // 从文件中提取视频缩略图
-            byte[] thumbnail = getBGThumbnail(videoFile);
+            // 视频哈希只计算一次，缩略图缓存和上传缓存共用
+            String hash;
+            try {
+                hash = ResourceUploadCache.md5(videoFile);
+            } catch (IOException e) {
+                throw new DataWriteException(MsgConstant.RESOURCE_UPLOAD_ERROR);
+            }
+            // 视频未上传过时在后台提取缩略图，与发送提示消息同时进行；已上传过时不需要解码
+            Future<byte[]> thumbnail = ResourceUploadCache.isShortVideoCached(group, hash)
+                    ? null : VideoThumbTaker.takeThumbnailAsync(videoFile, hash);
 
             // 向群组发送消息，通知成员视频正在获取中
             group.sendMessage("正在获取，请稍后...");
 
-            // 将视频和缩略图上传到群组，创建一个短视频对象
-            ShortVideo shortVideo = group.uploadShortVideo(
-                    ExternalResource.create(Objects.requireNonNull(thumbnail)),
-                    ExternalResource.create(Objects.requireNonNull(video)),
-                    videoFile.getName());
+            // 将视频和缩略图上传到群组，创建一个短视频对象；缓存在此期间过期时才同步提取缩略图
+            ShortVideo shortVideo = ResourceUploadCache.uploadShortVideo(group,
+                    () -> thumbnail == null ? VideoThumbTaker.takeThumbnail(videoFile, hash) : VideoThumbTaker.await(thumbnail),
+                    videoFile,
+                    videoFile.getName(),
+                    hash);
 
             // 向群组发送上传成功的短视频
             group.sendMessage(shortVideo);
@@ -361,6 +505,16 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         }
     }
 
+    /**
+     * 美女视频指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.BEAUTIFUL_GIRL)
+    public void beautifulGirl(CommandContext context) {
+        beautifulGirl(context.getSenderId(), context.getGroup());
+    }
+
 
     /**
      * 发送地狱笑话到指定群组。
@@ -377,7 +531,7 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         assert Permission.checkPermission(id, group.getId());
         String response;
         try {
-            response = Objects.requireNonNull(ApiRequester.getDarkJoke().body()).string();
+            response = ApiRequester.getDarkJoke();
         } catch (IOException e) {
             // 如果在请求过程中发生IO异常，抛出自定义的RequestException异常。
             throw new RequestException(MsgConstant.JOKE_REQUEST_ERROR);
@@ -389,6 +543,16 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         handleJokeResponse(jokeResponse, group);
     }
 
+    /**
+     * 地狱笑话指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.DARK_JOKE)
+    public void darkJoke(CommandContext context) {
+        darkJoke(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 根据一周内单词出现的次数生成单词统计信息。
      * <p>
@@ -420,60 +584,56 @@ public class EntertainmentServiceImpl implements EntertainmentService {
     }
 
 
-    /**
-     * 获取背景视频数据。
-     * <p>
-     * 通过此方法，从指定的文件路径中读取视频数据，以字节数组的形式返回。
-     * 如果在读取文件过程中发生IO异常，将抛出自定义的数据加载异常。
-     *
-     * @param videoFile 背景视频的文件对象，用于获取视频文件的路径。
-     * @return 返回读取到的背景视频的字节数组。
-     * @throws DataLoadException 如果在读取视频文件时发生IO异常，则抛出此异常。
-     */
-    private byte[] getBGVideo(File videoFile) {
-        try {
-            // 尝试从文件路径中读取字节数据。
-            return FileManager.readByteFile(videoFile.getPath());
-        } catch (IOException e) {
-            // 在发生IO异常时，抛出自定义的数据加载异常。
-            throw new DataLoadException(MsgConstant.BEAUTIFUL_GIRL_VIDEO_GET_ERROR);
-        }
-    }
-
-
     /**
      * 下载并保存美女视频。
      * <p>
-     * 该方法尝试从一个远程API获取一段美女视频，并将其保存到应用的数据目录中。
+     * 该方法从远程API流式下载一段美女视频到应用的数据目录中，超过配置的大小上限时中止下载。
+     * 下载过程中使用临时文件名，完成后再重命名，清理任务不会把下载中的文件当作完整视频。
      * 如果保存成功，方法将返回保存视频的文件对象；如果保存失败，将抛出一个请求异常。
      *
      * @return File 保存视频的文件对象。
-     * @throws RequestException 如果保存视频时发生IO异常。
+     * @throws RequestException 如果下载或保存视频时发生IO异常。
      */
     private File saveBGVideo() {
-        try {
-            // 从API请求美女视频数据
-            byte[] video = ApiRequester.getBeautifulGirlVideo();
-            File videoDir = new File(DataPathInfo.BEAUTIFUL_GIRL_VIDEO_PATH);
-
-            if (!videoDir.exists()) {
-                boolean isSuccess = videoDir.mkdirs();
-                if (!isSuccess) {
-                    throw new DataLoadException(MsgConstant.BEAUTIFUL_GIRL_VIDEO_SAVE_ERROR);
-                }
+        File videoDir = new File(DataPathInfo.BEAUTIFUL_GIRL_VIDEO_PATH);
+        if (!videoDir.exists()) {
+            boolean isSuccess = videoDir.mkdirs();
+            if (!isSuccess) {
+                throw new DataLoadException(MsgConstant.BEAUTIFUL_GIRL_VIDEO_SAVE_ERROR);
             }
-            // 生成一个唯一的文件名，以避免文件覆盖
-            File videoFile = new File(videoDir, UUID.randomUUID() + ".mp4");
+        }
 
-            // 将视频数据保存到文件系统中
-            FileManager.saveFile(video, videoFile);
+        // 生成一个唯一的文件名，以避免文件覆盖
+        String name = UUID.randomUUID().toString();
+        File partFile = new File(videoDir, name + VideoConstant.PART_FILE_EXT);
+        File videoFile = new File(videoDir, name + VideoConstant.VIDEO_FILE_EXT);
+        try {
+            // 从API流式下载美女视频数据到临时文件
+            ApiRequester.downloadBeautifulGirlVideo(partFile, getMaxVideoBytes());
+            if (!partFile.renameTo(videoFile)) {
+                throw new IOException("Rename failed: " + partFile);
+            }
             return videoFile;
         } catch (IOException e) {
-            // 如果在保存过程中发生IO异常，抛出一个自定义的请求异常
+            // 如果在保存过程中发生IO异常，删除不完整的文件并抛出一个自定义的请求异常
+            partFile.delete();
             throw new RequestException(MsgConstant.BEAUTIFUL_GIRL_VIDEO_SAVE_ERROR);
         }
     }
 
+    /**
+     * 获取单个视频的下载大小上限。
+     *
+     * @return 视频大小上限（字节）。
+     */
+    private long getMaxVideoBytes() {
+        VideoConfig videoConfig = ConfigurationLoader.getConfig().getVideoConfig();
+        if (videoConfig == null || videoConfig.getMaxDownloadBytes() == null) {
+            return VideoConstant.DEFAULT_MAX_DOWNLOAD_BYTES;
+        }
+        return videoConfig.getMaxDownloadBytes();
+    }
+
     /**
      * 通过 API 请求获取 "fuck somebody" 消息。
      * <p>
@@ -491,40 +651,6 @@ public class EntertainmentServiceImpl implements EntertainmentService {
     }
 
 
-    /**
-     * 获取视频的背景缩略图。
-     * <p>
-     * 该方法尝试从指定的视频文件中提取一帧作为背景缩略图。它首先创建一个临时文件来存储提取的帧，
-     * 然后将该帧转换为字节数组以供使用，最后删除临时文件。
-     * 如果在提取帧的过程中发生I/O错误，将抛出一个自定义的异常。
-     *
-     * @param videoFile 视频文件，从中提取背景缩略图。
-     * @return 背景缩略图的字节数组。
-     * @throws DataLoadException 如果提取视频帧时发生I/O错误，则抛出此异常。
-     */
-    private byte[] getBGThumbnail(File videoFile) {
-        try {
-            // 创建一个临时文件来存储视频的背景缩略图。
-            File tempThumbFile = new File(DataPathInfo.CONFIG_DIR_PATH, "tempThumb.jpg");
-            // 调用VideoThumbTaker类的方法提取视频的第一帧并保存到临时文件中。
-            VideoThumbTaker.fetchFrame(videoFile.getPath(), tempThumbFile.getPath());
-            // 读取临时文件中的缩略图数据到字节数组。
-            byte[] imgData = FileManager.readByteFile(tempThumbFile.getPath());
-            // 删除不再需要的临时文件。
-            if (tempThumbFile.exists()) {
-                boolean delete = tempThumbFile.delete();
-                if (!delete) {
-                    throw new DataWriteException(MsgConstant.TEMP_THUMB_DELETE_ERROR);
-                }
-            }
-            // 返回缩略图的字节数组。
-            return imgData;
-        } catch (IOException e) {
-            // 如果发生I/O错误，抛出自定义的异常。
-            throw new DataLoadException(MsgConstant.VIDEO_THUMB_TAKE_ERROR);
-        }
-    }
-
     /**
      * 处理笑话响应。
      * <p>
@@ -713,15 +839,16 @@ public class EntertainmentServiceImpl implements EntertainmentService {
      * @return 返回保存词云图像的文件对象。
      */
     private static File generateWordCloudImgFile(File wordCount) {
+        long start = System.nanoTime();
         // 加载词频数据，为词云生成准备必要的信息。
         List<WordFrequency> wordFrequencies = loadWordFrequencies(wordCount);
-        // 创建词云对象，配置词云的样式、布局等。
-        WordCloud wordCloud = generateWordCloud();
-        // 基于加载的词频数据，构建词云对象。
-        wordCloud.build(wordFrequencies);
+        // 按预定义的样式和布局渲染词云。
+        WordCloud wordCloud = WordCloudRenderer.render(wordFrequencies);
 
         // 保存词云图像文件。
-        return saveWordCloud(wordCloud);
+        File wordCloudImg = saveWordCloud(wordCloud);
+        MetricsRegistry.recordSince(MetricsConstant.WORD_CLOUD_RENDER_SECONDS, start);
+        return wordCloudImg;
     }
 
 
@@ -745,31 +872,6 @@ public class EntertainmentServiceImpl implements EntertainmentService {
         return wordCloudImg;
     }
 
-    /**
-     * 生成词云实例。
-     * <p>
-     * 此方法根据预定义的常量初始化并配置词云实例，包括词云的大小、内边距、颜色调色板、背景形状及字体大小缩放规则。
-     * 目的是创建一个具有特定视觉效果和布局规则的词云，以便进一步处理和渲染词语数据。
-     *
-     * @return WordCloud 返回已配置的词云实例。
-     */
-    private static WordCloud generateWordCloud() {
-        Dimension dimension = new Dimension(WordCloudConstant.IMAGE_WIDTH, WordCloudConstant.IMAGE_HEIGHT);
-        WordCloud wordCloud = new WordCloud(dimension, CollisionMode.PIXEL_PERFECT);
-
-        ColorManager colorManager = new ColorManager();
-        Color bkgColor = colorManager.generateBkgColor();
-        Color[] colorPalette = colorManager.generateTextColor(bkgColor);
-
-        wordCloud.setPadding(WordCloudConstant.PADDING);
-        wordCloud.setColorPalette(new ColorPalette(colorPalette));
-        wordCloud.setBackground(new CircleBackground(WordCloudConstant.BACKGROUND_RADIUS));
-        wordCloud.setKumoFont(new KumoFont(WordCloudConstant.randomFont(), FontWeight.PLAIN));
-        wordCloud.setFontScalar(new SqrtFontScalar(WordCloudConstant.FONT_SCALAR_MIN, WordCloudConstant.FONT_SCALAR_MAX));
-        wordCloud.setBackgroundColor(bkgColor);
-        return wordCloud;
-    }
-
     /**
      * 加载单词频率列表。
      * <p>
@@ -916,17 +1018,15 @@ public class EntertainmentServiceImpl implements EntertainmentService {
      *
      * @param messages 用户向机器人发送的消息列表。
      * @param sender   发送请求的用户ID。
+     * @param feature  调用大模型的功能类型，用于判断是否使用响应缓存。
      * @return ChatResponse 从百度API获取的聊天响应对象，包含具体的响应内容。
      * @throws RequestException 如果请求过程中发生IO异常，则抛出请求异常。
      */
-    private ChatResponse getResponse(List<Message> messages, Long sender) {
-        Response originalResponse;
+    private ChatResponse getResponse(List<Message> messages, Long sender, LlmFeatureType feature) {
         String json;
         try {
-            // 向百度API发送请求并获取原始响应
-            originalResponse = ApiRequester.sendBaiduRequest(messages, sender);
-            // 将原始响应的主体内容转换为字符串
-            json = originalResponse.body().string();
+            // 向百度API发送请求并获取响应内容，启用了缓存的功能会优先使用缓存
+            json = ApiRequester.sendBaiduRequest(messages, sender, feature);
         } catch (IOException e) {
             // 若发生IO异常，抛出自定义的请求异常
             throw new RequestException(MsgConstant.REQUEST_ERROR);
@@ -8,20 +8,23 @@ import net.mamoe.mirai.message.data.Image;
 import net.mamoe.mirai.message.data.MessageChain;
 import net.mamoe.mirai.message.data.MessageChainBuilder;
 import net.mamoe.mirai.message.data.PlainText;
-import net.mamoe.mirai.utils.ExternalResource;
-import okhttp3.Response;
 import org.kookies.mirai.commen.adapter.LocalDateAdapter;
-import org.kookies.mirai.commen.constant.LiuLiApiConstant;
+import org.kookies.mirai.commen.annotation.Command;
 import org.kookies.mirai.commen.constant.MsgConstant;
-import org.kookies.mirai.commen.constant.WeiMengApiConstant;
 import org.kookies.mirai.commen.enumeration.AIRoleType;
+import org.kookies.mirai.commen.enumeration.ImageSourceType;
+import org.kookies.mirai.commen.enumeration.LlmFeatureType;
 import org.kookies.mirai.commen.exceptions.DataLoadException;
 import org.kookies.mirai.commen.exceptions.RequestException;
 import org.kookies.mirai.commen.info.DataPathInfo;
+import org.kookies.mirai.commen.info.FunctionInfo;
 import org.kookies.mirai.commen.utils.ApiRequester;
 import org.kookies.mirai.commen.utils.FileManager;
+import org.kookies.mirai.commen.utils.ImageReservoir;
+import org.kookies.mirai.commen.utils.ResourceUploadCache;
 import org.kookies.mirai.plugin.auth.DuplicatePermission;
 import org.kookies.mirai.plugin.auth.Permission;
+import org.kookies.mirai.plugin.command.CommandContext;
 import org.kookies.mirai.plugin.service.SignInService;
 import org.kookies.mirai.pojo.dto.LuckDayDTO;
 import org.kookies.mirai.pojo.entity.api.response.baidu.ai.ChatResponse;
@@ -57,7 +60,7 @@ public class SignInServiceImpl implements SignInService {
 
 
         if (Permission.checkPermission(sender, group.getId())) {
-            if (DuplicatePermission.checkLuckyDayPermission(sender)) {
+            if (DuplicatePermission.checkLuckyDayPermission(sender, group.getId())) {
                 LuckDayDTO luckDayDTO = LuckDayDTO.builder()
                         .sender(sender)
                         .romanceFortune(random.nextInt(100))
@@ -65,7 +68,7 @@ public class SignInServiceImpl implements SignInService {
                         .wealthFortune(random.nextInt(100))
                         .build();
                 List<Message> messages = createMessages(luckDayDTO);
-                ChatResponse response = getResponse(messages, sender);
+                ChatResponse response = getResponse(messages, sender, LlmFeatureType.LUCKY_DAY);
 
                 sendMsg(at, group, chain, luckDayDTO, response.getResult());
             } else {
@@ -74,6 +77,16 @@ public class SignInServiceImpl implements SignInService {
         }
     }
 
+    /**
+     * 今日运势指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.LUCKY_TODAY)
+    public void luckyDay(CommandContext context) {
+        luckyDay(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 根据发送者和群组信息，发送今天的女友图片。
      * 此方法检查发送者是否有权限发送今天的女友图片，并且确保今天没有其他人发送过同样的图片。
@@ -91,21 +104,31 @@ public class SignInServiceImpl implements SignInService {
         // 检查发送者是否有权限发送图片
         if (Permission.checkPermission(sender, group.getId())) {
             // 检查今天发送者是否已经发送过女友图片
-            if (DuplicatePermission.checkTodayGirlFriendPermission(sender)) {
+            if (DuplicatePermission.checkTodayGirlFriendPermission(sender, group.getId())) {
                 // 从数据库中获取今天的女友图片
                 byte[] girlFriend = getTodayGirlFriend();
                 // 将图片上传到群组
-                Image image = group.uploadImage(ExternalResource.create(Objects.requireNonNull(girlFriend)));
+                Image image = ResourceUploadCache.uploadImage(group, Objects.requireNonNull(girlFriend));
                 // 构建消息链，包含AT发送者和图片信息，最后发送消息
                 sendMsg(at, group, chain, image);
             }else {
                 byte[] budGuy = getBadGuy();
-                Image image = group.uploadImage(ExternalResource.create(Objects.requireNonNull(budGuy)));
+                Image image = ResourceUploadCache.uploadImage(group, Objects.requireNonNull(budGuy));
                 sendMsg(at, group, chain, image);
             }
         }
     }
 
+    /**
+     * 今日老婆指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.TODAY_GIRL_FRIEND)
+    public void todayGirlFriend(CommandContext context) {
+        todayGirlFriend(context.getSenderId(), context.getGroup());
+    }
+
     /**
      * 摸鱼日报功能。
      * <p>
@@ -121,19 +144,30 @@ public class SignInServiceImpl implements SignInService {
         assert Permission.checkPermission(id, group.getId());
         byte[] getMessAroundDaily;
         try {
-            getMessAroundDaily = ApiRequester.getPhoto(WeiMengApiConstant.MESS_AROUND_DAILY);
+            // 摸鱼日报每天只有一张，当天已经获取过则直接使用缓存
+            getMessAroundDaily = ImageReservoir.take(ImageSourceType.MESS_AROUND_DAILY);
         } catch (IOException e) {
             throw new RequestException(MsgConstant.MESS_AROUND_DAILY_GET_ERROR);
         }
-        Image image = group.uploadImage(ExternalResource.create(getMessAroundDaily));
+        Image image = ResourceUploadCache.uploadImage(group, getMessAroundDaily);
         group.sendMessage(image);
     }
 
+    /**
+     * 摸鱼日报指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(FunctionInfo.MESS_AROUND_DAILY)
+    public void messAroundDaily(CommandContext context) {
+        messAroundDaily(context.getSenderId(), context.getGroup());
+    }
+
 
     /**
      * 获取有问题的家伙的图像数据。
      * <p>
-     * 本方法尝试通过调用ApiRequester的getBadGuyImg方法来获取特定图像数据，
+     * 本方法尝试从图片预取缓冲池中获取特定图像数据，
      * 这些图像数据用于表示或标识“有问题的家伙”。
      * 如果在获取图像数据的过程中发生IO异常，方法将捕获该异常，
      * 并抛出一个自定义的RequestException异常，以通知调用者图像获取失败。
@@ -143,8 +177,8 @@ public class SignInServiceImpl implements SignInService {
      */
     private byte[] getBadGuy() {
         try {
-            // 尝试获取有问题的家伙的图像数据。
-            return ApiRequester.getBadGuyImg();
+            // 尝试从预取缓冲池中获取有问题的家伙的图像数据。
+            return ImageReservoir.take(ImageSourceType.BAD_GUY);
         } catch (IOException e) {
             // 当发生IO异常时，抛出自定义异常。
             throw new RequestException(MsgConstant.IMAGE_GET_ERROR);
@@ -230,8 +264,8 @@ public class SignInServiceImpl implements SignInService {
      */
     private byte[] getTodayGirlFriend() {
         try {
-            // 尝试通过API请求获取今日女友图片。
-            return ApiRequester.getPhoto(LiuLiApiConstant.ANIME_URL);
+            // 尝试从预取缓冲池中获取今日女友图片。
+            return ImageReservoir.take(ImageSourceType.TODAY_GIRL);
         } catch (IOException e) {
             // 在发生IO异常时，抛出请求异常，携带预定义的错误消息。
             throw new RequestException(MsgConstant.IMAGE_GET_ERROR);
@@ -281,17 +315,15 @@ public class SignInServiceImpl implements SignInService {
      *
      * @param messages 用户向机器人发送的消息列表。
      * @param sender   发送请求的用户ID。
+     * @param feature  调用大模型的功能类型，用于判断是否使用响应缓存。
      * @return ChatResponse 从百度API获取的聊天响应对象，包含具体的响应内容。
      * @throws RequestException 如果请求过程中发生IO异常，则抛出请求异常。
      */
-    private ChatResponse getResponse(List<Message> messages, Long sender) {
-        Response originalResponse;
+    private ChatResponse getResponse(List<Message> messages, Long sender, LlmFeatureType feature) {
         String json;
         try {
-            // 向百度API发送请求并获取原始响应
-            originalResponse = ApiRequester.sendBaiduRequest(messages, sender);
-            // 将原始响应的主体内容转换为字符串
-            json = originalResponse.body().string();
+            // 向百度API发送请求并获取响应内容，启用了缓存的功能会优先使用缓存
+            json = ApiRequester.sendBaiduRequest(messages, sender, feature);
         } catch (IOException e) {
             // 若发生IO异常，抛出自定义的请求异常
             throw new RequestException(MsgConstant.REQUEST_ERROR);
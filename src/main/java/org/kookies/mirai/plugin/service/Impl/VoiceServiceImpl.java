@@ -3,14 +3,20 @@ package org.kookies.mirai.plugin.service.Impl;
 import net.mamoe.mirai.contact.Group;
 import net.mamoe.mirai.message.data.MessageChainBuilder;
 import net.mamoe.mirai.message.data.OfflineAudio;
-import net.mamoe.mirai.utils.ExternalResource;
+import org.kookies.mirai.commen.annotation.Command;
 import org.kookies.mirai.commen.constant.MsgConstant;
 import org.kookies.mirai.commen.constant.VoiceApiConstant;
+import org.kookies.mirai.commen.enumeration.CommandMatchType;
+import org.kookies.mirai.commen.enumeration.RateLimitCommand;
 import org.kookies.mirai.commen.enumeration.VoiceRoleType;
 import org.kookies.mirai.commen.exceptions.RequestException;
-import org.kookies.mirai.commen.utils.ApiRequester;
+import org.kookies.mirai.commen.info.FunctionInfo;
 import org.kookies.mirai.commen.utils.FormatConverter;
+import org.kookies.mirai.commen.utils.ResourceUploadCache;
+import org.kookies.mirai.commen.utils.VoiceCache;
+import org.kookies.mirai.commen.utils.VoiceSynthesizer;
 import org.kookies.mirai.plugin.auth.Permission;
+import org.kookies.mirai.plugin.command.CommandContext;
 import org.kookies.mirai.plugin.service.VoiceService;
 import org.kookies.mirai.pojo.entity.VoiceRole;
 
@@ -41,12 +47,25 @@ public class VoiceServiceImpl implements VoiceService {
 
             byte[] voiceByte = getVoiceByte(content, voiceRole);
             // 将合成的语音上传到群组的离线语音资源中
-            OfflineAudio offlineAudio = group.uploadAudio(ExternalResource.create(voiceByte));
+            OfflineAudio offlineAudio = ResourceUploadCache.uploadAudio(group, voiceByte);
             // 发送合成的语音到群组中
             sendVoice(group, offlineAudio);
         }
     }
 
+    /**
+     * 说一下指令。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(value = FunctionInfo.VOICE_SAY, rateLimit = RateLimitCommand.VOICE_SAY)
+    public void say(CommandContext context) {
+        if (context.getArgCount() < 1) {
+            return;
+        }
+        say(context.getSenderId(), context.getGroup(), context.getArg(1));
+    }
+
     /**
      * 根据名称获取语音角色。
      * <p>
@@ -77,6 +96,7 @@ public class VoiceServiceImpl implements VoiceService {
         // 如果用户没有指定语音角色，则使用默认方式处理
         if (voiceRole == null) {
             say(id, group, content);
+            return;
         }
 
         // 检查用户是否有权限在群组中播放语音
@@ -84,12 +104,27 @@ public class VoiceServiceImpl implements VoiceService {
             // 根据内容和语音角色生成语音数据
             byte[] voiceByte = getVoiceByte(content, voiceRole);
             // 将语音数据上传到群组的离线语音资源
-            OfflineAudio offlineAudio = group.uploadAudio(ExternalResource.create(voiceByte));
+            OfflineAudio offlineAudio = ResourceUploadCache.uploadAudio(group, voiceByte);
             // 在群组中发送并播放上传的语音
             sendVoice(group, offlineAudio);
         }
     }
 
+    /**
+     * 角色语音指令，格式为“角色名说一下 内容”。
+     *
+     * @param context 指令上下文。
+     */
+    @Command(value = FunctionInfo.VOICE_SAY, match = CommandMatchType.SUFFIX, rateLimit = RateLimitCommand.VOICE_SAY)
+    public void roleSay(CommandContext context) {
+        if (context.getArgCount() < 1) {
+            return;
+        }
+        String first = context.getWords()[0];
+        String name = first.substring(0, first.length() - FunctionInfo.VOICE_SAY.length());
+        say(context.getSenderId(), context.getGroup(), getVoiceRole(name), context.getArg(1));
+    }
+
 
     /**
      * 在指定的群组中发送离线音频消息。
@@ -108,20 +143,33 @@ public class VoiceServiceImpl implements VoiceService {
     /**
      * 将文本转换为语音字节数据。
      * <p>
-     * 本函数通过调用外部API将文本内容转换为WAV格式的语音数据，然后将WAV格式转换为AMR格式，
+     * 本函数通过调用外部API将文本内容转换为WAV格式的语音数据（长文本按标点分段并行合成后拼接），然后在进程内将WAV格式编码为SILK格式，
      * 以得到更小的文件大小和更高的传输效率。如果转换过程中发生I/O错误，将抛出自定义的RequestException异常。
+     * 相同角色和文本的语音会被缓存，命中时直接返回编码好的语音，不再请求语音合成接口。
      *
      * @param content 待转换的文本内容。
-     * @return 转换后的AMR格式语音的字节数据。
+     * @return 转换后的SILK（或回退ffmpeg时为AMR）格式语音的字节数据。
      * @throws RequestException 如果转换过程中发生I/O错误。
      */
     private byte[] getVoiceByte(String content, VoiceRole voiceRole) {
-        try {
-            // 调用外部API获取文本对应的WAV格式语音数据
-            byte[] wavByte = ApiRequester.getVoiceWithText(content, voiceRole);
+        // 先查询缓存，命中时跳过合成和转码
+        boolean cacheEnabled = VoiceCache.isEnabled();
+        if (cacheEnabled) {
+            byte[] cached = VoiceCache.get(VoiceCache.generateKey(voiceRole.getRole(), content));
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-            // 将获取的WAV格式语音数据转换为AMR格式
-            return FormatConverter.convertWavToAmr(wavByte);
+        try {
+            // 长文本分段并行合成，拼接后编码为可以上传的语音格式
+            byte[] voiceByte = VoiceSynthesizer.synthesize(content, voiceRole);
+            if (cacheEnabled) {
+                // 按实际产生语音的编码写入缓存，SILK编码失败回退到ffmpeg时的AMR不会在SILK恢复后继续命中
+                VoiceCache.put(VoiceCache.generateKey(voiceRole.getRole(), content,
+                        FormatConverter.getEncoderSignature(voiceByte)), voiceByte);
+            }
+            return voiceByte;
         } catch (IOException e) {
             // 捕获转换过程中可能发生的I/O异常，抛出自定义异常
             throw new RequestException(MsgConstant.VOICE_REQUEST_ERROR);
@@ -0,0 +1,28 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class HttpPoolStatsDTO implements Serializable {
+    // 配置档名称
+    private String profile;
+
+    // 连接池中的连接总数
+    private Integer connectionCount;
+
+    // 连接池中的空闲连接数
+    private Integer idleConnectionCount;
+
+    // 正在执行的请求数
+    private Integer runningCalls;
+
+    // 排队中的异步请求数
+    private Integer queuedCalls;
+}
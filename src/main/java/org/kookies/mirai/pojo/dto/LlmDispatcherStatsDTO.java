@@ -0,0 +1,40 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class LlmDispatcherStatsDTO implements Serializable {
+    // 当前排队中的请求数
+    private Integer queued;
+
+    // 当前进行中的请求数
+    private Integer inFlight;
+
+    // 已完成的请求数
+    private Long completed;
+
+    // 队列已满被拒绝的请求数
+    private Long rejected;
+
+    // 超过截止时间被丢弃的请求数
+    private Long shed;
+
+    // 平均排队等待时间（毫秒）
+    private Long avgQueueWaitMillis;
+
+    // 最长排队等待时间（毫秒）
+    private Long maxQueueWaitMillis;
+
+    // 平均服务时间（毫秒）
+    private Long avgServiceMillis;
+
+    // 最长服务时间（毫秒）
+    private Long maxServiceMillis;
+}
@@ -0,0 +1,37 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class RetentionReportDTO implements Serializable {
+    // 清理的群数
+    private Integer groups;
+
+    // 检查的文件数
+    private Long scannedFiles;
+
+    // 没有过期内容而跳过的文件数
+    private Long skippedFiles;
+
+    // 删除过期内容后重写的文件数
+    private Long rewrittenFiles;
+
+    // 删除的文件数
+    private Long deletedFiles;
+
+    // 压缩归档的消息天数，每个人的每一天计一次
+    private Long archivedDays;
+
+    // 释放的磁盘空间（字节）
+    private Long reclaimedBytes;
+
+    // 清理耗时（毫秒）
+    private Long elapsedMillis;
+}
@@ -0,0 +1,34 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class TimerStatsDTO implements Serializable {
+    // 指标名称
+    private String name;
+
+    // 标签，格式为 key="value",...
+    private String labels;
+
+    // 标签值，以空格分隔，用于展示
+    private String labelValues;
+
+    // 记录次数
+    private Long count;
+
+    // 中位数耗时（毫秒）
+    private Double p50Millis;
+
+    // 99分位耗时（毫秒）
+    private Double p99Millis;
+
+    // 最长耗时（毫秒）
+    private Double maxMillis;
+}
@@ -0,0 +1,31 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class TtsBackendStatsDTO implements Serializable {
+    // 后端地址
+    private String apiUrl;
+
+    // 进行中的请求数
+    private Integer outstanding;
+
+    // 当前加载的角色模型
+    private String loadedRole;
+
+    // 成功的请求数
+    private Long served;
+
+    // 失败的请求数
+    private Long failures;
+
+    // 被合并到进行中请求的次数（所有后端共享）
+    private Long coalesced;
+}
@@ -0,0 +1,31 @@
+package org.kookies.mirai.pojo.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+@Builder
+public class VoiceCacheStatsDTO implements Serializable {
+    // 缓存的语音条数
+    private Integer entries;
+
+    // 缓存占用的磁盘大小（字节）
+    private Long bytes;
+
+    // 命中次数
+    private Long hits;
+
+    // 未命中次数
+    private Long misses;
+
+    // 命中率，取值0到1
+    private Double hitRate;
+
+    // 因超出大小上限被淘汰的条数
+    private Long evictions;
+}
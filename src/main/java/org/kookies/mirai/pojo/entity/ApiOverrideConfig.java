@@ -0,0 +1,18 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class ApiOverrideConfig implements Serializable {
+    // 所有第三方接口改写到的地址，路径前会加上原主机名，为空时不改写
+    private String baseUrl;
+
+    // 按原主机名单独改写的地址，优先于 baseUrl
+    private Map<String, String> hosts;
+}
@@ -0,0 +1,26 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class AudioConfig implements Serializable {
+    // 语音编码方式，silk为进程内编码，ffmpeg为调用外部程序转换为AMR
+    private String encoder;
+
+    // 送入SILK编码器前重采样的目标采样率
+    private Integer sampleRate;
+
+    // 进程内编码失败时是否回退到ffmpeg
+    private Boolean ffmpegFallback;
+
+    // ffmpeg可执行文件路径，为空时从PATH中查找
+    private String ffmpegPath;
+
+    // ffmpeg转换超时时间（秒）
+    private Integer ffmpegTimeoutSeconds;
+}
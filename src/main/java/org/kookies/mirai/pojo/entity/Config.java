@@ -26,4 +26,49 @@ public class Config implements Serializable {
 
     // 启用群组
     private List<Group> enableGroupList;
+
+    // 大模型响应缓存配置
+    private LlmCacheConfig llmCacheConfig;
+
+    // 大模型请求调度配置
+    private LlmDispatcherConfig llmDispatcherConfig;
+
+    // 第三方接口熔断、隔离与重试配置
+    private ResilienceConfig resilienceConfig;
+
+    // 随机图片预取配置
+    private ImageReservoirConfig imageReservoirConfig;
+
+    // 已上传资源缓存配置
+    private UploadCacheConfig uploadCacheConfig;
+
+    // 图片转码配置
+    private ImagePipelineConfig imagePipelineConfig;
+
+    // 语音编码配置
+    private AudioConfig audioConfig;
+
+    // 合成语音缓存配置
+    private VoiceCacheConfig voiceCacheConfig;
+
+    // 分段语音合成配置
+    private VoiceSynthesisConfig voiceSynthesisConfig;
+
+    // 视频下载与保留配置
+    private VideoConfig videoConfig;
+
+    // 每日次数限制配置
+    private QuotaConfig quotaConfig;
+
+    // 指令限流配置
+    private RateLimitConfig rateLimitConfig;
+
+    // 指标接口配置
+    private MetricsConfig metricsConfig;
+
+    // 第三方接口地址改写配置，本地调试和压测时指向模拟服务器
+    private ApiOverrideConfig apiOverrideConfig;
+
+    // 数据目录的保留配置
+    private RetentionConfig retentionConfig;
 }
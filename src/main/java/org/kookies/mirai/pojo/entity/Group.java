@@ -4,6 +4,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author General_K1ng
@@ -17,4 +18,7 @@ public class Group implements Serializable {
     private List<String> tag;
 
     private boolean longturn;
+
+    // 本群的每日次数上限，覆盖 quotaConfig 中的设置，键对应 QuotaFeature 的 feature
+    private Map<String, Integer> quotaLimits;
 }
@@ -0,0 +1,26 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class ImagePipelineConfig implements Serializable {
+    // 图片最长边的像素上限，超过时缩小
+    private Integer maxDimension;
+
+    // 图片大小上限（字节），超过时重新编码
+    private Long maxBytes;
+
+    // 重新编码为JPEG时的质量，取值0到1
+    private Float jpegQuality;
+
+    // 图片处理线程数
+    private Integer threads;
+
+    // 等待处理的图片队列容量
+    private Integer queueCapacity;
+}
@@ -0,0 +1,26 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class ImageReservoirConfig implements Serializable {
+    // 每个图片来源预取的图片数量
+    private Integer capacity;
+
+    // 缓冲池中的图片少于该数量时开始异步补充
+    private Integer lowWaterMark;
+
+    // 补充图片的线程数
+    private Integer refillThreads;
+
+    // 每日图片（如摸鱼日报）上游发布新一天图片的时间，格式为 HH:mm，此前下载的图片可能还是前一天的
+    private String dailyRefreshTime;
+
+    // 每日图片还没有确认是当天的新图片时，重新向上游检查的间隔（分钟）
+    private Integer dailyRecheckMinutes;
+}
@@ -0,0 +1,24 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class LlmCacheConfig implements Serializable {
+    // 是否启用大模型响应缓存
+    private Boolean enable;
+
+    // 缓存有效期（分钟）
+    private Long ttlMinutes;
+
+    // 内存中最多缓存的条目数
+    private Integer maxMemoryEntries;
+
+    // 启用缓存的功能列表，对应 LlmFeatureType 的 feature
+    private List<String> features;
+}
@@ -0,0 +1,29 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class LlmDispatcherConfig implements Serializable {
+    // 同时进行中的大模型请求上限
+    private Integer maxInFlight;
+
+    // 每秒允许发出的请求数
+    private Double qps;
+
+    // 令牌桶容量，允许的瞬时突发请求数
+    private Integer burst;
+
+    // 等待队列容量
+    private Integer queueCapacity;
+
+    // 交互类请求的最长等待时间（秒）
+    private Long interactiveDeadlineSeconds;
+
+    // 后台类请求的最长等待时间（秒）
+    private Long backgroundDeadlineSeconds;
+}
@@ -0,0 +1,20 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class MetricsConfig implements Serializable {
+    // 是否启动Prometheus指标接口
+    private Boolean enable;
+
+    // 监听地址，默认只监听本机
+    private String host;
+
+    // 监听端口
+    private Integer port;
+}
@@ -0,0 +1,15 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class QuotaConfig implements Serializable {
+    // 各功能的每日次数上限，键对应 QuotaFeature 的 feature
+    private Map<String, Integer> limits;
+}
@@ -0,0 +1,21 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class RateLimitConfig implements Serializable {
+    // 是否启用限流
+    private Boolean enable;
+
+    // 令牌桶闲置多久后回收（分钟）
+    private Integer idleEvictMinutes;
+
+    // 各指令的限流规则，键对应 RateLimitCommand 的 command
+    private Map<String, RateLimitRule> rules;
+}
@@ -0,0 +1,23 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class RateLimitRule implements Serializable {
+    // 每个用户的令牌桶容量，即允许连续使用的次数
+    private Integer userCapacity;
+
+    // 每个用户每分钟补充的令牌数，可以是小数
+    private Double userRefillPerMinute;
+
+    // 每个群的令牌桶容量
+    private Integer groupCapacity;
+
+    // 每个群每分钟补充的令牌数，可以是小数
+    private Double groupRefillPerMinute;
+}
@@ -0,0 +1,41 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class ResilienceConfig implements Serializable {
+    // 熔断器统计的最近请求数
+    private Integer windowSize;
+
+    // 开始计算失败率所需的最少请求数
+    private Integer minimumCalls;
+
+    // 失败率阈值（百分比），超过后熔断
+    private Double failureRateThreshold;
+
+    // 慢请求比例阈值（百分比），超过后熔断
+    private Double slowCallRateThreshold;
+
+    // 熔断持续时间（秒）
+    private Long openSeconds;
+
+    // 半开状态下允许的试探请求数
+    private Integer halfOpenCalls;
+
+    // 每个主机同时进行中的请求上限
+    private Integer maxConcurrentPerHost;
+
+    // 等待并发名额的最长时间（毫秒）
+    private Long bulkheadWaitMillis;
+
+    // GET请求失败后的最大重试次数
+    private Integer maxRetries;
+
+    // 重试的基础退避时间（毫秒）
+    private Long retryBaseDelayMillis;
+}
@@ -0,0 +1,23 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class RetentionConfig implements Serializable {
+    // 个人消息的保留天数
+    private Integer messageDays;
+
+    // 每日词频文件的保留天数，不少于7天
+    private Integer wordMapDays;
+
+    // 词云图片的保留天数
+    private Integer wordCloudDays;
+
+    // 并行清理的线程数
+    private Integer threads;
+}
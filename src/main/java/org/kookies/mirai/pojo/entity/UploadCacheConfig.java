@@ -0,0 +1,17 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class UploadCacheConfig implements Serializable {
+    // 已上传资源的缓存有效期（分钟）
+    private Long ttlMinutes;
+
+    // 最多缓存的资源数
+    private Integer maxEntries;
+}
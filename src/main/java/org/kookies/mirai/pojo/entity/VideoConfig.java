@@ -0,0 +1,38 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class VideoConfig implements Serializable {
+    // 单个视频的下载大小上限（字节）
+    private Long maxDownloadBytes;
+
+    // 视频目录最多保留的文件数
+    private Integer maxFiles;
+
+    // 视频目录最多占用的磁盘大小（字节）
+    private Long maxTotalBytes;
+
+    // 视频最长保留时间（小时）
+    private Integer maxAgeHours;
+
+    // 清理任务的执行间隔（分钟）
+    private Integer retentionIntervalMinutes;
+
+    // 视频缩略图最长边的像素上限
+    private Integer thumbnailMaxDimension;
+
+    // 视频缩略图的JPEG质量，取值0到1
+    private Float thumbnailQuality;
+
+    // 内存中最多缓存的缩略图数
+    private Integer thumbnailCacheEntries;
+
+    // 缩略图提取线程数
+    private Integer thumbnailThreads;
+}
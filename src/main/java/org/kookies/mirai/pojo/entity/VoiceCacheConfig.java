@@ -0,0 +1,17 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class VoiceCacheConfig implements Serializable {
+    // 是否启用合成语音缓存
+    private Boolean enable;
+
+    // 磁盘缓存总大小上限（字节），超过时淘汰最久未使用的语音
+    private Long maxBytes;
+}
@@ -0,0 +1,26 @@
+package org.kookies.mirai.pojo.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @author General_K1ng
+ */
+@Data
+public class VoiceSynthesisConfig implements Serializable {
+    // 单条语音的文本长度上限，超出部分被截断
+    private Integer maxTextLength;
+
+    // 每个分段的文本长度上限
+    private Integer maxChunkLength;
+
+    // 同时合成的分段数
+    private Integer parallelism;
+
+    // 每个分段从开始合成起的超时时间（秒），排队等待的时间不计入
+    private Integer chunkTimeoutSeconds;
+
+    // 等待合成的分段队列容量，队列满时由发起合成的线程自己合成
+    private Integer queueCapacity;
+}
@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.List;
 
 @Data
 @Builder
@@ -12,6 +13,12 @@ public class VoiceApiConfig implements Serializable {
     // TODO 后续需要使用枚举类型，设定不同角色和语气，后面还需要改
     private String apiUrl;
 
+    // 多个推理服务地址，配置后忽略 apiUrl
+    private List<String> apiUrls;
+
+    // 角色亲和的负载容忍度，亲和后端比最空闲后端多出的进行中请求超过该值时改选最空闲的后端
+    private Integer affinitySlack;
+
     private String ref_audio_path;
 
     private String prompt_text;
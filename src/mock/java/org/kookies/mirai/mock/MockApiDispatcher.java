@@ -0,0 +1,225 @@
+package org.kookies.mirai.mock;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟服务器的请求分发器。
+ * <p>
+ * 按 {@link MockRoute} 匹配请求并返回录制的夹具，支持注入延迟和故障：
+ * <ul>
+ *     <li>每个响应延迟 latencyMillis 加上 [0, jitterMillis] 之间的随机时间；</li>
+ *     <li>按 errorRate 的概率从 errorFaults 中随机注入一种故障；</li>
+ *     <li>为单个路由设置固定故障，该路由的所有请求都返回这种故障。</li>
+ * </ul>
+ * 所有设置都可以在运行中修改，便于在测试和压测中模拟第三方接口变慢或不可用。
+ *
+ * @author General_K1ng
+ */
+public class MockApiDispatcher extends Dispatcher {
+    private static final String FIXTURE_DIR = "/fixtures/";
+
+    private final Map<MockRoute, byte[]> fixtures = new EnumMap<>(MockRoute.class);
+
+    private final Map<MockRoute, LongAdder> requests = new EnumMap<>(MockRoute.class);
+
+    private final Map<MockRoute, MockFault> routeFaults = new ConcurrentHashMap<>();
+
+    private final LongAdder injectedFaults = new LongAdder();
+
+    private volatile long latencyMillis;
+
+    private volatile long jitterMillis;
+
+    private volatile double errorRate;
+
+    private volatile List<MockFault> errorFaults = Collections.singletonList(MockFault.SERVER_ERROR);
+
+    /**
+     * 加载所有路由的夹具。
+     *
+     * @throws IOException 如果读取或生成夹具失败。
+     */
+    public MockApiDispatcher() throws IOException {
+        // 多个路由可能共用一个二进制夹具，只生成一次
+        Map<String, byte[]> loaded = new HashMap<>();
+        for (MockRoute route : MockRoute.values()) {
+            byte[] content = loaded.get(route.getFixture());
+            if (content == null) {
+                content = loadFixture(route.getFixture());
+                loaded.put(route.getFixture(), content);
+            }
+            fixtures.put(route, content);
+            requests.put(route, new LongAdder());
+        }
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        MockRoute route = MockRoute.match(url == null ? "/" : url.encodedPath());
+        requests.get(route).increment();
+
+        // 1. 按路由的固定故障或随机概率决定是否注入故障
+        MockFault fault = routeFaults.get(route);
+        if (fault == null && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            List<MockFault> faults = errorFaults;
+            fault = faults.get(ThreadLocalRandom.current().nextInt(faults.size()));
+        }
+
+        // 2. 构造响应并加上延迟
+        MockResponse response;
+        if (fault == null) {
+            response = fixture(route);
+        } else {
+            injectedFaults.increment();
+            response = fault(route, fault);
+        }
+        return delay(response);
+    }
+
+    /**
+     * 设置响应延迟。
+     *
+     * @param latencyMillis 固定延迟（毫秒）。
+     * @param jitterMillis 随机延迟上限（毫秒）。
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * 设置随机故障。
+     *
+     * @param errorRate 注入故障的概率，0 到 1 之间，0 表示不注入。
+     * @param faults 随机选择的故障类型，为空时使用 SERVER_ERROR。
+     */
+    public void setErrorRate(double errorRate, MockFault... faults) {
+        this.errorFaults = faults.length == 0
+                ? Collections.singletonList(MockFault.SERVER_ERROR)
+                : new ArrayList<>(Arrays.asList(faults));
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * 为单个路由设置固定故障。
+     *
+     * @param route 路由。
+     * @param fault 故障类型，为null时取消该路由的故障。
+     */
+    public void setRouteFault(MockRoute route, MockFault fault) {
+        if (fault == null) {
+            routeFaults.remove(route);
+        } else {
+            routeFaults.put(route, fault);
+        }
+    }
+
+    /**
+     * 取消所有故障，延迟设置不变。
+     */
+    public void clearFaults() {
+        routeFaults.clear();
+        errorRate = 0;
+    }
+
+    /**
+     * @param route 路由。
+     * @return 该路由收到的请求数。
+     */
+    public long getRequestCount(MockRoute route) {
+        return requests.get(route).sum();
+    }
+
+    /**
+     * @return 收到的请求总数。
+     */
+    public long getRequestCount() {
+        long total = 0;
+        for (LongAdder adder : requests.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return 注入故障的请求数。
+     */
+    public long getInjectedFaults() {
+        return injectedFaults.sum();
+    }
+
+    private MockResponse fixture(MockRoute route) {
+        return new MockResponse()
+                .setHeader("Content-Type", MockMedia.contentType(route.getFixture()))
+                .setBody(new Buffer().write(fixtures.get(route)));
+    }
+
+    private MockResponse fault(MockRoute route, MockFault fault) {
+        switch (fault) {
+            case TIMEOUT:
+                return new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE);
+            case DISCONNECT:
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            case MALFORMED:
+                // 只返回前一半内容，JSON无法解析，图片和语音无法解码
+                byte[] content = fixtures.get(route);
+                return new MockResponse()
+                        .setHeader("Content-Type", MockMedia.contentType(route.getFixture()))
+                        .setBody(new Buffer().write(content, 0, content.length / 2));
+            default:
+                return new MockResponse()
+                        .setResponseCode(fault.getStatus())
+                        .setHeader("Content-Type", "application/json; charset=utf-8")
+                        .setBody("{\"error\":\"" + fault.name() + "\"}");
+        }
+    }
+
+    private MockResponse delay(MockResponse response) {
+        long jitter = jitterMillis;
+        long delay = latencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        return delay > 0 ? response.setHeadersDelay(delay, TimeUnit.MILLISECONDS) : response;
+    }
+
+    /**
+     * 读取夹具，二进制夹具由 {@link MockMedia} 生成，其余从 resources/fixtures 读取。
+     */
+    private static byte[] loadFixture(String fixture) throws IOException {
+        byte[] media = MockMedia.create(fixture);
+        if (media != null) {
+            return media;
+        }
+        try (InputStream input = MockApiDispatcher.class.getResourceAsStream(FIXTURE_DIR + fixture)) {
+            if (input == null) {
+                throw new IOException("Fixture not found: " + fixture);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.kookies.mirai.mock;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 第三方接口的本地模拟服务器。
+ * <p>
+ * 在配置文件的 apiOverrideConfig.baseUrl 中填入 {@link #getBaseUrl()} 的地址后，
+ * 插件访问的所有第三方接口都会被改写到这里，由 {@link MockApiDispatcher} 返回录制的夹具。
+ * <p>
+ * 单独运行时的参数以 key=value 的形式传入：
+ * <ul>
+ *     <li>host：监听地址，默认 127.0.0.1；</li>
+ *     <li>port：监听端口，默认 18080，0 表示随机端口；</li>
+ *     <li>latency：固定延迟（毫秒），默认 0；</li>
+ *     <li>jitter：随机延迟上限（毫秒），默认 0；</li>
+ *     <li>errorRate：随机注入故障的概率，默认 0；</li>
+ *     <li>errors：随机注入的故障类型，逗号分隔，默认 SERVER_ERROR；</li>
+ *     <li>faults：路由的固定故障，格式为“路由:故障,...”，例如 BAIDU_CHAT:TIMEOUT。</li>
+ * </ul>
+ *
+ * @author General_K1ng
+ */
+public class MockApiServer implements Closeable {
+    public static final int DEFAULT_PORT = 18080;
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final MockApiDispatcher dispatcher;
+
+    public MockApiServer() throws IOException {
+        this.dispatcher = new MockApiDispatcher();
+        server.setDispatcher(dispatcher);
+    }
+
+    /**
+     * 启动服务器。
+     *
+     * @param host 监听地址。
+     * @param port 监听端口，0 表示随机端口。
+     * @throws IOException 如果端口被占用等原因导致启动失败。
+     */
+    public void start(String host, int port) throws IOException {
+        server.start(InetAddress.getByName(host), port);
+    }
+
+    /**
+     * @return 填入 apiOverrideConfig.baseUrl 的地址，如 http://127.0.0.1:18080。
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getHostName() + ":" + server.getPort();
+    }
+
+    public MockApiDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = "127.0.0.1";
+        int port = DEFAULT_PORT;
+        long latency = 0;
+        long jitter = 0;
+        double errorRate = 0;
+        List<MockFault> errors = new ArrayList<>();
+        List<String> faults = new ArrayList<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, index).trim();
+            String value = arg.substring(index + 1).trim();
+            switch (key) {
+                case "host":
+                    host = value;
+                    break;
+                case "port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "latency":
+                    latency = Long.parseLong(value);
+                    break;
+                case "jitter":
+                    jitter = Long.parseLong(value);
+                    break;
+                case "errorRate":
+                    errorRate = Double.parseDouble(value);
+                    break;
+                case "errors":
+                    for (String error : value.split(",")) {
+                        errors.add(MockFault.valueOf(error.trim()));
+                    }
+                    break;
+                case "faults":
+                    for (String fault : value.split(",")) {
+                        faults.add(fault.trim());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        MockApiServer server = new MockApiServer();
+        MockApiDispatcher dispatcher = server.getDispatcher();
+        dispatcher.setLatency(latency, jitter);
+        dispatcher.setErrorRate(errorRate, errors.toArray(new MockFault[0]));
+        for (String fault : faults) {
+            int index = fault.indexOf(':');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Expected route:fault but got: " + fault);
+            }
+            dispatcher.setRouteFault(MockRoute.valueOf(fault.substring(0, index).trim()),
+                    MockFault.valueOf(fault.substring(index + 1).trim()));
+        }
+
+        server.start(host, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // 进程退出时关闭失败不需要处理
+            }
+        }));
+        System.out.println("Mock API server listening on " + server.getBaseUrl());
+        System.out.println("Set \"apiOverrideConfig\": {\"baseUrl\": \"" + server.getBaseUrl()
+                + "\"} in ./kookies/config.json to use it, press Ctrl+C to stop");
+        Thread.currentThread().join();
+    }
+}
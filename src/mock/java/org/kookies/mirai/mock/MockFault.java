@@ -0,0 +1,30 @@
+package org.kookies.mirai.mock;
+
+import lombok.Getter;
+
+/**
+ * 模拟服务器可以注入的故障。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum MockFault {
+    // 返回500
+    SERVER_ERROR(500),
+    // 返回503
+    UNAVAILABLE(503),
+    // 返回429
+    TOO_MANY_REQUESTS(429),
+    // 接收请求后不响应，直到客户端超时
+    TIMEOUT(0),
+    // 接收请求后直接断开连接
+    DISCONNECT(0),
+    // 返回200，但响应体被截断，无法解析
+    MALFORMED(200);
+
+    private final int status;
+
+    MockFault(int status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,120 @@
+package org.kookies.mirai.mock;
+
+import org.jcodec.api.awt.AWTSequenceEncoder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 模拟服务器返回的图片、语音和视频。
+ * <p>
+ * 二进制夹具在启动时生成，不提交到仓库：图片是一张PNG，语音是一段静音WAV，
+ * 视频是一段可以被 jcodec 截取缩略图的短MP4。
+ *
+ * @author General_K1ng
+ */
+public class MockMedia {
+    private static final int IMAGE_SIZE = 240;
+
+    private static final int WAV_SAMPLE_RATE = 32000;
+
+    private static final int VIDEO_SIZE = 64;
+
+    private static final int VIDEO_FPS = 10;
+
+    /**
+     * 按夹具名称生成内容。
+     *
+     * @param fixture 以 .png、.wav 或 .mp4 结尾的夹具名称。
+     * @return 生成的内容，名称不是二进制夹具时返回null。
+     * @throws IOException 如果生成失败。
+     */
+    public static byte[] create(String fixture) throws IOException {
+        if (fixture.endsWith(".png")) {
+            return createImage();
+        }
+        if (fixture.endsWith(".wav")) {
+            return createSilentWav(500);
+        }
+        if (fixture.endsWith(".mp4")) {
+            return createVideo(1);
+        }
+        return null;
+    }
+
+    /**
+     * 按夹具名称获取响应的 Content-Type。
+     *
+     * @param fixture 夹具名称。
+     * @return Content-Type。
+     */
+    public static String contentType(String fixture) {
+        if (fixture.endsWith(".png")) {
+            return "image/png";
+        }
+        if (fixture.endsWith(".wav")) {
+            return "audio/wav";
+        }
+        if (fixture.endsWith(".mp4")) {
+            return "video/mp4";
+        }
+        if (fixture.endsWith(".json")) {
+            return "application/json; charset=utf-8";
+        }
+        return "text/plain; charset=utf-8";
+    }
+
+    private static byte[] createImage() throws IOException {
+        BufferedImage image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(255, 220, 200));
+        graphics.fillRect(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+        graphics.setColor(new Color(120, 80, 60));
+        graphics.fillOval(IMAGE_SIZE / 4, IMAGE_SIZE / 4, IMAGE_SIZE / 2, IMAGE_SIZE / 2);
+        graphics.dispose();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private static byte[] createSilentWav(int millis) {
+        int dataSize = WAV_SAMPLE_RATE * millis / 1000 * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + dataSize)
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        // PCM、单声道、16位
+        buffer.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(WAV_SAMPLE_RATE).putInt(WAV_SAMPLE_RATE * 2).putShort((short) 2).putShort((short) 16);
+        buffer.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(dataSize);
+        return buffer.array();
+    }
+
+    private static byte[] createVideo(int seconds) throws IOException {
+        File file = File.createTempFile("kookie-mock", ".mp4");
+        try {
+            AWTSequenceEncoder encoder = AWTSequenceEncoder.createSequenceEncoder(file, VIDEO_FPS);
+            for (int i = 0; i < seconds * VIDEO_FPS; i++) {
+                BufferedImage frame = new BufferedImage(VIDEO_SIZE, VIDEO_SIZE, BufferedImage.TYPE_3BYTE_BGR);
+                Graphics2D graphics = frame.createGraphics();
+                graphics.setColor(Color.getHSBColor(i / (float) (seconds * VIDEO_FPS), 0.5f, 0.9f));
+                graphics.fillRect(0, 0, VIDEO_SIZE, VIDEO_SIZE);
+                graphics.dispose();
+                encoder.encodeImage(frame);
+            }
+            encoder.finish();
+            return Files.readAllBytes(file.toPath());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.kookies.mirai.mock;
+
+import lombok.Getter;
+
+import java.util.regex.Pattern;
+
+/**
+ * 模拟服务器的接口路由。
+ * <p>
+ * 请求地址按 apiOverrideConfig.baseUrl 改写后，路径的第一段是原主机名，
+ * 这里按“/原主机名/原路径”匹配各个第三方接口，按声明顺序匹配第一个命中的路由。
+ * 以 .png、.wav、.mp4 结尾的夹具由 {@link MockMedia} 生成，其余从 resources/fixtures 读取。
+ *
+ * @author General_K1ng
+ */
+@Getter
+public enum MockRoute {
+    BAIDU_TOKEN("^/aip\\.baidubce\\.com/oauth/2\\.0/token", "baidu-token.json"),
+    BAIDU_CHAT("^/aip\\.baidubce\\.com/rpc/", "baidu-chat.json"),
+    BAIDU_IMAGE_REQUEST("^/aip\\.baidubce\\.com/rest/2\\.0/image-classify/v1/image-understanding/request", "baidu-image-request.json"),
+    BAIDU_IMAGE_RESULT("^/aip\\.baidubce\\.com/rest/2\\.0/image-classify/v1/image-understanding/get-result", "baidu-image-result.json"),
+    GAODE_GEOCODE("^/restapi\\.amap\\.com/v3/geocode/geo", "gaode-geocode.json"),
+    GAODE_AROUND("^/restapi\\.amap\\.com/v3/place/around", "gaode-around.json"),
+    RUNOOB("^/www\\.runoob\\.com/try/compile2\\.php", "runoob-compile.json"),
+    JOKE("^/v2\\.jokeapi\\.dev/joke", "jokeapi-dark.json"),
+    LOLIMI_KOUT("^/api\\.lolimi\\.cn/API/kout/", "lolimi-kout.txt"),
+    LOLIMI_VIDEO("^/api\\.lolimi\\.cn/API/xjj/", "video.mp4"),
+    LOLIMI_IMAGE("^/api\\.lolimi\\.cn/API/", "image.png"),
+    LIULI_IMAGE_SEARCH("^/jk\\.lllt\\.top/api/baidu/", "liuli-image-search.json"),
+    LIULI_ANIME("^/tk\\.illlt\\.com/", "image.png"),
+    WEIMENG("^/api\\.52vmy\\.cn/", "image.png"),
+    // 语音合成后端的地址由用户配置，只按路径结尾匹配
+    TTS("/tts$", "speech.wav"),
+    // 其余地址都是图片链接，如图搜结果和店铺照片
+    IMAGE("^/", "image.png");
+
+    private final Pattern pattern;
+
+    private final String fixture;
+
+    MockRoute(String regex, String fixture) {
+        this.pattern = Pattern.compile(regex);
+        this.fixture = fixture;
+    }
+
+    /**
+     * 查找与路径匹配的路由。
+     *
+     * @param path 改写后的请求路径。
+     * @return 第一个匹配的路由，都不匹配时返回 IMAGE。
+     */
+    public static MockRoute match(String path) {
+        for (MockRoute route : values()) {
+            if (route.pattern.matcher(path).find()) {
+                return route;
+            }
+        }
+        return IMAGE;
+    }
+}